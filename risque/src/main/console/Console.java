@@ -22,6 +22,8 @@ import java.util.Queue;
  *   gameplayer -add playername -remove playername
  *   assigncountries
  *   deploy countryID num
+ *   savegame filename
+ *   loadgame filename
  * 
  * @author Kyle
  *
@@ -43,6 +45,17 @@ public class Console implements GameObserver {
 	 * @param p_controller the controller to connect to
 	 */
 	public Console(GameEngine p_engine, Controller p_controller) {
+		this(p_engine, p_controller, true);
+	}
+	
+	/**
+	 * Constructor for the console that connects it to the engine and controller, and optionally leaves reading commands until later,
+	 * e.g. so the program can finish setting up before any command runs.
+	 * @param p_engine the game engine to connect to
+	 * @param p_controller the controller to connect to
+	 * @param p_isReadingInput whether to start reading commands straight away; if not, {@link #startInput(String...)} starts it
+	 */
+	public Console(GameEngine p_engine, Controller p_controller, boolean p_isReadingInput) {
 		setEngine(p_engine);
 		if (d_engine != null) {
 			d_engine.addObserver(this);
@@ -51,7 +64,17 @@ public class Console implements GameObserver {
 		if (d_controller != null) {
 			d_controller.setConsole(this);
 		}
-		InputHandler l_inputHandler = new InputHandler(this);
+		if (p_isReadingInput) {
+			startInput();
+		}
+	}
+	
+	/**
+	 * Starts reading commands on a thread of their own. Commands passed here run first, on that same thread, as if they had been typed in.
+	 * @param p_startupCommands Commands to run before reading any input, e.g. "loadgame file".
+	 */
+	public void startInput(String... p_startupCommands) {
+		InputHandler l_inputHandler = new InputHandler(this, p_startupCommands);
 		l_inputHandler.start();
 	}
 	
@@ -3,10 +3,17 @@ package main.console;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.lang.reflect.InvocationTargetException;
+import java.io.StringReader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedList;
+
+import main.controller.Controller;
 
 /**
  * Separate thread class to allow us to input data to the console while also receiving data.
@@ -20,33 +27,47 @@ public class InputHandler extends Thread {
 	private Console d_owner;
 	
 	/**
-	 * The list of methods retrieved from the controller.
+	 * The commands that call controller methods, built once from the controller's methods.
+	 * The key is the lower-case method name, and the value holds the method's overloads by their number of parameters.
 	 */
-	private Method[] d_controllerMethods;
+	private HashMap<String, Command[][]> d_commands;
 	
 	/**
 	 * A map of different names for methods. The key is the input command name, and the value is the name of the method to invoke.
 	 */
 	private HashMap<String, String> d_methodAliases;
 	
+	/**
+	 * Commands run when the thread starts, before any input is read.
+	 */
+	private String[] d_startupCommands;
+	
 	/**
 	 * Inits the InputHandler with an owner.
 	 * @param p_owner the new Console owner
 	 */
 	public InputHandler(Console p_owner) {
+		this(p_owner, new String[0]);
+	}
+	
+	/**
+	 * Inits the InputHandler with an owner, and commands to run when the thread starts.
+	 * @param p_owner the new Console owner
+	 * @param p_startupCommands Commands to run before any input is read, e.g. "loadgame file".
+	 */
+	public InputHandler(Console p_owner, String... p_startupCommands) {
 		setOwner(p_owner);
+		d_startupCommands = p_startupCommands;
 		d_methodAliases = new HashMap<>();
+		d_commands = new HashMap<>();
 		// TODO: transfer this to the main console class?
 		if (getOwner() != null && getOwner().getController() != null) {
-			Class l_controllerClass = d_owner.getController().getClass();
+			registerCommands(getOwner().getController());
 			// Add default method aliases.
-			if (l_controllerClass != null) {
-				d_controllerMethods = l_controllerClass.getDeclaredMethods();
-				d_methodAliases.put("assigncountries", "assignterritories");
-				d_methodAliases.put("finish", "finishorders");
-				d_methodAliases.put("editcountry", "editterritory");
-				d_methodAliases.put("editneighbor", "editneighbour");
-			}
+			d_methodAliases.put("assigncountries", "assignterritories");
+			d_methodAliases.put("finish", "finishorders");
+			d_methodAliases.put("editcountry", "editterritory");
+			d_methodAliases.put("editneighbor", "editneighbour");
 		}
 	}
 	
@@ -67,17 +88,39 @@ public class InputHandler extends Thread {
 	}
 	
 	/**
-	 * Entry point for the InputHandler. The object is deleted once this method finishes.
+	 * Entry point for the InputHandler. Runs the startup commands, then reads commands from the console.
+	 * The object is deleted once this method finishes.
 	 */
 	public void run() {
+		if (d_startupCommands.length > 0) {
+			runCommands(new BufferedReader(new StringReader(String.join("\n", d_startupCommands))));
+		}
+		runCommands(new BufferedReader(new InputStreamReader(System.in)));
+	}
+	
+	/**
+	 * Runs one command, calling the corresponding functions from the controller, e.g. from a script or a test.
+	 * @param p_input The command, e.g. "deploy 3 5".
+	 */
+	public void runCommand(String p_input) {
+		runCommands(new BufferedReader(new StringReader(p_input)));
+	}
+	
+	/**
+	 * Reads commands and runs them, until "quit" is typed in or the input ends (e.g. at the end of a script).
+	 * @param p_reader The commands, one per line.
+	 */
+	private void runCommands(BufferedReader p_reader) {
         try {
-        	BufferedReader reader = new BufferedReader(new InputStreamReader(System.in)); 
-		
 			// keep looping and reading input and converting them to function calls.
         	// So long as "quit" is not typed in.
 			String l_input = "";
 			while (!l_input.equalsIgnoreCase("quit")) {
-				l_input = reader.readLine().trim();
+				l_input = p_reader.readLine();
+				if (l_input == null) {
+					break;
+				}
+				l_input = l_input.trim();
 				
 				// calling corresponding functions from console class according to the input 
 				String[] l_splitInput = l_input.split(" ");
@@ -264,56 +307,33 @@ public class InputHandler extends Thread {
 							break;
 						
 						default:
-							// Attempt to find and call the method via reflection. Currently handles string and integer arguments.
-							boolean l_wasMethodFound = false;
-							for (Method l_method : d_controllerMethods) {
-								// If we found the method, go ahead and attempt to invoke it.
-								if (l_method.getName().equalsIgnoreCase(l_convertedInput)) {
-									l_wasMethodFound = true;
-									int l_numInputParams = l_splitInput.length - 1;
-									int l_numMethodParams = l_method.getParameterCount();
-									// Only continue if the number of parameters match.
-									if (l_numInputParams == l_numMethodParams) {
+							// Look the method up in the table of controller commands. Currently handles string and integer arguments.
+							Command[][] l_commandsByArity = d_commands.get(l_convertedInput.toLowerCase());
+							int l_numInputParams = l_splitInput.length - 1;
+							if (l_commandsByArity == null) {
+								getOwner().onAddMessage("Command \"" + l_splitInput[0] + "\" not recognized.");
+							}
+							else if (l_numInputParams >= l_commandsByArity.length || l_commandsByArity[l_numInputParams] == null) {
+								l_areParametersInvalid = true;
+							}
+							else {
+								l_areParametersInvalid = true;
+								for (Command l_command : l_commandsByArity[l_numInputParams]) {
+									Object[] l_parameters = l_command.parseArguments(l_splitInput);
+									// Only invoke the first overload the arguments can be converted for.
+									if (l_parameters != null) {
+										l_areParametersInvalid = false;
 										try {
-											// Attempt to convert the arguments to the right types.
-											LinkedList<Object> l_parameters = new LinkedList<>();
-											Class[] l_paramTypes = l_method.getParameterTypes();
-											for (int l_idx = 0; l_idx < l_paramTypes.length; l_idx++) {
-												if (l_paramTypes[l_idx].equals(String.class)) {
-													l_parameters.add(l_splitInput[l_idx + 1]);
-												}
-												if (l_paramTypes[l_idx].equals(int.class)) {
-													l_parameters.add(Integer.parseInt(l_splitInput[l_idx + 1]));
-												}
-											}
-											// Only invoke if we have the right amount of arguments.
-											if (l_parameters.size() == l_numMethodParams) {
-												l_areParametersInvalid = false;
-												l_method.invoke(getOwner().getController(), l_parameters.toArray());
-												// We found the method, so no need to check any others (even if we failed to execute it).
-												break;
-											}
-											else {
-												getOwner().onAddMessage("Command \"" + l_splitInput[0] + "\" cannot currently be used via the method reflection system. Please implement it manually.");
-											}
-										} 
-										catch (IllegalArgumentException l_exception) {
-											l_areParametersInvalid = true;
+											l_command.invoke(l_parameters);
 										}
-										catch (InvocationTargetException | IllegalAccessException l_exception) {
+										catch (IOException | RuntimeException l_exception) {
 											getOwner().onAddMessage("Exception occurred: " + l_exception.toString() + " - " + l_exception.getMessage());
 											l_exception.printStackTrace();
 										}
-									}
-									else {
-										l_areParametersInvalid = true;
+										break;
 									}
 								}
 							}
-							// If the method was not found, go ahead and note that it was not recognized.
-							if (!l_wasMethodFound) {
-								getOwner().onAddMessage("Command \"" + l_splitInput[0] + "\" not recognized.");
-							}
 					}
 					
 					if (l_areParametersInvalid) {
@@ -328,4 +348,163 @@ public class InputHandler extends Thread {
 			getOwner().onAddMessage("Terminating program due to IOException: " + l_exception.getMessage());
 		}
 	}
+	
+	/**
+	 * Builds the table of commands from the controller's public methods that take only string and integer parameters.
+	 * Each method is looked up and its argument parsers chosen once here, so running a command needs no reflection.
+	 * @param p_controller The controller the commands call.
+	 */
+	private void registerCommands(Controller p_controller) {
+		for (Method l_method : p_controller.getClass().getDeclaredMethods()) {
+			Command l_command = Command.create(p_controller, l_method);
+			if (l_command == null) {
+				continue;
+			}
+			String l_name = l_method.getName().toLowerCase();
+			int l_numParams = l_method.getParameterCount();
+			Command[][] l_commandsByArity = d_commands.get(l_name);
+			if (l_commandsByArity == null || l_commandsByArity.length <= l_numParams) {
+				l_commandsByArity = l_commandsByArity == null ? new Command[l_numParams + 1][] : Arrays.copyOf(l_commandsByArity, l_numParams + 1);
+				d_commands.put(l_name, l_commandsByArity);
+			}
+			Command[] l_overloads = l_commandsByArity[l_numParams];
+			l_overloads = l_overloads == null ? new Command[1] : Arrays.copyOf(l_overloads, l_overloads.length + 1);
+			l_overloads[l_overloads.length - 1] = l_command;
+			// Try the overloads that take the most integers first, so e.g. "negotiate 2" picks a player by ID and "negotiate Kyle" by name.
+			Arrays.sort(l_overloads, Comparator.comparingInt(Command::getNumStringParameters));
+			l_commandsByArity[l_numParams] = l_overloads;
+		}
+	}
+	
+	/**
+	 * Converts a command's argument from the text typed in.
+	 */
+	private interface ArgumentParser {
+		/**
+		 * Converts an argument.
+		 * @param p_argument The text typed in.
+		 * @return The argument.
+		 * @throws NumberFormatException if the text is not a number and a number is needed.
+		 */
+		Object parse(String p_argument);
+	}
+	
+	/**
+	 * A controller method that can be run from the console, with a parser for each of its arguments.
+	 */
+	private static final class Command {
+		/**
+		 * The method, bound to the controller, taking its arguments as an array and returning nothing.
+		 */
+		private final MethodHandle d_handle;
+		
+		/**
+		 * The parser for each of the method's arguments.
+		 */
+		private final ArgumentParser[] d_parsers;
+		
+		/**
+		 * The number of the method's parameters that are strings.
+		 */
+		private final int d_numStringParameters;
+		
+		/**
+		 * Creates a command.
+		 * @param p_handle The method, bound to the controller, taking its arguments as an array and returning nothing.
+		 * @param p_parsers The parser for each of the method's arguments.
+		 * @param p_numStringParameters The number of the method's parameters that are strings.
+		 */
+		private Command(MethodHandle p_handle, ArgumentParser[] p_parsers, int p_numStringParameters) {
+			d_handle = p_handle;
+			d_parsers = p_parsers;
+			d_numStringParameters = p_numStringParameters;
+		}
+		
+		/**
+		 * Creates a command for a controller method.
+		 * @param p_controller The controller.
+		 * @param p_method The method.
+		 * @return The command, or null if the method is not public, takes parameters other than strings and integers,
+		 * or throws checked exceptions other than IOException.
+		 */
+		static Command create(Controller p_controller, Method p_method) {
+			if (!Modifier.isPublic(p_method.getModifiers()) || Modifier.isStatic(p_method.getModifiers())) {
+				return null;
+			}
+			for (Class<?> l_exceptionType : p_method.getExceptionTypes()) {
+				if (!IOException.class.isAssignableFrom(l_exceptionType) && !RuntimeException.class.isAssignableFrom(l_exceptionType)
+						&& !Error.class.isAssignableFrom(l_exceptionType)) {
+					return null;
+				}
+			}
+			Class<?>[] l_paramTypes = p_method.getParameterTypes();
+			ArgumentParser[] l_parsers = new ArgumentParser[l_paramTypes.length];
+			int l_numStringParameters = 0;
+			for (int l_idx = 0; l_idx < l_paramTypes.length; l_idx++) {
+				if (l_paramTypes[l_idx].equals(String.class)) {
+					l_parsers[l_idx] = p_argument -> p_argument;
+					l_numStringParameters++;
+				}
+				else if (l_paramTypes[l_idx].equals(int.class)) {
+					l_parsers[l_idx] = Integer::parseInt;
+				}
+				else {
+					return null;
+				}
+			}
+			try {
+				MethodHandle l_handle = MethodHandles.publicLookup().unreflect(p_method).bindTo(p_controller)
+						.asSpreader(Object[].class, l_paramTypes.length)
+						.asType(MethodType.methodType(void.class, Object[].class));
+				return new Command(l_handle, l_parsers, l_numStringParameters);
+			}
+			catch (IllegalAccessException l_exception) {
+				return null;
+			}
+		}
+		
+		/**
+		 * Gets the number of the method's parameters that are strings.
+		 * @return The number of string parameters.
+		 */
+		int getNumStringParameters() {
+			return d_numStringParameters;
+		}
+		
+		/**
+		 * Converts the arguments typed in.
+		 * @param p_splitInput The words typed in, starting with the command's name.
+		 * @return The arguments, or null if they are not the right types.
+		 */
+		Object[] parseArguments(String[] p_splitInput) {
+			Object[] l_arguments = new Object[d_parsers.length];
+			try {
+				for (int l_idx = 0; l_idx < d_parsers.length; l_idx++) {
+					l_arguments[l_idx] = d_parsers[l_idx].parse(p_splitInput[l_idx + 1]);
+				}
+			}
+			catch (NumberFormatException l_exception) {
+				return null;
+			}
+			return l_arguments;
+		}
+		
+		/**
+		 * Calls the method.
+		 * @param p_arguments The arguments, as converted by {@link #parseArguments(String[])}.
+		 * @throws IOException if the method throws one.
+		 */
+		void invoke(Object[] p_arguments) throws IOException {
+			try {
+				d_handle.invokeExact(p_arguments);
+			}
+			catch (IOException | RuntimeException | Error l_exception) {
+				throw l_exception;
+			}
+			catch (Throwable l_exception) {
+				// Cannot happen, since only methods that throw nothing else are made into commands.
+				throw new AssertionError(l_exception);
+			}
+		}
+	}
 }
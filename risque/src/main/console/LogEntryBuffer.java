@@ -1,46 +1,229 @@
 package main.console;
 
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import main.game.GameEngine;
 import main.game.GameObserver;
 
 /**
  * An observer that exports messages to a log file.
+ *
+ * By default every message is written straight away on the game's thread. In asynchronous mode, messages go into a bounded ring buffer
+ * instead, and a background thread writes them out in batches through a buffered writer, flushing at least once a second.
+ * What happens when the game produces messages faster than they can be written depends on the {@link OverflowPolicy}.
+ *
+ * Messages can also be written to a {@link RollingLogWriter}, which splits the log into compressed segments and indexes where each turn starts.
  * @author Kyle
  *
  */
 public class LogEntryBuffer implements GameObserver {
+	/**
+	 * What to do with a message when the asynchronous buffer is full.
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * Wait until the writer makes room. Nothing is lost, but the game waits for the disk.
+		 */
+		BLOCK,
+
+		/**
+		 * Drop the new message. The log notes how many were dropped.
+		 */
+		DROP,
+
+		/**
+		 * Drop most new messages, but let one in every {@link LogEntryBuffer#SAMPLE_RATE} replace the oldest waiting message,
+		 * so the log keeps a sample of a burst rather than only its start. The log notes how many were dropped.
+		 */
+		SAMPLE
+	}
+
+	/**
+	 * The default number of messages the asynchronous buffer holds.
+	 */
+	public static final int DEFAULT_CAPACITY = 8192;
+
+	/**
+	 * While the buffer is full, one in this many messages is kept by the SAMPLE policy.
+	 */
+	public static final int SAMPLE_RATE = 16;
+
+	/**
+	 * The longest time written messages wait before being flushed to the file, in nanoseconds.
+	 */
+	private static final long FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
 	/**
 	 * The game engine we are observing.
 	 */
 	private GameEngine d_engine;
-	
+
 	/**
 	 * The log file we would like to write messages to.
 	 */
 	private String d_fileName;
-	
+
 	/**
 	 * Our writer to the log file.
 	 */
-	private FileWriter d_fileWriter;
-	
+	private Writer d_fileWriter;
+
+	/**
+	 * The rolling log we write to, if any; also our file writer.
+	 */
+	private RollingLogWriter d_rollingWriter;
+
+	/**
+	 * The asynchronous buffer: a ring of messages (Strings) and turn starts (Integers) waiting to be written, or null when writing synchronously.
+	 */
+	private Object[] d_ring;
+
+	/**
+	 * The index in the ring of the oldest waiting message.
+	 */
+	private int d_head;
+
+	/**
+	 * The number of waiting messages.
+	 */
+	private int d_size;
+
+	/**
+	 * What to do with a message when the ring is full.
+	 */
+	private OverflowPolicy d_overflowPolicy;
+
+	/**
+	 * The number of messages dropped since the last note about it was written.
+	 */
+	private long d_numDropped;
+
+	/**
+	 * The number of messages that arrived while the ring was full, which the SAMPLE policy counts to pick which to keep.
+	 */
+	private long d_numOverflowing;
+
 	/**
-	 * Default constructor: register us with the game engine.
+	 * Guards the ring and the counts above, which the game's thread and the writer thread share.
+	 */
+	private ReentrantLock d_lock;
+
+	/**
+	 * Signalled when a message is added to the ring, or when we are closing.
+	 */
+	private Condition d_notEmpty;
+
+	/**
+	 * Signalled when the writer takes messages out of the ring, or fails.
+	 */
+	private Condition d_notFull;
+
+	/**
+	 * Whether onQuit has asked the writer thread to finish.
+	 */
+	private boolean d_isClosing;
+
+	/**
+	 * Whether writing to the file has failed, after which messages are no longer wanted.
+	 */
+	private volatile boolean d_hasFailed;
+
+	/**
+	 * The thread writing the ring out to the file, if asynchronous.
+	 */
+	private Thread d_writerThread;
+
+	/**
+	 * Default constructor: register us with the game engine, and write messages synchronously to an automatically named log file.
 	 * @param p_engine The game engine.
 	 */
 	public LogEntryBuffer(GameEngine p_engine) {
+		this(p_engine, (String)null, 0, OverflowPolicy.BLOCK);
+	}
+
+	/**
+	 * Registers us with the game engine, and writes messages asynchronously to an automatically named log file.
+	 * @param p_engine The game engine.
+	 * @param p_capacity The number of messages the buffer holds.
+	 * @param p_overflowPolicy What to do with a message when the buffer is full.
+	 */
+	public LogEntryBuffer(GameEngine p_engine, int p_capacity, OverflowPolicy p_overflowPolicy) {
+		this(p_engine, (String)null, p_capacity, p_overflowPolicy);
+	}
+
+	/**
+	 * Registers us with the game engine, and opens the log file.
+	 * @param p_engine The game engine.
+	 * @param p_fileName The name of the log file, or null to name it after the current time.
+	 * @param p_capacity The number of messages the buffer holds, or 0 to write every message synchronously.
+	 * @param p_overflowPolicy What to do with a message when the buffer is full.
+	 */
+	public LogEntryBuffer(GameEngine p_engine, String p_fileName, int p_capacity, OverflowPolicy p_overflowPolicy) {
+		setUp(p_engine, p_capacity, p_overflowPolicy);
+		if (p_fileName != null) {
+			openLogFile(p_fileName);
+		}
+		else {
+			createAndOpenLogFile();
+		}
+	}
+
+	/**
+	 * Registers us with the game engine, and writes messages to a rolling log, marking the start of every turn in its index.
+	 * @param p_engine The game engine.
+	 * @param p_rollingWriter The rolling log. We close it when the game quits.
+	 * @param p_capacity The number of messages the buffer holds, or 0 to write every message synchronously.
+	 * @param p_overflowPolicy What to do with a message when the buffer is full. The start of a turn is never dropped.
+	 */
+	public LogEntryBuffer(GameEngine p_engine, RollingLogWriter p_rollingWriter, int p_capacity, OverflowPolicy p_overflowPolicy) {
+		setUp(p_engine, p_capacity, p_overflowPolicy);
+		d_rollingWriter = p_rollingWriter;
+		d_fileWriter = p_rollingWriter;
+		if (d_ring != null) {
+			startWriterThread();
+		}
+		if (p_engine != null) {
+			p_engine.addTurnListener(() -> onTurnStarted(p_engine.getTurnNumber()));
+		}
+	}
+
+	/**
+	 * Registers us with the game engine and creates the asynchronous buffer, if any.
+	 * @param p_engine The game engine.
+	 * @param p_capacity The number of messages the buffer holds, or 0 to write every message synchronously.
+	 * @param p_overflowPolicy What to do with a message when the buffer is full.
+	 */
+	private void setUp(GameEngine p_engine, int p_capacity, OverflowPolicy p_overflowPolicy) {
 		if (p_engine != null) {
 			setEngine(p_engine);
 			getEngine().addObserver(this);
 		}
-		createAndOpenLogFile();
+		d_overflowPolicy = p_overflowPolicy;
+		if (p_capacity > 0) {
+			d_ring = new Object[p_capacity];
+			d_lock = new ReentrantLock();
+			d_notEmpty = d_lock.newCondition();
+			d_notFull = d_lock.newCondition();
+		}
+	}
+
+	/**
+	 * Generates a log name from the current time, e.g. "Risque-20240101-120000".
+	 * @return The name, without an extension.
+	 */
+	public static String generateLogName() {
+		SimpleDateFormat l_formatter = new SimpleDateFormat("yyyyMMdd-HHmmss");
+		return "Risque-" + l_formatter.format(new Date());
 	}
-	
+
 	/**
 	 * Gets the game engine currently connected to this buffer.
 	 * @return the current game engine.
@@ -48,7 +231,7 @@ public class LogEntryBuffer implements GameObserver {
 	public GameEngine getEngine() {
 		return d_engine;
 	}
-	
+
 	/**
 	 * Sets the game engine.
 	 * @param p_engine the new game engine
@@ -56,16 +239,36 @@ public class LogEntryBuffer implements GameObserver {
 	public void setEngine(GameEngine p_engine) {
 		d_engine = p_engine;
 	}
-	
+
+	/**
+	 * Gets the name of the log file.
+	 * @return The file name.
+	 */
+	public String getFileName() {
+		return d_fileName;
+	}
+
 	/**
 	 * Creates a new log file with an auto-generated name and opens our file writer to edit it.
 	 */
 	public void createAndOpenLogFile() {
+		openLogFile(generateLogName() + ".log");
+	}
+
+	/**
+	 * Opens our file writer on a log file, appending to it, and starts the writer thread if we are asynchronous.
+	 * @param p_fileName The name of the log file.
+	 */
+	private void openLogFile(String p_fileName) {
 		try {
-			Date l_date = new Date();
-			SimpleDateFormat l_formatter = new SimpleDateFormat("yyyyMMdd-HHmmss");
-			d_fileName = "Risque-" + l_formatter.format(l_date) + ".log";
-			d_fileWriter = new FileWriter(d_fileName, true);
+			d_fileName = p_fileName;
+			if (d_ring != null) {
+				d_fileWriter = new BufferedWriter(new FileWriter(d_fileName, true));
+				startWriterThread();
+			}
+			else {
+				d_fileWriter = new FileWriter(d_fileName, true);
+			}
 		}
 		catch (IOException l_exception) {
 			// Silently remove us as an observer if we fail to open the writer.
@@ -76,33 +279,209 @@ public class LogEntryBuffer implements GameObserver {
 	}
 
 	/**
-	 * Writes a new message to the log.
+	 * Starts the thread writing the ring out to the file.
+	 */
+	private void startWriterThread() {
+		d_writerThread = new Thread(this::runWriter, "LogEntryBuffer writer");
+		d_writerThread.setDaemon(true);
+		d_writerThread.start();
+	}
+
+	/**
+	 * Only wants messages while the log file is open and can be written to.
+	 */
+	@Override
+	public boolean wantsMessages() {
+		return d_fileWriter != null && !d_hasFailed;
+	}
+
+	/**
+	 * Writes a new message to the log, or adds it to the buffer if we are asynchronous.
 	 */
 	@Override
 	public void onAddMessage(String p_message) {
-		if (d_fileWriter != null) {
+		if (d_fileWriter == null || d_hasFailed) {
+			return;
+		}
+		if (d_ring != null) {
+			addToRing(p_message, false);
+			return;
+		}
+		try {
+			d_fileWriter.write(p_message + '\n');
+		} catch (IOException l_exception) {
+			// Silently remove us as an observer if we get an exception.
+			if (getEngine() != null) {
+				getEngine().removeObserver(this);
+			}
+		}
+	}
+
+	/**
+	 * Marks the start of a turn in the rolling log's index, in order with the messages around it.
+	 * @param p_turn The turn number.
+	 */
+	private void onTurnStarted(int p_turn) {
+		if (d_hasFailed) {
+			return;
+		}
+		if (d_ring != null) {
+			addToRing(Integer.valueOf(p_turn), true);
+			return;
+		}
+		try {
+			d_rollingWriter.startTurn(p_turn);
+		}
+		catch (IOException l_exception) {
+			// Losing the index is not worth stopping the log for.
+		}
+	}
+
+	/**
+	 * Adds an entry to the ring for the writer thread, applying the overflow policy if it is full.
+	 * @param p_entry The entry: a message, or the number of a turn that started.
+	 * @param p_mustKeep Whether to wait for room, whatever the overflow policy.
+	 */
+	private void addToRing(Object p_entry, boolean p_mustKeep) {
+		d_lock.lock();
+		try {
+			if (d_size == d_ring.length) {
+				switch (p_mustKeep ? OverflowPolicy.BLOCK : d_overflowPolicy) {
+					case BLOCK:
+						while (d_size == d_ring.length && !d_hasFailed && !d_isClosing) {
+							d_notFull.awaitUninterruptibly();
+						}
+						if (d_size == d_ring.length) {
+							return;
+						}
+						break;
+					case SAMPLE:
+						d_numDropped++;
+						// Turn starts are never evicted; the new message is dropped instead.
+						if (d_numOverflowing++ % SAMPLE_RATE != 0 || d_ring[d_head] instanceof Integer) {
+							return;
+						}
+						// Replace the oldest waiting message.
+						d_head = (d_head + 1) % d_ring.length;
+						d_size--;
+						break;
+					default:
+						d_numDropped++;
+						return;
+				}
+			}
+			else {
+				d_numOverflowing = 0;
+			}
+			d_ring[(d_head + d_size) % d_ring.length] = p_entry;
+			d_size++;
+			if (d_size == 1) {
+				d_notEmpty.signal();
+			}
+		}
+		finally {
+			d_lock.unlock();
+		}
+	}
+
+	/**
+	 * The writer thread: takes every waiting message out of the ring at once, then writes them while the game carries on filling the ring.
+	 * Writes are flushed to the file within about a second, however busy or quiet the game is.
+	 */
+	private void runWriter() {
+		Object[] l_batch = new Object[d_ring.length];
+		long l_lastFlushTime = System.nanoTime();
+		boolean l_hasUnflushedWrites = false;
+		boolean l_isClosing = false;
+		while (!l_isClosing) {
+			int l_batchSize;
+			long l_numDropped;
+			d_lock.lock();
+			try {
+				// Wait for messages, but no longer than it takes for unflushed writes to become due.
+				long l_waitNanos = FLUSH_INTERVAL_NANOS;
+				while (d_size == 0 && !d_isClosing && l_waitNanos > 0) {
+					l_waitNanos = d_notEmpty.awaitNanos(l_hasUnflushedWrites ? l_lastFlushTime + FLUSH_INTERVAL_NANOS - System.nanoTime() : FLUSH_INTERVAL_NANOS);
+				}
+				l_batchSize = d_size;
+				for (int l_idx = 0; l_idx < l_batchSize; l_idx++) {
+					int l_ringIdx = (d_head + l_idx) % d_ring.length;
+					l_batch[l_idx] = d_ring[l_ringIdx];
+					d_ring[l_ringIdx] = null;
+				}
+				d_head = (d_head + l_batchSize) % d_ring.length;
+				d_size = 0;
+				l_numDropped = d_numDropped;
+				d_numDropped = 0;
+				l_isClosing = d_isClosing;
+				d_notFull.signalAll();
+			}
+			catch (InterruptedException l_exception) {
+				// Only onQuit stops the writer, so just carry on.
+				continue;
+			}
+			finally {
+				d_lock.unlock();
+			}
+
 			try {
-				d_fileWriter.write(p_message + '\n');
-			} catch (IOException l_exception) {
-				// Silently remove us as an observer if we get an exception.
-				if (getEngine() != null) {
-					getEngine().removeObserver(this);
+				if (l_numDropped > 0) {
+					d_fileWriter.write("[" + l_numDropped + " log messages dropped]\n");
+				}
+				for (int l_idx = 0; l_idx < l_batchSize; l_idx++) {
+					if (l_batch[l_idx] instanceof Integer) {
+						d_rollingWriter.startTurn((Integer)l_batch[l_idx]);
+					}
+					else {
+						d_fileWriter.write((String)l_batch[l_idx] + '\n');
+					}
+					l_batch[l_idx] = null;
+				}
+				l_hasUnflushedWrites |= l_batchSize > 0 || l_numDropped > 0;
+				if (l_hasUnflushedWrites && (l_isClosing || System.nanoTime() - l_lastFlushTime >= FLUSH_INTERVAL_NANOS || l_batchSize == 0)) {
+					d_fileWriter.flush();
+					l_lastFlushTime = System.nanoTime();
+					l_hasUnflushedWrites = false;
 				}
 			}
+			catch (IOException l_exception) {
+				// Stop taking messages, and release anyone waiting for room.
+				d_lock.lock();
+				try {
+					d_hasFailed = true;
+					d_notFull.signalAll();
+				}
+				finally {
+					d_lock.unlock();
+				}
+				return;
+			}
 		}
 	}
-	
+
 	/**
-	 * Close the log file upon quitting.
+	 * Close the log file upon quitting, after writing any messages still waiting.
 	 */
 	@Override
 	public void onQuit() {
 		try {
+			if (d_writerThread != null) {
+				d_lock.lock();
+				try {
+					d_isClosing = true;
+					d_notEmpty.signal();
+					d_notFull.signalAll();
+				}
+				finally {
+					d_lock.unlock();
+				}
+				d_writerThread.join();
+			}
 			if (d_fileWriter != null) {
 				d_fileWriter.close();
 			}
-		} 
-		catch (IOException l_exception) {
+		}
+		catch (IOException | InterruptedException l_exception) {
 			// Do nothing. We're exiting the program anyway.
 		}
 	}
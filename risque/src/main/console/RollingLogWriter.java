@@ -0,0 +1,335 @@
+package main.console;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a log as a series of segment files, starting a new segment once the current one reaches a size or has covered a number of turns.
+ * Closed segments are compressed with GZIP on a background thread, without slowing down the writer, and only the latest few
+ * segments are kept, so disk use stays bounded however long the program runs.
+ *
+ * Segments are named base.1.log, base.2.log and so on (base.1.log.gz once compressed). An index file, base.idx, has a line
+ * "game turn segment offset" for the start of each turn, where game counts the games in the log from 1, since turn numbers
+ * start again with every game, and offset is the byte offset within the uncompressed segment;
+ * {@link #openTurn(String, int, int)} uses it to read a log from the start of any turn of any game.
+ * Segments are only ever split between messages, as long as each message is written with a single call ending in a line break.
+ * @author Kyle
+ */
+public class RollingLogWriter extends Writer {
+	/**
+	 * The name the segment and index file names are built from.
+	 */
+	private String d_baseName;
+
+	/**
+	 * The size at which a segment is closed, in bytes, or 0 for no limit.
+	 */
+	private long d_maxSegmentBytes;
+
+	/**
+	 * The number of turns after which a segment is closed, or 0 for no limit.
+	 */
+	private int d_turnsPerSegment;
+
+	/**
+	 * The number of segments kept, including the current one, or 0 to keep them all.
+	 */
+	private int d_maxSegments;
+
+	/**
+	 * The number of the current segment, from 1.
+	 */
+	private int d_segment;
+
+	/**
+	 * The current segment file.
+	 */
+	private OutputStream d_segmentStream;
+
+	/**
+	 * The number of bytes written to the current segment.
+	 */
+	private long d_segmentBytes;
+
+	/**
+	 * The number of turns started in the current segment.
+	 */
+	private int d_segmentTurns;
+
+	/**
+	 * Whether the last character written ended a line, so a new segment can start here.
+	 */
+	private boolean d_isAtLineStart;
+
+	/**
+	 * The number of the game being logged, from 1, or 0 before the first turn.
+	 */
+	private int d_game;
+
+	/**
+	 * The number of the last turn started.
+	 */
+	private int d_lastTurn;
+
+	/**
+	 * The turn index file.
+	 */
+	private Writer d_indexWriter;
+
+	/**
+	 * Compresses closed segments, one at a time, in the order they were closed.
+	 */
+	private ExecutorService d_compressor;
+
+	/**
+	 * Opens a new rolling log that keeps all its segments, replacing any log with the same base name.
+	 * @param p_baseName The name the segment and index file names are built from, e.g. "Risque-20240101-120000".
+	 * @param p_maxSegmentBytes The size at which a segment is closed, in bytes, or 0 for no limit.
+	 * @param p_turnsPerSegment The number of turns after which a segment is closed, or 0 for no limit.
+	 * @throws IOException if the first segment or the index could not be created.
+	 */
+	public RollingLogWriter(String p_baseName, long p_maxSegmentBytes, int p_turnsPerSegment) throws IOException {
+		this(p_baseName, p_maxSegmentBytes, p_turnsPerSegment, 0);
+	}
+
+	/**
+	 * Opens a new rolling log, replacing any log with the same base name.
+	 * @param p_baseName The name the segment and index file names are built from, e.g. "Risque-20240101-120000".
+	 * @param p_maxSegmentBytes The size at which a segment is closed, in bytes, or 0 for no limit.
+	 * @param p_turnsPerSegment The number of turns after which a segment is closed, or 0 for no limit.
+	 * @param p_maxSegments The number of segments kept, including the one being written, or 0 to keep them all.
+	 * Older segments are deleted, and their turns can no longer be opened.
+	 * @throws IOException if the first segment or the index could not be created.
+	 */
+	public RollingLogWriter(String p_baseName, long p_maxSegmentBytes, int p_turnsPerSegment, int p_maxSegments) throws IOException {
+		d_baseName = p_baseName;
+		d_maxSegmentBytes = p_maxSegmentBytes;
+		d_turnsPerSegment = p_turnsPerSegment;
+		d_maxSegments = p_maxSegments;
+		d_segment = 0;
+		d_isAtLineStart = true;
+		d_game = 0;
+		d_lastTurn = 0;
+		d_indexWriter = new FileWriter(getIndexFileName(p_baseName), false);
+		d_compressor = Executors.newSingleThreadExecutor(p_task -> {
+			Thread l_thread = new Thread(p_task, "RollingLogWriter compressor");
+			l_thread.setDaemon(true);
+			return l_thread;
+		});
+		openNextSegment();
+	}
+
+	/**
+	 * Gets the name of a segment file before it is compressed.
+	 * @param p_baseName The base name of the log.
+	 * @param p_segment The number of the segment, from 1.
+	 * @return The file name.
+	 */
+	public static String getSegmentFileName(String p_baseName, int p_segment) {
+		return p_baseName + "." + p_segment + ".log";
+	}
+
+	/**
+	 * Gets the name of the turn index file.
+	 * @param p_baseName The base name of the log.
+	 * @return The file name.
+	 */
+	public static String getIndexFileName(String p_baseName) {
+		return p_baseName + ".idx";
+	}
+
+	/**
+	 * Gets the number of the segment being written.
+	 * @return The segment number, from 1.
+	 */
+	public int getSegment() {
+		return d_segment;
+	}
+
+	/**
+	 * Gets the number of the game being logged.
+	 * @return The game number, from 1, or 0 before the first turn.
+	 */
+	public int getGame() {
+		return d_game;
+	}
+
+	/**
+	 * Closes the current segment, if any, hands it to the compressor, and starts the next one.
+	 * If that leaves too many segments, the compressor then deletes the oldest.
+	 * @throws IOException if the new segment could not be created.
+	 */
+	private void openNextSegment() throws IOException {
+		if (d_segmentStream != null) {
+			d_segmentStream.close();
+			String l_closedFileName = getSegmentFileName(d_baseName, d_segment);
+			d_compressor.execute(() -> compress(l_closedFileName));
+		}
+		d_segment++;
+		if (d_maxSegments > 0 && d_segment > d_maxSegments) {
+			// Segments are compressed in order, so by the time this runs the old segment is no longer being compressed.
+			String l_oldFileName = getSegmentFileName(d_baseName, d_segment - d_maxSegments);
+			d_compressor.execute(() -> delete(l_oldFileName));
+		}
+		d_segmentStream = new BufferedOutputStream(new FileOutputStream(getSegmentFileName(d_baseName, d_segment), false));
+		d_segmentBytes = 0;
+		d_segmentTurns = 0;
+	}
+
+	/**
+	 * Compresses a closed segment to a .gz file next to it, then deletes the original.
+	 * The compressed file is written under a temporary name and renamed when complete, so a .gz file is never partly written.
+	 * If compression fails, the uncompressed segment is kept.
+	 * @param p_fileName The name of the segment file.
+	 */
+	private static void compress(String p_fileName) {
+		File l_tempFile = new File(p_fileName + ".gz.tmp");
+		try {
+			try (InputStream l_in = new FileInputStream(p_fileName);
+					OutputStream l_out = new GZIPOutputStream(new FileOutputStream(l_tempFile))) {
+				l_in.transferTo(l_out);
+			}
+			Files.move(l_tempFile.toPath(), new File(p_fileName + ".gz").toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			Files.delete(new File(p_fileName).toPath());
+		}
+		catch (IOException l_exception) {
+			// Whatever was not written yet is left uncompressed.
+			l_tempFile.delete();
+		}
+	}
+
+	/**
+	 * Deletes a segment, whether it is compressed or not.
+	 * @param p_fileName The name of the segment file before it is compressed.
+	 */
+	private static void delete(String p_fileName) {
+		try {
+			Files.deleteIfExists(new File(p_fileName + ".gz").toPath());
+			Files.deleteIfExists(new File(p_fileName).toPath());
+		}
+		catch (IOException l_exception) {
+			// The segment is left behind; the next one to be deleted does not depend on it.
+		}
+	}
+
+	/**
+	 * Records the start of a turn in the index, first starting a new segment if the current one has covered enough turns.
+	 * Everything written before this call belongs to the previous turn.
+	 * A turn that does not come after the last one starts a new game, since turn numbers start again with every game.
+	 * @param p_turn The turn number.
+	 * @throws IOException if the index or a new segment could not be written.
+	 */
+	public void startTurn(int p_turn) throws IOException {
+		if (d_turnsPerSegment > 0 && d_segmentTurns >= d_turnsPerSegment && d_isAtLineStart) {
+			openNextSegment();
+		}
+		if (d_game == 0 || p_turn <= d_lastTurn) {
+			d_game++;
+		}
+		d_lastTurn = p_turn;
+		d_segmentTurns++;
+		d_indexWriter.write(d_game + " " + p_turn + " " + d_segment + " " + d_segmentBytes + "\n");
+		d_indexWriter.flush();
+	}
+
+	@Override
+	public void write(String p_text) throws IOException {
+		if (p_text.isEmpty()) {
+			return;
+		}
+		if (d_maxSegmentBytes > 0 && d_segmentBytes >= d_maxSegmentBytes && d_isAtLineStart) {
+			openNextSegment();
+		}
+		byte[] l_bytes = p_text.getBytes(StandardCharsets.UTF_8);
+		d_segmentStream.write(l_bytes);
+		d_segmentBytes += l_bytes.length;
+		d_isAtLineStart = p_text.charAt(p_text.length() - 1) == '\n';
+	}
+
+	@Override
+	public void write(char[] p_chars, int p_offset, int p_length) throws IOException {
+		write(new String(p_chars, p_offset, p_length));
+	}
+
+	@Override
+	public void write(int p_char) throws IOException {
+		write(String.valueOf((char)p_char));
+	}
+
+	@Override
+	public void flush() throws IOException {
+		d_segmentStream.flush();
+	}
+
+	/**
+	 * Closes the last segment and the index, compresses the last segment too, and waits for all compression to finish.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (d_segmentStream == null) {
+			return;
+		}
+		d_segmentStream.close();
+		d_segmentStream = null;
+		d_indexWriter.close();
+		String l_lastFileName = getSegmentFileName(d_baseName, d_segment);
+		d_compressor.execute(() -> compress(l_lastFileName));
+		d_compressor.shutdown();
+		try {
+			d_compressor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+		catch (InterruptedException l_exception) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Opens a log at the start of a turn, using its index to go straight to the right place in the right segment.
+	 * Reading carries on through the rest of that segment only.
+	 * @param p_baseName The base name of the log.
+	 * @param p_game The number of the game in the log, from 1.
+	 * @param p_turn The turn number.
+	 * @return A reader positioned at the start of the turn, or null if the turn is not in the index or its segment is missing.
+	 * @throws IOException if the index or the segment could not be read.
+	 */
+	public static BufferedReader openTurn(String p_baseName, int p_game, int p_turn) throws IOException {
+		List<String> l_entries = Files.readAllLines(new File(getIndexFileName(p_baseName)).toPath());
+		for (String l_entry : l_entries) {
+			String[] l_fields = l_entry.split(" ");
+			if (l_fields.length == 4 && Integer.parseInt(l_fields[0]) == p_game && Integer.parseInt(l_fields[1]) == p_turn) {
+				String l_fileName = getSegmentFileName(p_baseName, Integer.parseInt(l_fields[2]));
+				InputStream l_in;
+				if (new File(l_fileName + ".gz").exists()) {
+					l_in = new GZIPInputStream(new FileInputStream(l_fileName + ".gz"));
+				}
+				else if (new File(l_fileName).exists()) {
+					l_in = new FileInputStream(l_fileName);
+				}
+				else {
+					return null;
+				}
+				l_in.skipNBytes(Long.parseLong(l_fields[3]));
+				return new BufferedReader(new InputStreamReader(l_in, StandardCharsets.UTF_8));
+			}
+		}
+		return null;
+	}
+}
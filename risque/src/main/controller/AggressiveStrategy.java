@@ -6,6 +6,7 @@ import java.util.Scanner;
 import main.game.Map;
 import main.game.Territory;
 import main.game.Continent;
+import main.game.GameEngine;
 import main.game.Player;
 
 /**
@@ -20,12 +21,24 @@ public class AggressiveStrategy extends PlayerStrategy {
 	 */
 	public Territory d_strongest;
 	
+	/**
+	 * The number of armies deployed to the strongest territory this turn, which will have arrived by the time it attacks.
+	 */
+	private int d_numArmiesDeployed;
+	
+	/**
+	 * The last turn this strategy advanced in, since it only attacks once per turn.
+	 */
+	private int d_lastAdvanceTurn;
+	
 	/**
 	 * Default constructor.
 	 * @param p_player The player for this strategy.
 	 */
 	public AggressiveStrategy(Player p_player) {
 		super(p_player);
+		d_numArmiesDeployed = 0;
+		d_lastAdvanceTurn = -1;
 	}
 	
 	/**
@@ -119,6 +132,38 @@ public class AggressiveStrategy extends PlayerStrategy {
 	 * Called by the Player class when the game engine notifies it of the player's turn starting.
 	 */
 	public void onNotifyTurn() {
-		// TODO: Logic.
+		GameEngine l_engine = d_player.getEngine();
+		Map l_map = l_engine.getMap();
+		if (d_player.getNumUndeployedArmies() > 0) {
+			// Reinforce the strongest territory with everything, preferring ones on the front line.
+			d_strongest = null;
+			boolean l_isStrongestOnFront = false;
+			for (Territory l_territory : d_player.getOwnedTerritories()) {
+				boolean l_isOnFront = getWeakestEnemyNeighbour(l_map, l_territory) != null;
+				if (d_strongest == null || (l_isOnFront && !l_isStrongestOnFront)
+						|| (l_isOnFront == l_isStrongestOnFront && l_territory.getNumArmies() > d_strongest.getNumArmies())) {
+					d_strongest = l_territory;
+					l_isStrongestOnFront = l_isOnFront;
+				}
+			}
+			d_numArmiesDeployed = d_player.getNumUndeployedArmies();
+			l_engine.deployArmies(l_map.getTerritoryID(d_strongest), d_numArmiesDeployed);
+		}
+		else if (d_lastAdvanceTurn != l_engine.getTurnNumber() && d_strongest != null && d_player.ownsTerritory(d_strongest)) {
+			// Then throw all of it at the enemy neighbour we are most likely to beat, or march it towards the nearest enemy.
+			d_lastAdvanceTurn = l_engine.getTurnNumber();
+			int l_numArmies = d_strongest.getNumArmies() + d_numArmiesDeployed;
+			Territory l_target = getWeakestEnemyNeighbour(l_map, d_strongest);
+			int l_targetID = l_target != null ? l_map.getTerritoryID(l_target) : getStepTowardsEnemy(l_map, d_strongest);
+			if (l_targetID > 0 && l_numArmies > 0) {
+				l_engine.advanceArmies(l_map.getTerritoryID(d_strongest), l_targetID, l_numArmies);
+			}
+			else {
+				l_engine.finishOrders();
+			}
+		}
+		else {
+			l_engine.finishOrders();
+		}
 	}
 }
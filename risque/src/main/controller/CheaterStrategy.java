@@ -5,18 +5,25 @@ import java.util.*;
 import main.game.Map;
 import main.game.Territory;
 import main.game.Continent;
+import main.game.GameEngine;
 import main.game.Player;
 	/**
 	 * This is cheater type player strategy
 	 */
 public class CheaterStrategy extends PlayerStrategy {
 	
+	/**
+	 * The last turn this strategy cheated in, since it only cheats once per turn.
+	 */
+	private int d_lastCheatTurn;
+	
 	/**
 	 * Default constructor.
 	 * @param p_player The player for this strategy.
 	 */
 	public CheaterStrategy(Player p_player) {
 		super(p_player);
+		d_lastCheatTurn = -1;
 	}
 	
 	/**
@@ -68,6 +75,37 @@ public class CheaterStrategy extends PlayerStrategy {
 	 * Called by the Player class when the game engine notifies it of the player's turn starting.
 	 */
 	public void onNotifyTurn() {
-		// TODO: Logic.
+		GameEngine l_engine = d_player.getEngine();
+		Map l_map = l_engine.getMap();
+		if (d_player.getNumUndeployedArmies() > 0) {
+			// Deploy as normal, so the turn can end.
+			Territory l_territory = d_player.getOwnedTerritories().getFirst();
+			l_engine.deployArmies(l_map.getTerritoryID(l_territory), d_player.getNumUndeployedArmies());
+			return;
+		}
+		if (d_lastCheatTurn != l_engine.getTurnNumber()) {
+			d_lastCheatTurn = l_engine.getTurnNumber();
+			// Take every enemy neighbour outright, without fighting.
+			LinkedHashSet<Territory> l_targets = new LinkedHashSet<>();
+			for (Territory l_territory : d_player.getOwnedTerritories()) {
+				int l_tID = l_map.getTerritoryID(l_territory);
+				for (int l_nIdx = 0; l_nIdx < l_map.getNumNeighbours(l_tID); l_nIdx++) {
+					Territory l_neighbour = l_map.getTerritory(l_map.getNeighbourID(l_tID, l_nIdx));
+					if (!d_player.ownsTerritory(l_neighbour)) {
+						l_targets.add(l_neighbour);
+					}
+				}
+			}
+			for (Territory l_target : l_targets) {
+				l_engine.changeTerritoryOwner(l_target, d_player);
+			}
+			// Then double the armies on the new front line, saturating rather than overflowing in long games.
+			for (Territory l_territory : d_player.getOwnedTerritories()) {
+				if (getWeakestEnemyNeighbour(l_map, l_territory) != null) {
+					l_territory.setNumArmies(Math.min(Integer.MAX_VALUE / 2, l_territory.getNumArmies()) * 2);
+				}
+			}
+		}
+		l_engine.finishOrders();
 	}
 }
@@ -1,6 +1,7 @@
 package main.controller;
 
 import java.io.IOException;
+import java.util.LinkedList;
 
 import main.console.Console;
 import main.game.GameEngine;
@@ -66,12 +67,12 @@ public class Controller {
 	}
 	
 	/**
-	* Will save the map as a conquest file if the input string begins with a c.
+	* Will save the map as a conquest file if the input string begins with a c, or as a binary file if it begins with a b.
 	* @param p_fileName File name to which a map is to be saved.
-	* @param p_conquestStr The string to check for the c.
+	* @param p_formatStr The string to check for the c or b.
 	*/
-	public void saveMap(String p_fileName, String p_conquestStr) {
-		d_engine.saveMap(p_fileName, p_conquestStr.startsWith("c"));
+	public void saveMap(String p_fileName, String p_formatStr) {
+		d_engine.saveMap(p_fileName, p_formatStr);
 	}
 
 	/**
@@ -79,7 +80,7 @@ public class Controller {
 	* @param p_fileName File name to which a map is to be saved.
 	*/
 	public void saveMap(String p_fileName) {
-		d_engine.saveMap(p_fileName, false);
+		d_engine.saveMap(p_fileName, "");
 	}
 
 	/**
@@ -97,11 +98,17 @@ public class Controller {
 		if (d_engine.getMap() == null) {
 			d_engine.broadcastMessage("There is no map.");
 		}
-		else if (d_engine.getMap().validateMap()) {
-			d_engine.broadcastMessage("The map is valid.");
-		}
 		else {
-			d_engine.broadcastMessage("The map is invalid.");
+			LinkedList<String> l_errors = d_engine.getMap().getValidationErrors();
+			if (l_errors.isEmpty()) {
+				d_engine.broadcastMessage("The map is valid.");
+			}
+			else {
+				d_engine.broadcastMessage("The map is invalid.");
+				for (String l_error : l_errors) {
+					d_engine.broadcastMessage("  " + l_error);
+				}
+			}
 		}
 	}
 
@@ -259,6 +266,22 @@ public class Controller {
 		d_engine.finishOrders();
 	}
 	
+	/**
+	 * Will start the process for executing "savegame" command.
+	 * @param p_fileName File name to which the game is to be saved.
+	 */
+	public void saveGame(String p_fileName) {
+		d_engine.saveGame(p_fileName);
+	}
+	
+	/**
+	 * Will start the process for executing "loadgame" command.
+	 * @param p_fileName File name from which a game is to be loaded.
+	 */
+	public void loadGame(String p_fileName) {
+		d_engine.loadGame(p_fileName);
+	}
+	
 	/**
 	 * Tells the game engine that we want to quit.
 	 */
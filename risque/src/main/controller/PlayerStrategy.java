@@ -1,9 +1,11 @@
 package main.controller;
 
+import java.util.ArrayDeque;
 import java.util.LinkedList;
 
 import main.game.Map;
 import main.game.Territory;
+import main.game.CombatOdds;
 import main.game.Continent;
 import main.game.Player;
 
@@ -66,6 +68,61 @@ public abstract class PlayerStrategy {
 	 */
 	abstract int calculateDeployedArmies(Map p_map, Player p_player);
 	
+	/**
+	 * Gets the table of attack odds, so strategies can judge an attack in constant time instead of simulating it.
+	 * @return The shared combat odds.
+	 */
+	CombatOdds getCombatOdds() {
+		return CombatOdds.getShared();
+	}
+	
+	/**
+	 * Finds the neighbour of a territory with the fewest armies that this strategy's player does not own.
+	 * @param p_map The map.
+	 * @param p_territory The territory.
+	 * @return The weakest enemy (or neutral) neighbour, or null if every neighbour is ours.
+	 */
+	Territory getWeakestEnemyNeighbour(Map p_map, Territory p_territory) {
+		int l_tID = p_map.getTerritoryID(p_territory);
+		Territory l_weakest = null;
+		for (int l_nIdx = 0; l_nIdx < p_map.getNumNeighbours(l_tID); l_nIdx++) {
+			Territory l_neighbour = p_map.getTerritory(p_map.getNeighbourID(l_tID, l_nIdx));
+			if (!d_player.ownsTerritory(l_neighbour) && (l_weakest == null || l_neighbour.getNumArmies() < l_weakest.getNumArmies())) {
+				l_weakest = l_neighbour;
+			}
+		}
+		return l_weakest;
+	}
+	
+	/**
+	 * Finds which neighbour to move to from a territory behind the front line, to get closer to the nearest territory we do not own.
+	 * @param p_map The map.
+	 * @param p_territory The territory to move from.
+	 * @return The ID of the neighbour to move to, or 0 if there is nowhere to go.
+	 */
+	int getStepTowardsEnemy(Map p_map, Territory p_territory) {
+		// Breadth-first search from the territory, remembering which first step led to each territory reached.
+		int l_startID = p_map.getTerritoryID(p_territory);
+		int[] l_firstStep = new int[p_map.getNumTerritories() + 1];
+		ArrayDeque<Integer> l_queue = new ArrayDeque<>();
+		l_firstStep[l_startID] = l_startID;
+		l_queue.add(l_startID);
+		while (!l_queue.isEmpty()) {
+			int l_tID = l_queue.poll();
+			for (int l_nIdx = 0; l_nIdx < p_map.getNumNeighbours(l_tID); l_nIdx++) {
+				int l_neighbourID = p_map.getNeighbourID(l_tID, l_nIdx);
+				if (l_firstStep[l_neighbourID] == 0) {
+					l_firstStep[l_neighbourID] = l_tID == l_startID ? l_neighbourID : l_firstStep[l_tID];
+					if (!d_player.ownsTerritory(p_map.getTerritory(l_neighbourID))) {
+						return l_firstStep[l_neighbourID];
+					}
+					l_queue.add(l_neighbourID);
+				}
+			}
+		}
+		return 0;
+	}
+	
 	/**
 	 * Called by the Player class when the game engine notifies it of the player's turn starting.
 	 */
@@ -2,12 +2,13 @@ package main.controller;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.Scanner;
 
 import main.game.Map;
 import main.game.Territory;
 import main.game.Continent;
+import main.game.GameEngine;
 import main.game.Player;
 
 	/**
@@ -15,7 +16,15 @@ import main.game.Player;
 	 */
 public class RandomStrategy extends PlayerStrategy {
 	
-	Random d_random = new Random();
+	/**
+	 * The last turn this strategy advanced in, since it only advances once per turn.
+	 */
+	private int d_lastAdvanceTurn;
+	
+	/**
+	 * The random stream used when the player is not in a game, e.g. in tests.
+	 */
+	private SplittableRandom d_fallbackRandom;
 	
 	/**
 	 * Default constructor.
@@ -23,6 +32,21 @@ public class RandomStrategy extends PlayerStrategy {
 	 */
 	public RandomStrategy(Player p_player) {
 		super(p_player);
+		d_lastAdvanceTurn = -1;
+		d_fallbackRandom = new SplittableRandom();
+	}
+	
+	/**
+	 * Gets the random stream for this strategy's decisions.
+	 * It is derived from the game's seed and this player, so a seeded game makes the same random moves every time.
+	 * Outside a game, the strategy keeps drawing from one stream of its own.
+	 * @return The random stream.
+	 */
+	SplittableRandom getRandom() {
+		if (d_player.getEngine() != null) {
+			return d_player.getEngine().getRandom().getPlayerStream(d_player);
+		}
+		return d_fallbackRandom;
 	}
 	
 	/**
@@ -110,6 +134,32 @@ public class RandomStrategy extends PlayerStrategy {
 	 * Called by the Player class when the game engine notifies it of the player's turn starting.
 	 */
 	public void onNotifyTurn() {
-		// TODO: Logic.
+		GameEngine l_engine = d_player.getEngine();
+		Map l_map = l_engine.getMap();
+		SplittableRandom l_random = getRandom();
+		List<Territory> l_ownedTerritories = d_player.getOwnedTerritories();
+		if (d_player.getNumUndeployedArmies() > 0) {
+			// Deploy a random share of the armies left to a random territory.
+			Territory l_territory = l_ownedTerritories.get(l_random.nextInt(l_ownedTerritories.size()));
+			int l_numArmies = 1 + l_random.nextInt(d_player.getNumUndeployedArmies());
+			l_engine.deployArmies(l_map.getTerritoryID(l_territory), l_numArmies);
+		}
+		else if (d_lastAdvanceTurn != l_engine.getTurnNumber()) {
+			// Advance a random number of armies from a random territory to a random neighbour, whoever owns it.
+			d_lastAdvanceTurn = l_engine.getTurnNumber();
+			Territory l_territory = l_ownedTerritories.get(l_random.nextInt(l_ownedTerritories.size()));
+			int l_tID = l_map.getTerritoryID(l_territory);
+			int l_numNeighbours = l_map.getNumNeighbours(l_tID);
+			if (l_territory.getNumArmies() > 0 && l_numNeighbours > 0) {
+				int l_neighbourID = l_map.getNeighbourID(l_tID, l_random.nextInt(l_numNeighbours));
+				l_engine.advanceArmies(l_tID, l_neighbourID, 1 + l_random.nextInt(l_territory.getNumArmies()));
+			}
+			else {
+				l_engine.finishOrders();
+			}
+		}
+		else {
+			l_engine.finishOrders();
+		}
 	}
 }
@@ -1,12 +1,12 @@
 package main.game;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Scanner;
 
 /**
  * This class is used for reading and writing map files in Conquest format
@@ -14,99 +14,115 @@ import java.util.Scanner;
  */
 public class Adaptee {
 	
+	/**
+	 * The initial capacity of the arrays that collect borders while loading.
+	 */
+	private static final int INITIAL_BORDER_CAPACITY = 1024;
+	
 	/**
 	 * Loads a map from a given file and returns it.
 	 * Note that attributes not used by this game are ignored and not loaded.
 	 * This means that those attributes will not be present when saving a map from this game.
 	 * 
+	 * Conquest maps refer to neighbours by name, and a neighbour may be listed before it is defined.
+	 * Each distinct name is interned into a symbol table the first time it is seen, so borders are collected as integer pairs.
+	 * Once every territory exists, each symbol is resolved to a territory ID with a single name lookup,
+	 * and the borders are added all at once.
+	 * 
 	 * @param p_file The file to load from (including the extension).
 	 * @return Whether a valid map was loaded.
 	 */
-	
 	public Map loadFromFile(File p_file) {
 		// TODO: this could be turned into a static function that returns a new Map object.
 		Map l_map = new Map();
 		/**
-		 * Reference on what a .map file entails:
-		 * http://domination.sourceforge.net/makemaps.shtml
+		 * Reference on what a conquest .map file entails:
+		 * http://www.windowsgames.co.uk/conquest_create.html
 		 */
-		try {
-			Scanner l_reader = new Scanner(p_file);
+		try (MapFileReader l_reader = new MapFileReader(p_file)) {
 			String l_section = "";
 			// Map of each continent name to its ID.
 			HashMap<String, Integer> l_continentIDs = new HashMap<>();
-			// Map of each territory to the names of its bordering territories.
-			HashMap<Territory, LinkedList<String>> l_territoryNeighbours = new HashMap<>();
-			while (l_reader.hasNextLine()) {
-				String l_line = l_reader.nextLine();
-				
+			// Map of each territory name to its symbol, and the name of each symbol.
+			HashMap<String, Integer> l_symbols = new HashMap<>();
+			ArrayList<String> l_symbolNames = new ArrayList<>();
+			// The borders, as the ID of the first territory and the symbol of the second.
+			int[] l_borderFirstIDs = new int[INITIAL_BORDER_CAPACITY];
+			int[] l_borderSecondSymbols = new int[INITIAL_BORDER_CAPACITY];
+			int l_numBorders = 0;
+			while (l_reader.nextLine()) {
 				// Ignore comments, which start with: ;
-				if (!l_line.startsWith(";")) {
-					
-					if (l_line.startsWith("[")) {
-						l_section = l_line.substring(1, l_line.length() - 1).toLowerCase();
-					}
-					else {
-						switch(l_section) {
-							case "continents":
-								String l_splitLine[] = l_line.split("=");
-								// If we added the continent, add it to the hashmap.
-								if (l_splitLine.length >= 2 && l_map.createContinent(l_splitLine[0].replaceAll(" ", "_"), Integer.parseInt(l_splitLine[1]), l_map.getNumContinents() + 1)) {
-									l_continentIDs.put(l_splitLine[0], l_map.getNumContinents());
-								}
-								break;
-							case "territories":
-								String l_terrSplitLine[] = l_line.split(",");
-								/*
-								 * Conquest format uses these elements, comma-delimited:
-								 * 0: the territory name.
-								 * 1,2: territory coordinates (not used for our game)
-								 * 3: the name of the continent it belongs on
-								 * 4+: the names of the territories this territory borders.
-								 * As such, there must be at least 4 fields. If there are no bordering territories, this map will be invalid and not returned.
-								 */
-								//System.out.println("1: " + (l_terrSplitLine.length > 3));
-								//System.out.println("2: " + (l_continentIDs.containsKey(l_terrSplitLine[3])));
-								//System.out.println("? - " + l_terrSplitLine[3]);
-								if (l_terrSplitLine.length > 3 && l_continentIDs.containsKey(l_terrSplitLine[3])) {
-									l_map.createTerritory(l_map.getNumTerritories() + 1, l_terrSplitLine[0].replaceAll(" ", "_"), l_continentIDs.get(l_terrSplitLine[3]));
-									// Add the names of the territories so we can connect them later.
-									Territory l_terr = l_map.getTerritory(l_map.getNumTerritories());
-									if (l_terr != null && l_terrSplitLine.length > 4) {
-										LinkedList<String> l_terrNames = new LinkedList<>();
-										for (int l_idx = 4; l_idx < l_terrSplitLine.length; l_idx++) {
-											l_terrNames.add(l_terrSplitLine[l_idx].replaceAll(" ", "_"));
-										}
-										l_territoryNeighbours.put(l_terr, l_terrNames);
-									}
-								}
-								break;
-							default:
-								// Do nothing. We do not care about any other sections.
-						}
-					}
+				if (l_reader.lineStartsWith(';') || l_reader.isLineBlank()) {
+					continue;
 				}
-			}
-			// Connect territories based on the list of names.
-			for (int l_idx = 1; l_idx <= l_map.getNumTerritories(); l_idx++) {
-				Territory l_territory = l_map.getTerritory(l_idx);
-				if (l_territory != null) {
-					LinkedList<String> l_nameList = l_territoryNeighbours.get(l_territory);
-					for (String l_neighbourName : l_nameList) {
-						Territory l_neighbour = l_map.getTerritory(l_neighbourName);
-						if (l_neighbour != null && l_territory != l_neighbour) {
-							l_map.addBorder(l_territory, l_neighbour);
+				if (l_reader.lineStartsWith('[')) {
+					String l_line = l_reader.getLine();
+					l_section = l_line.substring(1, l_line.length() - 1).toLowerCase();
+					continue;
+				}
+				switch(l_section) {
+					case "continents":
+						String l_continentName = l_reader.nextToken('=');
+						// If we added the continent, add it to the hashmap.
+						if (l_reader.hasNextToken('=') && l_map.createContinent(l_continentName.replace(' ', '_'), l_reader.nextInt('='), l_map.getNumContinents() + 1)) {
+							l_continentIDs.put(l_continentName, l_map.getNumContinents());
 						}
-					}
+						break;
+					case "territories":
+						/*
+						 * Conquest format uses these elements, comma-delimited:
+						 * 0: the territory name.
+						 * 1,2: territory coordinates (not used for our game)
+						 * 3: the name of the continent it belongs on
+						 * 4+: the names of the territories this territory borders.
+						 * As such, there must be at least 4 fields. If there are no bordering territories, this map will be invalid and not returned.
+						 */
+						String l_territoryName = l_reader.nextToken(',').replace(' ', '_');
+						if (!l_reader.skipToken(',') || !l_reader.skipToken(',')) {
+							break;
+						}
+						Integer l_continentID = l_continentIDs.get(l_reader.nextToken(','));
+						if (l_continentID == null || !l_map.createTerritory(l_map.getNumTerritories() + 1, l_territoryName, l_continentID)) {
+							break;
+						}
+						int l_territoryID = l_map.getNumTerritories();
+						// Add the names of the territories so we can connect them later.
+						while (l_reader.hasNextToken(',')) {
+							String l_neighbourName = l_reader.nextToken(',').replace(' ', '_');
+							Integer l_symbol = l_symbols.get(l_neighbourName);
+							if (l_symbol == null) {
+								l_symbol = l_symbolNames.size();
+								l_symbols.put(l_neighbourName, l_symbol);
+								l_symbolNames.add(l_neighbourName);
+							}
+							if (l_numBorders == l_borderFirstIDs.length) {
+								l_borderFirstIDs = Arrays.copyOf(l_borderFirstIDs, l_numBorders * 2);
+								l_borderSecondSymbols = Arrays.copyOf(l_borderSecondSymbols, l_numBorders * 2);
+							}
+							l_borderFirstIDs[l_numBorders] = l_territoryID;
+							l_borderSecondSymbols[l_numBorders] = l_symbol;
+							l_numBorders++;
+						}
+						break;
+					default:
+						// Do nothing. We do not care about any other sections.
 				}
-				
 			}
-			l_reader.close();
+			// Resolve every symbol to a territory ID (0 if there is no such territory), then translate the borders in place.
+			int[] l_symbolIDs = new int[l_symbolNames.size()];
+			for (int l_idx = 0; l_idx < l_symbolIDs.length; l_idx++) {
+				l_symbolIDs[l_idx] = l_map.getTerritoryID(l_map.getTerritory(l_symbolNames.get(l_idx)));
+			}
+			for (int l_idx = 0; l_idx < l_numBorders; l_idx++) {
+				l_borderSecondSymbols[l_idx] = l_symbolIDs[l_borderSecondSymbols[l_idx]];
+			}
+			// Unknown neighbours and borders with ourself are skipped here.
+			l_map.addBorders(l_borderFirstIDs, l_borderSecondSymbols, l_numBorders);
 			if (l_map.validateMap()) {
 				return l_map;
 			}
 		} 
-		catch (FileNotFoundException | NumberFormatException l_exception) {
+		catch (IOException | NumberFormatException l_exception) {
 			l_exception.printStackTrace();
 			// Do nothing; we'll just return null below.
 		}
@@ -140,33 +156,27 @@ public class Adaptee {
 			}
 			
 			// Begin by writing the barebones [map] section.
-			FileWriter l_writer = new FileWriter(p_fileName);
+			BufferedWriter l_writer = Files.newBufferedWriter(l_file.toPath());
 			l_writer.write("[map]\nauthor=Risque-SOEN6441-Team-21\n\n[continents]\n");
 			
 			// Write the continents.
 			for (int l_idx = 1; l_idx <= p_map.getNumContinents(); l_idx++) {
 				Continent l_continent = p_map.getContinent(l_idx);
 				if (l_continent != null) {
-					l_writer.write(l_continent.getName() + "=" + l_continent.getBonusArmies() + "\n");
+					l_writer.append(l_continent.getName()).append('=').append(Integer.toString(l_continent.getBonusArmies())).append('\n');
 				}
 			}
 			
-			// Write the territories (with their neighbours listed in-line).
+			// Write the territories (with their neighbours listed in-line), reading each territory's neighbours straight from its borders.
 			l_writer.write("\n[territories]\n");
 			for (int l_idx = 1; l_idx <= p_map.getNumTerritories(); l_idx++) {
 				Territory l_territory = p_map.getTerritory(l_idx);
 				if (l_territory != null) {
-					LinkedList<Territory> l_neighbours = new LinkedList<>();
-					for (Territory l_testNeighbour : p_map.getTerritories()) {
-						if (p_map.doesBorderExist(l_territory, l_testNeighbour)) {
-							l_neighbours.add(l_testNeighbour);
-						}
-					}
-					l_writer.write(l_territory.getName() + ",0,0," + l_territory.getContinent().getName());
-					for (Territory l_neighbour : l_neighbours) {
-						l_writer.write("," + l_neighbour.getName());
+					l_writer.append(l_territory.getName()).append(",0,0,").append(l_territory.getContinent().getName());
+					for (int l_nIdx = 0; l_nIdx < p_map.getNumNeighbours(l_idx); l_nIdx++) {
+						l_writer.append(',').append(p_map.getTerritory(p_map.getNeighbourID(l_idx, l_nIdx)).getName());
 					}
-					l_writer.write("\n");
+					l_writer.append('\n');
 				}
 			}
 			
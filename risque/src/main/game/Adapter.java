@@ -19,6 +19,15 @@ public class Adapter extends MapReaderWriter {
 		this.d_adp = p_adp;
 	}
 
+	/**
+	 * Gets the name of the format this reader/writer uses.
+	 * @return The format name.
+	 */
+	@Override
+	public String getFormatName() {
+		return "Conquest";
+	}
+	
 	/**
 	 * This method loads the map file 
 	 * @param p_file The file to load the map from.
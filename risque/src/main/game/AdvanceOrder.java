@@ -1,6 +1,7 @@
 package main.game;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
 
 /**
  * An order that moves armies from one territory to another, handling an attack if need be.
@@ -23,6 +24,16 @@ public class AdvanceOrder extends Order {
 	 */
 	private Territory d_toTerritory;
 	
+	/**
+	 * The chance that each defending army kills an attacker.
+	 */
+	public static final float DEFENDER_KILL_CHANCE = 0.7f;
+
+	/**
+	 * The chance that each attacking army kills a defender.
+	 */
+	public static final float ATTACKER_KILL_CHANCE = 0.6f;
+
 	/**
 	 * The chance that a defender will kill an attacker.
 	 */
@@ -43,29 +54,30 @@ public class AdvanceOrder extends Order {
 		d_numArmiesAdvancing = p_numArmiesAdvancing;
 		d_fromTerritory = p_fromTerritory;
 		d_toTerritory = p_toTerritory;
-		d_defenderKillChance = 0.7f;
-		d_attackerKillChance = 0.6f;
+		d_defenderKillChance = DEFENDER_KILL_CHANCE;
+		d_attackerKillChance = ATTACKER_KILL_CHANCE;
 	}
 	
 	/**
 	 * Calculates the number of casualties during combat.
+	 * Rather than rolling each round one by one, the number of kills is drawn straight from a binomial distribution and then capped,
+	 * which gives exactly the same odds in constant time, however large the armies are.
 	 * @param p_numRounds The number of times we "roll the dice" on a kill.
 	 * @param p_killChance The chance of a kill for each round, as a percent.
 	 * @param p_maxCasualties The maximum number of kills we can achieve.
 	 * @return The number of kills.
 	 */
 	public int calcNumCasualties(int p_numRounds, float p_killChance, int p_maxCasualties) {
-		Random l_rand = new Random();
-		int l_kills = 0;
-		for (int l_idx = 0; l_idx < p_numRounds; l_idx++) {
-			if (p_killChance >= l_rand.nextFloat()) {
-				l_kills++;
-				if (l_kills == p_maxCasualties) {
-					return p_maxCasualties;
-				}
-			}
+		// Orders that are not part of a game (e.g. in tests) have no game randomness to draw from.
+		DoubleSupplier l_uniform;
+		if (getEngine() != null) {
+			l_uniform = getEngine().getRandom().getStream(GameRandom.COMBAT)::nextDouble;
+		}
+		else {
+			l_uniform = ThreadLocalRandom.current()::nextDouble;
 		}
-		return l_kills;
+		int l_kills = BinomialSampler.sample(l_uniform, p_numRounds, p_killChance);
+		return Math.min(l_kills, Math.max(0, p_maxCasualties));
 	}
 	
 	@Override
@@ -96,7 +108,9 @@ public class AdvanceOrder extends Order {
 			if (l_originOwner == l_destinationOwner) {
 				d_fromTerritory.setNumArmies(d_fromTerritory.getNumArmies() - l_numToAdvance);
 				d_toTerritory.setNumArmies(d_toTerritory.getNumArmies() + l_numToAdvance);
-				d_engine.broadcastMessage(getIssuer().getName() + " advanced " + l_numToAdvance + " from " + d_fromTerritory.getDisplayName() + " to " + d_toTerritory.getDisplayName() + ".");
+				if (d_engine.isReporting(GameEvent.Type.ARMIES_ADVANCED)) {
+					d_engine.publishEvent(new GameEvent.ArmiesAdvanced(getIssuer(), d_fromTerritory, d_toTerritory, l_numToAdvance));
+				}
 			}
 			// Case 2: war were declared. Fight!
 			else if (d_engine.getPhase().canAttackTerritory(d_toTerritory, getIssuer())) {
@@ -105,23 +119,23 @@ public class AdvanceOrder extends Order {
 				 * Each attacking unit has a 60% chance of killing a defender.
 				 * Each defending unit has a 70% chance of killing an attacker.
 				 */
-				int l_numSurvivingDefenders = d_toTerritory.getNumArmies() - calcNumCasualties(l_numToAdvance, d_attackerKillChance, d_toTerritory.getNumArmies());
-				int l_numSurvivingAttackers = l_numToAdvance - calcNumCasualties(d_toTerritory.getNumArmies(), d_defenderKillChance, l_numToAdvance);
-				// As neutral territories will have no owner, check for that when getting the owner names.
-				String l_defenderName = l_destinationOwner == null ? "Neutral" : l_destinationOwner.getName();
-				String l_attackerName = l_originOwner == null ? "Neutral" : l_originOwner.getName();
+				int l_numDefenders = d_toTerritory.getNumArmies();
+				int l_numSurvivingDefenders = l_numDefenders - calcNumCasualties(l_numToAdvance, d_attackerKillChance, l_numDefenders);
+				int l_numSurvivingAttackers = l_numToAdvance - calcNumCasualties(l_numDefenders, d_defenderKillChance, l_numToAdvance);
 				// If defenders have all been killed, take the territory.
 				if (l_numSurvivingDefenders <= 0) {
-					d_engine.broadcastMessage("The territory " + d_toTerritory.getDisplayName() + " (" + l_defenderName + ") has been siezed by armies from " + d_fromTerritory.getDisplayName() + " (" + l_attackerName + ").\n"
-							+ "  Surviving Attackers: " + l_numSurvivingAttackers + "/" + l_numToAdvance);
+					if (d_engine.isReporting(GameEvent.Type.TERRITORY_CAPTURED)) {
+						d_engine.publishEvent(new GameEvent.TerritoryCaptured(l_originOwner, l_destinationOwner, d_fromTerritory, d_toTerritory, l_numToAdvance, l_numSurvivingAttackers));
+					}
 					d_fromTerritory.setNumArmies(d_fromTerritory.getNumArmies() - l_numToAdvance);
 					d_toTerritory.setNumArmies(l_numSurvivingAttackers);
 					d_engine.changeTerritoryOwner(d_toTerritory, getIssuer());
 				}
 				else {
-					d_engine.broadcastMessage("The attack on " + d_toTerritory.getDisplayName() + " (" + l_defenderName + ") by " + d_fromTerritory.getDisplayName() + " (" + l_attackerName + ") did not succeed.\n"
-							+ "  Surviving Attackers: " + l_numSurvivingAttackers + "/" + l_numToAdvance + "\n"
-							+ "  Surviving Defenders: " + l_numSurvivingDefenders + "/" + d_toTerritory.getNumArmies());
+					if (d_engine.isReporting(GameEvent.Type.ATTACK_REPELLED)) {
+						d_engine.publishEvent(new GameEvent.AttackRepelled(l_originOwner, l_destinationOwner, d_fromTerritory, d_toTerritory,
+								l_numToAdvance, l_numSurvivingAttackers, l_numDefenders, l_numSurvivingDefenders));
+					}
 					// The from territory will keep its initial army count, minus the number sent away, plus the attackers returning home.
 					d_fromTerritory.setNumArmies(d_fromTerritory.getNumArmies() - l_numToAdvance + l_numSurvivingAttackers);
 					// All armies in this territory were defending, so the number of defenders after combat is the number left in the territory.
@@ -132,4 +146,28 @@ public class AdvanceOrder extends Order {
 		}
 		return false;
 	}
+	
+	/**
+	 * Gets the territory the armies come from.
+	 * @return The territory.
+	 */
+	public Territory getFromTerritory() {
+		return d_fromTerritory;
+	}
+	
+	/**
+	 * Gets the territory the armies go to or invade.
+	 * @return The territory.
+	 */
+	public Territory getToTerritory() {
+		return d_toTerritory;
+	}
+	
+	/**
+	 * Gets the most armies this order will advance.
+	 * @return The number of armies.
+	 */
+	public int getNumArmies() {
+		return d_numArmiesAdvancing;
+	}
 }
@@ -42,7 +42,7 @@ public class AirliftOrder extends Order {
 	public boolean execute() {
 		if (d_source == null || d_destination == null) {
 			// If this somehow happened, I guess return the airlift card?
-			getEngine().broadcastMessage(getIssuer().getName() + " managed to airlift to/from a null territory.");
+			getEngine().broadcastMessage(() -> getIssuer().getName() + " managed to airlift to/from a null territory.");
 			getIssuer().addCard("airlift");
 			return false;
 		}
@@ -52,17 +52,41 @@ public class AirliftOrder extends Order {
 			if (l_numArmiesToAirlift > 0) {
 				d_source.setNumArmies(d_source.getNumArmies() - l_numArmiesToAirlift);
 				d_destination.setNumArmies(d_source.getNumArmies() + l_numArmiesToAirlift);
-				getEngine().broadcastMessage(getIssuer().getName() + " airlifted " + l_numArmiesToAirlift + " from " + d_source.getDisplayName() + " to " + d_destination.getDisplayName() + ".");
+				getEngine().broadcastMessage(() -> getIssuer().getName() + " airlifted " + l_numArmiesToAirlift + " from " + d_source.getDisplayName() + " to " + d_destination.getDisplayName() + ".");
 				return true;
 			}
 			// Return the card if there are no armies left to airlift.
 			getIssuer().addCard("airlift");
-			getEngine().broadcastMessage(getIssuer().getName() + "\'s territory " + d_source.getDisplayName() + " has no armies to airlift to " + d_destination.getDisplayName() + ".");
+			getEngine().broadcastMessage(() -> getIssuer().getName() + "\'s territory " + d_source.getDisplayName() + " has no armies to airlift to " + d_destination.getDisplayName() + ".");
 			return false;
 		}
 		// If we don't control both territories, return the airlift card.
 		getIssuer().addCard("airlift");
-		getEngine().broadcastMessage(getIssuer().getName() + "\'s airlift from " + d_source.getDisplayName() + " to " + d_destination.getDisplayName() + " cancelled since they no longer control both territories.");
+		getEngine().broadcastMessage(() -> getIssuer().getName() + "\'s airlift from " + d_source.getDisplayName() + " to " + d_destination.getDisplayName() + " cancelled since they no longer control both territories.");
 		return false;
 	}
+	
+	/**
+	 * Gets the territory the armies are airlifted from.
+	 * @return The territory.
+	 */
+	public Territory getSource() {
+		return d_source;
+	}
+	
+	/**
+	 * Gets the territory the armies are airlifted to.
+	 * @return The territory.
+	 */
+	public Territory getDestination() {
+		return d_destination;
+	}
+	
+	/**
+	 * Gets the most armies this order will airlift.
+	 * @return The number of armies.
+	 */
+	public int getNumArmies() {
+		return d_numArmies;
+	}
 }
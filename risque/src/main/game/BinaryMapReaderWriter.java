@@ -0,0 +1,255 @@
+package main.game;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class is used for reading and writing maps in a compact binary format.
+ * The file is laid out so it can be memory-mapped and copied straight into the map's arrays, without any text parsing.
+ *
+ * All numbers are big-endian 32-bit integers. The layout is:
+ *   header: magic bytes "RQMB", format version, string count, string byte count, continent count, territory count, border count
+ *   string table: the offset of each string in the string bytes (plus one for the end), then the UTF-8 string bytes padded to 4 bytes
+ *   continent table: the name (string index) and bonus armies of each continent
+ *   territory table: the name (string index) and continent index of each territory
+ *   borders: the compressed sparse row offsets (one per territory plus one), then the sorted neighbour indices of each territory
+ * @author Kyle
+ */
+public class BinaryMapReaderWriter extends MapReaderWriter {
+	/**
+	 * The magic bytes at the start of every binary map file: "RQMB".
+	 */
+	private static final int MAGIC = 0x52514D42;
+
+	/**
+	 * The version of the format written by this class.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * The size of the header in bytes.
+	 */
+	private static final int HEADER_SIZE = 7 * Integer.BYTES;
+
+	/**
+	 * Checks whether a file starts with the magic bytes of a binary map.
+	 * @param p_file The file to check.
+	 * @return True if it looks like a binary map file.
+	 */
+	public static boolean isBinaryMapFile(File p_file) {
+		try (FileChannel l_channel = FileChannel.open(p_file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer l_buffer = ByteBuffer.allocate(Integer.BYTES);
+			while (l_buffer.hasRemaining()) {
+				if (l_channel.read(l_buffer) < 0) {
+					return false;
+				}
+			}
+			l_buffer.flip();
+			return l_buffer.getInt() == MAGIC;
+		}
+		catch (IOException l_exception) {
+			return false;
+		}
+	}
+
+	/**
+	 * Gets the name of the format this reader/writer uses.
+	 * @return The format name.
+	 */
+	@Override
+	public String getFormatName() {
+		return "Binary";
+	}
+
+	/**
+	 * Loads a map from a binary map file by memory-mapping it and bulk-copying its tables.
+	 *
+	 * @param p_file The file to load from (including the extension).
+	 * @return The map if a valid one was loaded, otherwise null.
+	 */
+	@Override
+	public Map loadFromFile(File p_file) {
+		try (FileChannel l_channel = FileChannel.open(p_file.toPath(), StandardOpenOption.READ)) {
+			long l_fileSize = l_channel.size();
+			if (l_fileSize < HEADER_SIZE || l_fileSize > Integer.MAX_VALUE) {
+				return null;
+			}
+			MappedByteBuffer l_buffer = l_channel.map(FileChannel.MapMode.READ_ONLY, 0, l_fileSize);
+			if (l_buffer.getInt() != MAGIC || l_buffer.getInt() != VERSION) {
+				return null;
+			}
+			int l_numStrings = l_buffer.getInt();
+			int l_numStringBytes = l_buffer.getInt();
+			int l_numContinents = l_buffer.getInt();
+			int l_numTerritories = l_buffer.getInt();
+			int l_numBorders = l_buffer.getInt();
+			if (l_numStrings < 0 || l_numStringBytes < 0 || l_numContinents < 0 || l_numTerritories < 0 || l_numBorders < 0) {
+				return null;
+			}
+			// Check the file is big enough for every table before allocating anything.
+			long l_expectedSize = HEADER_SIZE + Integer.BYTES * (l_numStrings + 1L) + paddedLength(l_numStringBytes)
+					+ Integer.BYTES * (2L * l_numContinents + 2L * l_numTerritories + l_numTerritories + 1L + l_numBorders);
+			if (l_fileSize != l_expectedSize) {
+				return null;
+			}
+
+			// Read the string table.
+			int[] l_stringOffsets = readInts(l_buffer, l_numStrings + 1);
+			byte[] l_stringBytes = new byte[l_numStringBytes];
+			l_buffer.get(l_stringBytes);
+			l_buffer.position(l_buffer.position() + (int)(paddedLength(l_numStringBytes) - l_numStringBytes));
+			String[] l_strings = new String[l_numStrings];
+			for (int l_idx = 0; l_idx < l_numStrings; l_idx++) {
+				int l_start = l_stringOffsets[l_idx];
+				int l_end = l_stringOffsets[l_idx + 1];
+				if (l_start < 0 || l_end < l_start || l_end > l_numStringBytes) {
+					return null;
+				}
+				l_strings[l_idx] = new String(l_stringBytes, l_start, l_end - l_start, StandardCharsets.UTF_8);
+			}
+
+			Map l_map = new Map();
+			// Read the continent table.
+			int[] l_continents = readInts(l_buffer, 2 * l_numContinents);
+			for (int l_idx = 0; l_idx < l_numContinents; l_idx++) {
+				int l_nameIdx = l_continents[2 * l_idx];
+				if (l_nameIdx < 0 || l_nameIdx >= l_numStrings
+						|| !l_map.createContinent(l_strings[l_nameIdx], l_continents[2 * l_idx + 1], l_idx + 1)) {
+					return null;
+				}
+			}
+
+			// Read the territory table.
+			int[] l_territories = readInts(l_buffer, 2 * l_numTerritories);
+			for (int l_idx = 0; l_idx < l_numTerritories; l_idx++) {
+				int l_nameIdx = l_territories[2 * l_idx];
+				if (l_nameIdx < 0 || l_nameIdx >= l_numStrings
+						|| !l_map.createTerritory(l_idx + 1, l_strings[l_nameIdx], l_territories[2 * l_idx + 1] + 1)) {
+					return null;
+				}
+			}
+
+			// Read the borders, which are already packed the way the map stores them.
+			int[] l_borderOffsets = readInts(l_buffer, l_numTerritories + 1);
+			int[] l_borderTargets = readInts(l_buffer, l_numBorders);
+			if (l_map.setBorders(l_borderOffsets, l_borderTargets) && l_map.validateMap()) {
+				return l_map;
+			}
+		}
+		catch (IOException l_exception) {
+			// Do nothing; we'll just return null below.
+		}
+		// Return null if we did not load a valid map by this point.
+		return null;
+	}
+
+	/**
+	 * Saves the input map to a given file name in the binary format. Overwrites any existing map with the same name.
+	 * The map will only save if it is valid.
+	 * @param p_map The map to save.
+	 * @param p_fileName The name of the file to save to, including the extension.
+	 * @return Whether the file was successfully saved.
+	 */
+	@Override
+	public boolean saveToFile(Map p_map, String p_fileName) {
+		// Do not allow us to save if the map is not valid.
+		if (!p_map.validateMap()) {
+			return false;
+		}
+		// Freezing only changes how the borders are stored; it packs them in the same form the file uses.
+		p_map.freeze();
+
+		int l_numContinents = p_map.getNumContinents();
+		int l_numTerritories = p_map.getNumTerritories();
+		int l_numStrings = l_numContinents + l_numTerritories;
+
+		// Build the string table: the continent names, then the territory names.
+		byte[][] l_strings = new byte[l_numStrings][];
+		int[] l_stringOffsets = new int[l_numStrings + 1];
+		for (int l_idx = 0; l_idx < l_numStrings; l_idx++) {
+			String l_name = l_idx < l_numContinents ? p_map.getContinent(l_idx + 1).getName() : p_map.getTerritory(l_idx - l_numContinents + 1).getName();
+			l_strings[l_idx] = l_name.getBytes(StandardCharsets.UTF_8);
+			l_stringOffsets[l_idx + 1] = l_stringOffsets[l_idx] + l_strings[l_idx].length;
+		}
+		int l_numStringBytes = l_stringOffsets[l_numStrings];
+		int l_numBorders = 0;
+		for (int l_tID = 1; l_tID <= l_numTerritories; l_tID++) {
+			l_numBorders += p_map.getNumNeighbours(l_tID);
+		}
+
+		try (DataOutputStream l_out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(p_fileName)))) {
+			l_out.writeInt(MAGIC);
+			l_out.writeInt(VERSION);
+			l_out.writeInt(l_numStrings);
+			l_out.writeInt(l_numStringBytes);
+			l_out.writeInt(l_numContinents);
+			l_out.writeInt(l_numTerritories);
+			l_out.writeInt(l_numBorders);
+
+			for (int l_offset : l_stringOffsets) {
+				l_out.writeInt(l_offset);
+			}
+			for (byte[] l_string : l_strings) {
+				l_out.write(l_string);
+			}
+			for (int l_idx = l_numStringBytes; l_idx < paddedLength(l_numStringBytes); l_idx++) {
+				l_out.writeByte(0);
+			}
+
+			for (int l_cID = 1; l_cID <= l_numContinents; l_cID++) {
+				l_out.writeInt(l_cID - 1);
+				l_out.writeInt(p_map.getContinent(l_cID).getBonusArmies());
+			}
+			for (int l_tID = 1; l_tID <= l_numTerritories; l_tID++) {
+				l_out.writeInt(l_numContinents + l_tID - 1);
+				l_out.writeInt(p_map.getContinentID(p_map.getTerritory(l_tID).getContinent()) - 1);
+			}
+
+			int l_offset = 0;
+			l_out.writeInt(l_offset);
+			for (int l_tID = 1; l_tID <= l_numTerritories; l_tID++) {
+				l_offset += p_map.getNumNeighbours(l_tID);
+				l_out.writeInt(l_offset);
+			}
+			for (int l_tID = 1; l_tID <= l_numTerritories; l_tID++) {
+				for (int l_nIdx = 0; l_nIdx < p_map.getNumNeighbours(l_tID); l_nIdx++) {
+					l_out.writeInt(p_map.getNeighbourID(l_tID, l_nIdx) - 1);
+				}
+			}
+			return true;
+		}
+		catch (IOException l_exception) {
+			return false;
+		}
+	}
+
+	/**
+	 * Bulk-reads integers from the buffer at its current position.
+	 * @param p_buffer The buffer to read from.
+	 * @param p_count The number of integers to read.
+	 * @return The integers.
+	 */
+	private static int[] readInts(ByteBuffer p_buffer, int p_count) {
+		int[] l_ints = new int[p_count];
+		p_buffer.asIntBuffer().get(l_ints);
+		p_buffer.position(p_buffer.position() + p_count * Integer.BYTES);
+		return l_ints;
+	}
+
+	/**
+	 * Rounds a number of bytes up to a whole number of integers, so the tables after the strings stay aligned.
+	 * @param p_numBytes The number of bytes.
+	 * @return The padded number of bytes.
+	 */
+	private static long paddedLength(long p_numBytes) {
+		return (p_numBytes + Integer.BYTES - 1) / Integer.BYTES * Integer.BYTES;
+	}
+}
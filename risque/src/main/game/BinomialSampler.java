@@ -0,0 +1,201 @@
+package main.game;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Draws random numbers from a binomial distribution, i.e. the number of successes in n independent trials with the same chance.
+ * This gives the same distribution as rolling every trial one by one, but in (nearly) constant time.
+ *
+ * Small means use exact inversion (searching the cumulative distribution from zero).
+ * Large means use the BTPE algorithm (Kachitvichyanukul and Schmeiser, 1988), an exact rejection sampler
+ * that accepts most draws after a couple of uniform numbers.
+ * @author Kyle
+ */
+public final class BinomialSampler {
+	/**
+	 * Below this mean (n * p, with p at most one half), inversion is used instead of BTPE.
+	 */
+	private static final double INVERSION_MAX_MEAN = 30.0;
+
+	/**
+	 * This class only has static functions.
+	 */
+	private BinomialSampler() {
+	}
+
+	/**
+	 * Draws the number of successes in p_numTrials trials that each succeed with chance p_chance.
+	 * @param p_uniform The source of uniform random numbers in [0, 1).
+	 * @param p_numTrials The number of trials.
+	 * @param p_chance The chance of success for each trial.
+	 * @return The number of successes, between 0 and p_numTrials.
+	 */
+	public static int sample(DoubleSupplier p_uniform, int p_numTrials, double p_chance) {
+		if (p_numTrials <= 0 || p_chance <= 0.0) {
+			return 0;
+		}
+		if (p_chance >= 1.0) {
+			return p_numTrials;
+		}
+		// Both methods need a chance of at most one half; count the failures instead if it is higher.
+		if (p_chance > 0.5) {
+			return p_numTrials - sample(p_uniform, p_numTrials, 1.0 - p_chance);
+		}
+		if (p_numTrials * p_chance < INVERSION_MAX_MEAN) {
+			return sampleByInversion(p_uniform, p_numTrials, p_chance);
+		}
+		return sampleByBTPE(p_uniform, p_numTrials, p_chance);
+	}
+
+	/**
+	 * Draws by walking the probability mass function up from zero until the uniform number is used up.
+	 * Takes O(n * p) steps, which is why it is only used for small means.
+	 * @param p_uniform The source of uniform random numbers in [0, 1).
+	 * @param p_numTrials The number of trials.
+	 * @param p_chance The chance of success for each trial, at most one half.
+	 * @return The number of successes.
+	 */
+	private static int sampleByInversion(DoubleSupplier p_uniform, int p_numTrials, double p_chance) {
+		double l_failChance = 1.0 - p_chance;
+		double l_ratio = p_chance / l_failChance;
+		double l_numerator = (p_numTrials + 1) * l_ratio;
+		// P(0) = q^n cannot underflow here: n * p < 30 and p <= 1/2 keeps it above e^-60.
+		double l_probZero = Math.pow(l_failChance, p_numTrials);
+		while (true) {
+			double l_prob = l_probZero;
+			double l_uniform = p_uniform.getAsDouble();
+			int l_successes = 0;
+			while (l_uniform > l_prob) {
+				l_uniform -= l_prob;
+				l_successes++;
+				if (l_successes > p_numTrials) {
+					break;
+				}
+				// P(x) = P(x - 1) * ((n + 1) / x - 1) * p / q
+				l_prob *= l_numerator / l_successes - l_ratio;
+			}
+			// Rounding can leave a sliver of the uniform number unused; just draw again in that case.
+			if (l_successes <= p_numTrials) {
+				return l_successes;
+			}
+		}
+	}
+
+	/**
+	 * Draws using BTPE ("binomial, triangle, parallelogram, exponential"), which is exact and takes constant expected time.
+	 * The distribution is covered by a triangle in the middle, parallelograms on either side and exponential tails;
+	 * a point is drawn under that cover, and kept if it also falls under the true distribution.
+	 * @param p_uniform The source of uniform random numbers in [0, 1).
+	 * @param p_numTrials The number of trials.
+	 * @param p_chance The chance of success for each trial, at most one half.
+	 * @return The number of successes.
+	 */
+	private static int sampleByBTPE(DoubleSupplier p_uniform, int p_numTrials, double p_chance) {
+		int l_n = p_numTrials;
+		double l_r = p_chance;
+		double l_q = 1.0 - l_r;
+		double l_nrq = l_n * l_r * l_q;
+		// Set up the regions: the mode, the triangle's half-width, and the tails' rates.
+		double l_fm = l_n * l_r + l_r;
+		int l_m = (int)Math.floor(l_fm);
+		double l_p1 = Math.floor(2.195 * Math.sqrt(l_nrq) - 4.6 * l_q) + 0.5;
+		double l_xm = l_m + 0.5;
+		double l_xl = l_xm - l_p1;
+		double l_xr = l_xm + l_p1;
+		double l_c = 0.134 + 20.5 / (15.3 + l_m);
+		double l_a = (l_fm - l_xl) / (l_fm - l_xl * l_r);
+		double l_lambdaL = l_a * (1.0 + 0.5 * l_a);
+		l_a = (l_xr - l_fm) / (l_xr * l_q);
+		double l_lambdaR = l_a * (1.0 + 0.5 * l_a);
+		double l_p2 = l_p1 * (1.0 + 2.0 * l_c);
+		double l_p3 = l_p2 + l_c / l_lambdaL;
+		double l_p4 = l_p3 + l_c / l_lambdaR;
+
+		while (true) {
+			double l_u = p_uniform.getAsDouble() * l_p4;
+			double l_v = p_uniform.getAsDouble();
+			int l_y;
+			if (l_u <= l_p1) {
+				// The triangle: always accepted.
+				return (int)Math.floor(l_xm - l_p1 * l_v + l_u);
+			}
+			else if (l_u <= l_p2) {
+				// The parallelograms.
+				double l_x = l_xl + (l_u - l_p1) / l_c;
+				l_v = l_v * l_c + 1.0 - Math.abs(l_m - l_x + 0.5) / l_p1;
+				if (l_v > 1.0) {
+					continue;
+				}
+				l_y = (int)Math.floor(l_x);
+			}
+			else if (l_u <= l_p3) {
+				// The left exponential tail.
+				l_y = (int)Math.floor(l_xl + Math.log(l_v) / l_lambdaL);
+				if (l_y < 0) {
+					continue;
+				}
+				l_v = l_v * (l_u - l_p2) * l_lambdaL;
+			}
+			else {
+				// The right exponential tail.
+				l_y = (int)Math.floor(l_xr - Math.log(l_v) / l_lambdaR);
+				if (l_y > l_n) {
+					continue;
+				}
+				l_v = l_v * (l_u - l_p3) * l_lambdaR;
+			}
+
+			// Accept or reject the point against the real distribution.
+			int l_k = Math.abs(l_y - l_m);
+			if (l_k <= 20 || l_k >= l_nrq / 2.0 - 1.0) {
+				// Close to the mode: evaluate P(y) / P(m) exactly with the recurrence.
+				double l_s = l_r / l_q;
+				double l_as = l_s * (l_n + 1);
+				double l_f = 1.0;
+				if (l_m < l_y) {
+					for (int l_idx = l_m + 1; l_idx <= l_y; l_idx++) {
+						l_f *= l_as / l_idx - l_s;
+					}
+				}
+				else if (l_m > l_y) {
+					for (int l_idx = l_y + 1; l_idx <= l_m; l_idx++) {
+						l_f /= l_as / l_idx - l_s;
+					}
+				}
+				if (l_v <= l_f) {
+					return l_y;
+				}
+				continue;
+			}
+			// Far from the mode: squeeze with bounds on log(P(y) / P(m)) first, and only then use Stirling's approximation.
+			double l_rho = (l_k / l_nrq) * ((l_k * (l_k / 3.0 + 0.625) + 0.1666666666666) / l_nrq + 0.5);
+			double l_t = -l_k * (double)l_k / (2.0 * l_nrq);
+			double l_logV = Math.log(l_v);
+			if (l_logV < l_t - l_rho) {
+				return l_y;
+			}
+			if (l_logV > l_t + l_rho) {
+				continue;
+			}
+			double l_x1 = l_y + 1;
+			double l_f1 = l_m + 1;
+			double l_z = l_n + 1 - l_m;
+			double l_w = l_n - l_y + 1;
+			double l_bound = l_xm * Math.log(l_f1 / l_x1) + (l_n - l_m + 0.5) * Math.log(l_z / l_w) + (l_y - l_m) * Math.log(l_w * l_r / (l_x1 * l_q))
+					+ stirlingCorrection(l_f1) + stirlingCorrection(l_z) + stirlingCorrection(l_x1) + stirlingCorrection(l_w);
+			if (l_logV <= l_bound) {
+				return l_y;
+			}
+		}
+	}
+
+	/**
+	 * The correction term of Stirling's approximation to log(x!) used by BTPE's final acceptance test.
+	 * @param p_x The value.
+	 * @return The correction term.
+	 */
+	private static double stirlingCorrection(double p_x) {
+		double l_x2 = p_x * p_x;
+		return (13680.0 - (462.0 - (132.0 - (99.0 - 140.0 / l_x2) / l_x2) / l_x2) / l_x2) / p_x / 166320.0;
+	}
+}
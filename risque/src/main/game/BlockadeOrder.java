@@ -24,10 +24,8 @@ public class BlockadeOrder extends Order {
 		if (d_territory != null) {
 			// Triple the number of armies.
 			d_territory.setNumArmies(d_territory.getNumArmies() * 3);
-			// Remove it from anyone's territory list.
-			for (Player l_player : d_engine.getPlayers()) {
-				l_player.removeOwnedTerritory(d_territory);
-			}
+			// Nobody owns it anymore.
+			d_engine.changeTerritoryOwner(d_territory, null);
 			d_engine.broadcastMessage(d_territory.getDisplayName() + " was blockaded; it is now a neutral territory.");
 			return true;
 		}
@@ -35,4 +33,12 @@ public class BlockadeOrder extends Order {
 		getIssuer().addCard("blockade");
 		return false;
 	}
+	
+	/**
+	 * Gets the territory to blockade.
+	 * @return The territory.
+	 */
+	public Territory getTerritory() {
+		return d_territory;
+	}
 }
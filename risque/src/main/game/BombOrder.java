@@ -28,12 +28,20 @@ public class BombOrder extends Order {
 		if (d_target != null && d_engine.getPhase().canAttackTerritory(d_target, getIssuer())) {
 			int l_prevNumArmies = d_target.getNumArmies();
 			d_target.setNumArmies(l_prevNumArmies / 2);
-			getEngine().broadcastMessage(getIssuer().getName() + " bombed " + d_target.getDisplayName() + "(" + getEngine().getTerritoryOwner(d_target).getName() + "). The garrison of " + l_prevNumArmies + " was reduced to " + d_target.getNumArmies() + ".");
+			getEngine().broadcastMessage(() -> getIssuer().getName() + " bombed " + d_target.getDisplayName() + "(" + getEngine().getTerritoryOwner(d_target).getName() + "). The garrison of " + l_prevNumArmies + " was reduced to " + d_target.getNumArmies() + ".");
 			return true;
 		}
 		// If somehow this bombing fails, give the player their card back.
-		getEngine().broadcastMessage(getIssuer().getName() + " managed to break the game by trying to bomb a nonexistent territory.");
+		getEngine().broadcastMessage(() -> getIssuer().getName() + " managed to break the game by trying to bomb a nonexistent territory.");
 		getIssuer().addCard("bomb");
 		return false;
 	}
+	
+	/**
+	 * Gets the territory to bomb.
+	 * @return The territory.
+	 */
+	public Territory getTarget() {
+		return d_target;
+	}
 }
@@ -0,0 +1,73 @@
+package main.game;
+
+import java.io.Writer;
+
+/**
+ * A writer that sends what is written to it to every observer of a game engine as messages.
+ * Text is sent in chunks of whole lines, so large outputs (such as a whole map) are never built up as one giant string.
+ * The line break at the end of a chunk is dropped, since observers already put each message on its own line.
+ * @author Kyle
+ */
+class BroadcastWriter extends Writer {
+	/**
+	 * The number of characters after which the buffered lines are broadcast.
+	 */
+	private static final int CHUNK_SIZE = 1 << 13;
+
+	/**
+	 * The engine to broadcast messages through.
+	 */
+	private GameEngine d_engine;
+
+	/**
+	 * The text written but not yet broadcast.
+	 */
+	private StringBuilder d_buffer;
+
+	/**
+	 * Creates a writer that broadcasts through an engine.
+	 * @param p_engine The engine to broadcast messages through.
+	 */
+	BroadcastWriter(GameEngine p_engine) {
+		d_engine = p_engine;
+		d_buffer = new StringBuilder(CHUNK_SIZE);
+	}
+
+	/**
+	 * Buffers text, and broadcasts the complete lines once there are enough of them.
+	 */
+	@Override
+	public void write(char[] p_chars, int p_offset, int p_length) {
+		d_buffer.append(p_chars, p_offset, p_length);
+		if (d_buffer.length() >= CHUNK_SIZE) {
+			int l_lastLineEnd = d_buffer.lastIndexOf("\n");
+			if (l_lastLineEnd >= 0) {
+				d_engine.broadcastMessage(d_buffer.substring(0, l_lastLineEnd));
+				d_buffer.delete(0, l_lastLineEnd + 1);
+			}
+		}
+	}
+
+	/**
+	 * Broadcasts whatever has been buffered, even if it does not end with a full line.
+	 */
+	@Override
+	public void flush() {
+		int l_length = d_buffer.length();
+		if (l_length > 0 && d_buffer.charAt(l_length - 1) == '\n') {
+			l_length--;
+		}
+		if (l_length > 0) {
+			d_engine.broadcastMessage(d_buffer.substring(0, l_length));
+		}
+		d_buffer.setLength(0);
+	}
+
+	/**
+	 * Broadcasts whatever is left.
+	 */
+	@Override
+	public void close() {
+		flush();
+	}
+}
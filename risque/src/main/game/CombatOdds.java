@@ -0,0 +1,366 @@
+package main.game;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The exact odds of an {@link AdvanceOrder} attack, so that strategies can weigh up attacks without simulating them.
+ *
+ * In an attack, N attackers kill Bin(N, 0.6) defenders and M defenders kill Bin(M, 0.7) attackers, each capped at the size of the other side,
+ * and the territory is taken if every defender dies. So all the odds follow from the capped binomial distributions of each side's kills,
+ * which are worked out once per army count and memoised, making every query constant time.
+ *
+ * For each number of trials n, a row holds P(kills &gt;= j) and E[min(kills, j)] for j from 0 to n.
+ * Rows are computed on first use, up to a maximum army count; larger armies are computed on demand without being kept.
+ * A fully computed table can be saved to a file and loaded later to skip the work altogether.
+ * A loaded file is memory-mapped rather than read, so loading takes no time, and each row is copied out of the mapping the first time it is used.
+ * Rows are published atomically, so one table can be shared between games running on different threads.
+ * @author Kyle
+ */
+public class CombatOdds {
+	/**
+	 * The magic bytes at the start of every combat odds file: "RQCO".
+	 */
+	private static final int MAGIC = 0x5251434F;
+
+	/**
+	 * The version of the file format written by this class.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * The size of the file header in bytes: magic, version, both kill chances and the maximum army count.
+	 */
+	private static final int HEADER_SIZE = 5 * Integer.BYTES;
+
+	/**
+	 * The largest army count the shared table memoises.
+	 */
+	public static final int DEFAULT_MAX_ARMIES = 512;
+
+	/**
+	 * The table used by strategies unless another one has been installed.
+	 */
+	private static final AtomicReference<CombatOdds> SHARED = new AtomicReference<>();
+
+	/**
+	 * The chance that each attacking army kills a defender.
+	 */
+	private float d_attackerKillChance;
+
+	/**
+	 * The chance that each defending army kills an attacker.
+	 */
+	private float d_defenderKillChance;
+
+	/**
+	 * The largest army count that is memoised.
+	 */
+	private int d_maxArmies;
+
+	/**
+	 * The rows for the attackers' kills, by number of attackers.
+	 */
+	private AtomicReferenceArray<double[]> d_attackerRows;
+
+	/**
+	 * The rows for the defenders' kills, by number of defenders.
+	 */
+	private AtomicReferenceArray<double[]> d_defenderRows;
+
+	/**
+	 * The values of a loaded file, attackers' rows then defenders' rows, or null if the table was not loaded from a file.
+	 */
+	private DoubleBuffer d_savedValues;
+
+	/**
+	 * Creates an empty table for the kill chances used by {@link AdvanceOrder}.
+	 * @param p_maxArmies The largest army count to memoise.
+	 */
+	public CombatOdds(int p_maxArmies) {
+		this(p_maxArmies, AdvanceOrder.ATTACKER_KILL_CHANCE, AdvanceOrder.DEFENDER_KILL_CHANCE);
+	}
+
+	/**
+	 * Creates an empty table.
+	 * @param p_maxArmies The largest army count to memoise.
+	 * @param p_attackerKillChance The chance that each attacking army kills a defender.
+	 * @param p_defenderKillChance The chance that each defending army kills an attacker.
+	 */
+	private CombatOdds(int p_maxArmies, float p_attackerKillChance, float p_defenderKillChance) {
+		d_maxArmies = Math.max(0, p_maxArmies);
+		d_attackerKillChance = p_attackerKillChance;
+		d_defenderKillChance = p_defenderKillChance;
+		d_attackerRows = new AtomicReferenceArray<>(d_maxArmies + 1);
+		d_defenderRows = new AtomicReferenceArray<>(d_maxArmies + 1);
+		d_savedValues = null;
+	}
+
+	/**
+	 * Gets the table shared by every game, creating it the first time it is needed.
+	 * @return The shared table.
+	 */
+	public static CombatOdds getShared() {
+		CombatOdds l_shared = SHARED.get();
+		if (l_shared == null) {
+			// If several threads get here at once, they all end up with whichever table was installed first.
+			SHARED.compareAndSet(null, new CombatOdds(DEFAULT_MAX_ARMIES));
+			l_shared = SHARED.get();
+		}
+		return l_shared;
+	}
+
+	/**
+	 * Replaces the shared table, e.g. with one loaded from a precomputed file.
+	 * @param p_odds The table to share.
+	 */
+	public static void setShared(CombatOdds p_odds) {
+		SHARED.set(p_odds);
+	}
+
+	/**
+	 * Gets the largest army count that is memoised.
+	 * @return The maximum army count.
+	 */
+	public int getMaxArmies() {
+		return d_maxArmies;
+	}
+
+	/**
+	 * Gets the chance that an attack takes the territory.
+	 * @param p_numAttackers The number of attacking armies.
+	 * @param p_numDefenders The number of defending armies.
+	 * @return The chance of taking the territory, between 0 and 1.
+	 */
+	public double getWinChance(int p_numAttackers, int p_numDefenders) {
+		if (p_numDefenders <= 0) {
+			return 1.0;
+		}
+		if (p_numDefenders > p_numAttackers) {
+			return 0.0;
+		}
+		return getAttackerRow(p_numAttackers)[p_numDefenders];
+	}
+
+	/**
+	 * Gets the expected number of attackers left after an attack, whether they take the territory or return home.
+	 * @param p_numAttackers The number of attacking armies.
+	 * @param p_numDefenders The number of defending armies.
+	 * @return The expected number of surviving attackers.
+	 */
+	public double getExpectedSurvivingAttackers(int p_numAttackers, int p_numDefenders) {
+		if (p_numAttackers <= 0 || p_numDefenders <= 0) {
+			return Math.max(0, p_numAttackers);
+		}
+		double[] l_row = getDefenderRow(p_numDefenders);
+		return p_numAttackers - l_row[p_numDefenders + 1 + Math.min(p_numAttackers, p_numDefenders)];
+	}
+
+	/**
+	 * Gets the expected number of defenders left after an attack.
+	 * @param p_numAttackers The number of attacking armies.
+	 * @param p_numDefenders The number of defending armies.
+	 * @return The expected number of surviving defenders.
+	 */
+	public double getExpectedSurvivingDefenders(int p_numAttackers, int p_numDefenders) {
+		if (p_numAttackers <= 0 || p_numDefenders <= 0) {
+			return Math.max(0, p_numDefenders);
+		}
+		double[] l_row = getAttackerRow(p_numAttackers);
+		return p_numDefenders - l_row[p_numAttackers + 1 + Math.min(p_numAttackers, p_numDefenders)];
+	}
+
+	/**
+	 * Computes every row up to the maximum army count, e.g. before saving the table.
+	 */
+	public void precompute() {
+		for (int l_numArmies = 0; l_numArmies <= d_maxArmies; l_numArmies++) {
+			getAttackerRow(l_numArmies);
+			getDefenderRow(l_numArmies);
+		}
+	}
+
+	/**
+	 * Gets the row for the kills of a number of attackers.
+	 * @param p_numAttackers The number of attackers.
+	 * @return The row.
+	 */
+	private double[] getAttackerRow(int p_numAttackers) {
+		return getRow(d_attackerRows, 0, p_numAttackers, d_attackerKillChance);
+	}
+
+	/**
+	 * Gets the row for the kills of a number of defenders.
+	 * @param p_numDefenders The number of defenders.
+	 * @return The row.
+	 */
+	private double[] getDefenderRow(int p_numDefenders) {
+		return getRow(d_defenderRows, getNumValuesPerFamily(d_maxArmies), p_numDefenders, d_defenderKillChance);
+	}
+
+	/**
+	 * Gets a memoised row, copying it from the loaded file or computing it if it has not been yet.
+	 * Two threads may both fill in a missing row, but they get the same values, so whichever is stored does not matter.
+	 * @param p_rows The memoised rows.
+	 * @param p_familyOffset Where the family of rows starts in the loaded file's values.
+	 * @param p_numTrials The number of trials (armies) of the row.
+	 * @param p_chance The chance of each trial succeeding.
+	 * @return The row.
+	 */
+	private double[] getRow(AtomicReferenceArray<double[]> p_rows, long p_familyOffset, int p_numTrials, double p_chance) {
+		if (p_numTrials > d_maxArmies) {
+			return computeRow(p_numTrials, p_chance);
+		}
+		double[] l_row = p_rows.get(p_numTrials);
+		if (l_row == null) {
+			if (d_savedValues != null) {
+				// The rows before row n hold 2 * (1 + 2 + ... + n) values. Absolute reads leave the shared buffer's position alone.
+				l_row = new double[2 * (p_numTrials + 1)];
+				d_savedValues.get((int)(p_familyOffset + (long)p_numTrials * (p_numTrials + 1)), l_row);
+			}
+			else {
+				l_row = computeRow(p_numTrials, p_chance);
+			}
+			p_rows.set(p_numTrials, l_row);
+		}
+		return l_row;
+	}
+
+	/**
+	 * Gets the number of values in one family of rows of a saved table: 2 * (1 + 2 + ... + (max + 1)).
+	 * @param p_maxArmies The largest army count of the table.
+	 * @return The number of values.
+	 */
+	private static long getNumValuesPerFamily(int p_maxArmies) {
+		return (p_maxArmies + 1L) * (p_maxArmies + 2L);
+	}
+
+	/**
+	 * Computes the row for a binomial distribution: P(X &gt;= j) for j from 0 to n, followed by E[min(X, j)] for j from 0 to n.
+	 * @param p_numTrials The number of trials, n.
+	 * @param p_chance The chance of each trial succeeding.
+	 * @return The row, of length 2 * (n + 1).
+	 */
+	static double[] computeRow(int p_numTrials, double p_chance) {
+		int l_n = p_numTrials;
+		double[] l_row = new double[2 * (l_n + 1)];
+		// Work out the probabilities relative to the mode, then normalise, so nothing underflows near the middle of large distributions.
+		double[] l_probs = new double[l_n + 1];
+		if (p_chance <= 0.0) {
+			l_probs[0] = 1.0;
+		}
+		else if (p_chance >= 1.0) {
+			l_probs[l_n] = 1.0;
+		}
+		else {
+			double l_ratio = p_chance / (1.0 - p_chance);
+			int l_mode = Math.min(l_n, (int)Math.floor((l_n + 1) * p_chance));
+			l_probs[l_mode] = 1.0;
+			double l_total = 1.0;
+			// P(k) = P(k - 1) * (n - k + 1) / k * p / q
+			for (int l_k = l_mode + 1; l_k <= l_n; l_k++) {
+				l_probs[l_k] = l_probs[l_k - 1] * (l_n - l_k + 1) / l_k * l_ratio;
+				l_total += l_probs[l_k];
+			}
+			for (int l_k = l_mode - 1; l_k >= 0; l_k--) {
+				l_probs[l_k] = l_probs[l_k + 1] * (l_k + 1) / (l_n - l_k) / l_ratio;
+				l_total += l_probs[l_k];
+			}
+			for (int l_k = 0; l_k <= l_n; l_k++) {
+				l_probs[l_k] /= l_total;
+			}
+		}
+		// The tail, summed from the top so small probabilities are not lost against large ones.
+		double l_tail = 0.0;
+		for (int l_j = l_n; l_j >= 1; l_j--) {
+			l_tail += l_probs[l_j];
+			l_row[l_j] = Math.min(1.0, l_tail);
+		}
+		l_row[0] = 1.0;
+		// E[min(X, j)] = P(X >= 1) + ... + P(X >= j)
+		for (int l_j = 1; l_j <= l_n; l_j++) {
+			l_row[l_n + 1 + l_j] = l_row[l_n + l_j] + l_row[l_j];
+		}
+		return l_row;
+	}
+
+	/**
+	 * Computes every row and saves the table to a file. Overwrites any existing file with the same name.
+	 * @param p_fileName The name of the file to save to.
+	 * @return Whether the file was successfully saved.
+	 */
+	public boolean saveToFile(String p_fileName) {
+		precompute();
+		try (DataOutputStream l_out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(p_fileName)))) {
+			l_out.writeInt(MAGIC);
+			l_out.writeInt(VERSION);
+			l_out.writeFloat(d_attackerKillChance);
+			l_out.writeFloat(d_defenderKillChance);
+			l_out.writeInt(d_maxArmies);
+			writeRows(l_out, d_attackerRows);
+			writeRows(l_out, d_defenderRows);
+			return true;
+		}
+		catch (IOException l_exception) {
+			return false;
+		}
+	}
+
+	/**
+	 * Loads a table saved by {@link #saveToFile(String)}.
+	 * Files computed for different kill chances than {@link AdvanceOrder}'s are rejected, since their odds would be wrong.
+	 * @param p_file The file to load from.
+	 * @return The table if a valid one was loaded, otherwise null.
+	 */
+	public static CombatOdds loadFromFile(File p_file) {
+		try (FileChannel l_channel = FileChannel.open(p_file.toPath(), StandardOpenOption.READ)) {
+			long l_fileSize = l_channel.size();
+			if (l_fileSize < HEADER_SIZE || l_fileSize > Integer.MAX_VALUE) {
+				return null;
+			}
+			MappedByteBuffer l_buffer = l_channel.map(FileChannel.MapMode.READ_ONLY, 0, l_fileSize);
+			if (l_buffer.getInt() != MAGIC || l_buffer.getInt() != VERSION) {
+				return null;
+			}
+			float l_attackerKillChance = l_buffer.getFloat();
+			float l_defenderKillChance = l_buffer.getFloat();
+			int l_maxArmies = l_buffer.getInt();
+			if (l_attackerKillChance != AdvanceOrder.ATTACKER_KILL_CHANCE || l_defenderKillChance != AdvanceOrder.DEFENDER_KILL_CHANCE || l_maxArmies < 0) {
+				return null;
+			}
+			if (l_fileSize != HEADER_SIZE + 2 * Double.BYTES * getNumValuesPerFamily(l_maxArmies)) {
+				return null;
+			}
+			CombatOdds l_odds = new CombatOdds(l_maxArmies, l_attackerKillChance, l_defenderKillChance);
+			// The mapping stays valid once the channel is closed.
+			l_odds.d_savedValues = l_buffer.asDoubleBuffer();
+			return l_odds;
+		}
+		catch (IOException l_exception) {
+			return null;
+		}
+	}
+
+	/**
+	 * Writes every row of a family, in order of army count.
+	 * @param p_out The stream to write to.
+	 * @param p_rows The rows, all of which must have been computed.
+	 * @throws IOException if the rows could not be written.
+	 */
+	private static void writeRows(DataOutputStream p_out, AtomicReferenceArray<double[]> p_rows) throws IOException {
+		for (int l_numArmies = 0; l_numArmies < p_rows.length(); l_numArmies++) {
+			for (double l_value : p_rows.get(l_numArmies)) {
+				p_out.writeDouble(l_value);
+			}
+		}
+	}
+}
@@ -58,6 +58,9 @@ public class Continent extends MapEntity {
 	 */
 	public void setName(String p_name) {
 		d_name = p_name;
+		if (getMap() != null) {
+			getMap().onContinentRenamed();
+		}
 	}
 	
 	/**
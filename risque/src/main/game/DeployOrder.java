@@ -35,7 +35,9 @@ public class DeployOrder extends Order {
 		// Ensure we own the territory we are deploying to (in case it was somehow conquered before this can be executed).
 		if (d_engine.getTerritoryOwner(d_territory) == getIssuer()) {
 			d_territory.setNumArmies(d_territory.getNumArmies() + d_numArmiesToDeploy);
-			d_engine.broadcastMessage(getIssuer().getName() +  " deployed " + d_numArmiesToDeploy + " to " + d_territory.getDisplayName() + ", for a total of " + d_territory.getNumArmies() + ".");
+			if (d_engine.isReporting(GameEvent.Type.ARMIES_DEPLOYED)) {
+				d_engine.publishEvent(new GameEvent.ArmiesDeployed(getIssuer(), d_territory, d_numArmiesToDeploy, d_territory.getNumArmies()));
+			}
 			return true;
 		}
 		return false;
@@ -61,4 +63,12 @@ public class DeployOrder extends Order {
 		}
 		return false;
 	}
+	
+	/**
+	 * Gets the territory to deploy to.
+	 * @return The territory.
+	 */
+	public Territory getTerritory() {
+		return d_territory;
+	}
 }
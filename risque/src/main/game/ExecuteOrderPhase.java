@@ -1,7 +1,7 @@
 package main.game;
 
 import java.util.LinkedList;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Phase that represents the game executing the issued orders.
@@ -20,6 +20,24 @@ public class ExecuteOrderPhase extends Phase {
 		super(p_engine);
 		d_playersToAwardCards = new LinkedList<>();
 	}
+	
+	/**
+	 * Creates the phase part of the way through executing orders, e.g. when a saved game is loaded.
+	 * @param p_engine The game engine context.
+	 * @param p_playersToAwardCards The players already owed a card this turn.
+	 */
+	ExecuteOrderPhase(GameEngine p_engine, LinkedList<Player> p_playersToAwardCards) {
+		this(p_engine);
+		d_playersToAwardCards.addAll(p_playersToAwardCards);
+	}
+	
+	/**
+	 * Gets the players owed a card this turn so far.
+	 * @return A copy of the list.
+	 */
+	LinkedList<Player> getPlayersToAwardCards() {
+		return new LinkedList<>(d_playersToAwardCards);
+	}
 
 	/**
 	 * Execute all orders for this phase, and then 
@@ -33,7 +51,11 @@ public class ExecuteOrderPhase extends Phase {
 			for (Player l_player : d_engine.getPlayers()) {
 				if (l_player.hasOrdersLeftToExecute()) {
 					int l_numTerritoriesBeforeOrder = l_player.getNumTerritoriesOwned();
-					l_player.nextOrder().execute();
+					Order l_order = l_player.nextOrder();
+					boolean l_hasSucceeded = l_order.execute();
+					if (d_engine.isReporting(GameEvent.Type.ORDER_EXECUTED)) {
+						d_engine.publishEvent(new GameEvent.OrderExecuted(l_order, l_hasSucceeded));
+					}
 					if (l_player.hasOrdersLeftToExecute()) {
 						l_areThereUnexecutedOrders = true;
 					}
@@ -46,13 +68,21 @@ public class ExecuteOrderPhase extends Phase {
 		}
 		// Check for a winner; end the game if someone won, otherwise go back to issuing orders.
 		Player l_winner = checkForWinner();
-		if (l_winner == null) {
+		if (l_winner == null && d_engine.getMaxTurns() > 0 && d_engine.getTurnNumber() >= d_engine.getMaxTurns()) {
+			if (d_engine.isReporting(GameEvent.Type.GAME_ENDED)) {
+				d_engine.publishEvent(new GameEvent.GameEnded(null, d_engine.getTurnNumber()));
+			}
+			d_engine.setPhase(new StartupPhase(d_engine));
+		}
+		else if (l_winner == null) {
 			awardCardsToPlayers();
 			// Loop back to the issue orders phase.
 			d_engine.setPhase(new IssueOrderPhase(d_engine));
 		}
 		else {
-			d_engine.broadcastMessage(l_winner.getName().toUpperCase() + " HAS CONQUERED THE WORLD!\nReturning to startup phase.");
+			if (d_engine.isReporting(GameEvent.Type.GAME_ENDED)) {
+				d_engine.publishEvent(new GameEvent.GameEnded(l_winner, d_engine.getTurnNumber()));
+			}
 			d_engine.setPhase(new StartupPhase(d_engine));
 		}
 	}
@@ -67,7 +97,7 @@ public class ExecuteOrderPhase extends Phase {
 	public boolean canAttackTerritory(Territory p_territory, Player p_attacker) {
 		Player l_territoryOwner = d_engine.getTerritoryOwner(p_territory);
 		if (p_attacker != null && l_territoryOwner != null && (p_attacker.isAllyWith(l_territoryOwner) || l_territoryOwner.isAllyWith(p_attacker))) {
-			d_engine.broadcastMessage("An attack on " + p_territory.getDisplayName() + " (" + l_territoryOwner.getName() + ") by " + p_attacker.getName() + " cannot proceed due to a cease-fire.");
+			d_engine.broadcastMessage(() -> "An attack on " + p_territory.getDisplayName() + " (" + l_territoryOwner.getName() + ") by " + p_attacker.getName() + " cannot proceed due to a cease-fire.");
 			return false;
 		}
 		return true;
@@ -97,7 +127,7 @@ public class ExecuteOrderPhase extends Phase {
 	 */
 	public void awardCardsToPlayers() {
 		// Check that we actually have cards to award first.
-		Random l_rand = new Random();
+		SplittableRandom l_rand = d_engine.getRandom().getStream(GameRandom.CARDS);
 		LinkedList<String> l_cardOptions = d_engine.getCardOptions();
 		if (!l_cardOptions.isEmpty()) {
 			for (Player l_player : d_playersToAwardCards) {
@@ -105,7 +135,9 @@ public class ExecuteOrderPhase extends Phase {
 				int l_randIdx = l_cardOptions.size() == 1 ? 0 : l_rand.nextInt(l_cardOptions.size() - 1);
 				String l_randCard = l_cardOptions.get(l_randIdx);
 				l_player.addCard(l_randCard);
-				d_engine.broadcastMessage(l_player.getName() + " was awarded a " + l_randCard + " card.");
+				if (d_engine.isReporting(GameEvent.Type.CARD_AWARDED)) {
+					d_engine.publishEvent(new GameEvent.CardAwarded(l_player, l_randCard));
+				}
 			}
 		}
 	}
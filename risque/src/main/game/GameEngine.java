@@ -1,13 +1,33 @@
 package main.game;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import main.console.Console;
 import main.console.LogEntryBuffer;
+import main.console.RollingLogWriter;
+import main.controller.AggressiveStrategy;
 import main.controller.BenevolentStrategy;
+import main.controller.CheaterStrategy;
 import main.controller.Controller;
+import main.controller.RandomStrategy;
 
 /**
  * This is the root of the game's "Model" in the MVC architecture.
@@ -18,6 +38,52 @@ import main.controller.Controller;
  *
  */
 public class GameEngine {
+	/**
+	 * The size at which the game's log starts a new segment, in bytes.
+	 */
+	private static final long LOG_SEGMENT_BYTES = 64L << 20;
+	
+	/**
+	 * The number of turns after which the game's log starts a new segment.
+	 */
+	private static final int LOG_TURNS_PER_SEGMENT = 100;
+	
+	/**
+	 * The number of segments of the game's log that are kept.
+	 */
+	private static final int LOG_SEGMENTS_KEPT = 20;
+	
+	/**
+	 * The program argument that makes the game wait for the disk rather than drop log messages when it logs faster than they can be written.
+	 */
+	private static final String LOSSLESS_LOG_ARGUMENT = "-losslesslog";
+	
+	/**
+	 * The program argument that carries on with the last unfinished game, from its latest checkpoint.
+	 */
+	private static final String RESUME_ARGUMENT = "-resume";
+	
+	/**
+	 * The base name of the checkpoints of games played from the console. It is the same in every run, so an unfinished game can be resumed.
+	 */
+	private static final String CHECKPOINT_BASE_NAME = "Risque-checkpoint";
+	
+	/**
+	 * The number of turns between the checkpoints of a game played from the console.
+	 */
+	private static final int TURNS_PER_CHECKPOINT = 10;
+	
+	/**
+	 * The number of checkpoints kept of a game played from the console.
+	 */
+	private static final int NUM_CHECKPOINTS_KEPT = 3;
+	
+	/**
+	 * The last checkpoint game ID handed out by any engine in this program, so IDs keep increasing
+	 * even if games start within the same millisecond, on one engine or on several at once.
+	 */
+	private static final AtomicLong LAST_CHECKPOINT_GAME_ID = new AtomicLong();
+	
 	/**
 	 * The controller we're linked to.
 	 */
@@ -48,6 +114,87 @@ public class GameEngine {
 	 */
 	private LinkedList<String> d_cardOptions;
 	
+	/**
+	 * The armies and owner of each territory on the current map.
+	 * Only changeTerritoryOwner changes owners, so they always agree with the players' own territory sets.
+	 */
+	private GameState d_state;
+	
+	/**
+	 * The bus that delivers the game's events to their subscribers.
+	 */
+	private GameEventBus d_events;
+	
+	/**
+	 * The source of all randomness in this game.
+	 */
+	private GameRandom d_random;
+	
+	/**
+	 * Actions (phase changes and AI turns) waiting to be run by runAction, oldest first.
+	 */
+	private ArrayDeque<Runnable> d_pendingActions;
+	
+	/**
+	 * Whether runAction is already working through the pending actions further up the stack.
+	 */
+	private boolean d_isRunningActions;
+	
+	/**
+	 * The number of the current turn, counting from 1 when the game starts (0 before then).
+	 */
+	private int d_turnNumber;
+	
+	/**
+	 * The number of turns after which a game ends without a winner, or 0 for no limit.
+	 */
+	private int d_maxTurns;
+	
+	/**
+	 * Called at the start of every turn, e.g. to record statistics.
+	 */
+	private LinkedList<Runnable> d_turnListeners;
+	
+	/**
+	 * The base name of checkpoint files, or null if the game is not checkpointed.
+	 */
+	private String d_checkpointBaseName;
+	
+	/**
+	 * The number of turns between checkpoints.
+	 */
+	private int d_turnsPerCheckpoint;
+	
+	/**
+	 * The number of the latest checkpoints that are kept.
+	 */
+	private int d_numCheckpointsKept;
+	
+	/**
+	 * Identifies the game being checkpointed among the others under the same base name, or 0 if it has no checkpoints yet.
+	 */
+	private long d_checkpointGameID;
+	
+	/**
+	 * The current game's checkpoint files that are kept, oldest first.
+	 */
+	private LinkedList<String> d_checkpointFiles;
+	
+	/**
+	 * Problems writing saves, or writing or deleting checkpoints, on the background thread, waiting to be reported on the game's thread.
+	 */
+	private ConcurrentLinkedQueue<String> d_backgroundErrors;
+	
+	/**
+	 * Completes once the latest checkpoint has been written and the expired ones deleted.
+	 */
+	private CompletableFuture<Void> d_lastCheckpoint;
+	
+	/**
+	 * Takes checkpoints between turns, while checkpoints are on.
+	 */
+	private Consumer<GameEvent.PhaseChanged> d_checkpointSubscriber;
+	
 	/**
 	 * Default constructor for the GameEngine.
 	 */
@@ -61,6 +208,22 @@ public class GameEngine {
 		d_cardOptions.add("airlift");
 		d_cardOptions.add("diplomacy");
 		d_cardOptions.add("blockade");
+		d_state = new GameState(0);
+		d_events = new GameEventBus();
+		d_random = new GameRandom();
+		d_pendingActions = new ArrayDeque<>();
+		d_isRunningActions = false;
+		d_turnNumber = 0;
+		d_maxTurns = 0;
+		d_turnListeners = new LinkedList<>();
+		d_checkpointBaseName = null;
+		d_turnsPerCheckpoint = 0;
+		d_numCheckpointsKept = 0;
+		d_checkpointGameID = 0;
+		d_checkpointFiles = new LinkedList<>();
+		d_backgroundErrors = new ConcurrentLinkedQueue<>();
+		d_lastCheckpoint = CompletableFuture.completedFuture(null);
+		d_checkpointSubscriber = null;
 	}
 	
 	/**
@@ -89,13 +252,116 @@ public class GameEngine {
 	
 	/**
 	 * Sets the phase to a new phase.
+	 * If this is called while another action is running (e.g. from a phase's onPhaseStart), the switch happens once that action returns.
 	 * @param p_nextPhase The phase to switch to.
 	 */
 	public void setPhase(Phase p_nextPhase) {
-		d_currentPhase.onPhaseEnd(p_nextPhase);
-		Phase l_prevPhase = d_currentPhase;
-		d_currentPhase = p_nextPhase;
-		p_nextPhase.onPhaseStart(l_prevPhase);
+		runAction(() -> {
+			reportBackgroundErrors();
+			d_currentPhase.onPhaseEnd(p_nextPhase);
+			Phase l_prevPhase = d_currentPhase;
+			d_currentPhase = p_nextPhase;
+			if (isReporting(GameEvent.Type.PHASE_CHANGED)) {
+				publishEvent(new GameEvent.PhaseChanged(l_prevPhase, p_nextPhase));
+			}
+			p_nextPhase.onPhaseStart(l_prevPhase);
+		});
+	}
+	
+	/**
+	 * Runs a game action, such as a phase change or an AI player's turn.
+	 * Phases and AI players trigger each other (a phase starts a turn, a turn ends a phase, and so on),
+	 * so running each action straight away would nest deeper with every turn until the stack overflowed.
+	 * Instead, an action requested while another is running is queued, and the outermost call runs the queue in a flat loop.
+	 * Actions therefore run in the order they were requested, and a game of any length runs at constant stack depth.
+	 * @param p_action The action to run.
+	 */
+	public void runAction(Runnable p_action) {
+		d_pendingActions.add(p_action);
+		if (d_isRunningActions) {
+			return;
+		}
+		d_isRunningActions = true;
+		try {
+			Runnable l_action;
+			while ((l_action = d_pendingActions.poll()) != null) {
+				l_action.run();
+			}
+		}
+		finally {
+			// If an action threw, drop the rest rather than running them out of context later.
+			d_pendingActions.clear();
+			d_isRunningActions = false;
+		}
+	}
+	
+	/**
+	 * Gets the number of the current turn.
+	 * @return The turn number, counting from 1 (0 if the game has not started).
+	 */
+	public int getTurnNumber() {
+		return d_turnNumber;
+	}
+	
+	/**
+	 * Sets the number of the current turn, e.g. when a game starts.
+	 * @param p_turnNumber The turn number.
+	 */
+	public void setTurnNumber(int p_turnNumber) {
+		d_turnNumber = p_turnNumber;
+	}
+	
+	/**
+	 * Gets the number of turns after which a game ends without a winner.
+	 * @return The turn limit, or 0 for no limit.
+	 */
+	public int getMaxTurns() {
+		return d_maxTurns;
+	}
+	
+	/**
+	 * Sets the number of turns after which a game ends without a winner, so games between AI players that cannot beat each other still end.
+	 * @param p_maxTurns The turn limit, or 0 for no limit.
+	 */
+	public void setMaxTurns(int p_maxTurns) {
+		d_maxTurns = Math.max(0, p_maxTurns);
+	}
+	
+	/**
+	 * Starts the next turn, giving it fresh random streams.
+	 */
+	void startNextTurn() {
+		d_turnNumber++;
+		// Each turn draws from fresh streams, so a game can be resumed from its seed and turn.
+		d_random.advanceEpoch();
+		for (Runnable l_listener : d_turnListeners) {
+			l_listener.run();
+		}
+	}
+	
+	/**
+	 * Adds a listener that is called at the start of every turn, before armies are handed out.
+	 * Unlike observers, listeners do not cause any messages to be built.
+	 * @param p_listener The listener.
+	 */
+	public void addTurnListener(Runnable p_listener) {
+		d_turnListeners.add(p_listener);
+	}
+	
+	/**
+	 * Gets the source of randomness for this game.
+	 * @return The random service.
+	 */
+	public GameRandom getRandom() {
+		return d_random;
+	}
+	
+	/**
+	 * Restarts this game's randomness from a master seed, so that the game can be reproduced.
+	 * @param p_masterSeed The master seed.
+	 */
+	public void setRandomSeed(long p_masterSeed) {
+		d_random = new GameRandom(p_masterSeed);
 	}
 	
 	/**
@@ -141,11 +407,36 @@ public class GameEngine {
 	}
 	
 	/**
-	 * Changes the map to a new one.
+	 * Changes the map to a new one. Nobody owns anything on the new map, and its territories keep the armies they had.
 	 * @param p_map The new map.
 	 */
 	public void setMap(Map p_map) {
+		Map l_prevMap = d_map;
+		GameState l_prevState = d_state;
+		// Read the new map's armies while they are still stored on its territories.
+		GameState l_state = new GameState(p_map != null ? p_map.getNumTerritories() : 0);
+		if (p_map != null) {
+			for (int l_tID = 1; l_tID <= p_map.getNumTerritories(); l_tID++) {
+				l_state.setNumArmies(l_tID, p_map.getTerritory(l_tID).getNumArmies());
+			}
+			onCreateEntity(p_map);
+		}
 		d_map = p_map;
+		d_state = l_state;
+		// The previous map's territories store their own armies again once it is no longer played on.
+		if (l_prevMap != null && l_prevMap != p_map) {
+			for (int l_tID = 1; l_tID <= l_prevMap.getNumTerritories(); l_tID++) {
+				l_prevMap.getTerritory(l_tID).setNumArmies(l_prevState.getNumArmies(l_tID));
+			}
+		}
+	}
+	
+	/**
+	 * Gets the state of the board: the armies and owner of each territory on the current map.
+	 * @return The state.
+	 */
+	public GameState getState() {
+		return d_state;
 	}
 	
 	/** 
@@ -160,10 +451,10 @@ public class GameEngine {
 	/**
 	 * Saves a map to a file name.
 	 * @param p_mapName The name for the new map.
-	 * @param p_saveAsConquest Should the map be saved using the conquest map adapter?
+	 * @param p_format The format to save in: conquest if it starts with a c, binary if it starts with a b, otherwise domination.
 	 */
-	public void saveMap(String p_mapName, boolean p_saveAsConquest) {
-		d_currentPhase.saveMap(p_mapName, p_saveAsConquest);
+	public void saveMap(String p_mapName, String p_format) {
+		d_currentPhase.saveMap(p_mapName, p_format);
 	}
 	
 	/**
@@ -251,10 +542,20 @@ public class GameEngine {
 		if (!isGameInProgress()) {
 			Player l_newPlayer = onCreateEntity(new Player(p_name));
 			if (l_newPlayer != null && d_players.add(l_newPlayer)) {
+				// AI players are picked by the start of their name.
 				if (p_name.startsWith("Benevolent")) {
 					l_newPlayer.setStrategy(new BenevolentStrategy(l_newPlayer));
 				}
-				broadcastMessage("Player \"" + p_name + "\" added. Total Players: " + getNumPlayers());
+				else if (p_name.startsWith("Aggressive")) {
+					l_newPlayer.setStrategy(new AggressiveStrategy(l_newPlayer));
+				}
+				else if (p_name.startsWith("Random")) {
+					l_newPlayer.setStrategy(new RandomStrategy(l_newPlayer));
+				}
+				else if (p_name.startsWith("Cheater")) {
+					l_newPlayer.setStrategy(new CheaterStrategy(l_newPlayer));
+				}
+				broadcastMessage(() -> "Player \"" + p_name + "\" added. Total Players: " + getNumPlayers());
 				return true;
 			}
 			else {
@@ -277,7 +578,7 @@ public class GameEngine {
 				String l_playerName = d_players.get(l_idx).getName();
 				if (l_playerName.equalsIgnoreCase(p_name)) {
 					d_players.remove(l_idx);
-					broadcastMessage("Player \"" + l_playerName + "\" removed. Total Players: " + getNumPlayers());
+					broadcastMessage(() -> "Player \"" + l_playerName + "\" removed. Total Players: " + getNumPlayers());
 					return true;
 				}
 			}
@@ -404,20 +705,385 @@ public class GameEngine {
 	}
 	
 	/**
-	 * Broadcasts a message to any connected observers, like the console.
+	 * Saves the game, or the map and players if no game has started, to a file.
+	 * The game is copied straight away, and written on a background thread while play carries on.
+	 * If writing fails, the error is reported on the game's thread at the next save, load or change of phase, or when quitting.
+	 * @param p_fileName The name of the file, which is replaced if it exists.
+	 * @return Completes once the file is written, or exceptionally if it could not be.
+	 */
+	public CompletableFuture<Void> saveGame(String p_fileName) {
+		reportBackgroundErrors();
+		GameSnapshot l_snapshot;
+		try {
+			l_snapshot = GameSnapshot.take(this);
+		}
+		catch (IOException l_exception) {
+			broadcastMessage("Error: the game could not be saved. " + l_exception.getMessage());
+			return CompletableFuture.failedFuture(l_exception);
+		}
+		broadcastMessage(() -> "Saving the game to \"" + p_fileName + "\".");
+		return l_snapshot.writeInBackground(p_fileName).whenComplete((p_result, p_exception) -> {
+			if (p_exception != null) {
+				d_backgroundErrors.add("Error: the game could not be saved to \"" + p_fileName + "\". " + getFailureMessage(p_exception));
+			}
+		});
+	}
+	
+	/**
+	 * Loads a game saved by {@link #saveGame(String)}, ending any game in progress. A game of AI players carries on straight away.
+	 * @param p_fileName The name of the file.
+	 * @return True if the game was loaded, false if the file could not be read.
+	 */
+	public boolean loadGame(String p_fileName) {
+		reportBackgroundErrors();
+		GameSnapshot l_snapshot;
+		try (InputStream l_in = new BufferedInputStream(new FileInputStream(p_fileName))) {
+			l_snapshot = GameSnapshot.readFrom(l_in);
+		}
+		catch (IOException l_exception) {
+			broadcastMessage("Error: the game could not be loaded. " + l_exception.getMessage());
+			return false;
+		}
+		broadcastMessage(() -> "Loaded the game from \"" + p_fileName + "\" at turn " + l_snapshot.getTurnNumber() + ".");
+		loadGame(l_snapshot, getCheckpointGameID(p_fileName));
+		return true;
+	}
+	
+	/**
+	 * Loads a saved game, ending any game in progress. A game of AI players carries on straight away.
+	 * @param p_snapshot The saved game.
+	 */
+	public void loadGame(GameSnapshot p_snapshot) {
+		loadGame(p_snapshot, 0);
+	}
+	
+	/**
+	 * Loads a saved game, ending any game in progress. A game of AI players carries on straight away.
+	 * @param p_snapshot The saved game.
+	 * @param p_checkpointGameID If the game was loaded from one of its own checkpoints, the game's ID,
+	 * so its next checkpoints carry on from those; otherwise 0.
+	 */
+	private void loadGame(GameSnapshot p_snapshot, long p_checkpointGameID) {
+		setPhase(new StartupPhase(this));
+		if (p_checkpointGameID != 0) {
+			d_checkpointGameID = p_checkpointGameID;
+			d_checkpointFiles = new LinkedList<>(listCheckpoints(d_checkpointBaseName).get(p_checkpointGameID).values());
+		}
+		runAction(() -> {
+			try {
+				p_snapshot.restore(this);
+			}
+			catch (IOException l_exception) {
+				broadcastMessage("Error: the game could not be loaded. " + l_exception.getMessage());
+			}
+		});
+	}
+	
+	/**
+	 * Turns on checkpoints: every few turns, once the turn's orders have been executed, the game is saved as by {@link #saveGame(String)}.
+	 * Checkpoints are written on a background thread while the game carries on, and once one has been written,
+	 * all but the game's latest few are deleted. Each game gets its own series of checkpoints, so games played one after
+	 * another or side by side, or in earlier runs under the same base name, never overwrite or delete each other's.
+	 * A game that finishes deletes its checkpoints, so only unfinished games leave any behind.
+	 * A game loaded from a checkpoint carries on exactly as it would have, and carries on its series of checkpoints,
+	 * so a crashed or quit game can be resumed from its {@link #findLatestCheckpoint(String) latest checkpoint}.
+	 * Problems writing or deleting checkpoints are reported as messages.
+	 * @param p_baseName The base name of the checkpoint files, which should stay the same from run to run, or null to turn checkpoints off.
+	 * @param p_turnsPerCheckpoint The number of turns between checkpoints; 0 or less turns checkpoints off.
+	 * @param p_numKept The number of checkpoints to keep, at least 1.
+	 */
+	public void setCheckpoints(String p_baseName, int p_turnsPerCheckpoint, int p_numKept) {
+		if (p_baseName == null || p_turnsPerCheckpoint <= 0) {
+			if (d_checkpointSubscriber != null) {
+				d_events.unsubscribe(GameEvent.PhaseChanged.class, d_checkpointSubscriber);
+				d_checkpointSubscriber = null;
+			}
+			d_checkpointBaseName = null;
+			return;
+		}
+		d_checkpointBaseName = p_baseName;
+		d_turnsPerCheckpoint = p_turnsPerCheckpoint;
+		d_numCheckpointsKept = Math.max(1, p_numKept);
+		d_checkpointGameID = 0;
+		d_checkpointFiles = new LinkedList<>();
+		if (d_checkpointSubscriber == null) {
+			d_checkpointSubscriber = this::takeCheckpoint;
+			d_events.subscribe(GameEvent.PhaseChanged.class, d_checkpointSubscriber);
+		}
+	}
+	
+	/**
+	 * Gets the latest checkpoint, e.g. to wait for it to be written before exiting, as {@link #startQuit()} does.
+	 * @return Completes once the latest checkpoint has been written and the expired ones deleted,
+	 * or exceptionally if it could not be written. Completed already if no checkpoint has been taken.
+	 */
+	public CompletableFuture<Void> getLastCheckpoint() {
+		return d_lastCheckpoint;
+	}
+	
+	/**
+	 * Gets the name of the file a game's checkpoint at the end of a turn is written to.
+	 * @param p_baseName The base name of the checkpoint files.
+	 * @param p_gameID The ID of the game among those with checkpoints under the base name.
+	 * @param p_turnNumber The turn.
+	 * @return The file name.
+	 */
+	public static String getCheckpointFileName(String p_baseName, long p_gameID, int p_turnNumber) {
+		return p_baseName + ".game" + p_gameID + ".turn" + p_turnNumber + GameSnapshot.FILE_EXTENSION;
+	}
+	
+	/**
+	 * Finds the latest checkpoint of the game that was last checkpointed, e.g. to resume the game with {@link #loadGame(String)} after a crash.
+	 * @param p_baseName The base name of the checkpoint files.
+	 * @return The name of the checkpoint file from the latest turn of the latest game, or null if there are none.
+	 */
+	public static String findLatestCheckpoint(String p_baseName) {
+		TreeMap<Long, TreeMap<Integer, String>> l_checkpoints = listCheckpoints(p_baseName);
+		return l_checkpoints.isEmpty() ? null : l_checkpoints.lastEntry().getValue().lastEntry().getValue();
+	}
+	
+	/**
+	 * Finds the checkpoint files under a base name.
+	 * @param p_baseName The base name of the checkpoint files.
+	 * @return The names of the files, by game ID and then by turn.
+	 */
+	private static TreeMap<Long, TreeMap<Integer, String>> listCheckpoints(String p_baseName) {
+		TreeMap<Long, TreeMap<Integer, String>> l_checkpoints = new TreeMap<>();
+		File l_base = new File(p_baseName).getAbsoluteFile();
+		String[] l_fileNames = l_base.getParentFile().list();
+		if (l_fileNames == null) {
+			return l_checkpoints;
+		}
+		for (String l_fileName : l_fileNames) {
+			long[] l_gameAndTurn = parseCheckpointFileName(l_base.getName(), l_fileName);
+			if (l_gameAndTurn != null) {
+				l_checkpoints.computeIfAbsent(l_gameAndTurn[0], p_gameID -> new TreeMap<>())
+						.put((int)l_gameAndTurn[1], getCheckpointFileName(p_baseName, l_gameAndTurn[0], (int)l_gameAndTurn[1]));
+			}
+		}
+		return l_checkpoints;
+	}
+	
+	/**
+	 * Reads the game ID and turn out of the name of a checkpoint file.
+	 * @param p_baseName The base name of the checkpoint files, without any folder.
+	 * @param p_fileName The name of the file, without any folder.
+	 * @return The game ID and turn, or null if the file is not a checkpoint under the base name.
+	 */
+	private static long[] parseCheckpointFileName(String p_baseName, String p_fileName) {
+		String l_prefix = p_baseName + ".game";
+		if (!p_fileName.startsWith(l_prefix) || !p_fileName.endsWith(GameSnapshot.FILE_EXTENSION)) {
+			return null;
+		}
+		String[] l_fields = p_fileName.substring(l_prefix.length(), p_fileName.length() - GameSnapshot.FILE_EXTENSION.length()).split("\\.turn", -1);
+		try {
+			return l_fields.length == 2 ? new long[] { Long.parseLong(l_fields[0]), Integer.parseInt(l_fields[1]) } : null;
+		}
+		catch (NumberFormatException l_exception) {
+			// Not a checkpoint, just a file with a similar name.
+			return null;
+		}
+	}
+	
+	/**
+	 * Gets the ID of the game a file is a checkpoint of, if it is one of ours.
+	 * @param p_fileName The name of the file.
+	 * @return The game ID, or 0 if the file is not a checkpoint under our base name.
+	 */
+	private long getCheckpointGameID(String p_fileName) {
+		if (d_checkpointBaseName == null) {
+			return 0;
+		}
+		File l_base = new File(d_checkpointBaseName).getAbsoluteFile();
+		File l_file = new File(p_fileName).getAbsoluteFile();
+		long[] l_gameAndTurn = l_base.getParentFile().equals(l_file.getParentFile()) ? parseCheckpointFileName(l_base.getName(), l_file.getName()) : null;
+		return l_gameAndTurn != null ? l_gameAndTurn[0] : 0;
+	}
+	
+	/**
+	 * Takes a checkpoint if a turn that is due one has just ended, and the next turn is about to start.
+	 * Between turns, the game has no pending orders or half-finished turn, so it can be resumed exactly.
+	 * @param p_event The phase change.
+	 */
+	private void takeCheckpoint(GameEvent.PhaseChanged p_event) {
+		if (p_event.getNewPhase() instanceof StartupPhase) {
+			if (p_event.getPreviousPhase() instanceof ExecuteOrderPhase) {
+				deleteGameCheckpoints();
+			}
+			// The next game starts its own series of checkpoints.
+			d_checkpointGameID = 0;
+			d_checkpointFiles = new LinkedList<>();
+			return;
+		}
+		if (!(p_event.getPreviousPhase() instanceof ExecuteOrderPhase && p_event.getNewPhase() instanceof IssueOrderPhase)
+				|| d_turnNumber % d_turnsPerCheckpoint != 0) {
+			return;
+		}
+		GameSnapshot l_snapshot;
+		try {
+			l_snapshot = GameSnapshot.take(this);
+		}
+		catch (IOException l_exception) {
+			broadcastMessage("Error: could not take a checkpoint. " + l_exception.getMessage());
+			return;
+		}
+		if (d_checkpointGameID == 0) {
+			d_checkpointGameID = LAST_CHECKPOINT_GAME_ID.accumulateAndGet(System.currentTimeMillis(), (p_last, p_now) -> Math.max(p_now, p_last + 1));
+		}
+		String l_fileName = getCheckpointFileName(d_checkpointBaseName, d_checkpointGameID, d_turnNumber);
+		d_checkpointFiles.remove(l_fileName);
+		d_checkpointFiles.add(l_fileName);
+		LinkedList<String> l_expiredFiles = new LinkedList<>();
+		while (d_checkpointFiles.size() > d_numCheckpointsKept) {
+			l_expiredFiles.add(d_checkpointFiles.removeFirst());
+		}
+		// Old checkpoints are only deleted once the new one is safely written.
+		d_lastCheckpoint = l_snapshot.writeInBackground(l_fileName).thenRun(() -> deleteCheckpoints(l_expiredFiles)).whenComplete((p_result, p_exception) -> {
+			if (p_exception != null) {
+				d_backgroundErrors.add("Error: could not write the checkpoint \"" + l_fileName + "\". " + getFailureMessage(p_exception));
+			}
+		});
+	}
+	
+	/**
+	 * Deletes all of the current game's checkpoints, once the latest has been written, since a finished game is not resumed.
+	 */
+	private void deleteGameCheckpoints() {
+		if (d_checkpointGameID == 0) {
+			return;
+		}
+		String l_baseName = d_checkpointBaseName;
+		long l_gameID = d_checkpointGameID;
+		d_lastCheckpoint = d_lastCheckpoint.handle((p_result, p_exception) -> (Void)null).thenRun(() -> {
+			TreeMap<Integer, String> l_files = listCheckpoints(l_baseName).get(l_gameID);
+			if (l_files != null) {
+				deleteCheckpoints(l_files.values());
+			}
+		});
+	}
+	
+	/**
+	 * Deletes checkpoint files, noting any that could not be deleted to be reported later. Called on the writer's thread.
+	 * @param p_fileNames The names of the files.
+	 */
+	private void deleteCheckpoints(Collection<String> p_fileNames) {
+		for (String l_fileName : p_fileNames) {
+			try {
+				Files.deleteIfExists(new File(l_fileName).toPath());
+			}
+			catch (IOException l_exception) {
+				d_backgroundErrors.add("Error: could not delete the old checkpoint \"" + l_fileName + "\". " + l_exception.getMessage());
+			}
+		}
+	}
+	
+	/**
+	 * Gets the message of the error that failed a background write, unwrapped from the exceptions it was passed along in.
+	 * @param p_exception The exception the write completed with.
+	 * @return The message.
+	 */
+	private static String getFailureMessage(Throwable p_exception) {
+		Throwable l_cause = p_exception;
+		while ((l_cause instanceof CompletionException || l_cause instanceof UncheckedIOException) && l_cause.getCause() != null) {
+			l_cause = l_cause.getCause();
+		}
+		return l_cause.getMessage();
+	}
+	
+	/**
+	 * Reports any problems writing saves, or writing or deleting checkpoints, since the last report.
+	 */
+	private void reportBackgroundErrors() {
+		String l_error;
+		while ((l_error = d_backgroundErrors.poll()) != null) {
+			broadcastMessage(l_error);
+		}
+	}
+	
+	/**
+	 * Gets the bus that delivers this game's events, e.g. to subscribe to them.
+	 * @return The event bus.
+	 */
+	public GameEventBus getEvents() {
+		return d_events;
+	}
+	
+	/**
+	 * Does anyone want to hear about events of a type, either by subscribing to them or as messages?
+	 * Events should only be created when this is true, so nothing is allocated when nobody is listening.
+	 * @param p_type The type of event.
+	 * @return True if an event of this type should be published.
+	 */
+	public boolean isReporting(GameEvent.Type p_type) {
+		if (d_events.hasSubscribers(p_type)) {
+			return true;
+		}
+		if (p_type.hasMessage()) {
+			for (GameObserver d_observer : d_observers) {
+				if (d_observer.wantsMessages()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Publishes an event to its subscribers, then broadcasts its message (if it has one) to the observers.
+	 * @param p_event The event.
+	 */
+	public void publishEvent(GameEvent p_event) {
+		d_events.publish(p_event);
+		if (p_event.getType().hasMessage()) {
+			broadcastMessage(p_event::getMessage);
+		}
+	}
+	
+	/**
+	 * Broadcasts a message to any connected observers that want messages, like the console.
 	 * @param p_message The string to output.
 	 */
 	public void broadcastMessage(String p_message) {
 		for (GameObserver d_observer : d_observers) {
-			d_observer.onAddMessage(p_message);
+			if (d_observer.wantsMessages()) {
+				d_observer.onAddMessage(p_message);
+			}
+		}
+	}
+	
+	/**
+	 * Broadcasts a message that is only built if an observer wants it.
+	 * Messages built from several parts should use this, so that nothing is formatted when nobody is listening, e.g. in headless simulations.
+	 * The message is built (at most once) before this returns, so it describes the game as it is at the time of the call.
+	 * @param p_message Builds the string to output.
+	 */
+	public void broadcastMessage(Supplier<String> p_message) {
+		String l_message = null;
+		for (GameObserver d_observer : d_observers) {
+			if (d_observer.wantsMessages()) {
+				if (l_message == null) {
+					l_message = p_message.get();
+				}
+				d_observer.onAddMessage(l_message);
+			}
 		}
 	}
 	
 	/**
 	 * Starts the process of quitting the game.
+	 * Observers may stop observing as they quit, so a copy of the list is notified.
+	 * Games still being saved or checkpointed are finished first, so they are not lost when the program exits.
 	 */
 	public void startQuit() {
-		for (GameObserver d_observer : d_observers) {
+		GameSnapshot.awaitBackgroundWrites();
+		try {
+			getLastCheckpoint().join();
+		}
+		catch (CompletionException l_exception) {
+			// Already noted, and reported just below.
+		}
+		reportBackgroundErrors();
+		for (GameObserver d_observer : new ArrayList<>(d_observers)) {
 			d_observer.onAddMessage("...Quitting Risque...");
 			d_observer.onQuit();
 		}
@@ -429,12 +1095,8 @@ public class GameEngine {
 	 * @return The owner of p_territory (or null if unowned).
 	 */
 	public Player getTerritoryOwner(Territory p_territory) {
-		for (Player l_player : d_players) {
-			if (l_player.ownsTerritory(p_territory)) {
-				return l_player;
-			}
-		}
-		return null;
+		int l_tID = d_map != null ? d_map.getTerritoryID(p_territory) : 0;
+		return d_state.getOwner(l_tID);
 	}
 	
 	/**
@@ -461,48 +1123,77 @@ public class GameEngine {
 	
 	/**
 	 * Handles the transfer of a territory to a new player.
+	 * This is the only way ownership should change during a game, since it keeps the owner index in sync.
 	 * @param p_territory The territory to transfer ownership of.
-	 * @param p_conqueror The new owner of the territory.
+	 * @param p_conqueror The new owner of the territory, or null to make it neutral.
 	 */
 	public void changeTerritoryOwner(Territory p_territory, Player p_conqueror) {
-		if (p_territory != null) {
-			Player l_prevOwner = getTerritoryOwner(p_territory);
+		int l_tID = d_map != null ? d_map.getTerritoryID(p_territory) : 0;
+		if (l_tID > 0) {
+			Player l_prevOwner = d_state.getOwner(l_tID);
+			d_state.setOwner(l_tID, p_conqueror);
 			if (l_prevOwner != null) {
 				l_prevOwner.removeOwnedTerritory(p_territory);
 				l_prevOwner.removeOwnedContinent(p_territory.getContinent());
 			}
 			if (p_conqueror != null) {
 				p_conqueror.addOwnedTerritory(p_territory);
-				// Determine whether to mark the continent as owned by this player.
+				// The player controls the continent once they own as many territories on it as it has.
 				Continent l_continent = p_territory.getContinent();
-				boolean l_doesOwnContinent = true;
-				LinkedList<Territory> l_cTerritories = l_continent.getTerritories();
-				for (Territory l_cTerritory : l_cTerritories) {
-					if (!p_conqueror.ownsTerritory(l_cTerritory)) {
-						l_doesOwnContinent = false;
-						break;
-					}
-				}
-				if (l_doesOwnContinent) {
+				if (p_conqueror.getNumTerritoriesOwned(l_continent) == d_map.getNumContinentTerritories(l_continent)) {
 					p_conqueror.addOwnedContinent(l_continent);
 				}
 			}
+			if (isReporting(GameEvent.Type.OWNER_CHANGED)) {
+				publishEvent(new GameEvent.OwnerChanged(p_territory, l_prevOwner, p_conqueror));
+			}
 		}
 	}
 	
 	/**
 	 * The main function that will start the key modules for the program.
-	 * The console will create an InputHandler as a separate thread.
+	 * The console will create an InputHandler as a separate thread, once everything else is set up.
 	 * The program terminates when that thread finishes, which happens after the "quit" command
 	 * is typed into the console.
-	 * @param args Unused program arguments.
+	 * @param args Program arguments: {@value #LOSSLESS_LOG_ARGUMENT} makes the log block the game rather than drop messages when it falls behind;
+	 * {@value #RESUME_ARGUMENT} carries on with the last unfinished game, which is otherwise only pointed out.
 	 */
 	public static void main(String[] args) {
 		System.out.println("...Starting Risque...");
 		GameEngine l_gameEngine = new GameEngine();
 		Controller l_controller = new Controller(l_gameEngine);
-		Console l_console = new Console(l_gameEngine, l_controller);
-		LogEntryBuffer l_log = new LogEntryBuffer(l_gameEngine);
+		Console l_console = new Console(l_gameEngine, l_controller, false);
+		String l_logName = LogEntryBuffer.generateLogName();
+		// A slow disk should not hold up the game, so by default a burst of messages is sampled rather than waited for.
+		LogEntryBuffer.OverflowPolicy l_overflowPolicy = Arrays.asList(args).contains(LOSSLESS_LOG_ARGUMENT) ?
+				LogEntryBuffer.OverflowPolicy.BLOCK : LogEntryBuffer.OverflowPolicy.SAMPLE;
+		try {
+			RollingLogWriter l_logWriter = new RollingLogWriter(l_logName, LOG_SEGMENT_BYTES, LOG_TURNS_PER_SEGMENT, LOG_SEGMENTS_KEPT);
+			new LogEntryBuffer(l_gameEngine, l_logWriter, LogEntryBuffer.DEFAULT_CAPACITY, l_overflowPolicy);
+		}
+		catch (IOException l_exception) {
+			// Fall back to a single log file.
+			new LogEntryBuffer(l_gameEngine, LogEntryBuffer.DEFAULT_CAPACITY, l_overflowPolicy);
+		}
+		l_gameEngine.setCheckpoints(CHECKPOINT_BASE_NAME, TURNS_PER_CHECKPOINT, NUM_CHECKPOINTS_KEPT);
+		try {
+			new GameJournal(l_gameEngine, l_logName + GameJournal.FILE_EXTENSION);
+		}
+		catch (IOException l_exception) {
+			// Games can still be played without a journal; they just cannot be replayed.
+			l_gameEngine.broadcastMessage("Could not start the game journal, so games will not be replayable: " + l_exception.getMessage());
+		}
 		l_gameEngine.broadcastMessage("Welcome to Risque!");
+		// Commands, the resumed game's included, only ever run on the console's thread.
+		String l_checkpoint = findLatestCheckpoint(CHECKPOINT_BASE_NAME);
+		if (l_checkpoint != null && Arrays.asList(args).contains(RESUME_ARGUMENT)) {
+			l_console.startInput("loadgame " + l_checkpoint);
+			return;
+		}
+		if (l_checkpoint != null) {
+			l_gameEngine.broadcastMessage("An unfinished game was found. Type \"loadgame " + l_checkpoint + "\" to carry on with it, or start Risque with "
+					+ RESUME_ARGUMENT + " to carry on automatically.");
+		}
+		l_console.startInput();
 	}
 }
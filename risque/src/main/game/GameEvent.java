@@ -0,0 +1,875 @@
+package main.game;
+
+/**
+ * Something that happened in a game, such as armies being deployed or a territory being captured.
+ * Events are published through the engine's {@link GameEventBus}, so tools can react to what happens without parsing messages,
+ * and the messages that observers such as the console show are derived from them.
+ *
+ * Each kind of event is a nested class with a {@link Type}, which is what subscribers are grouped by.
+ * @author Kyle
+ */
+public abstract class GameEvent {
+	/**
+	 * The kinds of events.
+	 */
+	public enum Type {
+		/**
+		 * {@link OrderIssued}.
+		 */
+		ORDER_ISSUED(OrderIssued.class, false),
+
+		/**
+		 * {@link OrderExecuted}.
+		 */
+		ORDER_EXECUTED(OrderExecuted.class, false),
+
+		/**
+		 * {@link ArmiesDeployed}.
+		 */
+		ARMIES_DEPLOYED(ArmiesDeployed.class, true),
+
+		/**
+		 * {@link ArmiesAdvanced}.
+		 */
+		ARMIES_ADVANCED(ArmiesAdvanced.class, true),
+
+		/**
+		 * {@link TerritoryCaptured}.
+		 */
+		TERRITORY_CAPTURED(TerritoryCaptured.class, true),
+
+		/**
+		 * {@link AttackRepelled}.
+		 */
+		ATTACK_REPELLED(AttackRepelled.class, true),
+
+		/**
+		 * {@link OwnerChanged}.
+		 */
+		OWNER_CHANGED(OwnerChanged.class, false),
+
+		/**
+		 * {@link CardAwarded}.
+		 */
+		CARD_AWARDED(CardAwarded.class, true),
+
+		/**
+		 * {@link PhaseChanged}.
+		 */
+		PHASE_CHANGED(PhaseChanged.class, false),
+
+		/**
+		 * {@link GameEnded}.
+		 */
+		GAME_ENDED(GameEnded.class, true),
+
+		/**
+		 * {@link GameLoaded}.
+		 */
+		GAME_LOADED(GameLoaded.class, false);
+
+		/**
+		 * The class of the events of this type.
+		 */
+		private final Class<? extends GameEvent> d_eventClass;
+
+		/**
+		 * Whether events of this type have a message for observers.
+		 */
+		private final boolean d_hasMessage;
+
+		/**
+		 * Creates a type.
+		 * @param p_eventClass The class of the events of this type.
+		 * @param p_hasMessage Whether events of this type have a message for observers.
+		 */
+		Type(Class<? extends GameEvent> p_eventClass, boolean p_hasMessage) {
+			d_eventClass = p_eventClass;
+			d_hasMessage = p_hasMessage;
+		}
+
+		/**
+		 * Do events of this type have a message for observers?
+		 * @return True if they do.
+		 */
+		public boolean hasMessage() {
+			return d_hasMessage;
+		}
+
+		/**
+		 * Gets the type of a class of events.
+		 * @param p_eventClass The class of the events.
+		 * @return The type, or null if the class is not a kind of event.
+		 */
+		public static Type of(Class<?> p_eventClass) {
+			for (Type l_type : values()) {
+				if (l_type.d_eventClass == p_eventClass) {
+					return l_type;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Gets the type of this event.
+	 * @return The type.
+	 */
+	public abstract Type getType();
+
+	/**
+	 * Describes the event for observers.
+	 * @return The message, or null if the type has no message.
+	 */
+	public String getMessage() {
+		return null;
+	}
+
+	/**
+	 * Gets the name of a player, or "Neutral" for no player.
+	 * @param p_player The player, or null.
+	 * @return The name.
+	 */
+	static String getName(Player p_player) {
+		return p_player == null ? "Neutral" : p_player.getName();
+	}
+
+	/**
+	 * A player issued an order, which will be executed later in the turn. There is no message for this.
+	 */
+	public static final class OrderIssued extends GameEvent {
+		/**
+		 * The order, with its issuer set.
+		 */
+		private final Order d_order;
+
+		/**
+		 * Creates the event.
+		 * @param p_order The order, with its issuer set.
+		 */
+		public OrderIssued(Order p_order) {
+			d_order = p_order;
+		}
+
+		@Override
+		public Type getType() {
+			return Type.ORDER_ISSUED;
+		}
+
+		/**
+		 * Gets the order.
+		 * @return The order.
+		 */
+		public Order getOrder() {
+			return d_order;
+		}
+	}
+
+	/**
+	 * An order was executed, whether or not it succeeded. There is no message for this; the order's effects have their own events.
+	 */
+	public static final class OrderExecuted extends GameEvent {
+		/**
+		 * The order.
+		 */
+		private final Order d_order;
+
+		/**
+		 * Whether the order succeeded.
+		 */
+		private final boolean d_succeeded;
+
+		/**
+		 * Creates the event.
+		 * @param p_order The order.
+		 * @param p_succeeded Whether the order succeeded.
+		 */
+		public OrderExecuted(Order p_order, boolean p_succeeded) {
+			d_order = p_order;
+			d_succeeded = p_succeeded;
+		}
+
+		@Override
+		public Type getType() {
+			return Type.ORDER_EXECUTED;
+		}
+
+		/**
+		 * Gets the order.
+		 * @return The order.
+		 */
+		public Order getOrder() {
+			return d_order;
+		}
+
+		/**
+		 * Did the order succeed?
+		 * @return True if it did.
+		 */
+		public boolean hasSucceeded() {
+			return d_succeeded;
+		}
+	}
+
+	/**
+	 * A player's armies were deployed to one of their territories.
+	 */
+	public static final class ArmiesDeployed extends GameEvent {
+		/**
+		 * The player who deployed.
+		 */
+		private final Player d_player;
+
+		/**
+		 * The territory deployed to.
+		 */
+		private final Territory d_territory;
+
+		/**
+		 * The number of armies deployed.
+		 */
+		private final int d_numArmies;
+
+		/**
+		 * The number of armies on the territory afterwards.
+		 */
+		private final int d_totalArmies;
+
+		/**
+		 * Creates the event.
+		 * @param p_player The player who deployed.
+		 * @param p_territory The territory deployed to.
+		 * @param p_numArmies The number of armies deployed.
+		 * @param p_totalArmies The number of armies on the territory afterwards.
+		 */
+		public ArmiesDeployed(Player p_player, Territory p_territory, int p_numArmies, int p_totalArmies) {
+			d_player = p_player;
+			d_territory = p_territory;
+			d_numArmies = p_numArmies;
+			d_totalArmies = p_totalArmies;
+		}
+
+		@Override
+		public Type getType() {
+			return Type.ARMIES_DEPLOYED;
+		}
+
+		/**
+		 * Gets the player who deployed.
+		 * @return The player.
+		 */
+		public Player getPlayer() {
+			return d_player;
+		}
+
+		/**
+		 * Gets the territory deployed to.
+		 * @return The territory.
+		 */
+		public Territory getTerritory() {
+			return d_territory;
+		}
+
+		/**
+		 * Gets the number of armies deployed.
+		 * @return The number of armies.
+		 */
+		public int getNumArmies() {
+			return d_numArmies;
+		}
+
+		/**
+		 * Gets the number of armies on the territory afterwards.
+		 * @return The number of armies.
+		 */
+		public int getTotalArmies() {
+			return d_totalArmies;
+		}
+
+		@Override
+		public String getMessage() {
+			return d_player.getName() + " deployed " + d_numArmies + " to " + d_territory.getDisplayName() + ", for a total of " + d_totalArmies + ".";
+		}
+	}
+
+	/**
+	 * A player moved armies between two of their own territories.
+	 */
+	public static final class ArmiesAdvanced extends GameEvent {
+		/**
+		 * The player who advanced.
+		 */
+		private final Player d_player;
+
+		/**
+		 * The territory the armies left.
+		 */
+		private final Territory d_fromTerritory;
+
+		/**
+		 * The territory the armies arrived at.
+		 */
+		private final Territory d_toTerritory;
+
+		/**
+		 * The number of armies moved.
+		 */
+		private final int d_numArmies;
+
+		/**
+		 * Creates the event.
+		 * @param p_player The player who advanced.
+		 * @param p_fromTerritory The territory the armies left.
+		 * @param p_toTerritory The territory the armies arrived at.
+		 * @param p_numArmies The number of armies moved.
+		 */
+		public ArmiesAdvanced(Player p_player, Territory p_fromTerritory, Territory p_toTerritory, int p_numArmies) {
+			d_player = p_player;
+			d_fromTerritory = p_fromTerritory;
+			d_toTerritory = p_toTerritory;
+			d_numArmies = p_numArmies;
+		}
+
+		@Override
+		public Type getType() {
+			return Type.ARMIES_ADVANCED;
+		}
+
+		/**
+		 * Gets the player who advanced.
+		 * @return The player.
+		 */
+		public Player getPlayer() {
+			return d_player;
+		}
+
+		/**
+		 * Gets the territory the armies left.
+		 * @return The territory.
+		 */
+		public Territory getFromTerritory() {
+			return d_fromTerritory;
+		}
+
+		/**
+		 * Gets the territory the armies arrived at.
+		 * @return The territory.
+		 */
+		public Territory getToTerritory() {
+			return d_toTerritory;
+		}
+
+		/**
+		 * Gets the number of armies moved.
+		 * @return The number of armies.
+		 */
+		public int getNumArmies() {
+			return d_numArmies;
+		}
+
+		@Override
+		public String getMessage() {
+			return d_player.getName() + " advanced " + d_numArmies + " from " + d_fromTerritory.getDisplayName() + " to " + d_toTerritory.getDisplayName() + ".";
+		}
+	}
+
+	/**
+	 * An attack wiped out a territory's defenders, and the attackers took it.
+	 */
+	public static final class TerritoryCaptured extends GameEvent {
+		/**
+		 * The owner of the attacking territory.
+		 */
+		private final Player d_attacker;
+
+		/**
+		 * The previous owner of the captured territory, or null if it was neutral.
+		 */
+		private final Player d_defender;
+
+		/**
+		 * The territory the attack came from.
+		 */
+		private final Territory d_fromTerritory;
+
+		/**
+		 * The captured territory.
+		 */
+		private final Territory d_toTerritory;
+
+		/**
+		 * The number of armies that attacked.
+		 */
+		private final int d_numAttackers;
+
+		/**
+		 * The number of attackers left, who now hold the territory.
+		 */
+		private final int d_numSurvivingAttackers;
+
+		/**
+		 * Creates the event.
+		 * @param p_attacker The owner of the attacking territory.
+		 * @param p_defender The previous owner of the captured territory, or null if it was neutral.
+		 * @param p_fromTerritory The territory the attack came from.
+		 * @param p_toTerritory The captured territory.
+		 * @param p_numAttackers The number of armies that attacked.
+		 * @param p_numSurvivingAttackers The number of attackers left.
+		 */
+		public TerritoryCaptured(Player p_attacker, Player p_defender, Territory p_fromTerritory, Territory p_toTerritory, int p_numAttackers, int p_numSurvivingAttackers) {
+			d_attacker = p_attacker;
+			d_defender = p_defender;
+			d_fromTerritory = p_fromTerritory;
+			d_toTerritory = p_toTerritory;
+			d_numAttackers = p_numAttackers;
+			d_numSurvivingAttackers = p_numSurvivingAttackers;
+		}
+
+		@Override
+		public Type getType() {
+			return Type.TERRITORY_CAPTURED;
+		}
+
+		/**
+		 * Gets the owner of the attacking territory.
+		 * @return The attacker.
+		 */
+		public Player getAttacker() {
+			return d_attacker;
+		}
+
+		/**
+		 * Gets the previous owner of the captured territory.
+		 * @return The defender, or null if the territory was neutral.
+		 */
+		public Player getDefender() {
+			return d_defender;
+		}
+
+		/**
+		 * Gets the territory the attack came from.
+		 * @return The territory.
+		 */
+		public Territory getFromTerritory() {
+			return d_fromTerritory;
+		}
+
+		/**
+		 * Gets the captured territory.
+		 * @return The territory.
+		 */
+		public Territory getToTerritory() {
+			return d_toTerritory;
+		}
+
+		/**
+		 * Gets the number of armies that attacked.
+		 * @return The number of armies.
+		 */
+		public int getNumAttackers() {
+			return d_numAttackers;
+		}
+
+		/**
+		 * Gets the number of attackers left, who now hold the territory.
+		 * @return The number of armies.
+		 */
+		public int getNumSurvivingAttackers() {
+			return d_numSurvivingAttackers;
+		}
+
+		@Override
+		public String getMessage() {
+			return "The territory " + d_toTerritory.getDisplayName() + " (" + getName(d_defender) + ") has been siezed by armies from " + d_fromTerritory.getDisplayName() + " (" + getName(d_attacker) + ").\n"
+					+ "  Surviving Attackers: " + d_numSurvivingAttackers + "/" + d_numAttackers;
+		}
+	}
+
+	/**
+	 * An attack failed to wipe out a territory's defenders.
+	 */
+	public static final class AttackRepelled extends GameEvent {
+		/**
+		 * The owner of the attacking territory.
+		 */
+		private final Player d_attacker;
+
+		/**
+		 * The owner of the defending territory, or null if it is neutral.
+		 */
+		private final Player d_defender;
+
+		/**
+		 * The territory the attack came from.
+		 */
+		private final Territory d_fromTerritory;
+
+		/**
+		 * The defending territory.
+		 */
+		private final Territory d_toTerritory;
+
+		/**
+		 * The number of armies that attacked.
+		 */
+		private final int d_numAttackers;
+
+		/**
+		 * The number of attackers left, who return home.
+		 */
+		private final int d_numSurvivingAttackers;
+
+		/**
+		 * The number of armies that defended.
+		 */
+		private final int d_numDefenders;
+
+		/**
+		 * The number of defenders left.
+		 */
+		private final int d_numSurvivingDefenders;
+
+		/**
+		 * Creates the event.
+		 * @param p_attacker The owner of the attacking territory.
+		 * @param p_defender The owner of the defending territory, or null if it is neutral.
+		 * @param p_fromTerritory The territory the attack came from.
+		 * @param p_toTerritory The defending territory.
+		 * @param p_numAttackers The number of armies that attacked.
+		 * @param p_numSurvivingAttackers The number of attackers left.
+		 * @param p_numDefenders The number of armies that defended.
+		 * @param p_numSurvivingDefenders The number of defenders left.
+		 */
+		public AttackRepelled(Player p_attacker, Player p_defender, Territory p_fromTerritory, Territory p_toTerritory,
+				int p_numAttackers, int p_numSurvivingAttackers, int p_numDefenders, int p_numSurvivingDefenders) {
+			d_attacker = p_attacker;
+			d_defender = p_defender;
+			d_fromTerritory = p_fromTerritory;
+			d_toTerritory = p_toTerritory;
+			d_numAttackers = p_numAttackers;
+			d_numSurvivingAttackers = p_numSurvivingAttackers;
+			d_numDefenders = p_numDefenders;
+			d_numSurvivingDefenders = p_numSurvivingDefenders;
+		}
+
+		@Override
+		public Type getType() {
+			return Type.ATTACK_REPELLED;
+		}
+
+		/**
+		 * Gets the owner of the attacking territory.
+		 * @return The attacker.
+		 */
+		public Player getAttacker() {
+			return d_attacker;
+		}
+
+		/**
+		 * Gets the owner of the defending territory.
+		 * @return The defender, or null if the territory is neutral.
+		 */
+		public Player getDefender() {
+			return d_defender;
+		}
+
+		/**
+		 * Gets the territory the attack came from.
+		 * @return The territory.
+		 */
+		public Territory getFromTerritory() {
+			return d_fromTerritory;
+		}
+
+		/**
+		 * Gets the defending territory.
+		 * @return The territory.
+		 */
+		public Territory getToTerritory() {
+			return d_toTerritory;
+		}
+
+		/**
+		 * Gets the number of armies that attacked.
+		 * @return The number of armies.
+		 */
+		public int getNumAttackers() {
+			return d_numAttackers;
+		}
+
+		/**
+		 * Gets the number of attackers left, who return home.
+		 * @return The number of armies.
+		 */
+		public int getNumSurvivingAttackers() {
+			return d_numSurvivingAttackers;
+		}
+
+		/**
+		 * Gets the number of armies that defended.
+		 * @return The number of armies.
+		 */
+		public int getNumDefenders() {
+			return d_numDefenders;
+		}
+
+		/**
+		 * Gets the number of defenders left.
+		 * @return The number of armies.
+		 */
+		public int getNumSurvivingDefenders() {
+			return d_numSurvivingDefenders;
+		}
+
+		@Override
+		public String getMessage() {
+			return "The attack on " + d_toTerritory.getDisplayName() + " (" + getName(d_defender) + ") by " + d_fromTerritory.getDisplayName() + " (" + getName(d_attacker) + ") did not succeed.\n"
+					+ "  Surviving Attackers: " + d_numSurvivingAttackers + "/" + d_numAttackers + "\n"
+					+ "  Surviving Defenders: " + d_numSurvivingDefenders + "/" + d_numDefenders;
+		}
+	}
+
+	/**
+	 * A territory changed hands, by conquest, by a blockade or when territories are assigned. There is no message for this.
+	 */
+	public static final class OwnerChanged extends GameEvent {
+		/**
+		 * The territory.
+		 */
+		private final Territory d_territory;
+
+		/**
+		 * The previous owner, or null if the territory was neutral.
+		 */
+		private final Player d_previousOwner;
+
+		/**
+		 * The new owner, or null if the territory is now neutral.
+		 */
+		private final Player d_newOwner;
+
+		/**
+		 * Creates the event.
+		 * @param p_territory The territory.
+		 * @param p_previousOwner The previous owner, or null if the territory was neutral.
+		 * @param p_newOwner The new owner, or null if the territory is now neutral.
+		 */
+		public OwnerChanged(Territory p_territory, Player p_previousOwner, Player p_newOwner) {
+			d_territory = p_territory;
+			d_previousOwner = p_previousOwner;
+			d_newOwner = p_newOwner;
+		}
+
+		@Override
+		public Type getType() {
+			return Type.OWNER_CHANGED;
+		}
+
+		/**
+		 * Gets the territory.
+		 * @return The territory.
+		 */
+		public Territory getTerritory() {
+			return d_territory;
+		}
+
+		/**
+		 * Gets the previous owner.
+		 * @return The previous owner, or null if the territory was neutral.
+		 */
+		public Player getPreviousOwner() {
+			return d_previousOwner;
+		}
+
+		/**
+		 * Gets the new owner.
+		 * @return The new owner, or null if the territory is now neutral.
+		 */
+		public Player getNewOwner() {
+			return d_newOwner;
+		}
+	}
+
+	/**
+	 * A player was awarded a card for capturing a territory.
+	 */
+	public static final class CardAwarded extends GameEvent {
+		/**
+		 * The player.
+		 */
+		private final Player d_player;
+
+		/**
+		 * The card.
+		 */
+		private final String d_card;
+
+		/**
+		 * Creates the event.
+		 * @param p_player The player.
+		 * @param p_card The card.
+		 */
+		public CardAwarded(Player p_player, String p_card) {
+			d_player = p_player;
+			d_card = p_card;
+		}
+
+		@Override
+		public Type getType() {
+			return Type.CARD_AWARDED;
+		}
+
+		/**
+		 * Gets the player.
+		 * @return The player.
+		 */
+		public Player getPlayer() {
+			return d_player;
+		}
+
+		/**
+		 * Gets the card.
+		 * @return The card.
+		 */
+		public String getCard() {
+			return d_card;
+		}
+
+		@Override
+		public String getMessage() {
+			return d_player.getName() + " was awarded a " + d_card + " card.";
+		}
+	}
+
+	/**
+	 * The game moved to a new phase. There is no message for this.
+	 */
+	public static final class PhaseChanged extends GameEvent {
+		/**
+		 * The phase that ended.
+		 */
+		private final Phase d_previousPhase;
+
+		/**
+		 * The phase that started.
+		 */
+		private final Phase d_newPhase;
+
+		/**
+		 * Creates the event.
+		 * @param p_previousPhase The phase that ended.
+		 * @param p_newPhase The phase that started.
+		 */
+		public PhaseChanged(Phase p_previousPhase, Phase p_newPhase) {
+			d_previousPhase = p_previousPhase;
+			d_newPhase = p_newPhase;
+		}
+
+		@Override
+		public Type getType() {
+			return Type.PHASE_CHANGED;
+		}
+
+		/**
+		 * Gets the phase that ended.
+		 * @return The phase.
+		 */
+		public Phase getPreviousPhase() {
+			return d_previousPhase;
+		}
+
+		/**
+		 * Gets the phase that started.
+		 * @return The phase.
+		 */
+		public Phase getNewPhase() {
+			return d_newPhase;
+		}
+	}
+
+	/**
+	 * The game ended, with a winner or in a draw at the turn limit.
+	 */
+	public static final class GameEnded extends GameEvent {
+		/**
+		 * The winner, or null for a draw.
+		 */
+		private final Player d_winner;
+
+		/**
+		 * The number of turns played.
+		 */
+		private final int d_numTurns;
+
+		/**
+		 * Creates the event.
+		 * @param p_winner The winner, or null for a draw.
+		 * @param p_numTurns The number of turns played.
+		 */
+		public GameEnded(Player p_winner, int p_numTurns) {
+			d_winner = p_winner;
+			d_numTurns = p_numTurns;
+		}
+
+		@Override
+		public Type getType() {
+			return Type.GAME_ENDED;
+		}
+
+		/**
+		 * Gets the winner.
+		 * @return The winner, or null for a draw.
+		 */
+		public Player getWinner() {
+			return d_winner;
+		}
+
+		/**
+		 * Gets the number of turns played.
+		 * @return The number of turns.
+		 */
+		public int getNumTurns() {
+			return d_numTurns;
+		}
+
+		@Override
+		public String getMessage() {
+			if (d_winner == null) {
+				return "Nobody has conquered the world after " + d_numTurns + " turns. The game is a draw.\nReturning to startup phase.";
+			}
+			return d_winner.getName().toUpperCase() + " HAS CONQUERED THE WORLD!\nReturning to startup phase.";
+		}
+	}
+
+	/**
+	 * A saved game in progress was loaded, and is about to carry on. The players, their cards and orders, the board,
+	 * the turn and the random streams are all restored by now, but the game's phase has not been resumed yet. There is no message for this.
+	 */
+	public static final class GameLoaded extends GameEvent {
+		/**
+		 * The turn the game was saved in.
+		 */
+		private final int d_turnNumber;
+
+		/**
+		 * Creates the event.
+		 * @param p_turnNumber The turn the game was saved in.
+		 */
+		public GameLoaded(int p_turnNumber) {
+			d_turnNumber = p_turnNumber;
+		}
+
+		@Override
+		public Type getType() {
+			return Type.GAME_LOADED;
+		}
+
+		/**
+		 * Gets the turn the game was saved in.
+		 * @return The turn number.
+		 */
+		public int getTurnNumber() {
+			return d_turnNumber;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package main.game;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Delivers {@link GameEvent}s to the subscribers of their type.
+ *
+ * Subscribers are kept in a plain array per event type, indexed by the type's ordinal, so publishing is an array lookup and a loop,
+ * and checking whether anyone is subscribed to a type is a single length check. The arrays are replaced rather than changed
+ * when subscribers come and go, so a subscriber can subscribe or unsubscribe while an event is being delivered.
+ * Like the rest of a game, a bus is only meant to be used from the thread playing the game.
+ * @author Kyle
+ */
+public class GameEventBus {
+	/**
+	 * An empty list of subscribers.
+	 */
+	private static final Consumer<?>[] NO_SUBSCRIBERS = new Consumer<?>[0];
+
+	/**
+	 * The subscribers of each type of event, indexed by the type's ordinal.
+	 */
+	private Consumer<?>[][] d_subscribers;
+
+	/**
+	 * Creates a bus without subscribers.
+	 */
+	public GameEventBus() {
+		d_subscribers = new Consumer<?>[GameEvent.Type.values().length][];
+		Arrays.fill(d_subscribers, NO_SUBSCRIBERS);
+	}
+
+	/**
+	 * Subscribes to a kind of event.
+	 * @param <E> The class of the events.
+	 * @param p_eventClass The class of the events, e.g. GameEvent.TerritoryCaptured.class.
+	 * @param p_subscriber Called with every event of that kind.
+	 * @throws IllegalArgumentException if the class is not a kind of event.
+	 */
+	public <E extends GameEvent> void subscribe(Class<E> p_eventClass, Consumer<? super E> p_subscriber) {
+		int l_typeIdx = getTypeIdx(p_eventClass);
+		Consumer<?>[] l_subscribers = Arrays.copyOf(d_subscribers[l_typeIdx], d_subscribers[l_typeIdx].length + 1);
+		l_subscribers[l_subscribers.length - 1] = p_subscriber;
+		d_subscribers[l_typeIdx] = l_subscribers;
+	}
+
+	/**
+	 * Unsubscribes from a kind of event.
+	 * @param p_eventClass The class of the events.
+	 * @param p_subscriber The subscriber, as it was subscribed.
+	 * @return True if the subscriber was removed, false if it was not subscribed.
+	 * @throws IllegalArgumentException if the class is not a kind of event.
+	 */
+	public boolean unsubscribe(Class<? extends GameEvent> p_eventClass, Consumer<?> p_subscriber) {
+		int l_typeIdx = getTypeIdx(p_eventClass);
+		Consumer<?>[] l_subscribers = d_subscribers[l_typeIdx];
+		for (int l_idx = 0; l_idx < l_subscribers.length; l_idx++) {
+			if (l_subscribers[l_idx] == p_subscriber) {
+				Consumer<?>[] l_remaining = new Consumer<?>[l_subscribers.length - 1];
+				System.arraycopy(l_subscribers, 0, l_remaining, 0, l_idx);
+				System.arraycopy(l_subscribers, l_idx + 1, l_remaining, l_idx, l_remaining.length - l_idx);
+				d_subscribers[l_typeIdx] = l_remaining.length > 0 ? l_remaining : NO_SUBSCRIBERS;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Is anyone subscribed to a type of event? Publishers can check this before creating an event.
+	 * @param p_type The type of event.
+	 * @return True if there is at least one subscriber.
+	 */
+	public boolean hasSubscribers(GameEvent.Type p_type) {
+		return d_subscribers[p_type.ordinal()].length > 0;
+	}
+
+	/**
+	 * Delivers an event to every subscriber of its type, in the order they subscribed.
+	 * @param p_event The event.
+	 */
+	@SuppressWarnings("unchecked")
+	public void publish(GameEvent p_event) {
+		// Subscribers were checked against the event's class when they subscribed.
+		for (Consumer<?> l_subscriber : d_subscribers[p_event.getType().ordinal()]) {
+			((Consumer<GameEvent>)l_subscriber).accept(p_event);
+		}
+	}
+
+	/**
+	 * Gets the index of the subscriber list for a class of events.
+	 * @param p_eventClass The class of the events.
+	 * @return The index.
+	 * @throws IllegalArgumentException if the class is not a kind of event.
+	 */
+	private static int getTypeIdx(Class<?> p_eventClass) {
+		GameEvent.Type l_type = GameEvent.Type.of(p_eventClass);
+		if (l_type == null) {
+			throw new IllegalArgumentException(p_eventClass.getSimpleName() + " is not a kind of game event.");
+		}
+		return l_type.ordinal();
+	}
+}
@@ -0,0 +1,774 @@
+package main.game;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedList;
+import java.util.function.Consumer;
+
+/**
+ * Records the games played on an engine in a compact binary journal, so that {@link GameReplay} can rebuild them exactly
+ * without running the players' strategies.
+ *
+ * The journal holds what cannot be worked out again: the master seed and the starting board, every order as it was issued,
+ * which player's order was executed next and whether it succeeded, the cards awarded, and any change to the board made outside of orders.
+ * Everything else, combat included, follows from replaying the orders with the same random streams.
+ *
+ * The file starts with the magic bytes "RQGJ" and a format version (big-endian 32-bit integers), then has one record per line of play:
+ * a tag byte followed by the record's fields. Numbers are unsigned LEB128 varints, except the seed, which is a big-endian 64-bit integer;
+ * players are numbered from 1 (0 for nobody, i.e. neutral), and strings are a varint byte count then UTF-8 bytes.
+ *   GAME_STARTED: seed, player count, each player's name and cards (count then card indices), territory count, then each territory's owner and armies
+ *   TURN_STARTED: turn number, random epoch
+ *   ORDER_ISSUED: player, order kind, then the order's territory IDs, armies or target player
+ *   ORDER_EXECUTED: player, 1 if the order succeeded or 0 if not
+ *   CARD_AWARDED: player, card index (in the engine's card options)
+ *   BOARD_CHANGED: territory count, then each territory's ID, owner and armies
+ *   GAME_ENDED: winner, number of turns
+ *   GAME_RESUMED: seed, turn number, random epoch, player count, each player's name and cards, then each player's allies (count then players)
+ *     and pending orders (count then orders, as in ORDER_ISSUED), territory count, then each territory's owner and armies
+ * A game loaded from a save starts with GAME_RESUMED instead of GAME_STARTED, and a game left unfinished, e.g. by loading another over it,
+ * ends with a GAME_ENDED that has no winner.
+ * Records are only ever appended, and the journal is flushed at the start of every turn and the end of every game.
+ * @author Kyle
+ */
+public class GameJournal implements GameObserver {
+	/**
+	 * The extension of journal files.
+	 */
+	public static final String FILE_EXTENSION = ".journal";
+
+	/**
+	 * The magic bytes at the start of every journal: "RQGJ".
+	 */
+	static final int MAGIC = 0x5251474A;
+
+	/**
+	 * The version of the format written by this class.
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * The tag of a record of a game starting.
+	 */
+	static final int GAME_STARTED = 1;
+
+	/**
+	 * The tag of a record of a turn starting.
+	 */
+	static final int TURN_STARTED = 2;
+
+	/**
+	 * The tag of a record of an order being issued.
+	 */
+	static final int ORDER_ISSUED = 3;
+
+	/**
+	 * The tag of a record of an order being executed.
+	 */
+	static final int ORDER_EXECUTED = 4;
+
+	/**
+	 * The tag of a record of a card being awarded.
+	 */
+	static final int CARD_AWARDED = 5;
+
+	/**
+	 * The tag of a record of territories that changed outside of orders.
+	 */
+	static final int BOARD_CHANGED = 6;
+
+	/**
+	 * The tag of a record of a game ending.
+	 */
+	static final int GAME_ENDED = 7;
+
+	/**
+	 * The tag of a record of a saved game carrying on.
+	 */
+	static final int GAME_RESUMED = 8;
+
+	/**
+	 * The kind of a deploy order.
+	 */
+	static final int DEPLOY = 1;
+
+	/**
+	 * The kind of an advance order.
+	 */
+	static final int ADVANCE = 2;
+
+	/**
+	 * The kind of an airlift order.
+	 */
+	static final int AIRLIFT = 3;
+
+	/**
+	 * The kind of a bomb order.
+	 */
+	static final int BOMB = 4;
+
+	/**
+	 * The kind of a blockade order.
+	 */
+	static final int BLOCKADE = 5;
+
+	/**
+	 * The kind of a negotiate order.
+	 */
+	static final int NEGOTIATE = 6;
+
+	/**
+	 * The engine being recorded.
+	 */
+	private GameEngine d_engine;
+
+	/**
+	 * The journal, or null once it has been closed.
+	 */
+	private DataOutputStream d_out;
+
+	/**
+	 * The error that stopped the journal, if any.
+	 */
+	private IOException d_failure;
+
+	/**
+	 * The players of the game being recorded, in the order they are numbered in.
+	 */
+	private Player[] d_players;
+
+	/**
+	 * The board as the journal last described it, to find the changes made outside of orders; null when no game is being recorded.
+	 */
+	private GameState d_recordedState;
+
+	/**
+	 * The subscriptions to the engine's events, kept so they can be removed when the journal is closed.
+	 */
+	private LinkedList<Runnable> d_unsubscribers;
+
+	/**
+	 * Starts a journal in a new file and attaches it to an engine.
+	 * @param p_engine The engine to record.
+	 * @param p_fileName The name of the file, which is replaced if it exists.
+	 * @throws IOException if the file could not be created.
+	 */
+	public GameJournal(GameEngine p_engine, String p_fileName) throws IOException {
+		this(p_engine, new FileOutputStream(p_fileName, false));
+	}
+
+	/**
+	 * Starts a journal on a stream and attaches it to an engine. The stream is closed with the journal.
+	 * @param p_engine The engine to record.
+	 * @param p_out The stream to write to.
+	 * @throws IOException if the header could not be written.
+	 */
+	public GameJournal(GameEngine p_engine, OutputStream p_out) throws IOException {
+		d_engine = p_engine;
+		d_out = new DataOutputStream(new BufferedOutputStream(p_out, 1 << 16));
+		d_out.writeInt(MAGIC);
+		d_out.writeInt(VERSION);
+		d_unsubscribers = new LinkedList<>();
+		subscribe(GameEvent.PhaseChanged.class, this::onPhaseChanged);
+		subscribe(GameEvent.OrderIssued.class, this::onOrderIssued);
+		subscribe(GameEvent.OrderExecuted.class, this::onOrderExecuted);
+		subscribe(GameEvent.CardAwarded.class, this::onCardAwarded);
+		subscribe(GameEvent.GameEnded.class, this::onGameEnded);
+		subscribe(GameEvent.GameLoaded.class, this::onGameLoaded);
+		p_engine.addTurnListener(this::onTurnStarted);
+		p_engine.addObserver(this);
+	}
+
+	/**
+	 * Subscribes to a kind of event while the journal is open.
+	 * @param <E> The class of the events.
+	 * @param p_eventClass The class of the events.
+	 * @param p_subscriber Called with every event of that kind.
+	 */
+	private <E extends GameEvent> void subscribe(Class<E> p_eventClass, Consumer<E> p_subscriber) {
+		d_engine.getEvents().subscribe(p_eventClass, p_subscriber);
+		d_unsubscribers.add(() -> d_engine.getEvents().unsubscribe(p_eventClass, p_subscriber));
+	}
+
+	/**
+	 * Gets the error that stopped the journal, if writing it failed.
+	 * @return The error, or null if there was none.
+	 */
+	public IOException getFailure() {
+		return d_failure;
+	}
+
+	/**
+	 * Records the start of a game when the first turn is about to be issued, and keeps track of the board around each execution of orders.
+	 * A game that goes back to the startup phase without having ended, e.g. because another was loaded over it, is recorded as ending with no winner.
+	 * @param p_event The event.
+	 */
+	private void onPhaseChanged(GameEvent.PhaseChanged p_event) {
+		if (d_out == null) {
+			return;
+		}
+		try {
+			if (d_recordedState == null && p_event.getPreviousPhase() instanceof StartupPhase && p_event.getNewPhase() instanceof IssueOrderPhase) {
+				writeGameStarted();
+			}
+			else if (d_recordedState != null && p_event.getNewPhase() instanceof StartupPhase) {
+				writeGameEnded(null, d_engine.getTurnNumber());
+			}
+			else if (d_recordedState != null && p_event.getNewPhase() instanceof ExecuteOrderPhase) {
+				writeBoardChanges();
+			}
+			else if (d_recordedState != null && p_event.getPreviousPhase() instanceof ExecuteOrderPhase) {
+				d_recordedState = d_engine.getState().copy();
+			}
+		}
+		catch (IOException l_exception) {
+			fail(l_exception);
+		}
+	}
+
+	/**
+	 * Writes the start of a game: the seed, the players and the cards they already hold, and the whole board.
+	 * @throws IOException if the record could not be written.
+	 */
+	private void writeGameStarted() throws IOException {
+		d_players = d_engine.getPlayers().toArray(new Player[0]);
+		d_recordedState = d_engine.getState().copy();
+		int l_numTerritories = d_engine.getMap().getNumTerritories();
+		d_out.writeByte(GAME_STARTED);
+		d_out.writeLong(d_engine.getRandom().getMasterSeed());
+		writeVarLong(d_out, d_players.length);
+		LinkedList<String> l_cardOptions = d_engine.getCardOptions();
+		for (Player l_player : d_players) {
+			writeString(d_out, l_player.getName());
+			LinkedList<String> l_cards = l_player.getCards();
+			writeVarLong(d_out, l_cards.size());
+			for (String l_card : l_cards) {
+				writeVarLong(d_out, l_cardOptions.indexOf(l_card));
+			}
+		}
+		writeVarLong(d_out, l_numTerritories);
+		for (int l_tID = 1; l_tID <= l_numTerritories; l_tID++) {
+			writeVarLong(d_out, getPlayerNumber(d_recordedState.getOwner(l_tID)));
+			writeVarLong(d_out, d_recordedState.getNumArmies(l_tID));
+		}
+	}
+
+	/**
+	 * Records a saved game carrying on: everything {@link #writeGameStarted()} writes, plus where the game was and the orders already issued.
+	 * Any game still being recorded is ended first.
+	 * @param p_event The event.
+	 */
+	private void onGameLoaded(GameEvent.GameLoaded p_event) {
+		if (d_out == null) {
+			return;
+		}
+		try {
+			if (d_recordedState != null) {
+				writeGameEnded(null, d_engine.getTurnNumber());
+			}
+			writeGameResumed(p_event.getTurnNumber());
+		}
+		catch (IOException l_exception) {
+			fail(l_exception);
+		}
+	}
+
+	/**
+	 * Writes a saved game carrying on: the seed, the turn and its random epoch, the players with their cards, allies and orders, and the whole board.
+	 * @param p_turnNumber The turn the game carries on in.
+	 * @throws IOException if the record could not be written.
+	 */
+	private void writeGameResumed(int p_turnNumber) throws IOException {
+		d_players = d_engine.getPlayers().toArray(new Player[0]);
+		d_recordedState = d_engine.getState().copy();
+		Map l_map = d_engine.getMap();
+		int l_numTerritories = l_map.getNumTerritories();
+		d_out.writeByte(GAME_RESUMED);
+		d_out.writeLong(d_engine.getRandom().getMasterSeed());
+		writeVarLong(d_out, p_turnNumber);
+		writeVarLong(d_out, d_engine.getRandom().getEpoch());
+		writeVarLong(d_out, d_players.length);
+		LinkedList<String> l_cardOptions = d_engine.getCardOptions();
+		for (Player l_player : d_players) {
+			writeString(d_out, l_player.getName());
+			LinkedList<String> l_cards = l_player.getCards();
+			writeVarLong(d_out, l_cards.size());
+			for (String l_card : l_cards) {
+				writeVarLong(d_out, l_cardOptions.indexOf(l_card));
+			}
+		}
+		for (Player l_player : d_players) {
+			writeVarLong(d_out, l_player.getAllies().size());
+			for (Player l_ally : l_player.getAllies()) {
+				writeVarLong(d_out, getPlayerNumber(l_ally));
+			}
+			writeVarLong(d_out, l_player.getOrders().size());
+			for (Order l_order : l_player.getOrders()) {
+				writeOrder(d_out, l_order, l_map, d_players);
+			}
+		}
+		writeVarLong(d_out, l_numTerritories);
+		for (int l_tID = 1; l_tID <= l_numTerritories; l_tID++) {
+			writeVarLong(d_out, getPlayerNumber(d_recordedState.getOwner(l_tID)));
+			writeVarLong(d_out, d_recordedState.getNumArmies(l_tID));
+		}
+		d_out.flush();
+	}
+
+	/**
+	 * Writes the territories whose owner or armies changed since the journal last described them, e.g. by a cheating strategy.
+	 * Most turns have no such changes, and then nothing is written.
+	 * @throws IOException if the record could not be written.
+	 */
+	private void writeBoardChanges() throws IOException {
+		GameState l_state = d_engine.getState();
+		int l_numTerritories = d_engine.getMap().getNumTerritories();
+		int l_numChanges = 0;
+		for (int l_tID = 1; l_tID <= l_numTerritories; l_tID++) {
+			if (hasChanged(l_state, l_tID)) {
+				l_numChanges++;
+			}
+		}
+		if (l_numChanges == 0) {
+			return;
+		}
+		d_out.writeByte(BOARD_CHANGED);
+		writeVarLong(d_out, l_numChanges);
+		for (int l_tID = 1; l_tID <= l_numTerritories; l_tID++) {
+			if (hasChanged(l_state, l_tID)) {
+				writeVarLong(d_out, l_tID);
+				writeVarLong(d_out, getPlayerNumber(l_state.getOwner(l_tID)));
+				writeVarLong(d_out, l_state.getNumArmies(l_tID));
+			}
+		}
+	}
+
+	/**
+	 * Has a territory changed since the journal last described it?
+	 * @param p_state The current board.
+	 * @param p_territoryID The ID of the territory.
+	 * @return True if its owner or armies are different.
+	 */
+	private boolean hasChanged(GameState p_state, int p_territoryID) {
+		return p_state.getOwner(p_territoryID) != d_recordedState.getOwner(p_territoryID)
+				|| p_state.getNumArmies(p_territoryID) != d_recordedState.getNumArmies(p_territoryID);
+	}
+
+	/**
+	 * Records the start of a turn, along with the random epoch its combat draws from, and flushes the journal.
+	 */
+	private void onTurnStarted() {
+		if (d_out == null || d_recordedState == null) {
+			return;
+		}
+		try {
+			d_out.writeByte(TURN_STARTED);
+			writeVarLong(d_out, d_engine.getTurnNumber());
+			writeVarLong(d_out, d_engine.getRandom().getEpoch());
+			d_out.flush();
+		}
+		catch (IOException l_exception) {
+			fail(l_exception);
+		}
+	}
+
+	/**
+	 * Records an order as it was issued.
+	 * @param p_event The event.
+	 */
+	private void onOrderIssued(GameEvent.OrderIssued p_event) {
+		if (d_out == null || d_recordedState == null) {
+			return;
+		}
+		try {
+			Order l_order = p_event.getOrder();
+			d_out.writeByte(ORDER_ISSUED);
+			writeVarLong(d_out, getPlayerNumber(l_order.getIssuer()));
+			writeOrder(d_out, l_order, d_engine.getMap(), d_players);
+		}
+		catch (IOException l_exception) {
+			fail(l_exception);
+		}
+	}
+
+	/**
+	 * Records which player's order was executed, and whether it succeeded.
+	 * @param p_event The event.
+	 */
+	private void onOrderExecuted(GameEvent.OrderExecuted p_event) {
+		if (d_out == null || d_recordedState == null) {
+			return;
+		}
+		try {
+			d_out.writeByte(ORDER_EXECUTED);
+			writeVarLong(d_out, getPlayerNumber(p_event.getOrder().getIssuer()));
+			d_out.writeByte(p_event.hasSucceeded() ? 1 : 0);
+		}
+		catch (IOException l_exception) {
+			fail(l_exception);
+		}
+	}
+
+	/**
+	 * Records a card award, which a replay takes from the journal instead of drawing it again.
+	 * @param p_event The event.
+	 */
+	private void onCardAwarded(GameEvent.CardAwarded p_event) {
+		if (d_out == null || d_recordedState == null) {
+			return;
+		}
+		try {
+			d_out.writeByte(CARD_AWARDED);
+			writeVarLong(d_out, getPlayerNumber(p_event.getPlayer()));
+			writeVarLong(d_out, d_engine.getCardOptions().indexOf(p_event.getCard()));
+		}
+		catch (IOException l_exception) {
+			fail(l_exception);
+		}
+	}
+
+	/**
+	 * Records the end of a game and flushes the journal.
+	 * @param p_event The event.
+	 */
+	private void onGameEnded(GameEvent.GameEnded p_event) {
+		if (d_out == null || d_recordedState == null) {
+			return;
+		}
+		try {
+			writeGameEnded(p_event.getWinner(), p_event.getNumTurns());
+		}
+		catch (IOException l_exception) {
+			fail(l_exception);
+		}
+		d_recordedState = null;
+		d_players = null;
+	}
+
+	/**
+	 * Writes the end of the game being recorded, flushes the journal, and stops recording the game.
+	 * @param p_winner The winner, or null for nobody.
+	 * @param p_numTurns The number of turns played.
+	 * @throws IOException if the record could not be written.
+	 */
+	private void writeGameEnded(Player p_winner, int p_numTurns) throws IOException {
+		d_out.writeByte(GAME_ENDED);
+		writeVarLong(d_out, getPlayerNumber(p_winner));
+		writeVarLong(d_out, p_numTurns);
+		d_recordedState = null;
+		d_players = null;
+		d_out.flush();
+	}
+
+	/**
+	 * Gets the number a player is recorded as in this game.
+	 * @param p_player The player, or null for nobody.
+	 * @return The player's number, from 1, or 0 for nobody.
+	 */
+	private int getPlayerNumber(Player p_player) {
+		return getPlayerNumber(d_players, p_player);
+	}
+
+	/**
+	 * Stops the journal after an error, keeping what was written before it.
+	 * @param p_exception The error.
+	 */
+	private void fail(IOException p_exception) {
+		d_failure = p_exception;
+		close();
+	}
+
+	/**
+	 * Detaches the journal from its engine and closes it. Nothing more is recorded.
+	 */
+	public void close() {
+		if (d_out == null) {
+			return;
+		}
+		for (Runnable l_unsubscriber : d_unsubscribers) {
+			l_unsubscriber.run();
+		}
+		d_engine.removeObserver(this);
+		try {
+			d_out.close();
+		}
+		catch (IOException l_exception) {
+			if (d_failure == null) {
+				d_failure = l_exception;
+			}
+		}
+		d_out = null;
+	}
+
+	/**
+	 * The journal does not record messages.
+	 * @return False.
+	 */
+	@Override
+	public boolean wantsMessages() {
+		return false;
+	}
+
+	/**
+	 * Unused, since the journal does not want messages.
+	 * @param p_message The message.
+	 */
+	@Override
+	public void onAddMessage(String p_message) {
+	}
+
+	/**
+	 * Closes the journal when the program quits, so the last turn is not lost.
+	 */
+	@Override
+	public void onQuit() {
+		close();
+	}
+
+	/**
+	 * Writes a non-negative number as an unsigned LEB128 varint: seven bits per byte, lowest first, with the top bit set on all but the last byte.
+	 * @param p_out The stream to write to.
+	 * @param p_value The number.
+	 * @throws IOException if the number could not be written.
+	 */
+	static void writeVarLong(DataOutputStream p_out, long p_value) throws IOException {
+		long l_value = p_value;
+		while ((l_value & ~0x7FL) != 0) {
+			p_out.writeByte((int)(l_value & 0x7F) | 0x80);
+			l_value >>>= 7;
+		}
+		p_out.writeByte((int)l_value);
+	}
+
+	/**
+	 * Reads a number written by {@link #writeVarLong(DataOutputStream, long)}.
+	 * @param p_in The stream to read from.
+	 * @return The number.
+	 * @throws IOException if the number could not be read or is too long.
+	 */
+	static long readVarLong(DataInputStream p_in) throws IOException {
+		long l_value = 0;
+		for (int l_shift = 0; l_shift < Long.SIZE; l_shift += 7) {
+			int l_byte = p_in.readUnsignedByte();
+			l_value |= (long)(l_byte & 0x7F) << l_shift;
+			if ((l_byte & 0x80) == 0) {
+				return l_value;
+			}
+		}
+		throw new IOException("Malformed varint in journal.");
+	}
+
+	/**
+	 * Reads a number written by {@link #writeVarLong(DataOutputStream, long)} that must fit in an int.
+	 * @param p_in The stream to read from.
+	 * @return The number.
+	 * @throws IOException if the number could not be read or is out of range.
+	 */
+	static int readVarInt(DataInputStream p_in) throws IOException {
+		long l_value = readVarLong(p_in);
+		if (l_value < 0 || l_value > Integer.MAX_VALUE) {
+			throw new IOException("Number out of range in journal.");
+		}
+		return (int)l_value;
+	}
+
+	/**
+	 * Writes a string as its UTF-8 byte count followed by the bytes.
+	 * @param p_out The stream to write to.
+	 * @param p_string The string.
+	 * @throws IOException if the string could not be written.
+	 */
+	static void writeString(DataOutputStream p_out, String p_string) throws IOException {
+		byte[] l_bytes = p_string.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(p_out, l_bytes.length);
+		p_out.write(l_bytes);
+	}
+
+	/**
+	 * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+	 * @param p_in The stream to read from.
+	 * @return The string.
+	 * @throws IOException if the string could not be read.
+	 */
+	static String readString(DataInputStream p_in) throws IOException {
+		byte[] l_bytes = new byte[readVarInt(p_in)];
+		p_in.readFully(l_bytes);
+		return new String(l_bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Gets the number a player is recorded as: their position in the list of players, from 1.
+	 * @param p_players The players.
+	 * @param p_player The player, or null for nobody.
+	 * @return The player's number, or 0 for nobody (or a player not in the list).
+	 */
+	static int getPlayerNumber(Player[] p_players, Player p_player) {
+		if (p_player != null) {
+			for (int l_idx = 0; l_idx < p_players.length; l_idx++) {
+				if (p_players[l_idx] == p_player) {
+					return l_idx + 1;
+				}
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Reads a player's number.
+	 * @param p_in The stream to read from.
+	 * @param p_players The players, numbered from 1.
+	 * @return The player, or null for nobody.
+	 * @throws IOException if the number could not be read or there is no such player.
+	 */
+	static Player readPlayer(DataInputStream p_in, Player[] p_players) throws IOException {
+		return getPlayer(p_players, readVarInt(p_in));
+	}
+
+	/**
+	 * Gets a player from their number.
+	 * @param p_players The players, in the order they are numbered in.
+	 * @param p_number The player's number, from 1, or 0 for nobody.
+	 * @return The player, or null for nobody.
+	 * @throws IOException if there is no such player.
+	 */
+	static Player getPlayer(Player[] p_players, int p_number) throws IOException {
+		if (p_number == 0) {
+			return null;
+		}
+		if (p_players == null || p_number < 0 || p_number > p_players.length) {
+			throw new IOException("Unknown player " + p_number + ".");
+		}
+		return p_players[p_number - 1];
+	}
+
+	/**
+	 * Reads a territory's ID.
+	 * @param p_in The stream to read from.
+	 * @param p_map The map.
+	 * @return The territory.
+	 * @throws IOException if the ID could not be read or there is no such territory.
+	 */
+	static Territory readTerritory(DataInputStream p_in, Map p_map) throws IOException {
+		int l_tID = readVarInt(p_in);
+		if (l_tID < 1 || l_tID > p_map.getNumTerritories()) {
+			throw new IOException("Unknown territory " + l_tID + ".");
+		}
+		return p_map.getTerritory(l_tID);
+	}
+
+	/**
+	 * Writes the kind and fields of an order, but not its issuer.
+	 * @param p_out The stream to write to.
+	 * @param p_order The order.
+	 * @param p_map The map the order's territories are on.
+	 * @param p_players The players, numbered from 1.
+	 * @throws IOException if the order could not be written, or is of a kind that cannot be written.
+	 */
+	static void writeOrder(DataOutputStream p_out, Order p_order, Map p_map, Player[] p_players) throws IOException {
+		if (p_order instanceof DeployOrder) {
+			DeployOrder l_order = (DeployOrder)p_order;
+			writeVarLong(p_out, DEPLOY);
+			writeVarLong(p_out, p_map.getTerritoryID(l_order.getTerritory()));
+			writeVarLong(p_out, l_order.getNumArmies());
+		}
+		else if (p_order instanceof AdvanceOrder) {
+			AdvanceOrder l_order = (AdvanceOrder)p_order;
+			writeVarLong(p_out, ADVANCE);
+			writeVarLong(p_out, p_map.getTerritoryID(l_order.getFromTerritory()));
+			writeVarLong(p_out, p_map.getTerritoryID(l_order.getToTerritory()));
+			writeVarLong(p_out, l_order.getNumArmies());
+		}
+		else if (p_order instanceof AirliftOrder) {
+			AirliftOrder l_order = (AirliftOrder)p_order;
+			writeVarLong(p_out, AIRLIFT);
+			writeVarLong(p_out, p_map.getTerritoryID(l_order.getSource()));
+			writeVarLong(p_out, p_map.getTerritoryID(l_order.getDestination()));
+			writeVarLong(p_out, l_order.getNumArmies());
+		}
+		else if (p_order instanceof BombOrder) {
+			writeVarLong(p_out, BOMB);
+			writeVarLong(p_out, p_map.getTerritoryID(((BombOrder)p_order).getTarget()));
+		}
+		else if (p_order instanceof BlockadeOrder) {
+			writeVarLong(p_out, BLOCKADE);
+			writeVarLong(p_out, p_map.getTerritoryID(((BlockadeOrder)p_order).getTerritory()));
+		}
+		else if (p_order instanceof NegotiateOrder) {
+			writeVarLong(p_out, NEGOTIATE);
+			writeVarLong(p_out, getPlayerNumber(p_players, ((NegotiateOrder)p_order).getAlly()));
+		}
+		else {
+			throw new IOException(p_order.getClass().getSimpleName() + " cannot be written.");
+		}
+	}
+
+	/**
+	 * Reads an order written by {@link #writeOrder(DataOutputStream, Order, Map, Player[])}.
+	 * The order is new: it has no issuer or engine yet.
+	 * @param p_in The stream to read from.
+	 * @param p_map The map the order's territories are on.
+	 * @param p_players The players, numbered from 1.
+	 * @return The order.
+	 * @throws IOException if the order could not be read.
+	 */
+	static Order readOrder(DataInputStream p_in, Map p_map, Player[] p_players) throws IOException {
+		int l_kind = readVarInt(p_in);
+		switch (l_kind) {
+		case DEPLOY:
+			return new DeployOrder(readTerritory(p_in, p_map), readVarInt(p_in));
+		case ADVANCE:
+			return new AdvanceOrder(readTerritory(p_in, p_map), readTerritory(p_in, p_map), readVarInt(p_in));
+		case AIRLIFT:
+			return new AirliftOrder(readTerritory(p_in, p_map), readTerritory(p_in, p_map), readVarInt(p_in));
+		case BOMB:
+			return new BombOrder(readTerritory(p_in, p_map));
+		case BLOCKADE:
+			return new BlockadeOrder(readTerritory(p_in, p_map));
+		case NEGOTIATE:
+			return new NegotiateOrder(readPlayer(p_in, p_players));
+		default:
+			throw new IOException("Unknown order " + l_kind + ".");
+		}
+	}
+
+	/**
+	 * Gets the card an order uses up when it is issued.
+	 * @param p_order The order.
+	 * @return The card, or null if the order does not need one.
+	 */
+	static String getCardUsed(Order p_order) {
+		if (p_order instanceof AirliftOrder) {
+			return "airlift";
+		}
+		if (p_order instanceof BombOrder) {
+			return "bomb";
+		}
+		if (p_order instanceof BlockadeOrder) {
+			return "blockade";
+		}
+		if (p_order instanceof NegotiateOrder) {
+			return "diplomacy";
+		}
+		return null;
+	}
+
+	/**
+	 * Reads the next tag, or reports the end of the journal.
+	 * @param p_in The stream to read from.
+	 * @return The tag, or -1 at the end of the journal.
+	 * @throws IOException if the tag could not be read.
+	 */
+	static int readTag(DataInputStream p_in) throws IOException {
+		try {
+			return p_in.readUnsignedByte();
+		}
+		catch (EOFException l_exception) {
+			return -1;
+		}
+	}
+}
@@ -13,6 +13,14 @@ public interface GameObserver {
 	 */
 	void onAddMessage(String p_message);
 
+	/**
+	 * Does this observer want messages at all? Messages are only built if at least one observer does.
+	 * @return True if onAddMessage should be called; by default, always.
+	 */
+	default boolean wantsMessages() {
+		return true;
+	}
+
 	/**
 	 * Called by the game engine when the game wishes to shut down.
 	 */
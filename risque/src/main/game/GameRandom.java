@@ -0,0 +1,150 @@
+package main.game;
+
+import java.util.HashMap;
+import java.util.SplittableRandom;
+
+/**
+ * The source of all randomness in a game, so that a game can be replayed exactly from its seed.
+ *
+ * Every subsystem (combat, cards, map editing, each player's strategy) draws from its own stream.
+ * A stream's seed is derived from the master seed, the stream's name and the current epoch, never from the order streams were requested in,
+ * so adding a draw in one subsystem does not shift the numbers any other subsystem sees.
+ * The epoch is advanced once per turn; restoring the master seed and epoch is all it takes to resume the same sequence of numbers.
+ *
+ * Streams are {@link SplittableRandom}s: they are not thread-safe, but each game has its own service, so games never share or contend on one.
+ * @author Kyle
+ */
+public class GameRandom {
+	/**
+	 * The stream used to resolve combat.
+	 */
+	public static final String COMBAT = "combat";
+
+	/**
+	 * The stream used to award cards.
+	 */
+	public static final String CARDS = "cards";
+
+	/**
+	 * The stream used while editing maps, e.g. for generated names.
+	 */
+	public static final String MAP = "map";
+
+	/**
+	 * The prefix of the name of each player's stream.
+	 */
+	private static final String PLAYER_PREFIX = "player/";
+
+	/**
+	 * The seed every stream is derived from.
+	 */
+	private long d_masterSeed;
+
+	/**
+	 * The current epoch (turn), which is mixed into each stream's seed.
+	 */
+	private long d_epoch;
+
+	/**
+	 * The streams created so far in this epoch, by name.
+	 */
+	private HashMap<String, SplittableRandom> d_streams;
+
+	/**
+	 * Creates the service with a master seed, starting at epoch zero.
+	 * @param p_masterSeed The master seed.
+	 */
+	public GameRandom(long p_masterSeed) {
+		d_masterSeed = p_masterSeed;
+		d_epoch = 0;
+		d_streams = new HashMap<>();
+	}
+
+	/**
+	 * Creates the service with an arbitrary master seed.
+	 */
+	public GameRandom() {
+		this(new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Gets the master seed, which is all that is needed (with the epoch) to reproduce a game's randomness.
+	 * @return The master seed.
+	 */
+	public long getMasterSeed() {
+		return d_masterSeed;
+	}
+
+	/**
+	 * Gets the current epoch.
+	 * @return The epoch.
+	 */
+	public long getEpoch() {
+		return d_epoch;
+	}
+
+	/**
+	 * Moves to an epoch. Every stream starts afresh from a seed derived for that epoch.
+	 * @param p_epoch The epoch to move to.
+	 */
+	public void setEpoch(long p_epoch) {
+		d_epoch = p_epoch;
+		d_streams.clear();
+	}
+
+	/**
+	 * Moves on to the next epoch.
+	 */
+	public void advanceEpoch() {
+		setEpoch(d_epoch + 1);
+	}
+
+	/**
+	 * Gets the stream for a subsystem, creating it the first time it is used in this epoch.
+	 * @param p_name The name of the subsystem, such as {@link #COMBAT}.
+	 * @return The stream.
+	 */
+	public SplittableRandom getStream(String p_name) {
+		SplittableRandom l_stream = d_streams.get(p_name);
+		if (l_stream == null) {
+			l_stream = new SplittableRandom(deriveSeed(p_name));
+			d_streams.put(p_name, l_stream);
+		}
+		return l_stream;
+	}
+
+	/**
+	 * Gets the stream for a player, e.g. for their strategy's decisions.
+	 * @param p_player The player.
+	 * @return The stream.
+	 */
+	public SplittableRandom getPlayerStream(Player p_player) {
+		return getStream(PLAYER_PREFIX + p_player.getName());
+	}
+
+	/**
+	 * Derives the seed of a stream by hashing its name and mixing it with the master seed and epoch.
+	 * @param p_name The name of the stream.
+	 * @return The seed.
+	 */
+	private long deriveSeed(String p_name) {
+		// 64-bit FNV-1a; String.hashCode alone is only 32 bits.
+		long l_hash = 0xcbf29ce484222325L;
+		for (int l_idx = 0; l_idx < p_name.length(); l_idx++) {
+			l_hash = (l_hash ^ p_name.charAt(l_idx)) * 0x100000001b3L;
+		}
+		return mix(mix(d_masterSeed ^ l_hash) + d_epoch * 0x9e3779b97f4a7c15L);
+	}
+
+	/**
+	 * Scrambles the bits of a value so that nearby inputs give unrelated outputs (the finalizer of SplitMix64).
+	 * @param p_value The value.
+	 * @return The mixed value.
+	 */
+	private static long mix(long p_value) {
+		long l_value = p_value;
+		l_value = (l_value ^ (l_value >>> 30)) * 0xbf58476d1ce4e5b9L;
+		l_value = (l_value ^ (l_value >>> 27)) * 0x94d049bb133111ebL;
+		return l_value ^ (l_value >>> 31);
+	}
+}
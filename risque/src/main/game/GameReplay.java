@@ -0,0 +1,366 @@
+package main.game;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedList;
+
+/**
+ * Rebuilds games from a {@link GameJournal}, record by record, on an engine that has the same map the games were played on.
+ *
+ * Orders are issued and executed in the order the journal gives, with the random streams of the original turns,
+ * so combat comes out exactly as it did; strategies are never asked for a move.
+ * The engine publishes the usual events while a game is replayed, so the same tools that watch a live game can watch a replay.
+ * While a game is being replayed, the engine is in a phase that does not take commands.
+ * @author Kyle
+ */
+public class GameReplay implements AutoCloseable {
+	/**
+	 * The engine the games are rebuilt on.
+	 */
+	private GameEngine d_engine;
+
+	/**
+	 * The journal.
+	 */
+	private DataInputStream d_in;
+
+	/**
+	 * The tag of the next record, or -1 at the end of the journal.
+	 */
+	private int d_nextTag;
+
+	/**
+	 * The players of the game being replayed, in the order they are numbered in.
+	 */
+	private Player[] d_players;
+
+	/**
+	 * Opens a journal file for replay.
+	 * @param p_engine The engine to rebuild the games on, with the map they were played on and no game in progress.
+	 * @param p_fileName The name of the journal file.
+	 * @throws IOException if the file could not be opened or is not a journal.
+	 */
+	public GameReplay(GameEngine p_engine, String p_fileName) throws IOException {
+		this(p_engine, new FileInputStream(p_fileName));
+	}
+
+	/**
+	 * Opens a journal stream for replay. The stream is closed with the replay.
+	 * @param p_engine The engine to rebuild the games on, with the map they were played on and no game in progress.
+	 * @param p_in The stream to read from.
+	 * @throws IOException if the stream could not be read or is not a journal.
+	 */
+	public GameReplay(GameEngine p_engine, InputStream p_in) throws IOException {
+		d_engine = p_engine;
+		d_in = new DataInputStream(new BufferedInputStream(p_in, 1 << 16));
+		if (d_in.readInt() != GameJournal.MAGIC || d_in.readInt() != GameJournal.VERSION) {
+			d_in.close();
+			throw new IOException("Not a game journal, or written by an incompatible version.");
+		}
+		d_nextTag = GameJournal.readTag(d_in);
+	}
+
+	/**
+	 * Is there anything left to replay?
+	 * @return True if the journal has more records.
+	 */
+	public boolean hasNext() {
+		return d_nextTag >= 0;
+	}
+
+	/**
+	 * Replays the next record of the journal.
+	 * @return True if a record was replayed, false at the end of the journal.
+	 * @throws IOException if the record could not be read, or does not match the game being rebuilt.
+	 */
+	public boolean step() throws IOException {
+		switch (d_nextTag) {
+		case -1:
+			return false;
+		case GameJournal.GAME_STARTED:
+			replayGameStarted();
+			break;
+		case GameJournal.TURN_STARTED:
+			replayTurnStarted();
+			break;
+		case GameJournal.ORDER_ISSUED:
+			replayOrderIssued();
+			break;
+		case GameJournal.ORDER_EXECUTED:
+			replayOrderExecuted();
+			break;
+		case GameJournal.CARD_AWARDED:
+			replayCardAwarded();
+			break;
+		case GameJournal.BOARD_CHANGED:
+			replayBoardChanged();
+			break;
+		case GameJournal.GAME_ENDED:
+			replayGameEnded();
+			break;
+		case GameJournal.GAME_RESUMED:
+			replayGameResumed();
+			break;
+		default:
+			throw new IOException("Unknown record " + d_nextTag + " in journal.");
+		}
+		d_nextTag = GameJournal.readTag(d_in);
+		return true;
+	}
+
+	/**
+	 * Replays until the board is as it was at the end of a turn of the current game, or the game ended.
+	 * @param p_turn The turn number.
+	 * @throws IOException if the journal could not be read, or does not match the game being rebuilt.
+	 */
+	public void replayToTurn(int p_turn) throws IOException {
+		while (hasNext() && !(d_nextTag == GameJournal.TURN_STARTED && d_engine.getTurnNumber() >= p_turn)) {
+			boolean l_isEnd = d_nextTag == GameJournal.GAME_ENDED;
+			step();
+			if (l_isEnd) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Replays the rest of the current game, or the next game if none is in progress, up to and including its end.
+	 * @throws IOException if the journal could not be read, or does not match the game being rebuilt.
+	 */
+	public void replayGame() throws IOException {
+		replayToTurn(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Starts a game: restores the seed, the players and the board.
+	 * @throws IOException if the record could not be read, or was written for a different map.
+	 */
+	private void replayGameStarted() throws IOException {
+		if (d_engine.isGameInProgress()) {
+			throw new IOException("A game was started in the journal before the last one ended.");
+		}
+		long l_seed = d_in.readLong();
+		readPlayers();
+		readBoard();
+		d_engine.setRandomSeed(l_seed);
+		d_engine.setTurnNumber(0);
+		d_engine.setPhase(new ReplayPhase(d_engine));
+	}
+
+	/**
+	 * Carries on a game that was loaded from a save: restores the seed, the turn and its random streams,
+	 * the players with their cards, cease-fires and pending orders, and the board.
+	 * @throws IOException if the record could not be read, or was written for a different map.
+	 */
+	private void replayGameResumed() throws IOException {
+		if (d_engine.isGameInProgress()) {
+			throw new IOException("A game was resumed in the journal before the last one ended.");
+		}
+		long l_seed = d_in.readLong();
+		int l_turnNumber = GameJournal.readVarInt(d_in);
+		long l_epoch = GameJournal.readVarLong(d_in);
+		readPlayers();
+		Map l_map = d_engine.getMap();
+		for (Player l_player : d_players) {
+			int l_numAllies = GameJournal.readVarInt(d_in);
+			for (int l_idx = 0; l_idx < l_numAllies; l_idx++) {
+				l_player.addAlly(readPlayer());
+			}
+			int l_numOrders = GameJournal.readVarInt(d_in);
+			for (int l_idx = 0; l_idx < l_numOrders; l_idx++) {
+				l_player.restoreOrder(d_engine.onCreateEntity(GameJournal.readOrder(d_in, l_map, d_players)));
+			}
+		}
+		readBoard();
+		d_engine.setRandomSeed(l_seed);
+		d_engine.setTurnNumber(l_turnNumber);
+		d_engine.getRandom().setEpoch(l_epoch);
+		d_engine.setPhase(new ReplayPhase(d_engine));
+	}
+
+	/**
+	 * Replaces whoever is in the engine with the journal's players, and gives them the cards they hold.
+	 * @throws IOException if the players could not be read.
+	 */
+	private void readPlayers() throws IOException {
+		int l_numPlayers = GameJournal.readVarInt(d_in);
+		for (Player l_player : d_engine.getPlayers()) {
+			d_engine.removePlayer(l_player.getName());
+		}
+		for (int l_idx = 0; l_idx < l_numPlayers; l_idx++) {
+			d_engine.addPlayer(GameJournal.readString(d_in));
+			Player l_player = d_engine.getPlayerByID(d_engine.getNumPlayers() - 1);
+			int l_numCards = GameJournal.readVarInt(d_in);
+			for (int l_cardIdx = 0; l_cardIdx < l_numCards; l_cardIdx++) {
+				l_player.addCard(readCard());
+			}
+		}
+		d_players = d_engine.getPlayers().toArray(new Player[0]);
+	}
+
+	/**
+	 * Sets the owner and armies of every territory.
+	 * @throws IOException if the board could not be read, or was written for a different map.
+	 */
+	private void readBoard() throws IOException {
+		Map l_map = d_engine.getMap();
+		int l_numTerritories = GameJournal.readVarInt(d_in);
+		if (l_map == null || l_map.getNumTerritories() != l_numTerritories) {
+			throw new IOException("The journal was written for a map with " + l_numTerritories + " territories.");
+		}
+		for (int l_tID = 1; l_tID <= l_numTerritories; l_tID++) {
+			Territory l_territory = l_map.getTerritory(l_tID);
+			d_engine.changeTerritoryOwner(l_territory, readPlayer());
+			l_territory.setNumArmies(GameJournal.readVarInt(d_in));
+		}
+	}
+
+	/**
+	 * Starts a turn: moves to the turn's random streams and ends the last turn's cease-fires.
+	 * @throws IOException if the record could not be read.
+	 */
+	private void replayTurnStarted() throws IOException {
+		d_engine.setTurnNumber(GameJournal.readVarInt(d_in));
+		d_engine.getRandom().setEpoch(GameJournal.readVarLong(d_in));
+		for (Player l_player : d_players) {
+			l_player.clearAllies();
+		}
+	}
+
+	/**
+	 * Issues an order for a player, using up the card it needs, if any.
+	 * @throws IOException if the record could not be read.
+	 */
+	private void replayOrderIssued() throws IOException {
+		Player l_player = readPlayer();
+		Order l_order = GameJournal.readOrder(d_in, d_engine.getMap(), d_players);
+		String l_card = GameJournal.getCardUsed(l_order);
+		if (l_card != null) {
+			l_player.removeCard(l_card);
+		}
+		l_player.issueOrder(d_engine.onCreateEntity(l_order));
+	}
+
+	/**
+	 * Executes a player's next order, and checks it went the same way it did in the game.
+	 * @throws IOException if the record could not be read, or the order did not go the same way.
+	 */
+	private void replayOrderExecuted() throws IOException {
+		Player l_player = readPlayer();
+		boolean l_hadSucceeded = d_in.readUnsignedByte() != 0;
+		Order l_order = l_player.nextOrder();
+		if (l_order == null) {
+			throw new IOException(l_player.getName() + " has no order to execute.");
+		}
+		boolean l_hasSucceeded = l_order.execute();
+		if (d_engine.isReporting(GameEvent.Type.ORDER_EXECUTED)) {
+			d_engine.publishEvent(new GameEvent.OrderExecuted(l_order, l_hasSucceeded));
+		}
+		if (l_hasSucceeded != l_hadSucceeded) {
+			throw new IOException("The replay of turn " + d_engine.getTurnNumber() + " no longer matches the journal.");
+		}
+	}
+
+	/**
+	 * Gives a player the card they were awarded.
+	 * @throws IOException if the record could not be read.
+	 */
+	private void replayCardAwarded() throws IOException {
+		Player l_player = readPlayer();
+		if (l_player == null) {
+			throw new IOException("Card awarded to nobody in journal.");
+		}
+		String l_card = readCard();
+		l_player.addCard(l_card);
+		if (d_engine.isReporting(GameEvent.Type.CARD_AWARDED)) {
+			d_engine.publishEvent(new GameEvent.CardAwarded(l_player, l_card));
+		}
+	}
+
+	/**
+	 * Changes the territories that were changed outside of orders.
+	 * @throws IOException if the record could not be read.
+	 */
+	private void replayBoardChanged() throws IOException {
+		Map l_map = d_engine.getMap();
+		int l_numChanges = GameJournal.readVarInt(d_in);
+		for (int l_idx = 0; l_idx < l_numChanges; l_idx++) {
+			Territory l_territory = GameJournal.readTerritory(d_in, l_map);
+			Player l_owner = readPlayer();
+			if (d_engine.getTerritoryOwner(l_territory) != l_owner) {
+				d_engine.changeTerritoryOwner(l_territory, l_owner);
+			}
+			l_territory.setNumArmies(GameJournal.readVarInt(d_in));
+		}
+	}
+
+	/**
+	 * Ends the game and returns the engine to the startup phase.
+	 * @throws IOException if the record could not be read.
+	 */
+	private void replayGameEnded() throws IOException {
+		Player l_winner = readPlayer();
+		int l_numTurns = GameJournal.readVarInt(d_in);
+		if (d_engine.isReporting(GameEvent.Type.GAME_ENDED)) {
+			d_engine.publishEvent(new GameEvent.GameEnded(l_winner, l_numTurns));
+		}
+		d_engine.setPhase(new StartupPhase(d_engine));
+	}
+
+	/**
+	 * Reads a player's number.
+	 * @return The player, or null for nobody.
+	 * @throws IOException if the number could not be read or there is no such player.
+	 */
+	private Player readPlayer() throws IOException {
+		return GameJournal.readPlayer(d_in, d_players);
+	}
+
+	/**
+	 * Reads a card's index in the engine's card options.
+	 * @return The card.
+	 * @throws IOException if the index could not be read or there is no such card.
+	 */
+	private String readCard() throws IOException {
+		LinkedList<String> l_cardOptions = d_engine.getCardOptions();
+		int l_cardIdx = GameJournal.readVarInt(d_in);
+		if (l_cardIdx >= l_cardOptions.size()) {
+			throw new IOException("Unknown card " + l_cardIdx + " in journal.");
+		}
+		return l_cardOptions.get(l_cardIdx);
+	}
+
+	/**
+	 * Closes the journal.
+	 * @throws IOException if it could not be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		d_in.close();
+	}
+
+	/**
+	 * The phase of a game being replayed. Orders are executed by the replay rather than the phase,
+	 * but they still see the rules of the execution phase, such as cease-fires.
+	 */
+	private static class ReplayPhase extends ExecuteOrderPhase {
+		/**
+		 * Creates the phase.
+		 * @param p_engine The game engine context.
+		 */
+		ReplayPhase(GameEngine p_engine) {
+			super(p_engine);
+		}
+
+		/**
+		 * Does nothing: the replay executes the orders.
+		 * @param p_prevPhase The previous phase.
+		 */
+		@Override
+		public void onPhaseStart(Phase p_prevPhase) {
+		}
+	}
+}
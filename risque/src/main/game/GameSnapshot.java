@@ -0,0 +1,497 @@
+package main.game;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Everything needed to carry on a game later: the map, the random seed and epoch, the turn, every player's cards, allies,
+ * undeployed armies, territories and orders, the armies on every territory, and how far through its turn the game is.
+ *
+ * Taking a snapshot only copies what the game would otherwise change underneath it: the board's arrays and each player's short lists.
+ * The map's topology is immutable, so it is shared rather than copied. Taking one is therefore quick even on a huge map,
+ * and the slow part, encoding and writing the file, can happen on another thread while the game carries on.
+ * A game saved between turns carries on exactly as it would have; one saved part of the way through a turn carries on
+ * from the same position, but the random numbers drawn for the rest of that turn start afresh.
+ *
+ * The file starts with the magic bytes "RQSG" and a format version (big-endian 32-bit integers), and everything after that
+ * is varints and strings as in a {@link GameJournal}.
+ * @author Kyle
+ */
+public final class GameSnapshot {
+	/**
+	 * The extension of saved game files.
+	 */
+	public static final String FILE_EXTENSION = ".save";
+
+	/**
+	 * The magic bytes at the start of every saved game: "RQSG".
+	 */
+	private static final int MAGIC = 0x52515347;
+
+	/**
+	 * The version of the format written by this class.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Saved before a game started.
+	 */
+	private static final int STARTUP = 0;
+
+	/**
+	 * Saved while players were issuing orders, or just before they start.
+	 */
+	private static final int ISSUING_ORDERS = 1;
+
+	/**
+	 * Saved while orders were being executed.
+	 */
+	private static final int EXECUTING_ORDERS = 2;
+
+	/**
+	 * Writes snapshots to files one at a time, in the order they were taken, without holding up any game.
+	 */
+	private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(p_task -> {
+		Thread l_thread = new Thread(p_task, "GameSnapshot writer");
+		l_thread.setDaemon(true);
+		return l_thread;
+	});
+
+	/**
+	 * The map's topology.
+	 */
+	private final MapTopology d_topology;
+
+	/**
+	 * The master seed of the game's randomness.
+	 */
+	private final long d_masterSeed;
+
+	/**
+	 * The random epoch.
+	 */
+	private final long d_epoch;
+
+	/**
+	 * The turn number.
+	 */
+	private final int d_turnNumber;
+
+	/**
+	 * The turn limit, or 0 for none.
+	 */
+	private final int d_maxTurns;
+
+	/**
+	 * The name of each player, in the order they are numbered in (from 1).
+	 */
+	private final String[] d_playerNames;
+
+	/**
+	 * The armies each player has yet to deploy.
+	 */
+	private final int[] d_numUndeployedArmies;
+
+	/**
+	 * Each player's cards.
+	 */
+	private final String[][] d_cards;
+
+	/**
+	 * The numbers of each player's allies.
+	 */
+	private final int[][] d_allies;
+
+	/**
+	 * The IDs of each player's territories, in the order they were taken.
+	 */
+	private final int[][] d_ownedTerritories;
+
+	/**
+	 * The number of orders each player has left to execute.
+	 */
+	private final int[] d_numOrders;
+
+	/**
+	 * Each player's orders, already encoded, since orders refer to territories and players.
+	 */
+	private final byte[][] d_orders;
+
+	/**
+	 * The board, for the armies on each territory.
+	 */
+	private final GameState d_state;
+
+	/**
+	 * How far through its turn the game is: {@link #STARTUP}, {@link #ISSUING_ORDERS} or {@link #EXECUTING_ORDERS}.
+	 */
+	private final int d_phase;
+
+	/**
+	 * The number of the player issuing orders, or 0 if nobody is.
+	 */
+	private final int d_currentPlayer;
+
+	/**
+	 * The numbers of the players who issue orders after the current player, or who are owed a card while orders are executed.
+	 */
+	private final int[] d_waitingPlayers;
+
+	/**
+	 * Takes a snapshot of an engine's game.
+	 * @param p_engine The engine.
+	 * @throws IOException if the game cannot be saved.
+	 */
+	private GameSnapshot(GameEngine p_engine) throws IOException {
+		Map l_map = p_engine.getMap();
+		if (l_map == null) {
+			throw new IOException("There is no map.");
+		}
+		if (!l_map.validateMap()) {
+			throw new IOException("The map is not valid.");
+		}
+		// Only built the first time a map is saved; the map keeps it until it is edited.
+		d_topology = MapTopology.of(l_map);
+		d_masterSeed = p_engine.getRandom().getMasterSeed();
+		d_epoch = p_engine.getRandom().getEpoch();
+		d_turnNumber = p_engine.getTurnNumber();
+		d_maxTurns = p_engine.getMaxTurns();
+		d_state = p_engine.getState().copy();
+
+		Player[] l_players = p_engine.getPlayers().toArray(new Player[0]);
+		d_playerNames = new String[l_players.length];
+		d_numUndeployedArmies = new int[l_players.length];
+		d_cards = new String[l_players.length][];
+		d_allies = new int[l_players.length][];
+		d_ownedTerritories = new int[l_players.length][];
+		d_numOrders = new int[l_players.length];
+		d_orders = new byte[l_players.length][];
+		for (int l_idx = 0; l_idx < l_players.length; l_idx++) {
+			Player l_player = l_players[l_idx];
+			d_playerNames[l_idx] = l_player.getName();
+			d_numUndeployedArmies[l_idx] = l_player.getNumUndeployedArmies();
+			d_cards[l_idx] = l_player.getCards().toArray(new String[0]);
+			d_allies[l_idx] = toPlayerNumbers(l_players, l_player.getAllies());
+			LinkedList<Territory> l_territories = l_player.getOwnedTerritories();
+			d_ownedTerritories[l_idx] = new int[l_territories.size()];
+			int l_tIdx = 0;
+			for (Territory l_territory : l_territories) {
+				d_ownedTerritories[l_idx][l_tIdx++] = l_map.getTerritoryID(l_territory);
+			}
+			// A player only has a handful of orders, so they are encoded straight away rather than copied.
+			LinkedList<Order> l_orders = l_player.getOrders();
+			ByteArrayOutputStream l_bytes = new ByteArrayOutputStream();
+			DataOutputStream l_out = new DataOutputStream(l_bytes);
+			for (Order l_order : l_orders) {
+				GameJournal.writeOrder(l_out, l_order, l_map, l_players);
+			}
+			d_numOrders[l_idx] = l_orders.size();
+			d_orders[l_idx] = l_bytes.toByteArray();
+		}
+
+		Phase l_phase = p_engine.getPhase();
+		if (l_phase instanceof IssueOrderPhase) {
+			IssueOrderPhase l_issueOrderPhase = (IssueOrderPhase)l_phase;
+			d_phase = ISSUING_ORDERS;
+			d_currentPlayer = GameJournal.getPlayerNumber(l_players, l_issueOrderPhase.getCurrentPlayer());
+			d_waitingPlayers = toPlayerNumbers(l_players, l_issueOrderPhase.getPlayerRotation());
+		}
+		else if (l_phase instanceof ExecuteOrderPhase) {
+			d_phase = EXECUTING_ORDERS;
+			d_currentPlayer = 0;
+			d_waitingPlayers = toPlayerNumbers(l_players, ((ExecuteOrderPhase)l_phase).getPlayersToAwardCards());
+		}
+		else {
+			d_phase = STARTUP;
+			d_currentPlayer = 0;
+			d_waitingPlayers = new int[0];
+		}
+	}
+
+	/**
+	 * Reads a snapshot.
+	 * @param p_in The stream to read from.
+	 * @throws IOException if the snapshot could not be read.
+	 */
+	private GameSnapshot(DataInputStream p_in) throws IOException {
+		if (p_in.readInt() != MAGIC || p_in.readInt() != VERSION) {
+			throw new IOException("Not a saved game, or saved by an incompatible version.");
+		}
+		d_topology = MapTopology.readFrom(p_in);
+		d_masterSeed = p_in.readLong();
+		d_epoch = GameJournal.readVarLong(p_in);
+		d_turnNumber = GameJournal.readVarInt(p_in);
+		d_maxTurns = GameJournal.readVarInt(p_in);
+
+		int l_numPlayers = GameJournal.readVarInt(p_in);
+		d_playerNames = new String[l_numPlayers];
+		d_numUndeployedArmies = new int[l_numPlayers];
+		d_cards = new String[l_numPlayers][];
+		d_allies = new int[l_numPlayers][];
+		d_ownedTerritories = new int[l_numPlayers][];
+		d_numOrders = new int[l_numPlayers];
+		d_orders = new byte[l_numPlayers][];
+		for (int l_idx = 0; l_idx < l_numPlayers; l_idx++) {
+			d_playerNames[l_idx] = GameJournal.readString(p_in);
+			d_numUndeployedArmies[l_idx] = GameJournal.readVarInt(p_in);
+			d_cards[l_idx] = new String[GameJournal.readVarInt(p_in)];
+			for (int l_cardIdx = 0; l_cardIdx < d_cards[l_idx].length; l_cardIdx++) {
+				d_cards[l_idx][l_cardIdx] = GameJournal.readString(p_in);
+			}
+			d_allies[l_idx] = readInts(p_in);
+			d_ownedTerritories[l_idx] = readInts(p_in);
+			d_numOrders[l_idx] = GameJournal.readVarInt(p_in);
+			d_orders[l_idx] = new byte[GameJournal.readVarInt(p_in)];
+			p_in.readFully(d_orders[l_idx]);
+		}
+
+		int l_numTerritories = d_topology.getNumTerritories();
+		d_state = new GameState(l_numTerritories);
+		for (int l_tID = 1; l_tID <= l_numTerritories; l_tID++) {
+			d_state.setNumArmies(l_tID, GameJournal.readVarInt(p_in));
+		}
+		d_phase = p_in.readUnsignedByte();
+		d_currentPlayer = GameJournal.readVarInt(p_in);
+		d_waitingPlayers = readInts(p_in);
+	}
+
+	/**
+	 * Takes a snapshot of the game an engine is playing, or of its map and players if no game has started.
+	 * This should be called from the thread playing the game, between actions or from an event.
+	 * @param p_engine The engine.
+	 * @return The snapshot.
+	 * @throws IOException if there is nothing that can be saved, e.g. no valid map.
+	 */
+	public static GameSnapshot take(GameEngine p_engine) throws IOException {
+		return new GameSnapshot(p_engine);
+	}
+
+	/**
+	 * Reads a snapshot written by {@link #writeTo(OutputStream)}.
+	 * @param p_in The stream to read from.
+	 * @return The snapshot.
+	 * @throws IOException if the stream could not be read or is not a saved game.
+	 */
+	public static GameSnapshot readFrom(InputStream p_in) throws IOException {
+		return new GameSnapshot(new DataInputStream(p_in));
+	}
+
+	/**
+	 * Gets the turn the game was on.
+	 * @return The turn number.
+	 */
+	public int getTurnNumber() {
+		return d_turnNumber;
+	}
+
+	/**
+	 * Writes the snapshot. This can be done from any thread.
+	 * @param p_out The stream to write to. It is flushed but not closed.
+	 * @throws IOException if the snapshot could not be written.
+	 */
+	public void writeTo(OutputStream p_out) throws IOException {
+		DataOutputStream l_out = new DataOutputStream(new BufferedOutputStream(p_out, 1 << 16));
+		l_out.writeInt(MAGIC);
+		l_out.writeInt(VERSION);
+		d_topology.writeTo(l_out);
+		l_out.writeLong(d_masterSeed);
+		GameJournal.writeVarLong(l_out, d_epoch);
+		GameJournal.writeVarLong(l_out, d_turnNumber);
+		GameJournal.writeVarLong(l_out, d_maxTurns);
+
+		GameJournal.writeVarLong(l_out, d_playerNames.length);
+		for (int l_idx = 0; l_idx < d_playerNames.length; l_idx++) {
+			GameJournal.writeString(l_out, d_playerNames[l_idx]);
+			GameJournal.writeVarLong(l_out, d_numUndeployedArmies[l_idx]);
+			GameJournal.writeVarLong(l_out, d_cards[l_idx].length);
+			for (String l_card : d_cards[l_idx]) {
+				GameJournal.writeString(l_out, l_card);
+			}
+			writeInts(l_out, d_allies[l_idx]);
+			writeInts(l_out, d_ownedTerritories[l_idx]);
+			GameJournal.writeVarLong(l_out, d_numOrders[l_idx]);
+			GameJournal.writeVarLong(l_out, d_orders[l_idx].length);
+			l_out.write(d_orders[l_idx]);
+		}
+
+		for (int l_tID = 1; l_tID <= d_topology.getNumTerritories(); l_tID++) {
+			GameJournal.writeVarLong(l_out, d_state.getNumArmies(l_tID));
+		}
+		l_out.writeByte(d_phase);
+		GameJournal.writeVarLong(l_out, d_currentPlayer);
+		writeInts(l_out, d_waitingPlayers);
+		l_out.flush();
+	}
+
+	/**
+	 * Writes the snapshot to a file. The file is written under a temporary name and then renamed,
+	 * so a crash part of the way through never leaves a broken save in place of a good one. If writing fails, the temporary file is removed.
+	 * @param p_fileName The name of the file, which is replaced if it exists.
+	 * @throws IOException if the file could not be written.
+	 */
+	public void writeTo(String p_fileName) throws IOException {
+		File l_file = new File(p_fileName).getAbsoluteFile();
+		File l_tempFile = new File(l_file.getParentFile(), l_file.getName() + ".tmp");
+		try {
+			try (OutputStream l_out = new FileOutputStream(l_tempFile)) {
+				writeTo(l_out);
+			}
+			try {
+				Files.move(l_tempFile.toPath(), l_file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException l_exception) {
+				Files.move(l_tempFile.toPath(), l_file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		catch (IOException l_exception) {
+			// Don't leave a half-written file lying around next to the save.
+			l_tempFile.delete();
+			throw l_exception;
+		}
+	}
+
+	/**
+	 * Writes the snapshot to a file on a background thread, after any snapshots written before it.
+	 * @param p_fileName The name of the file, which is replaced if it exists.
+	 * @return Completes once the file is written, or exceptionally (with an {@link UncheckedIOException}) if it could not be.
+	 */
+	public CompletableFuture<Void> writeInBackground(String p_fileName) {
+		return CompletableFuture.runAsync(() -> {
+			try {
+				writeTo(p_fileName);
+			}
+			catch (IOException l_exception) {
+				throw new UncheckedIOException(l_exception);
+			}
+		}, WRITER);
+	}
+
+	/**
+	 * Waits for every snapshot handed to {@link #writeInBackground(String)} so far to be written, or to fail.
+	 * The writer thread does not keep the program running, so this is called before quitting.
+	 */
+	public static void awaitBackgroundWrites() {
+		CompletableFuture.runAsync(() -> {}, WRITER).join();
+	}
+
+	/**
+	 * Puts the game back into an engine that has just returned to the startup phase, replacing its map and players.
+	 * If the game was in progress, its phase is resumed, which may carry on playing it.
+	 * @param p_engine The engine.
+	 * @throws IOException if the players' orders could not be decoded.
+	 */
+	void restore(GameEngine p_engine) throws IOException {
+		Map l_map = d_topology.createMap();
+		p_engine.setMap(l_map);
+		for (Player l_player : p_engine.getPlayers()) {
+			p_engine.removePlayer(l_player.getName());
+		}
+		for (String l_name : d_playerNames) {
+			p_engine.addPlayer(l_name);
+		}
+		Player[] l_players = p_engine.getPlayers().toArray(new Player[0]);
+		for (int l_idx = 0; l_idx < l_players.length; l_idx++) {
+			Player l_player = l_players[l_idx];
+			l_player.setNumUndeployedArmies(d_numUndeployedArmies[l_idx]);
+			for (String l_card : d_cards[l_idx]) {
+				l_player.addCard(l_card);
+			}
+			for (int l_ally : d_allies[l_idx]) {
+				l_player.addAlly(GameJournal.getPlayer(l_players, l_ally));
+			}
+			for (int l_tID : d_ownedTerritories[l_idx]) {
+				p_engine.changeTerritoryOwner(l_map.getTerritory(l_tID), l_player);
+			}
+			DataInputStream l_in = new DataInputStream(new ByteArrayInputStream(d_orders[l_idx]));
+			for (int l_orderIdx = 0; l_orderIdx < d_numOrders[l_idx]; l_orderIdx++) {
+				l_player.restoreOrder(p_engine.onCreateEntity(GameJournal.readOrder(l_in, l_map, l_players)));
+			}
+		}
+		for (int l_tID = 1; l_tID <= l_map.getNumTerritories(); l_tID++) {
+			l_map.getTerritory(l_tID).setNumArmies(d_state.getNumArmies(l_tID));
+		}
+		p_engine.setRandomSeed(d_masterSeed);
+		p_engine.getRandom().setEpoch(d_epoch);
+		p_engine.setTurnNumber(d_turnNumber);
+		p_engine.setMaxTurns(d_maxTurns);
+
+		LinkedList<Player> l_waitingPlayers = new LinkedList<>();
+		for (int l_number : d_waitingPlayers) {
+			l_waitingPlayers.add(GameJournal.getPlayer(l_players, l_number));
+		}
+		// Tell e.g. a journal where the game picks up, before it carries on.
+		if ((d_phase == ISSUING_ORDERS || d_phase == EXECUTING_ORDERS) && p_engine.isReporting(GameEvent.Type.GAME_LOADED)) {
+			p_engine.publishEvent(new GameEvent.GameLoaded(d_turnNumber));
+		}
+		if (d_phase == ISSUING_ORDERS) {
+			p_engine.setPhase(new IssueOrderPhase(p_engine, GameJournal.getPlayer(l_players, d_currentPlayer), l_waitingPlayers));
+		}
+		else if (d_phase == EXECUTING_ORDERS) {
+			p_engine.setPhase(new ExecuteOrderPhase(p_engine, l_waitingPlayers));
+		}
+	}
+
+	/**
+	 * Gets the numbers of some players.
+	 * @param p_players All the players, numbered from 1.
+	 * @param p_somePlayers Some of the players.
+	 * @return Their numbers.
+	 */
+	private static int[] toPlayerNumbers(Player[] p_players, LinkedList<Player> p_somePlayers) {
+		int[] l_numbers = new int[p_somePlayers.size()];
+		int l_idx = 0;
+		for (Player l_player : p_somePlayers) {
+			l_numbers[l_idx++] = GameJournal.getPlayerNumber(p_players, l_player);
+		}
+		return l_numbers;
+	}
+
+	/**
+	 * Writes a list of numbers: the count, then each number.
+	 * @param p_out The stream to write to.
+	 * @param p_ints The numbers.
+	 * @throws IOException if the numbers could not be written.
+	 */
+	private static void writeInts(DataOutputStream p_out, int[] p_ints) throws IOException {
+		GameJournal.writeVarLong(p_out, p_ints.length);
+		for (int l_int : p_ints) {
+			GameJournal.writeVarLong(p_out, l_int);
+		}
+	}
+
+	/**
+	 * Reads a list of numbers written by {@link #writeInts(DataOutputStream, int[])}.
+	 * @param p_in The stream to read from.
+	 * @return The numbers.
+	 * @throws IOException if the numbers could not be read.
+	 */
+	private static int[] readInts(DataInputStream p_in) throws IOException {
+		int l_count = GameJournal.readVarInt(p_in);
+		// Grow as numbers arrive, so a corrupt count cannot allocate a huge array up front.
+		int[] l_ints = new int[Math.min(l_count, 1024)];
+		for (int l_idx = 0; l_idx < l_count; l_idx++) {
+			if (l_idx == l_ints.length) {
+				l_ints = Arrays.copyOf(l_ints, Math.min(l_count, 2 * l_ints.length));
+			}
+			l_ints[l_idx] = GameJournal.readVarInt(p_in);
+		}
+		return l_ints;
+	}
+}
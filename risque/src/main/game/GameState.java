@@ -0,0 +1,109 @@
+package main.game;
+
+import java.util.Arrays;
+
+/**
+ * The state of the board in one game: the number of armies on each territory and who owns it, in flat arrays indexed by territory ID - 1.
+ * Together with a shared {@link MapTopology}, this is all a game needs to know about its map, and it is small and cheap to copy.
+ *
+ * While a map is the engine's current map, its territories read and write their armies here.
+ * @author Kyle
+ */
+public class GameState {
+	/**
+	 * The number of armies on each territory, indexed by territory ID - 1.
+	 */
+	private int[] d_armies;
+
+	/**
+	 * The owner of each territory, indexed by territory ID - 1 (null if unowned).
+	 */
+	private Player[] d_owners;
+
+	/**
+	 * Creates the state of a board where every territory is empty and unowned.
+	 * @param p_numTerritories The number of territories.
+	 */
+	public GameState(int p_numTerritories) {
+		d_armies = new int[p_numTerritories];
+		d_owners = new Player[p_numTerritories];
+	}
+
+	/**
+	 * Creates a copy of another state.
+	 * @param p_other The state to copy.
+	 */
+	private GameState(GameState p_other) {
+		d_armies = p_other.d_armies.clone();
+		d_owners = p_other.d_owners.clone();
+	}
+
+	/**
+	 * Copies this state, e.g. to keep a snapshot of the board. The players themselves are not copied.
+	 * @return The copy.
+	 */
+	public GameState copy() {
+		return new GameState(this);
+	}
+
+	/**
+	 * Gets the number of territories this state covers.
+	 * @return The number of territories.
+	 */
+	public int getNumTerritories() {
+		return d_armies.length;
+	}
+
+	/**
+	 * Gets the number of armies on a territory.
+	 * @param p_territoryID The territory's ID.
+	 * @return The number of armies, or 0 if the ID is out of range.
+	 */
+	public int getNumArmies(int p_territoryID) {
+		return p_territoryID > 0 && p_territoryID <= d_armies.length ? d_armies[p_territoryID - 1] : 0;
+	}
+
+	/**
+	 * Sets the number of armies on a territory, clamped to zero or above.
+	 * @param p_territoryID The territory's ID.
+	 * @param p_numArmies The new number of armies.
+	 */
+	public void setNumArmies(int p_territoryID, int p_numArmies) {
+		if (p_territoryID > 0) {
+			ensureCapacity(p_territoryID);
+			d_armies[p_territoryID - 1] = Math.max(0, p_numArmies);
+		}
+	}
+
+	/**
+	 * Gets the owner of a territory.
+	 * @param p_territoryID The territory's ID.
+	 * @return The owner, or null if the territory is unowned or the ID is out of range.
+	 */
+	public Player getOwner(int p_territoryID) {
+		return p_territoryID > 0 && p_territoryID <= d_owners.length ? d_owners[p_territoryID - 1] : null;
+	}
+
+	/**
+	 * Sets the owner of a territory. Only the engine should call this, since the players keep their own sets of territories in sync with it.
+	 * @param p_territoryID The territory's ID.
+	 * @param p_owner The new owner, or null to make it neutral.
+	 */
+	void setOwner(int p_territoryID, Player p_owner) {
+		if (p_territoryID > 0) {
+			ensureCapacity(p_territoryID);
+			d_owners[p_territoryID - 1] = p_owner;
+		}
+	}
+
+	/**
+	 * Grows the arrays to cover a territory ID, since the map may grow while it is being edited.
+	 * @param p_territoryID The territory's ID.
+	 */
+	private void ensureCapacity(int p_territoryID) {
+		if (p_territoryID > d_armies.length) {
+			d_armies = Arrays.copyOf(d_armies, p_territoryID);
+			d_owners = Arrays.copyOf(d_owners, p_territoryID);
+		}
+	}
+}
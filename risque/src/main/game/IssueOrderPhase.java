@@ -34,8 +34,27 @@ public class IssueOrderPhase extends Phase {
 		d_playerRotation = new LinkedList<>();
 	}
 	
+	/**
+	 * Creates the phase part of the way through a turn, e.g. when a saved game is loaded.
+	 * @param p_engine The game engine context.
+	 * @param p_currentPlayer The player issuing orders.
+	 * @param p_playerRotation The players who take turns after them, in order.
+	 */
+	IssueOrderPhase(GameEngine p_engine, Player p_currentPlayer, LinkedList<Player> p_playerRotation) {
+		this(p_engine);
+		d_currentPlayer = p_currentPlayer;
+		d_playerRotation.addAll(p_playerRotation);
+	}
+	
 	@Override
 	public void onPhaseStart(Phase p_prevPhase) {
+		// A phase resumed part of the way through a turn carries on with its current player.
+		if (d_currentPlayer != null) {
+			d_engine.broadcastMessage(() -> d_currentPlayer.getName() + " is issuing orders.");
+			d_currentPlayer.notifyTurnStart();
+			return;
+		}
+		d_engine.startNextTurn();
 		calculateAndSetArmies();
 		for (Player l_player : d_engine.getPlayers()) {
 			// Get rid of allies from last round.
@@ -49,7 +68,24 @@ public class IssueOrderPhase extends Phase {
 				}
 			}
 		}
-		d_engine.broadcastMessage(d_currentPlayer.getName() + " goes first.");
+		d_engine.broadcastMessage(() -> d_currentPlayer.getName() + " goes first.");
+		d_currentPlayer.notifyTurnStart();
+	}
+	
+	/**
+	 * Gets the player issuing orders.
+	 * @return The player, or null if the phase has not started yet.
+	 */
+	Player getCurrentPlayer() {
+		return d_currentPlayer;
+	}
+	
+	/**
+	 * Gets the players who take turns after the current player.
+	 * @return A copy of the rotation, in order.
+	 */
+	LinkedList<Player> getPlayerRotation() {
+		return new LinkedList<>(d_playerRotation);
 	}
 	
 	/**
@@ -64,6 +100,11 @@ public class IssueOrderPhase extends Phase {
 		}
 		// Add this player back to the list if they still have armies to deploy.
 		d_currentPlayer = d_playerRotation.isEmpty() ? null : d_playerRotation.pop();
+		// Skip anyone who lost all their territories since the phase started; they have nowhere to deploy or advance from.
+		while (d_currentPlayer != null && d_currentPlayer.getNumTerritoriesOwned() == 0) {
+			d_currentPlayer.setNumUndeployedArmies(0);
+			d_currentPlayer = d_playerRotation.isEmpty() ? null : d_playerRotation.pop();
+		}
 		if (d_currentPlayer != null) {
 			d_currentPlayer.notifyTurnStart();
 		}
@@ -81,11 +122,11 @@ public class IssueOrderPhase extends Phase {
 			int l_numTerritories = l_player.getNumTerritoriesOwned();
 			// Only add armies if we are still in the game.
 			if (l_numTerritories > 0) {
-				l_player.setNumUndeployedArmies(Math.max(d_minArmies, l_numTerritories / 3));
-				for (Continent l_continent : l_player.getOwnedContinents()) {
-					l_player.addUndeployedArmies(l_continent.getBonusArmies());
-				}
-				d_engine.broadcastMessage(l_player.getName() + "\'s Armies to Deploy: " + l_player.getNumUndeployedArmies());
+				l_player.setNumUndeployedArmies(Math.max(d_minArmies, l_numTerritories / 3) + l_player.getContinentBonusArmies());
+				d_engine.broadcastMessage(() -> l_player.getName() + "\'s Armies to Deploy: " + l_player.getNumUndeployedArmies());
+			}
+			else {
+				l_player.setNumUndeployedArmies(0);
 			}
 		}
 	}
@@ -102,13 +143,13 @@ public class IssueOrderPhase extends Phase {
 			Territory l_territory = d_engine.getMap().getTerritory(p_tID);
 			// Cannot deploy to a territory we do not control.
 			if (!d_currentPlayer.ownsTerritory(l_territory)) {
-				d_engine.broadcastMessage("Cannot deploy to a territory " + d_currentPlayer.getName() + " does not control.");
+				d_engine.broadcastMessage(() -> "Cannot deploy to a territory " + d_currentPlayer.getName() + " does not control.");
 			}
 			else {
 				// Cannot deploy more armies than we have.
 				int l_numArmies = d_currentPlayer.removeUndeployedArmies(p_num);
 				d_currentPlayer.issueOrder(d_engine.onCreateEntity(new DeployOrder(l_territory, l_numArmies)));
-				d_engine.broadcastMessage(d_currentPlayer.getName() + " will deploy " + l_numArmies + " to " + l_territory.getDisplayName() + ".");
+				d_engine.broadcastMessage(() -> d_currentPlayer.getName() + " will deploy " + l_numArmies + " to " + l_territory.getDisplayName() + ".");
 				onEndTurn(false);
 			}
 		}
@@ -154,13 +195,13 @@ public class IssueOrderPhase extends Phase {
 			// Cannot advance from a territory we do not control
 			// However, it doesn't matter if we own the destination; it could be lost or gained before this order is executed).
 			if (!d_currentPlayer.ownsTerritory(l_fromTerritory)) {
-				d_engine.broadcastMessage("Error: cannot advance from a territory " + d_currentPlayer.getName() + " does not control.");
+				d_engine.broadcastMessage(() -> "Error: cannot advance from a territory " + d_currentPlayer.getName() + " does not control.");
 			}
 			else {
 				Territory l_toTerritory = d_engine.getMap().getTerritory(p_toID);
 				// Calc next player.
 				d_currentPlayer.issueOrder(d_engine.onCreateEntity(new AdvanceOrder(l_fromTerritory, l_toTerritory, p_num)));
-				d_engine.broadcastMessage(d_currentPlayer.getName() + " will advance " + p_num + " from " + l_fromTerritory.getDisplayName() + " to " + l_toTerritory.getDisplayName() + ".");
+				d_engine.broadcastMessage(() -> d_currentPlayer.getName() + " will advance " + p_num + " from " + l_fromTerritory.getDisplayName() + " to " + l_toTerritory.getDisplayName() + ".");
 				onEndTurn(false);
 			}
 		}
@@ -178,11 +219,11 @@ public class IssueOrderPhase extends Phase {
 			if (d_currentPlayer.hasCard("bomb")) {
 				d_currentPlayer.removeCard("bomb");
 				d_currentPlayer.issueOrder(d_engine.onCreateEntity(new BombOrder(l_target)));
-				d_engine.broadcastMessage(d_currentPlayer.getName() + " will bomb " + l_target.getDisplayName());
+				d_engine.broadcastMessage(() -> d_currentPlayer.getName() + " will bomb " + l_target.getDisplayName());
 				onEndTurn(false);
 			}
 			else {
-				d_engine.broadcastMessage(d_currentPlayer.getName() +  " does not have a bomb card.");
+				d_engine.broadcastMessage(() -> d_currentPlayer.getName() +  " does not have a bomb card.");
 			}
 		}
 		else {
@@ -204,15 +245,15 @@ public class IssueOrderPhase extends Phase {
 			if (d_engine.getTerritoryOwner(l_source) == d_currentPlayer && d_engine.getTerritoryOwner(l_destination) == d_currentPlayer) {
 				d_currentPlayer.removeCard("airlift");
 				d_currentPlayer.issueOrder(d_engine.onCreateEntity(new AirliftOrder(l_source, l_destination, p_numArmies)));
-				d_engine.broadcastMessage(d_currentPlayer.getName() + " will airlift " + p_numArmies + " from " + l_source.getDisplayName() + " to " + l_destination.getDisplayName() + ".");
+				d_engine.broadcastMessage(() -> d_currentPlayer.getName() + " will airlift " + p_numArmies + " from " + l_source.getDisplayName() + " to " + l_destination.getDisplayName() + ".");
 				onEndTurn(false);
 			}
 			else {
-				d_engine.broadcastMessage("Cannot airlift between territories not controlled by " + d_currentPlayer.getName() + ".");
+				d_engine.broadcastMessage(() -> "Cannot airlift between territories not controlled by " + d_currentPlayer.getName() + ".");
 			}
 		}
 		else {
-			d_engine.broadcastMessage(d_currentPlayer.getName() +  " does not have an airlift card.");
+			d_engine.broadcastMessage(() -> d_currentPlayer.getName() +  " does not have an airlift card.");
 		}
 	}
 	
@@ -226,7 +267,7 @@ public class IssueOrderPhase extends Phase {
 			if (p_player != null && p_player != d_currentPlayer) {
 				d_currentPlayer.removeCard("diplomacy");
 				d_currentPlayer.issueOrder(d_engine.onCreateEntity(new NegotiateOrder(p_player)));
-				d_engine.broadcastMessage(d_currentPlayer.getName() + " will negotiate a cease-fire with " + p_player.getName() + ".");
+				d_engine.broadcastMessage(() -> d_currentPlayer.getName() + " will negotiate a cease-fire with " + p_player.getName() + ".");
 				onEndTurn(false);
 			}
 			else {
@@ -234,7 +275,7 @@ public class IssueOrderPhase extends Phase {
 			}
 		}
 		else {
-			d_engine.broadcastMessage(d_currentPlayer.getName() +  " does not have a diplomacy card.");
+			d_engine.broadcastMessage(() -> d_currentPlayer.getName() +  " does not have a diplomacy card.");
 		}
 	}
 	
@@ -249,7 +290,7 @@ public class IssueOrderPhase extends Phase {
 			if (l_territory != null) {
 				d_currentPlayer.removeCard("blockade");
 				d_currentPlayer.issueOrder(d_engine.onCreateEntity(new BlockadeOrder(l_territory)));
-				d_engine.broadcastMessage(d_currentPlayer.getName() + " will blockade " + l_territory.getName() + ".");
+				d_engine.broadcastMessage(() -> d_currentPlayer.getName() + " will blockade " + l_territory.getName() + ".");
 				onEndTurn(false);
 			}
 			else {
@@ -257,7 +298,7 @@ public class IssueOrderPhase extends Phase {
 			}
 		}
 		else {
-			d_engine.broadcastMessage(d_currentPlayer.getName() +  " does not have a blockade card.");
+			d_engine.broadcastMessage(() -> d_currentPlayer.getName() +  " does not have a blockade card.");
 		}
 	}
 
@@ -266,33 +307,53 @@ public class IssueOrderPhase extends Phase {
 	 */
 	@Override
 	public void showMap() {
-		// Lists each player's name, then a display of their territories and the armies they control.
-		// TODO: Show number of fully-controlled continents?
 		if (d_engine.getMap() != null) {
-			// Determine which territories are neutral by removing the ones owned by the players.
-			LinkedList<Territory> l_neutralTerritories = new LinkedList<>(d_engine.getMap().getTerritories());
-			String l_mapView = "Risque Overview:\n";
-			// Print the player's name and their territories.
-			for (int l_idx = 0; l_idx < d_engine.getNumPlayers(); l_idx++) {
-				Player l_player = d_engine.getPlayerByID(l_idx);
-				LinkedList<Territory> l_ownedTerritories = l_player.getOwnedTerritories();
-				if (l_ownedTerritories.size() > 0) {
-					l_mapView += "  #" + l_idx + ": " + l_player.getName() + "\'s Empire and Garrisons:\n";
-					for (Territory l_territory : l_ownedTerritories) {
-						l_neutralTerritories.remove(l_territory);
-						l_mapView += "    #" + d_engine.getMap().getTerritoryID(l_territory) + ", " + l_territory.getDisplayName() + ": " + l_territory.getNumArmies() + "\n";
-					}
+			d_engine.broadcastMessage(this::describeMap);
+		}
+	}
+	
+	/**
+	 * Describes the map: each player's name, then their territories and the armies on them, then any neutral territories.
+	 * @return The description.
+	 */
+	private String describeMap() {
+		// TODO: Show number of fully-controlled continents?
+		Map l_map = d_engine.getMap();
+		StringBuilder l_mapView = new StringBuilder("Risque Overview:\n");
+		// Print the player's name and their territories.
+		for (int l_idx = 0; l_idx < d_engine.getNumPlayers(); l_idx++) {
+			Player l_player = d_engine.getPlayerByID(l_idx);
+			LinkedList<Territory> l_ownedTerritories = l_player.getOwnedTerritories();
+			if (l_ownedTerritories.size() > 0) {
+				l_mapView.append("  #").append(l_idx).append(": ").append(l_player.getName()).append("\'s Empire and Garrisons:\n");
+				for (Territory l_territory : l_ownedTerritories) {
+					appendGarrison(l_mapView, l_map, l_territory);
 				}
 			}
-			// Print neutral territories, if any exist.
-			if (!l_neutralTerritories.isEmpty()) {
-				l_mapView += "  Independent Territories:\n";
-				for (Territory l_territory : l_neutralTerritories) {
-					l_mapView += "    #" + d_engine.getMap().getTerritoryID(l_territory) + ", " + l_territory.getDisplayName() + ": " + l_territory.getNumArmies() + "\n";
+		}
+		// Print neutral territories, if any exist.
+		boolean l_hasNeutralTerritories = false;
+		for (Territory l_territory : l_map.getTerritories()) {
+			if (d_engine.getTerritoryOwner(l_territory) == null) {
+				if (!l_hasNeutralTerritories) {
+					l_mapView.append("  Independent Territories:\n");
+					l_hasNeutralTerritories = true;
 				}
+				appendGarrison(l_mapView, l_map, l_territory);
 			}
-			d_engine.broadcastMessage(l_mapView);
 		}
+		return l_mapView.toString();
+	}
+	
+	/**
+	 * Appends one line of the map description: a territory's ID, name and armies.
+	 * @param p_mapView The description being built.
+	 * @param p_map The map.
+	 * @param p_territory The territory.
+	 */
+	private static void appendGarrison(StringBuilder p_mapView, Map p_map, Territory p_territory) {
+		p_mapView.append("    #").append(p_map.getTerritoryID(p_territory)).append(", ").append(p_territory.getDisplayName())
+				.append(": ").append(p_territory.getNumArmies()).append('\n');
 	}
 	
 	@Override
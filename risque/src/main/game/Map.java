@@ -1,49 +1,191 @@
 package main.game;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
-import java.util.Random;
-import java.util.Scanner;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Represents a map file. It may be valid and playable or in the midst of being created and unplayable.
+ * 
+ * Internally, the map is indexed by integers: territories and continents live in dense arrays where their index is their ID - 1,
+ * and each one knows its own index, so converting between IDs and objects is O(1).
+ * Borders are kept as per-territory arrays of neighbour indices while the map is being edited.
+ * Once the map is frozen (e.g. after loading), they are packed into a compressed sparse row (CSR) index instead,
+ * which is what most lookups and traversals use. Editing a frozen map will transparently unpack it again.
  * @author Kyle
  */
 public class Map extends GameEntity {
+	/**
+	 * The initial capacity of the editable border arrays.
+	 */
+	private static final int INITIAL_NEIGHBOUR_CAPACITY = 4;
+	
+	/**
+	 * The maximum number of disconnected parts named in a single validation error.
+	 */
+	private static final int MAX_LISTED_PARTS = 5;
+	
 	/** 
 	 * The list of continents in this map.
 	 * Their ID is equivalent to their index in this list + 1.
 	 */
-	LinkedList<Continent> d_continents;
+	ArrayList<Continent> d_continents;
 	
 	/**
 	 * The list of territories in this map.
 	 * Their ID is equivalent to their index in this list + 1.
 	 */
-	LinkedList<Territory> d_territories;
+	ArrayList<Territory> d_territories;
+	
+	/**
+	 * The lists of territories that make up each continent, indexed by continent index.
+	 */
+	ArrayList<ArrayList<Territory>> d_continentTerritories;
+	
+	/**
+	 * The editable borders: the indices of each territory's neighbours, indexed by territory index.
+	 * Only the first d_numNeighbours entries of each array are used, and rows are only allocated once needed.
+	 * Null while the map is frozen.
+	 */
+	int[][] d_neighbours;
+	
+	/**
+	 * The number of neighbours of each territory in d_neighbours. Null while the map is frozen.
+	 */
+	int[] d_numNeighbours;
+	
+	/**
+	 * The CSR border offsets: the neighbours of territory index i are d_borderTargets[d_borderOffsets[i]] up to d_borderOffsets[i + 1].
+	 * Null unless the map is frozen.
+	 */
+	int[] d_borderOffsets;
+	
+	/**
+	 * The CSR border targets, sorted per territory. Null unless the map is frozen.
+	 */
+	int[] d_borderTargets;
+	
+	/**
+	 * The live connectivity index of the whole map: joins the two ends of every border.
+	 */
+	private TerritoryUnionFind d_mapParts;
+	
+	/**
+	 * The live connectivity index within continents: only joins borders whose ends are on the same continent.
+	 */
+	private TerritoryUnionFind d_continentParts;
+	
+	/**
+	 * The number of connected parts of each continent, indexed by continent index.
+	 */
+	private int[] d_numContinentParts;
+	
+	/**
+	 * The sum of d_numContinentParts over every continent.
+	 */
+	private int d_totalContinentParts;
+	
+	/**
+	 * The number of continents without territories.
+	 */
+	private int d_numEmptyContinents;
+	
+	/**
+	 * Whether the connectivity index needs to be rebuilt before it can be used.
+	 * Creations at the end of the map and new borders only ever join parts, so they update the index in place.
+	 * Deletions can split parts and insertions in the middle shift indices, so those mark the index stale instead.
+	 */
+	private boolean d_isConnectivityStale;
 	
 	/**
-	 * The lists of borders that connect two territories.
+	 * The name index: maps both the name and the display name of every territory to the territory.
+	 * If several territories share a name, the one with the lowest ID wins.
 	 */
-	HashMap<Territory, LinkedList<Territory>> d_borders;
+	private HashMap<String, Territory> d_territoryNames;
 	
 	/**
-	 * The lists of territories that make up each continent.
+	 * Whether the name index needs to be rebuilt before it can be used.
+	 * Appending a territory updates it in place, while anything that could change which territory wins a name marks it stale instead.
 	 */
-	HashMap<Continent, LinkedList<Territory>> d_continentTerritories;
+	private boolean d_isTerritoryNameIndexStale;
+	
+	/**
+	 * The shared topology this map was created from, while the map still matches it; null otherwise.
+	 * A map that matches a topology is known to be valid, since the topology was validated when it was built.
+	 */
+	private MapTopology d_topology;
 	
 	/**
 	 * Default constructor that creates an empty map.
 	 */
 	public Map() {
-		d_continents = new LinkedList<>();
-		d_territories = new LinkedList<>();
-		d_borders = new HashMap<>();
-		d_continentTerritories = new HashMap<>();
+		d_continents = new ArrayList<>();
+		d_territories = new ArrayList<>();
+		d_continentTerritories = new ArrayList<>();
+		d_neighbours = new int[INITIAL_NEIGHBOUR_CAPACITY][];
+		d_numNeighbours = new int[INITIAL_NEIGHBOUR_CAPACITY];
+		d_borderOffsets = null;
+		d_borderTargets = null;
+		d_mapParts = new TerritoryUnionFind(0);
+		d_continentParts = new TerritoryUnionFind(0);
+		d_numContinentParts = new int[INITIAL_NEIGHBOUR_CAPACITY];
+		d_totalContinentParts = 0;
+		d_numEmptyContinents = 0;
+		d_isConnectivityStale = false;
+		d_territoryNames = new HashMap<>();
+		d_isTerritoryNameIndexStale = false;
+		d_topology = null;
+	}
+	
+	/**
+	 * Creates a map with a topology's continents, territories and borders, e.g. for one game.
+	 * Only the continent and territory objects are new, since they belong to this map; the border index and the name index
+	 * are the topology's own, and the connectivity index is only built if the map is edited and validated again.
+	 * The border index is used as it is rather than copied or checked: neither the map nor the topology ever writes into it,
+	 * since editing the map unpacks the borders into new rows first.
+	 * @param p_topology The topology.
+	 * @param p_offsets The topology's border offsets.
+	 * @param p_targets The topology's border targets.
+	 */
+	Map(MapTopology p_topology, int[] p_offsets, int[] p_targets) {
+		int l_numContinents = p_topology.getNumContinents();
+		int l_numTerritories = p_topology.getNumTerritories();
+		d_continents = new ArrayList<>(l_numContinents);
+		d_territories = new ArrayList<>(l_numTerritories);
+		d_continentTerritories = new ArrayList<>(l_numContinents);
+		for (int l_cID = 1; l_cID <= l_numContinents; l_cID++) {
+			Continent l_continent = new Continent(p_topology.getContinentName(l_cID), p_topology.getContinentBonus(l_cID));
+			l_continent.setMap(this);
+			l_continent.setIndex(l_cID - 1);
+			d_continents.add(l_continent);
+			d_continentTerritories.add(new ArrayList<Territory>(p_topology.getNumContinentTerritories(l_cID)));
+		}
+		for (int l_tID = 1; l_tID <= l_numTerritories; l_tID++) {
+			int l_cID = p_topology.getTerritoryContinentID(l_tID);
+			Territory l_territory = new Territory(p_topology.getTerritoryName(l_tID), p_topology.getTerritoryDisplayName(l_tID), d_continents.get(l_cID - 1));
+			l_territory.setMap(this);
+			l_territory.setIndex(l_tID - 1);
+			d_territories.add(l_territory);
+			d_continentTerritories.get(l_cID - 1).add(l_territory);
+		}
+		d_neighbours = null;
+		d_numNeighbours = null;
+		d_borderOffsets = p_offsets;
+		d_borderTargets = p_targets;
+		d_mapParts = null;
+		d_continentParts = null;
+		d_numContinentParts = null;
+		d_totalContinentParts = 0;
+		d_numEmptyContinents = 0;
+		d_isConnectivityStale = true;
+		// Names are looked up in the topology's index until the map is edited.
+		d_territoryNames = null;
+		d_isTerritoryNameIndexStale = true;
+		d_topology = p_topology;
 	}
 	
 	/**
@@ -80,7 +222,13 @@ public class Map extends GameEntity {
 	 * @return The continent's ID if it exists, otherwise 0.
 	 */
 	public int getContinentID(Continent l_continent) {
-		return d_continents.indexOf(l_continent) + 1;
+		if (l_continent != null && l_continent.getMap() == this) {
+			int l_idx = l_continent.getIndex();
+			if (l_idx >= 0 && l_idx < getNumContinents() && d_continents.get(l_idx) == l_continent) {
+				return l_idx + 1;
+			}
+		}
+		return 0;
 	}
 	
 	/**
@@ -93,12 +241,20 @@ public class Map extends GameEntity {
 	 */
 	public boolean createContinent(String p_name, int p_numBonusArmies, int p_continentID) {
 		if (p_continentID > 0) {
+			d_topology = null;
 			int l_newIdx = Math.min(p_continentID - 1, getNumContinents());
 			Continent l_newContinent = new Continent(p_name, p_numBonusArmies);
 			l_newContinent.setMap(this);
 			d_continents.add(l_newIdx, l_newContinent);
-			// Create an empty entry in the continent/territory map.
-			d_continentTerritories.put(l_newContinent, new LinkedList<Territory>());
+			// Create an empty entry in the continent/territory list.
+			d_continentTerritories.add(l_newIdx, new ArrayList<Territory>());
+			reindexContinents(l_newIdx);
+			if (l_newIdx == getNumContinents() - 1) {
+				onContinentAppended();
+			}
+			else {
+				d_isConnectivityStale = true;
+			}
 			return true;
 		}
 		return false;
@@ -113,11 +269,26 @@ public class Map extends GameEntity {
 	 */
 	public boolean createContinent(int p_continentID, int p_continentValue) {
 		// TODO: What are we doing about the names? Defaulting to a random name.
-		Random l_random = new Random();
-		String l_continentName = "Continentia".concat(String.valueOf(l_random.nextInt(10))).concat(String.valueOf(l_random.nextInt(10))).concat(String.valueOf(l_random.nextInt(10)));
+		String l_continentName = "Continentia" + generateNameSuffix();
 		return createContinent(l_continentName, p_continentValue, p_continentID);
 	}
 	
+	/**
+	 * Generates the three random digits that end a generated name.
+	 * Uses the game's map stream if the map is part of a game, so that generated names are reproducible.
+	 * @return The digits.
+	 */
+	private String generateNameSuffix() {
+		int l_number;
+		if (getEngine() != null) {
+			l_number = getEngine().getRandom().getStream(GameRandom.MAP).nextInt(1000);
+		}
+		else {
+			l_number = ThreadLocalRandom.current().nextInt(1000);
+		}
+		return String.format("%03d", l_number);
+	}
+	
 	/**
 	 * Deletes the continent at the given ID.
 	 * All territories connected to this continent will also be removed.
@@ -131,21 +302,37 @@ public class Map extends GameEntity {
 	/**
 	 * Deletes the continent by reference.
 	 * All territories connected to this continent will also be removed.
-	 * @param p_continent The continent to remove.
+	 * @param l_continent The continent to remove.
 	 * @return True if a continent was deleted, otherwise false.
 	 */
 	private boolean deleteContinent(Continent l_continent) {
-		if (l_continent != null) {
-			// The continent should always be in the continent/territory map even if it has no territories.
-			for (Territory l_territory : d_continentTerritories.get(l_continent)) {
+		int l_continentID = getContinentID(l_continent);
+		if (l_continentID > 0) {
+			d_topology = null;
+			// Copy the list first, as deleting territories also removes them from it.
+			for (Territory l_territory : new ArrayList<Territory>(d_continentTerritories.get(l_continentID - 1))) {
 				deleteTerritory(l_territory);
 			}
-			d_continentTerritories.remove(l_continent);
-			return d_continents.remove(l_continent);
+			d_continentTerritories.remove(l_continentID - 1);
+			d_continents.remove(l_continentID - 1);
+			l_continent.setIndex(-1);
+			reindexContinents(l_continentID - 1);
+			d_isConnectivityStale = true;
+			return true;
 		}
 		return false;
 	}
 	
+	/**
+	 * Updates the stored index of every continent from a given index onwards.
+	 * @param p_fromIdx The first index that may have shifted.
+	 */
+	private void reindexContinents(int p_fromIdx) {
+		for (int l_idx = p_fromIdx; l_idx < getNumContinents(); l_idx++) {
+			d_continents.get(l_idx).setIndex(l_idx);
+		}
+	}
+	
 	/**
 	 * Returns the number of territories in this map.
 	 * @return The number of territories.
@@ -164,16 +351,45 @@ public class Map extends GameEntity {
 	
 	/**
 	 * Returns the first territory with the input name.
+	 * Either the name or the display name (with spaces instead of underscores) matches.
+	 * This is a hash lookup; the index is kept up to date as territories are appended and only rebuilt after other edits.
+	 * A map that still matches the topology it was created from uses the topology's index instead of having its own.
 	 * @param p_territoryName The territory's name.
 	 * @return The first territory with that name, otherwise null.
 	 */
 	public Territory getTerritory(String p_territoryName) {
-		for (Territory l_territory : d_territories) {
-			if (l_territory.getName().equals(p_territoryName) || l_territory.getDisplayName().equals(p_territoryName)) {
-				return l_territory;
+		if (d_topology != null) {
+			return getTerritory(d_topology.getTerritoryID(p_territoryName));
+		}
+		if (d_isTerritoryNameIndexStale) {
+			if (d_territoryNames == null) {
+				d_territoryNames = new HashMap<>();
+			}
+			d_territoryNames.clear();
+			for (Territory l_territory : d_territories) {
+				indexTerritoryName(l_territory);
 			}
+			d_isTerritoryNameIndexStale = false;
 		}
-		return null;
+		return d_territoryNames.get(p_territoryName);
+	}
+	
+	/**
+	 * Adds a territory's name and display name to the name index, unless a territory with a lower ID already has them.
+	 * @param p_territory The territory.
+	 */
+	private void indexTerritoryName(Territory p_territory) {
+		d_territoryNames.putIfAbsent(p_territory.getName(), p_territory);
+		d_territoryNames.putIfAbsent(p_territory.getDisplayName(), p_territory);
+	}
+	
+	/**
+	 * Called by a territory on this map when its name changes, so that the name index gets rebuilt.
+	 */
+	void onTerritoryRenamed() {
+		// The map no longer matches its topology's names.
+		d_topology = null;
+		d_isTerritoryNameIndexStale = true;
 	}
 	
 	/**
@@ -194,7 +410,13 @@ public class Map extends GameEntity {
 	 * @return The territory's ID if it exists, otherwise 0.
 	 */
 	public int getTerritoryID(Territory l_territory) {
-		return d_territories.indexOf(l_territory) + 1;
+		if (l_territory != null && l_territory.getMap() == this) {
+			int l_idx = l_territory.getIndex();
+			if (l_idx >= 0 && l_idx < getNumTerritories() && d_territories.get(l_idx) == l_territory) {
+				return l_idx + 1;
+			}
+		}
+		return 0;
 	}
 	
 	/**
@@ -206,13 +428,25 @@ public class Map extends GameEntity {
 	 */
 	public boolean createTerritory(int p_territoryID, String p_name, int p_continentID) {
 		if (p_territoryID > 0 && p_continentID > 0 && p_continentID <= getNumContinents()) {
+			thaw();
 			int l_newIdx = Math.min(p_territoryID - 1, getNumTerritories());
 			Territory l_newTerritory = new Territory(p_name, getContinent(p_continentID));
 			l_newTerritory.setMap(this);
-			// Make an empty list of neighbours to start.
-			d_borders.put(l_newTerritory, new LinkedList<Territory>());
-			d_continentTerritories.get(getContinent(p_continentID)).add(l_newTerritory);
+			// Make an empty list of neighbours to start, shifting any borders to territories after it.
+			insertNeighbourRow(l_newIdx);
+			d_continentTerritories.get(p_continentID - 1).add(l_newTerritory);
 			d_territories.add(l_newIdx, l_newTerritory);
+			reindexTerritories(l_newIdx);
+			if (l_newIdx == getNumTerritories() - 1) {
+				onTerritoryAppended(p_continentID - 1);
+				if (!d_isTerritoryNameIndexStale) {
+					indexTerritoryName(l_newTerritory);
+				}
+			}
+			else {
+				d_isConnectivityStale = true;
+				d_isTerritoryNameIndexStale = true;
+			}
 			return true;
 		}
 		return false;
@@ -226,8 +460,7 @@ public class Map extends GameEntity {
 	 */
 	public boolean createTerritory(int p_territoryID, int p_continentID) {
 		// TODO: What are we doing about names? Defaulting to a random designation for now.
-		Random l_random = new Random();
-		String l_territoryName = "Testlandia".concat(String.valueOf(l_random.nextInt(10))).concat(String.valueOf(l_random.nextInt(10))).concat(String.valueOf(l_random.nextInt(10)));
+		String l_territoryName = "Testlandia" + generateNameSuffix();
 		return createTerritory(p_territoryID, l_territoryName, p_continentID);
 	}
 	
@@ -246,16 +479,233 @@ public class Map extends GameEntity {
 	 * @return True if a territory was deleted, otherwise false.
 	 */
 	private boolean deleteTerritory(Territory p_territory) {
-		if (p_territory != null) {
-			for (Territory l_otherTerritory : d_territories) {
-				d_borders.get(l_otherTerritory).remove(p_territory);
+		int l_territoryID = getTerritoryID(p_territory);
+		if (l_territoryID > 0) {
+			thaw();
+			int l_deletedIdx = l_territoryID - 1;
+			removeNeighbourRow(l_deletedIdx);
+			int l_continentID = getContinentID(p_territory.getContinent());
+			if (l_continentID > 0) {
+				d_continentTerritories.get(l_continentID - 1).remove(p_territory);
+			}
+			d_territories.remove(l_deletedIdx);
+			p_territory.setIndex(-1);
+			reindexTerritories(l_deletedIdx);
+			d_isConnectivityStale = true;
+			d_isTerritoryNameIndexStale = true;
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Updates the stored index of every territory from a given index onwards.
+	 * @param p_fromIdx The first index that may have shifted.
+	 */
+	private void reindexTerritories(int p_fromIdx) {
+		for (int l_idx = p_fromIdx; l_idx < getNumTerritories(); l_idx++) {
+			d_territories.get(l_idx).setIndex(l_idx);
+		}
+	}
+	
+	/**
+	 * Inserts an empty neighbour row at an index, shifting every border that points at or after it.
+	 * @param p_newIdx The index of the new territory.
+	 */
+	private void insertNeighbourRow(int p_newIdx) {
+		int l_numTerritories = getNumTerritories();
+		if (l_numTerritories == d_neighbours.length) {
+			int l_newCapacity = Math.max(INITIAL_NEIGHBOUR_CAPACITY, l_numTerritories * 2);
+			d_neighbours = Arrays.copyOf(d_neighbours, l_newCapacity);
+			d_numNeighbours = Arrays.copyOf(d_numNeighbours, l_newCapacity);
+		}
+		// Appending is the common case (e.g. loading), and there is nothing to shift then.
+		if (p_newIdx < l_numTerritories) {
+			for (int l_idx = 0; l_idx < l_numTerritories; l_idx++) {
+				int[] l_row = d_neighbours[l_idx];
+				for (int l_nIdx = 0; l_nIdx < d_numNeighbours[l_idx]; l_nIdx++) {
+					if (l_row[l_nIdx] >= p_newIdx) {
+						l_row[l_nIdx]++;
+					}
+				}
+			}
+			System.arraycopy(d_neighbours, p_newIdx, d_neighbours, p_newIdx + 1, l_numTerritories - p_newIdx);
+			System.arraycopy(d_numNeighbours, p_newIdx, d_numNeighbours, p_newIdx + 1, l_numTerritories - p_newIdx);
+		}
+		d_neighbours[p_newIdx] = null;
+		d_numNeighbours[p_newIdx] = 0;
+	}
+	
+	/**
+	 * Removes the neighbour row at an index, along with every border to it, and shifts the borders after it.
+	 * @param p_deletedIdx The index of the territory being deleted.
+	 */
+	private void removeNeighbourRow(int p_deletedIdx) {
+		int l_numTerritories = getNumTerritories();
+		// Remove the reverse borders first so that the other rows do not point at the deleted territory.
+		int[] l_deletedRow = d_neighbours[p_deletedIdx];
+		for (int l_nIdx = 0; l_nIdx < d_numNeighbours[p_deletedIdx]; l_nIdx++) {
+			removeNeighbour(l_deletedRow[l_nIdx], p_deletedIdx);
+		}
+		System.arraycopy(d_neighbours, p_deletedIdx + 1, d_neighbours, p_deletedIdx, l_numTerritories - p_deletedIdx - 1);
+		System.arraycopy(d_numNeighbours, p_deletedIdx + 1, d_numNeighbours, p_deletedIdx, l_numTerritories - p_deletedIdx - 1);
+		d_neighbours[l_numTerritories - 1] = null;
+		d_numNeighbours[l_numTerritories - 1] = 0;
+		for (int l_idx = 0; l_idx < l_numTerritories - 1; l_idx++) {
+			int[] l_row = d_neighbours[l_idx];
+			for (int l_nIdx = 0; l_nIdx < d_numNeighbours[l_idx]; l_nIdx++) {
+				if (l_row[l_nIdx] > p_deletedIdx) {
+					l_row[l_nIdx]--;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Adds a neighbour to a territory's editable border row, unless it is already there.
+	 * @param p_idx The index of the territory.
+	 * @param p_neighbourIdx The index of the neighbour.
+	 * @return True if the neighbour was added.
+	 */
+	private boolean addNeighbour(int p_idx, int p_neighbourIdx) {
+		int[] l_row = d_neighbours[p_idx];
+		int l_count = d_numNeighbours[p_idx];
+		for (int l_nIdx = 0; l_nIdx < l_count; l_nIdx++) {
+			if (l_row[l_nIdx] == p_neighbourIdx) {
+				return false;
+			}
+		}
+		if (l_row == null) {
+			l_row = new int[INITIAL_NEIGHBOUR_CAPACITY];
+			d_neighbours[p_idx] = l_row;
+		}
+		else if (l_count == l_row.length) {
+			l_row = Arrays.copyOf(l_row, l_count * 2);
+			d_neighbours[p_idx] = l_row;
+		}
+		l_row[l_count] = p_neighbourIdx;
+		d_numNeighbours[p_idx] = l_count + 1;
+		return true;
+	}
+	
+	/**
+	 * Removes a neighbour from a territory's editable border row.
+	 * @param p_idx The index of the territory.
+	 * @param p_neighbourIdx The index of the neighbour.
+	 * @return True if the neighbour was there and was removed.
+	 */
+	private boolean removeNeighbour(int p_idx, int p_neighbourIdx) {
+		int[] l_row = d_neighbours[p_idx];
+		int l_count = d_numNeighbours[p_idx];
+		for (int l_nIdx = 0; l_nIdx < l_count; l_nIdx++) {
+			if (l_row[l_nIdx] == p_neighbourIdx) {
+				// Order does not matter, so fill the gap with the last neighbour.
+				l_row[l_nIdx] = l_row[l_count - 1];
+				d_numNeighbours[p_idx] = l_count - 1;
+				return true;
 			}
-			d_borders.remove(p_territory);
-			return d_territories.remove(p_territory);
 		}
 		return false;
 	}
 	
+	/**
+	 * Is the map frozen, i.e. are its borders packed into the compact read-only index?
+	 * @return True if the map is frozen.
+	 */
+	public boolean isFrozen() {
+		return d_borderOffsets != null;
+	}
+	
+	/**
+	 * Packs the borders into a compressed sparse row index, with each territory's neighbours sorted by ID.
+	 * This should be called once a map is done being built or edited; any later edit will unfreeze it again.
+	 */
+	public void freeze() {
+		if (isFrozen()) {
+			return;
+		}
+		int l_numTerritories = getNumTerritories();
+		int[] l_offsets = new int[l_numTerritories + 1];
+		for (int l_idx = 0; l_idx < l_numTerritories; l_idx++) {
+			l_offsets[l_idx + 1] = l_offsets[l_idx] + d_numNeighbours[l_idx];
+		}
+		int[] l_targets = new int[l_offsets[l_numTerritories]];
+		for (int l_idx = 0; l_idx < l_numTerritories; l_idx++) {
+			if (d_numNeighbours[l_idx] > 0) {
+				System.arraycopy(d_neighbours[l_idx], 0, l_targets, l_offsets[l_idx], d_numNeighbours[l_idx]);
+			}
+			Arrays.sort(l_targets, l_offsets[l_idx], l_offsets[l_idx + 1]);
+		}
+		d_borderOffsets = l_offsets;
+		d_borderTargets = l_targets;
+		// The editable rows are rebuilt from the index if the map is edited again.
+		d_neighbours = null;
+		d_numNeighbours = null;
+	}
+	
+	/**
+	 * Unpacks the compact border index back into editable rows, if the map is frozen.
+	 */
+	private void thaw() {
+		// Every edit to the territories or borders comes through here, so the map may no longer match its topology.
+		d_topology = null;
+		if (!isFrozen()) {
+			return;
+		}
+		int l_numTerritories = getNumTerritories();
+		int l_capacity = Math.max(INITIAL_NEIGHBOUR_CAPACITY, l_numTerritories + 1);
+		d_neighbours = new int[l_capacity][];
+		d_numNeighbours = new int[l_capacity];
+		for (int l_idx = 0; l_idx < l_numTerritories; l_idx++) {
+			int l_count = d_borderOffsets[l_idx + 1] - d_borderOffsets[l_idx];
+			if (l_count > 0) {
+				d_neighbours[l_idx] = Arrays.copyOfRange(d_borderTargets, d_borderOffsets[l_idx], d_borderOffsets[l_idx] + Math.max(l_count, INITIAL_NEIGHBOUR_CAPACITY));
+			}
+			d_numNeighbours[l_idx] = l_count;
+		}
+		d_borderOffsets = null;
+		d_borderTargets = null;
+	}
+	
+	/**
+	 * Gets the number of territories bordering a territory.
+	 * @param p_territoryID The territory's ID.
+	 * @return The number of neighbours, or 0 if the ID is invalid.
+	 */
+	public int getNumNeighbours(int p_territoryID) {
+		if (p_territoryID < 1 || p_territoryID > getNumTerritories()) {
+			return 0;
+		}
+		int l_idx = p_territoryID - 1;
+		return isFrozen() ? d_borderOffsets[l_idx + 1] - d_borderOffsets[l_idx] : d_numNeighbours[l_idx];
+	}
+	
+	/**
+	 * Gets the ID of one of a territory's neighbours. Together with getNumNeighbours, this allows iterating borders without allocating.
+	 * When the map is frozen, neighbours are returned in ascending ID order.
+	 * @param p_territoryID The territory's ID.
+	 * @param p_neighbourIdx Which neighbour to get, from 0 to getNumNeighbours - 1.
+	 * @return The neighbour's ID.
+	 */
+	public int getNeighbourID(int p_territoryID, int p_neighbourIdx) {
+		int l_idx = p_territoryID - 1;
+		return 1 + (isFrozen() ? d_borderTargets[d_borderOffsets[l_idx] + p_neighbourIdx] : d_neighbours[l_idx][p_neighbourIdx]);
+	}
+	
+	/**
+	 * Gets the territories bordering a territory.
+	 * @param p_territory The territory.
+	 * @return A new list of the bordering territories (empty if the territory is not on this map).
+	 */
+	public LinkedList<Territory> getNeighbours(Territory p_territory) {
+		LinkedList<Territory> l_neighbours = new LinkedList<>();
+		int l_territoryID = getTerritoryID(p_territory);
+		for (int l_nIdx = 0; l_nIdx < getNumNeighbours(l_territoryID); l_nIdx++) {
+			l_neighbours.add(getTerritory(getNeighbourID(l_territoryID, l_nIdx)));
+		}
+		return l_neighbours;
+	}
+	
 	/**
 	 * Checks to see if a border exists between the two territories.
 	 * @param p_firstID The first territory's ID.
@@ -263,7 +713,23 @@ public class Map extends GameEntity {
 	 * @return True if the border exists, false otherwise.
 	 */
 	public boolean doesBorderExist(int p_firstID, int p_secondID) {
-		return doesBorderExist(getTerritory(p_firstID), getTerritory(p_secondID));
+		// Can we border ourself? Let's go with 'no'.
+		if (p_firstID == p_secondID || p_firstID < 1 || p_secondID < 1 || p_firstID > getNumTerritories() || p_secondID > getNumTerritories()) {
+			return false;
+		}
+		// Note: which territory is first or second should not affect the outcome of this result.
+		int l_firstIdx = p_firstID - 1;
+		int l_secondIdx = p_secondID - 1;
+		if (isFrozen()) {
+			return Arrays.binarySearch(d_borderTargets, d_borderOffsets[l_firstIdx], d_borderOffsets[l_firstIdx + 1], l_secondIdx) >= 0;
+		}
+		int[] l_row = d_neighbours[l_firstIdx];
+		for (int l_nIdx = 0; l_nIdx < d_numNeighbours[l_firstIdx]; l_nIdx++) {
+			if (l_row[l_nIdx] == l_secondIdx) {
+				return true;
+			}
+		}
+		return false;
 	}
 	
 	/**
@@ -273,16 +739,7 @@ public class Map extends GameEntity {
 	 * @return True if the border exists, false otherwise.
 	 */
 	public boolean doesBorderExist(Territory p_first, Territory p_second) {
-		// Can we border ourself? Let's go with 'no'.
-		if (p_first == p_second) {
-			return false;
-		}
-		// Note: which territory is first or second should not affect the outcome of this result.
-		if (p_first != null && p_second != null && d_borders.containsKey(p_first)) {
-			LinkedList<Territory> l_borderingTerritories = d_borders.get(p_first);
-			return l_borderingTerritories.contains(p_second);
-		}
-		return false;
+		return doesBorderExist(getTerritoryID(p_first), getTerritoryID(p_second));
 	}
 	
 	/**
@@ -292,7 +749,19 @@ public class Map extends GameEntity {
 	 * @return True if the border was added, false otherwise.
 	 */
 	public boolean addBorder(int p_firstID, int p_secondID) {
-		return addBorder(getTerritory(p_firstID), getTerritory(p_secondID));
+		// Don't allow us to border ourself.
+		if (p_firstID == p_secondID || p_firstID < 1 || p_secondID < 1 || p_firstID > getNumTerritories() || p_secondID > getNumTerritories()) {
+			return false;
+		}
+		thaw();
+		// Do not add duplicates.
+		boolean l_addedToFirst = addNeighbour(p_firstID - 1, p_secondID - 1);
+		boolean l_addedToSecond = addNeighbour(p_secondID - 1, p_firstID - 1);
+		if (l_addedToFirst || l_addedToSecond) {
+			onBorderAdded(p_firstID - 1, p_secondID - 1);
+			return true;
+		}
+		return false;
 	}
 	
 	/**
@@ -302,27 +771,138 @@ public class Map extends GameEntity {
 	 * @return True if the border was added, false otherwise.
 	 */
 	public boolean addBorder(Territory p_first, Territory p_second) {
-		// Don't allow us to border ourself.
-		if (p_first == p_second) {
+		return addBorder(getTerritoryID(p_first), getTerritoryID(p_second));
+	}
+	
+	/**
+	 * Adds many borders at once and leaves the map frozen. This is much faster than adding them one by one,
+	 * since the compact border index is built directly in a couple of linear passes.
+	 * Invalid borders (unknown IDs or a territory bordering itself) are skipped, and duplicates are merged.
+	 * @param p_firstIDs The IDs of the first territory of each border.
+	 * @param p_secondIDs The IDs of the second territory of each border.
+	 * @param p_numBorders The number of borders to read from the arrays.
+	 */
+	void addBorders(int[] p_firstIDs, int[] p_secondIDs, int p_numBorders) {
+		d_topology = null;
+		freeze();
+		int l_numTerritories = getNumTerritories();
+		// Count each territory's neighbours: the existing ones plus both directions of each new border.
+		int[] l_offsets = new int[l_numTerritories + 1];
+		for (int l_idx = 0; l_idx < l_numTerritories; l_idx++) {
+			l_offsets[l_idx + 1] = d_borderOffsets[l_idx + 1] - d_borderOffsets[l_idx];
+		}
+		for (int l_bIdx = 0; l_bIdx < p_numBorders; l_bIdx++) {
+			int l_firstID = p_firstIDs[l_bIdx];
+			int l_secondID = p_secondIDs[l_bIdx];
+			if (l_firstID != l_secondID && l_firstID > 0 && l_secondID > 0 && l_firstID <= l_numTerritories && l_secondID <= l_numTerritories) {
+				l_offsets[l_firstID]++;
+				l_offsets[l_secondID]++;
+			}
+		}
+		for (int l_idx = 0; l_idx < l_numTerritories; l_idx++) {
+			l_offsets[l_idx + 1] += l_offsets[l_idx];
+		}
+		
+		// Fill in each row, using a cursor per territory.
+		int[] l_targets = new int[l_offsets[l_numTerritories]];
+		int[] l_cursors = Arrays.copyOf(l_offsets, l_numTerritories);
+		for (int l_idx = 0; l_idx < l_numTerritories; l_idx++) {
+			for (int l_nIdx = d_borderOffsets[l_idx]; l_nIdx < d_borderOffsets[l_idx + 1]; l_nIdx++) {
+				l_targets[l_cursors[l_idx]++] = d_borderTargets[l_nIdx];
+			}
+		}
+		for (int l_bIdx = 0; l_bIdx < p_numBorders; l_bIdx++) {
+			int l_firstID = p_firstIDs[l_bIdx];
+			int l_secondID = p_secondIDs[l_bIdx];
+			if (l_firstID != l_secondID && l_firstID > 0 && l_secondID > 0 && l_firstID <= l_numTerritories && l_secondID <= l_numTerritories) {
+				l_targets[l_cursors[l_firstID - 1]++] = l_secondID - 1;
+				l_targets[l_cursors[l_secondID - 1]++] = l_firstID - 1;
+				onBorderAdded(l_firstID - 1, l_secondID - 1);
+			}
+		}
+		
+		// Sort each row, then compact the rows in place while dropping duplicates.
+		int l_numTargets = 0;
+		int l_rowStart = 0;
+		for (int l_idx = 0; l_idx < l_numTerritories; l_idx++) {
+			int l_rowEnd = l_offsets[l_idx + 1];
+			Arrays.sort(l_targets, l_rowStart, l_rowEnd);
+			l_offsets[l_idx] = l_numTargets;
+			for (int l_tIdx = l_rowStart; l_tIdx < l_rowEnd; l_tIdx++) {
+				if (l_tIdx == l_rowStart || l_targets[l_tIdx] != l_targets[l_tIdx - 1]) {
+					l_targets[l_numTargets++] = l_targets[l_tIdx];
+				}
+			}
+			l_rowStart = l_rowEnd;
+		}
+		l_offsets[l_numTerritories] = l_numTargets;
+		d_borderOffsets = l_offsets;
+		d_borderTargets = l_numTargets == l_targets.length ? l_targets : Arrays.copyOf(l_targets, l_numTargets);
+	}
+	
+	/**
+	 * Replaces every border with an already packed border index, and leaves the map frozen.
+	 * The index is checked first: each row must be sorted without duplicates or borders to itself, and every border must go both ways.
+	 * @param p_offsets The offsets of each territory's row in p_targets, with one extra entry for the end of the last row.
+	 * @param p_targets The indices (IDs - 1) of each territory's neighbours.
+	 * @return True if the borders were set, false if the index was not valid (in which case the map is unchanged).
+	 */
+	boolean setBorders(int[] p_offsets, int[] p_targets) {
+		int l_numTerritories = getNumTerritories();
+		if (p_offsets.length != l_numTerritories + 1 || p_offsets[0] != 0 || p_offsets[l_numTerritories] != p_targets.length) {
 			return false;
 		}
-		if (p_first != null && p_second != null) {
-			// There should already exist an empty LinkedList upon creation of the territory, so this should always work.
-			// Do not add duplicates.
-			boolean bAddedBorders = false;
-			LinkedList<Territory> l_firstBorders = d_borders.get(p_first);
-			if (!l_firstBorders.contains(p_second)) {
-				l_firstBorders.add(p_second);
-				bAddedBorders = true;
+		for (int l_idx = 0; l_idx < l_numTerritories; l_idx++) {
+			if (p_offsets[l_idx + 1] < p_offsets[l_idx]) {
+				return false;
+			}
+			for (int l_nIdx = p_offsets[l_idx]; l_nIdx < p_offsets[l_idx + 1]; l_nIdx++) {
+				int l_neighbour = p_targets[l_nIdx];
+				if (l_neighbour < 0 || l_neighbour >= l_numTerritories || l_neighbour == l_idx
+						|| (l_nIdx > p_offsets[l_idx] && l_neighbour <= p_targets[l_nIdx - 1])) {
+					return false;
+				}
 			}
-			LinkedList<Territory> l_secondBorders = d_borders.get(p_second);
-			if (!l_secondBorders.contains(p_first)) {
-				l_secondBorders.add(p_first);
-				bAddedBorders = true;
+		}
+		// The rows are sorted now, so each border's way back can be found with a binary search.
+		for (int l_idx = 0; l_idx < l_numTerritories; l_idx++) {
+			for (int l_nIdx = p_offsets[l_idx]; l_nIdx < p_offsets[l_idx + 1]; l_nIdx++) {
+				int l_neighbour = p_targets[l_nIdx];
+				if (Arrays.binarySearch(p_targets, p_offsets[l_neighbour], p_offsets[l_neighbour + 1], l_idx) < 0) {
+					return false;
+				}
 			}
-			return bAddedBorders;
 		}
-		return false;
+		d_borderOffsets = p_offsets;
+		d_borderTargets = p_targets;
+		d_neighbours = null;
+		d_numNeighbours = null;
+		d_isConnectivityStale = true;
+		d_topology = null;
+		return true;
+	}
+	
+	/**
+	 * Gets the shared topology this map was created from or built into.
+	 * @return The topology, or null if the map has none or has been edited since.
+	 */
+	public MapTopology getTopology() {
+		return d_topology;
+	}
+	
+	/**
+	 * Remembers the topology just built from this map, until the map is next edited.
+	 * @param p_topology The topology, which must match the map.
+	 */
+	void setTopology(MapTopology p_topology) {
+		d_topology = p_topology;
+	}
+	
+	/**
+	 * Called by a continent on this map when its name changes, since the map no longer matches its topology.
+	 */
+	void onContinentRenamed() {
+		d_topology = null;
 	}
 	
 	/**
@@ -332,7 +912,21 @@ public class Map extends GameEntity {
 	 * @return True if a border was deleted, false otherwise.
 	 */
 	public boolean deleteBorder(int p_firstID, int p_secondID) {
-		return deleteBorder(getTerritory(p_firstID), getTerritory(p_secondID));
+		// A border with ourself should have never been created.
+		if (p_firstID == p_secondID || p_firstID < 1 || p_secondID < 1 || p_firstID > getNumTerritories() || p_secondID > getNumTerritories()) {
+			return false;
+		}
+		thaw();
+		boolean l_removedFromFirst = removeNeighbour(p_firstID - 1, p_secondID - 1);
+		boolean l_removedFromSecond = removeNeighbour(p_secondID - 1, p_firstID - 1);
+		// TODO: output an error if just one territory had the other as its neighbour.
+		// That implies that there is a fault in the creation process.
+		if (l_removedFromFirst || l_removedFromSecond) {
+			// Removing a border may split a part in two, which a union-find cannot undo.
+			d_isConnectivityStale = true;
+			return true;
+		}
+		return false;
 	}
 	
 	/**
@@ -342,20 +936,7 @@ public class Map extends GameEntity {
 	 * @return True if a border was deleted, false otherwise.
 	 */
 	public boolean deleteBorder(Territory p_first, Territory p_second) {
-		// A border with ourself should have never been created.
-		if (p_first == p_second) {
-			return false;
-		}
-		if (p_first != null && p_second != null) {
-			LinkedList<Territory> l_firstNeighbours = d_borders.get(p_first);
-			boolean l_removedFromFirst = l_firstNeighbours.remove(p_second);
-			LinkedList<Territory> l_secondNeighbours = d_borders.get(p_second);
-			boolean l_removedFromSecond = l_secondNeighbours.remove(p_first);
-			// TODO: output an error if just one territory had the other as its neighbour.
-			// That implies that there is a fault in the creation process.
-			return l_removedFromFirst || l_removedFromSecond;
-		}
-		return false;
+		return deleteBorder(getTerritoryID(p_first), getTerritoryID(p_second));
 	}
 	
 	/**
@@ -364,154 +945,286 @@ public class Map extends GameEntity {
 	 * @return A linked list of the territories belonging to the continent.
 	 */
 	public LinkedList<Territory> getContinentTerritories(Continent p_continent) {
-		if (d_continentTerritories.containsKey(p_continent)) {
-			return new LinkedList<Territory>(d_continentTerritories.get(p_continent));
+		int l_continentID = getContinentID(p_continent);
+		if (l_continentID > 0) {
+			return new LinkedList<Territory>(d_continentTerritories.get(l_continentID - 1));
 		}
 		return null;
 	}
 	
+	/**
+	 * Gets the number of territories belonging to a specific continent without copying them.
+	 * @param p_continent The continent.
+	 * @return The number of territories on the continent, or 0 if it is not on this map.
+	 */
+	public int getNumContinentTerritories(Continent p_continent) {
+		int l_continentID = getContinentID(p_continent);
+		return l_continentID > 0 ? d_continentTerritories.get(l_continentID - 1).size() : 0;
+	}
+	
+	/**
+	 * Updates the connectivity index for a new, empty continent at the end of the map.
+	 */
+	private void onContinentAppended() {
+		if (d_isConnectivityStale) {
+			return;
+		}
+		int l_cIdx = getNumContinents() - 1;
+		if (l_cIdx == d_numContinentParts.length) {
+			d_numContinentParts = Arrays.copyOf(d_numContinentParts, l_cIdx * 2);
+		}
+		d_numContinentParts[l_cIdx] = 0;
+		d_numEmptyContinents++;
+	}
+	
+	/**
+	 * Updates the connectivity index for a new territory at the end of the map; it starts as its own part.
+	 * @param p_continentIdx The index of the territory's continent.
+	 */
+	private void onTerritoryAppended(int p_continentIdx) {
+		if (d_isConnectivityStale) {
+			return;
+		}
+		d_mapParts.add();
+		d_continentParts.add();
+		if (d_numContinentParts[p_continentIdx] == 0) {
+			d_numEmptyContinents--;
+		}
+		d_numContinentParts[p_continentIdx]++;
+		d_totalContinentParts++;
+	}
+	
+	/**
+	 * Updates the connectivity index for a new border by joining the parts of its two ends.
+	 * @param p_firstIdx The index of the first territory.
+	 * @param p_secondIdx The index of the second territory.
+	 */
+	private void onBorderAdded(int p_firstIdx, int p_secondIdx) {
+		if (d_isConnectivityStale) {
+			return;
+		}
+		d_mapParts.union(p_firstIdx, p_secondIdx);
+		int l_continentIdx = getContinentID(d_territories.get(p_firstIdx).getContinent()) - 1;
+		if (l_continentIdx >= 0 && l_continentIdx == getContinentID(d_territories.get(p_secondIdx).getContinent()) - 1
+				&& d_continentParts.union(p_firstIdx, p_secondIdx)) {
+			d_numContinentParts[l_continentIdx]--;
+			d_totalContinentParts--;
+		}
+	}
+	
+	/**
+	 * Rebuilds the connectivity index from scratch if it is stale.
+	 * Connectivity is computed for the whole map and every continent at once in a single pass over the borders.
+	 */
+	private void updateConnectivity() {
+		if (!d_isConnectivityStale) {
+			return;
+		}
+		int l_numTerritories = getNumTerritories();
+		int[] l_continentIdxs = new int[l_numTerritories];
+		for (int l_idx = 0; l_idx < l_numTerritories; l_idx++) {
+			l_continentIdxs[l_idx] = getContinentID(d_territories.get(l_idx).getContinent()) - 1;
+		}
+		
+		// Join every border once (from its lower ID), and also within the continent if both ends share one.
+		if (d_mapParts == null) {
+			d_mapParts = new TerritoryUnionFind(l_numTerritories);
+			d_continentParts = new TerritoryUnionFind(l_numTerritories);
+		}
+		d_mapParts.reset(l_numTerritories);
+		d_continentParts.reset(l_numTerritories);
+		for (int l_tID = 1; l_tID <= l_numTerritories; l_tID++) {
+			int l_idx = l_tID - 1;
+			for (int l_nIdx = 0; l_nIdx < getNumNeighbours(l_tID); l_nIdx++) {
+				int l_neighbourIdx = getNeighbourID(l_tID, l_nIdx) - 1;
+				if (l_neighbourIdx > l_idx) {
+					d_mapParts.union(l_idx, l_neighbourIdx);
+					if (l_continentIdxs[l_idx] >= 0 && l_continentIdxs[l_idx] == l_continentIdxs[l_neighbourIdx]) {
+						d_continentParts.union(l_idx, l_neighbourIdx);
+					}
+				}
+			}
+		}
+		
+		// Count the parts of each continent: each root of the continent union-find is one part.
+		d_numContinentParts = new int[Math.max(INITIAL_NEIGHBOUR_CAPACITY, getNumContinents())];
+		d_totalContinentParts = 0;
+		for (int l_idx = 0; l_idx < l_numTerritories; l_idx++) {
+			if (l_continentIdxs[l_idx] >= 0 && d_continentParts.find(l_idx) == l_idx) {
+				d_numContinentParts[l_continentIdxs[l_idx]]++;
+				d_totalContinentParts++;
+			}
+		}
+		d_numEmptyContinents = 0;
+		for (int l_cIdx = 0; l_cIdx < getNumContinents(); l_cIdx++) {
+			if (d_numContinentParts[l_cIdx] == 0) {
+				d_numEmptyContinents++;
+			}
+		}
+		d_isConnectivityStale = false;
+	}
+	
 	/**
 	 * Checks the map for correctness (i.e. is a connected graph).
+	 * This is O(1) unless something was deleted since the last check, in which case the connectivity index is rebuilt first.
+	 * Maps created from a {@link MapTopology} are valid until they are edited, without any check at all.
 	 * @return whether the map is valid.
 	 */
 	public boolean validateMap() {
-		// TODO: Proper error messages?
+		if (d_topology != null) {
+			return true;
+		}
+		updateConnectivity();
+		// Every non-empty continent has at least one part, so there are exactly as many parts as continents only if each is connected.
+		return getNumTerritories() > 1 && getNumContinents() > 0 && d_numEmptyContinents == 0
+				&& d_totalContinentParts == getNumContinents() && d_mapParts.getNumSets() == 1
+				&& d_totalContinentParts == d_continentParts.getNumSets();
+	}
+	
+	/**
+	 * Checks the map for correctness and describes every problem found.
+	 * A valid map has at least two territories and one continent, every territory belongs to a continent,
+	 * and both the whole map and each continent on its own are connected graphs.
+	 * @return The list of problems, which is empty if the map is valid.
+	 */
+	public LinkedList<String> getValidationErrors() {
+		LinkedList<String> l_errors = new LinkedList<>();
+		if (validateMap()) {
+			return l_errors;
+		}
+		int l_numTerritories = getNumTerritories();
+		
 		// Make sure we have at least two territories (even though a two-territory game would be sad).
-		if (getNumTerritories() <= 1) {
-			return false;
+		if (l_numTerritories <= 1) {
+			l_errors.add("The map must have at least two territories.");
 		}
 		
 		// Make sure we have at least one continent.
 		if (getNumContinents() == 0) {
-			return false;
+			l_errors.add("The map must have at least one continent.");
 		}
 		
 		// Validate that every territory belongs to a continent.
-		for (Territory l_territory : d_territories) {
-			if (l_territory.getContinent() == null) {
-				return false;
+		for (int l_idx = 0; l_idx < l_numTerritories; l_idx++) {
+			Territory l_territory = d_territories.get(l_idx);
+			if (getContinentID(l_territory.getContinent()) == 0) {
+				l_errors.add("Territory #" + (l_idx + 1) + " " + l_territory.getName() + " does not belong to a continent.");
 			}
 		}
 		
 		// Validate that each continent is a connected graph in itself.
-		for (Continent l_continent : d_continents) {
-			if (!validateContinent(l_continent)) {
-				return false;
+		boolean[] l_isPartListed = new boolean[l_numTerritories];
+		for (int l_cIdx = 0; l_cIdx < getNumContinents(); l_cIdx++) {
+			Continent l_continent = d_continents.get(l_cIdx);
+			if (d_numContinentParts[l_cIdx] == 0) {
+				l_errors.add("Continent #" + (l_cIdx + 1) + " " + l_continent.getName() + " has no territories.");
+			}
+			else if (d_numContinentParts[l_cIdx] > 1) {
+				l_errors.add("Continent #" + (l_cIdx + 1) + " " + l_continent.getName() + " is split into " + d_numContinentParts[l_cIdx] + " disconnected parts: "
+						+ describeParts(d_continentParts, d_continentTerritories.get(l_cIdx), l_isPartListed));
 			}
 		}
 		
-		/* TODO: Replace this nasty algorithm containing three nested for-loops with a better graph-traversing one.
-		 * Validate that each continent is connected to the rest.
-		 * Firstly, consider first continent as a connected (there may be only one).
-		 * Then, traverse every territory in that continent and add any continents that have bordering territories with ours.
-		 * Return true if we have added every continent to the list of connected continents.
-		 * 
-		 */
-		LinkedList<Continent> l_connectedContinents = new LinkedList<>();
-		l_connectedContinents.add(getContinent(1));
-		for (int l_idx = 0; l_idx < l_connectedContinents.size(); l_idx++) {
-			LinkedList<Territory> l_continentTerritories = d_continentTerritories.get(l_connectedContinents.get(l_idx));
-			for (Territory l_territory : l_continentTerritories) {
-				for (Territory l_borderingTerritory : d_borders.get(l_territory)) {
-					Continent l_borderingContinent = l_borderingTerritory.getContinent();
-					if (!l_connectedContinents.contains(l_borderingContinent)) {
-						l_connectedContinents.add(l_borderingContinent);
-						if (l_connectedContinents.size() == getNumContinents()) {
-							return true;
-						}
-					}
-				}
-			}
+		// Validate that the continents are connected to each other.
+		if (d_mapParts.getNumSets() > 1) {
+			l_errors.add("The map is split into " + d_mapParts.getNumSets() + " disconnected parts: " + describeParts(d_mapParts, d_territories, new boolean[l_numTerritories]));
 		}
-		return l_connectedContinents.size() == getNumContinents();
+		return l_errors;
 	}
 	
 	/**
-	 * Validates the continent by checking that it has at least one territory and that every territory within it is connected.
-	 * @param l_continent The continent to validate.
-	 * @return True if the continent is valid, otherwise false.
+	 * Describes the parts of a union-find that a list of territories fall into, naming the first territory of each part.
+	 * @param p_parts The union-find of the parts.
+	 * @param p_territories The territories to describe, in ID order.
+	 * @param p_isPartListed Marks which parts have already been described, indexed by their root.
+	 * @return The description of up to MAX_LISTED_PARTS parts.
 	 */
-	private boolean validateContinent(Continent p_continent) {
-		// We cannot be valid if we have no territories.
-		LinkedList<Territory> l_territoriesOnContinent = d_continentTerritories.get(p_continent);
-		if (d_continentTerritories.get(p_continent).size() == 0) {
-			return false;
-		}
-		
-		/* TODO: Replace this with a proper graph-traversing algorithm instead of this Big O(n^2) monstrosity.
-		 * We add one territory to the connected territories list (we may only have one).
-		 * Then, we traverse all territories on the continent and add any we border.
-		 * We do this until either we run out of territories in the connected territory list,
-		 *   or we have accounted for every territory.
-		 */
-		LinkedList<Territory> l_connectedTerritories = new LinkedList<>();
-		l_connectedTerritories.add(l_territoriesOnContinent.getFirst());
-		for (int l_idx = 0; l_idx < l_connectedTerritories.size(); l_idx++) {
-			for (Territory l_territory : l_territoriesOnContinent) {
-				if (!l_connectedTerritories.contains(l_territory) && doesBorderExist(l_connectedTerritories.get(l_idx), l_territory)) {
-					l_connectedTerritories.add(l_territory);
-					if (l_connectedTerritories.size() == d_continentTerritories.get(p_continent).size()) {
-						return true;
-					}
+	private String describeParts(TerritoryUnionFind p_parts, ArrayList<Territory> p_territories, boolean[] p_isPartListed) {
+		StringBuilder l_description = new StringBuilder();
+		int l_numListed = 0;
+		int l_numUnlisted = 0;
+		for (Territory l_territory : p_territories) {
+			int l_root = p_parts.find(l_territory.getIndex());
+			if (!p_isPartListed[l_root]) {
+				p_isPartListed[l_root] = true;
+				if (l_numListed == MAX_LISTED_PARTS) {
+					l_numUnlisted++;
+					continue;
+				}
+				if (l_numListed > 0) {
+					l_description.append(", ");
 				}
+				l_description.append('#').append(l_territory.getIndex() + 1).append(' ').append(l_territory.getName())
+					.append(" (").append(p_parts.getSetSize(l_root)).append(" territories)");
+				l_numListed++;
 			}
 		}
-		
-		return l_connectedTerritories.size() == d_continentTerritories.get(p_continent).size();
+		if (l_numUnlisted > 0) {
+			l_description.append(" and ").append(l_numUnlisted).append(" more");
+		}
+		return l_description.toString();
 	}
 	
 	/**
 	 * Outputs the current map as text format. Identical to the representation in a .map file.
+	 * Prefer {@link #writeText(Appendable)} for large maps, since this builds the whole map as one string.
 	 * @return The map as text.
 	 */
 	public String toText() {
+		StringBuilder l_builder = new StringBuilder();
+		try {
+			writeText(l_builder);
+		}
+		catch (IOException l_exception) {
+			// A StringBuilder never throws.
+			throw new UncheckedIOException(l_exception);
+		}
+		return l_builder.toString();
+	}
+	
+	/**
+	 * Writes the current map in text format to an output, as it goes. Identical to the representation in a .map file.
+	 * The output is linear in the size of the map; wrap files in a buffered writer.
+	 * @param p_out The output to write to.
+	 * @throws IOException if the output could not be written to.
+	 */
+	public void writeText(Appendable p_out) throws IOException {
 		/**
 		 * Reference on what a .map file entails:
 		 * http://domination.sourceforge.net/makemaps.shtml
 		 */
-		String l_mapAsString = "";
 		
 		/**
 		 *  Write the continents header, then print out the continents in this format:
 		 *    continent-name number-of-bonus-armies colour
 		 *  TODO: colour is not loaded or used by this game, so we are defaulting to everything being purple.
 		 */
-		l_mapAsString += continentsToString();
+		writeContinents(p_out);
 		
 		/**
 		 *  Write the countries header, then print out the territories in this format:
 		 *    territory-ID territory-name continent-ID coordinate coordinate
-		 *  While doing so, prepare the border strings. They are the territory's ID followed by the ID of every bordering nation.
 		 *  TODO: we do not use coordinates for this game, so defaulting to zeroes for both.
 		 */
-		LinkedList<String> l_borderStrings = new LinkedList<>();
-		l_mapAsString += "\n[countries]\n";
+		p_out.append("\n[countries]\n");
 		for (int l_tID = 1; l_tID <= getNumTerritories(); l_tID++) {
 			Territory l_territory = getTerritory(l_tID);
 			int l_cID = getContinentID(l_territory.getContinent());
-			l_mapAsString += l_tID + " " + l_territory.getName() +  " " + l_cID + " 0 0\n";
-			
-			// Write the border strings.
-			String l_borderString = Integer.toString(l_tID);
-			if (d_borders.containsKey(l_territory)) {
-				LinkedList<Territory> l_borderingTerritories = d_borders.get(l_territory);
-				for (Territory l_borderingTerritory : l_borderingTerritories) {
-					l_borderString += " " + Integer.toString(getTerritoryID(l_borderingTerritory));
-				}
-			}
-			l_borderStrings.add(l_borderString);
+			p_out.append(Integer.toString(l_tID)).append(' ').append(l_territory.getName()).append(' ').append(Integer.toString(l_cID)).append(" 0 0\n");
 		}
 		
 		/**
-		 *  Write the borders header, then print out the borders we already calculated above.
+		 *  Write the borders header, then print out the borders in this format:
+		 *    territory-ID followed by the ID of every bordering territory.
 		 */
-		l_mapAsString += "\n[borders]\n";
-		for (String l_borderString : l_borderStrings) {
-			l_mapAsString += l_borderString + "\n";
+		p_out.append("\n[borders]\n");
+		for (int l_tID = 1; l_tID <= getNumTerritories(); l_tID++) {
+			p_out.append(Integer.toString(l_tID));
+			for (int l_nIdx = 0; l_nIdx < getNumNeighbours(l_tID); l_nIdx++) {
+				p_out.append(' ').append(Integer.toString(getNeighbourID(l_tID, l_nIdx)));
+			}
+			p_out.append('\n');
 		}
-		
-		// Return the final result.
-		return l_mapAsString;
 	}
 	
 	/**
@@ -519,16 +1232,32 @@ public class Map extends GameEntity {
 	 * @return The string representation of the continents.
 	 */
 	public String continentsToString() {
+		StringBuilder l_builder = new StringBuilder();
+		try {
+			writeContinents(l_builder);
+		}
+		catch (IOException l_exception) {
+			// A StringBuilder never throws.
+			throw new UncheckedIOException(l_exception);
+		}
+		return l_builder.toString();
+	}
+	
+	/**
+	 * Writes the continents to an output. Identical to the representation in a .map file.
+	 * @param p_out The output to write to.
+	 * @throws IOException if the output could not be written to.
+	 */
+	public void writeContinents(Appendable p_out) throws IOException {
 		/**
 		 *  Write the continents header, then print out the continents in this format:
 		 *    continent-name number-of-bonus-armies colour
 		 *  TODO: colour is not loaded or used by this game, so we are defaulting to everything being purple.
 		 */
-		String l_continentsAsString = "[continents]\n";
+		p_out.append("[continents]\n");
 		for (int l_cID = 1; l_cID <= getNumContinents(); l_cID++) {
 			Continent l_continent = getContinent(l_cID);
-			l_continentsAsString += l_continent.getName() + " " + l_continent.getBonusArmies() + " purple\n";
+			p_out.append(l_continent.getName()).append(' ').append(Integer.toString(l_continent.getBonusArmies())).append(" purple\n");
 		}
-		return l_continentsAsString;
 	}
 }
@@ -11,12 +11,18 @@ public abstract class MapEntity {
 	 */
 	private Map d_map;
 	
+	/**
+	 * The zero-based index of this entity in its map's dense arrays, or -1 if it is not part of a map.
+	 */
+	private int d_index;
+	
 	/**
 	 * Initializes the item with a map.
 	 * @param p_map The map this item exists on.
 	 */
 	public MapEntity(Map p_map) {
 		setMap(p_map);
+		d_index = -1;
 	}
 	
 	/**
@@ -41,4 +47,20 @@ public abstract class MapEntity {
 	public void setMap(Map p_map) {
 		d_map = p_map;
 	}
+	
+	/**
+	 * Gets the index of this entity in its map, which is its ID minus one.
+	 * @return The index, or -1 if the entity has not been added to a map.
+	 */
+	int getIndex() {
+		return d_index;
+	}
+	
+	/**
+	 * Sets the index of this entity. Only the owning map should call this.
+	 * @param p_index The new index.
+	 */
+	void setIndex(int p_index) {
+		d_index = p_index;
+	}
 }
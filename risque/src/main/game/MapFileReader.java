@@ -0,0 +1,304 @@
+package main.game;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a text map file line by line and tokenizes it directly in its byte buffer.
+ * Numbers are parsed straight from the bytes, so only tokens that are really needed as text (e.g. names) create strings.
+ * Lines are split on a delimiter byte; a space delimiter also matches tabs and runs of whitespace.
+ * @author Kyle
+ */
+class MapFileReader implements Closeable {
+	/**
+	 * The initial size of the read buffer. It grows if a single line does not fit in it.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The channel we read the file from.
+	 */
+	private FileChannel d_channel;
+
+	/**
+	 * The buffer holding the bytes that have been read and not yet consumed.
+	 */
+	private byte[] d_bytes;
+
+	/**
+	 * The number of valid bytes in d_bytes.
+	 */
+	private int d_numBytes;
+
+	/**
+	 * The position in d_bytes where the next line starts.
+	 */
+	private int d_nextLineStart;
+
+	/**
+	 * Whether the whole file has been read into the buffer at some point.
+	 */
+	private boolean d_isEndOfFile;
+
+	/**
+	 * The start of the current line in d_bytes.
+	 */
+	private int d_lineStart;
+
+	/**
+	 * The end (exclusive) of the current line in d_bytes, excluding the line break.
+	 */
+	private int d_lineEnd;
+
+	/**
+	 * The read position within the current line.
+	 */
+	private int d_cursor;
+
+	/**
+	 * Opens a file for reading.
+	 * @param p_file The file to read.
+	 * @throws IOException if the file could not be opened.
+	 */
+	MapFileReader(File p_file) throws IOException {
+		d_channel = FileChannel.open(p_file.toPath(), StandardOpenOption.READ);
+		d_bytes = new byte[BUFFER_SIZE];
+		d_numBytes = 0;
+		d_nextLineStart = 0;
+		d_isEndOfFile = false;
+	}
+
+	/**
+	 * Advances to the next line of the file.
+	 * @return True if there was another line, false at the end of the file.
+	 * @throws IOException if the file could not be read.
+	 */
+	boolean nextLine() throws IOException {
+		int l_searchFrom = d_nextLineStart;
+		while (true) {
+			for (int l_idx = l_searchFrom; l_idx < d_numBytes; l_idx++) {
+				if (d_bytes[l_idx] == '\n') {
+					setLine(d_nextLineStart, l_idx);
+					d_nextLineStart = l_idx + 1;
+					return true;
+				}
+			}
+			if (d_isEndOfFile) {
+				// The last line may not end with a line break.
+				if (d_nextLineStart < d_numBytes) {
+					setLine(d_nextLineStart, d_numBytes);
+					d_nextLineStart = d_numBytes;
+					return true;
+				}
+				return false;
+			}
+			// The line continues past what we have read; keep the partial line and read more after it.
+			l_searchFrom = d_numBytes - d_nextLineStart;
+			fill();
+		}
+	}
+
+	/**
+	 * Moves the unconsumed bytes to the front of the buffer and reads more of the file after them.
+	 * @throws IOException if the file could not be read.
+	 */
+	private void fill() throws IOException {
+		int l_numKept = d_numBytes - d_nextLineStart;
+		if (l_numKept == d_bytes.length) {
+			byte[] l_grown = new byte[d_bytes.length * 2];
+			System.arraycopy(d_bytes, d_nextLineStart, l_grown, 0, l_numKept);
+			d_bytes = l_grown;
+		}
+		else {
+			System.arraycopy(d_bytes, d_nextLineStart, d_bytes, 0, l_numKept);
+		}
+		d_nextLineStart = 0;
+		d_numBytes = l_numKept;
+		ByteBuffer l_buffer = ByteBuffer.wrap(d_bytes, d_numBytes, d_bytes.length - d_numBytes);
+		int l_numRead = d_channel.read(l_buffer);
+		if (l_numRead < 0) {
+			d_isEndOfFile = true;
+		}
+		else {
+			d_numBytes += l_numRead;
+		}
+	}
+
+	/**
+	 * Sets the current line, dropping a trailing carriage return.
+	 * @param p_start The start of the line.
+	 * @param p_end The end of the line (exclusive).
+	 */
+	private void setLine(int p_start, int p_end) {
+		d_lineStart = p_start;
+		d_lineEnd = p_end > p_start && d_bytes[p_end - 1] == '\r' ? p_end - 1 : p_end;
+		d_cursor = p_start;
+	}
+
+	/**
+	 * Does the current line start with a character?
+	 * @param p_char The character (ASCII).
+	 * @return True if the first byte of the line is that character.
+	 */
+	boolean lineStartsWith(char p_char) {
+		return d_lineEnd > d_lineStart && d_bytes[d_lineStart] == p_char;
+	}
+
+	/**
+	 * Is the current line empty or only whitespace?
+	 * @return True if the line is blank.
+	 */
+	boolean isLineBlank() {
+		for (int l_idx = d_lineStart; l_idx < d_lineEnd; l_idx++) {
+			if (!isWhitespace(d_bytes[l_idx])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the whole current line as a string, trimmed of surrounding whitespace.
+	 * @return The line.
+	 */
+	String getLine() {
+		return new String(d_bytes, d_lineStart, d_lineEnd - d_lineStart, StandardCharsets.UTF_8).trim();
+	}
+
+	/**
+	 * Is there another token on the current line?
+	 * @param p_delimiter The byte that separates tokens.
+	 * @return True if there is another token.
+	 */
+	boolean hasNextToken(char p_delimiter) {
+		skipDelimiters(p_delimiter);
+		return d_cursor < d_lineEnd;
+	}
+
+	/**
+	 * Reads the next token on the line as a string.
+	 * @param p_delimiter The byte that separates tokens.
+	 * @return The token, or null if there are no more tokens on this line.
+	 */
+	String nextToken(char p_delimiter) {
+		skipDelimiters(p_delimiter);
+		if (d_cursor >= d_lineEnd) {
+			return null;
+		}
+		int l_start = d_cursor;
+		int l_end = findTokenEnd(p_delimiter);
+		return new String(d_bytes, l_start, l_end - l_start, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Skips over the next token on the line without creating a string.
+	 * @param p_delimiter The byte that separates tokens.
+	 * @return True if there was a token to skip.
+	 */
+	boolean skipToken(char p_delimiter) {
+		skipDelimiters(p_delimiter);
+		if (d_cursor >= d_lineEnd) {
+			return false;
+		}
+		findTokenEnd(p_delimiter);
+		return true;
+	}
+	
+	/**
+	 * Parses the next token on the line as an integer, without creating a string.
+	 * @param p_delimiter The byte that separates tokens.
+	 * @return The integer.
+	 * @throws NumberFormatException if there is no token or it is not an integer.
+	 */
+	int nextInt(char p_delimiter) {
+		skipDelimiters(p_delimiter);
+		// Whitespace around a number is tolerated even with a non-space delimiter.
+		while (d_cursor < d_lineEnd && isWhitespace(d_bytes[d_cursor])) {
+			d_cursor++;
+		}
+		int l_idx = d_cursor;
+		int l_end = findTokenEnd(p_delimiter);
+		while (l_end > l_idx && isWhitespace(d_bytes[l_end - 1])) {
+			l_end--;
+		}
+		boolean l_isNegative = l_idx < l_end && d_bytes[l_idx] == '-';
+		if (l_isNegative) {
+			l_idx++;
+		}
+		if (l_idx >= l_end) {
+			throw new NumberFormatException("Expected a number on line: " + getLine());
+		}
+		long l_value = 0;
+		for (; l_idx < l_end; l_idx++) {
+			int l_digit = d_bytes[l_idx] - '0';
+			if (l_digit < 0 || l_digit > 9 || l_value > Integer.MAX_VALUE) {
+				throw new NumberFormatException("Invalid number on line: " + getLine());
+			}
+			l_value = l_value * 10 + l_digit;
+		}
+		l_value = l_isNegative ? -l_value : l_value;
+		if (l_value < Integer.MIN_VALUE || l_value > Integer.MAX_VALUE) {
+			throw new NumberFormatException("Number out of range on line: " + getLine());
+		}
+		return (int)l_value;
+	}
+
+	/**
+	 * Skips the delimiters at the cursor.
+	 * A space delimiter skips any run of whitespace. Other delimiters are skipped one at a time, so empty fields are kept.
+	 * @param p_delimiter The byte that separates tokens.
+	 */
+	private void skipDelimiters(char p_delimiter) {
+		if (p_delimiter == ' ') {
+			while (d_cursor < d_lineEnd && isWhitespace(d_bytes[d_cursor])) {
+				d_cursor++;
+			}
+		}
+		else if (d_cursor < d_lineEnd && d_cursor > d_lineStart && d_bytes[d_cursor] == p_delimiter) {
+			d_cursor++;
+		}
+	}
+
+	/**
+	 * Finds the end of the token at the cursor, and moves the cursor there.
+	 * @param p_delimiter The byte that separates tokens.
+	 * @return The end of the token (exclusive).
+	 */
+	private int findTokenEnd(char p_delimiter) {
+		int l_idx = d_cursor;
+		if (p_delimiter == ' ') {
+			while (l_idx < d_lineEnd && !isWhitespace(d_bytes[l_idx])) {
+				l_idx++;
+			}
+		}
+		else {
+			while (l_idx < d_lineEnd && d_bytes[l_idx] != p_delimiter) {
+				l_idx++;
+			}
+		}
+		d_cursor = l_idx;
+		return l_idx;
+	}
+
+	/**
+	 * Is a byte a space or a tab?
+	 * @param p_byte The byte.
+	 * @return True if it is whitespace.
+	 */
+	private static boolean isWhitespace(byte p_byte) {
+		return p_byte == ' ' || p_byte == '\t';
+	}
+
+	/**
+	 * Closes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		d_channel.close();
+	}
+}
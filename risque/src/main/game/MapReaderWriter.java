@@ -1,10 +1,10 @@
 package main.game;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Scanner;
+import java.util.Arrays;
 
 /**
  * This class is used for reading and writing map files in Domination format
@@ -13,11 +13,26 @@ import java.util.Scanner;
 public class MapReaderWriter {
 	
 	
+	/**
+	 * The initial capacity of the arrays that collect borders while loading.
+	 */
+	private static final int INITIAL_BORDER_CAPACITY = 1024;
+	
+	/**
+	 * Gets the name of the format this reader/writer uses.
+	 * @return The format name.
+	 */
+	public String getFormatName() {
+		return "Domination";
+	}
+	
 	/**
 	 * Loads a map from a given file and returns it.
 	 * Note that attributes not used by this game are ignored and not loaded.
 	 * This means that those attributes will not be present when saving a map from this game.
 	 * 
+	 * The file is streamed and tokenized in place, and the borders are collected as ID pairs and added to the map in one go at the end.
+	 * 
 	 * @param p_file The file to load from (including the extension).
 	 * @return Whether a valid map was loaded.
 	 */
@@ -27,50 +42,61 @@ public class MapReaderWriter {
 		 * Reference on what a .map file entails:
 		 * http://domination.sourceforge.net/makemaps.shtml
 		 */
-		try {
-			Scanner l_reader = new Scanner(p_file);
+		try (MapFileReader l_reader = new MapFileReader(p_file)) {
 			String l_section = "";
-			while (l_reader.hasNextLine()) {
-				String l_line = l_reader.nextLine();
-				
+			int[] l_borderFirstIDs = new int[INITIAL_BORDER_CAPACITY];
+			int[] l_borderSecondIDs = new int[INITIAL_BORDER_CAPACITY];
+			int l_numBorders = 0;
+			while (l_reader.nextLine()) {
 				// Ignore comments, which start with: ;
-				if (!l_line.startsWith(";")) {
-					
-					if (l_line.startsWith("[")) {
-						l_section = l_line.substring(1, l_line.length() - 1);
-					}
-					else {
-						String l_splitLine[] = l_line.split(" ");
-						switch(l_section) {
-							case "continents":
-								if (l_splitLine.length >= 2) {
-									l_map.createContinent(l_splitLine[0], Integer.parseInt(l_splitLine[1]), l_map.getNumContinents() + 1);
-								}
-								break;
-							case "countries":
-								if (l_splitLine.length >= 3) {
-									l_map.createTerritory(Integer.parseInt(l_splitLine[0]), l_splitLine[1], Integer.parseInt(l_splitLine[2]));
-								}
-								break;
-							case "borders":
-								if (l_splitLine.length >= 2) {
-									for (int l_idx = 1; l_idx < l_splitLine.length; l_idx++) {
-										l_map.addBorder(Integer.parseInt(l_splitLine[0]), Integer.parseInt(l_splitLine[l_idx]));
-									}
-								}
-								break;
-							default:
-								// Do nothing. We do not care about any other sections.
+				if (l_reader.lineStartsWith(';') || l_reader.isLineBlank()) {
+					continue;
+				}
+				if (l_reader.lineStartsWith('[')) {
+					String l_line = l_reader.getLine();
+					l_section = l_line.substring(1, l_line.length() - 1);
+					continue;
+				}
+				switch(l_section) {
+					case "continents":
+						// continent-name number-of-bonus-armies colour
+						String l_continentName = l_reader.nextToken(' ');
+						if (l_reader.hasNextToken(' ')) {
+							l_map.createContinent(l_continentName, l_reader.nextInt(' '), l_map.getNumContinents() + 1);
+						}
+						break;
+					case "countries":
+						// territory-ID territory-name continent-ID coordinate coordinate
+						int l_territoryID = l_reader.nextInt(' ');
+						String l_territoryName = l_reader.nextToken(' ');
+						if (l_reader.hasNextToken(' ')) {
+							l_map.createTerritory(l_territoryID, l_territoryName, l_reader.nextInt(' '));
+						}
+						break;
+					case "borders":
+						// territory-ID followed by the IDs of every bordering territory.
+						int l_firstID = l_reader.nextInt(' ');
+						while (l_reader.hasNextToken(' ')) {
+							if (l_numBorders == l_borderFirstIDs.length) {
+								l_borderFirstIDs = Arrays.copyOf(l_borderFirstIDs, l_numBorders * 2);
+								l_borderSecondIDs = Arrays.copyOf(l_borderSecondIDs, l_numBorders * 2);
+							}
+							l_borderFirstIDs[l_numBorders] = l_firstID;
+							l_borderSecondIDs[l_numBorders] = l_reader.nextInt(' ');
+							l_numBorders++;
 						}
-					}
+						break;
+					default:
+						// Do nothing. We do not care about any other sections.
 				}
 			}
-			l_reader.close();
+			// Build the borders all at once, which also freezes the map.
+			l_map.addBorders(l_borderFirstIDs, l_borderSecondIDs, l_numBorders);
 			if (l_map.validateMap()) {
 				return l_map;
 			}
 		} 
-		catch (FileNotFoundException | NumberFormatException l_exception) {
+		catch (IOException | NumberFormatException l_exception) {
 			// Do nothing; we'll just return null below.
 		}
 		// Return null if we did not load a valid map by this point.
@@ -103,13 +129,13 @@ public class MapReaderWriter {
 			}
 			
 			// Begin by writing a comment containing the file name and that it was made by this program.
-			FileWriter l_writer = new FileWriter(p_fileName);
+			BufferedWriter l_writer = new BufferedWriter(new FileWriter(p_fileName));
 			l_writer.write("; map: " + p_fileName + "\n; created in Risque, a game project for Concordia University's SOEN 6441 class\n\n");
 			
 			/**
-			 *  Write the contents of the map as text to the file.
+			 *  Stream the contents of the map as text to the file.
 			 */
-			l_writer.write(p_map.toText());
+			p_map.writeText(l_writer);
 			
 			/**
 			 * Close the file writer once we have finished.
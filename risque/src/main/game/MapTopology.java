@@ -0,0 +1,319 @@
+package main.game;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The immutable part of a map: the names of its continents and territories, which continent each territory is on,
+ * the continents' bonuses and the borders. It holds no game state at all, so a single copy can be read from any number
+ * of threads and shared by every game played on the map.
+ *
+ * Games still play on a {@link Map}, created from the topology with {@link #createMap()}. Each map needs its own
+ * territory and continent objects, since players and orders refer to them, so creating one is still O(T + C) small objects.
+ * Everything else is shared: the border index, the names and the name index. The connectivity index is not built at all,
+ * since the topology was validated once when it was built, so the maps it creates are known to be valid without checking again.
+ * The armies and owners of the territories live in each game's {@link GameState}.
+ * @author Kyle
+ */
+public final class MapTopology {
+	/**
+	 * The name of each continent, indexed by continent ID - 1.
+	 */
+	private final String[] d_continentNames;
+
+	/**
+	 * The bonus armies of each continent, indexed by continent ID - 1.
+	 */
+	private final int[] d_continentBonuses;
+
+	/**
+	 * The number of territories on each continent, indexed by continent ID - 1.
+	 */
+	private final int[] d_numContinentTerritories;
+
+	/**
+	 * The name of each territory, indexed by territory ID - 1.
+	 */
+	private final String[] d_territoryNames;
+
+	/**
+	 * The name of each territory with spaces instead of underscores, indexed by territory ID - 1.
+	 */
+	private final String[] d_territoryDisplayNames;
+
+	/**
+	 * Maps both the name and the display name of every territory to its ID. If several territories share a name, the lowest ID wins.
+	 */
+	private final HashMap<String, Integer> d_territoryIDs;
+
+	/**
+	 * The continent ID of each territory, indexed by territory ID - 1.
+	 */
+	private final int[] d_territoryContinentIDs;
+
+	/**
+	 * The CSR border offsets, as in a frozen {@link Map}.
+	 */
+	private final int[] d_borderOffsets;
+
+	/**
+	 * The CSR border targets (territory IDs - 1), sorted per territory.
+	 */
+	private final int[] d_borderTargets;
+
+	/**
+	 * Copies the topology of a valid map.
+	 * @param p_map The map. It is frozen, if it was not already.
+	 */
+	private MapTopology(Map p_map) {
+		p_map.freeze();
+		int l_numContinents = p_map.getNumContinents();
+		d_continentNames = new String[l_numContinents];
+		d_continentBonuses = new int[l_numContinents];
+		d_numContinentTerritories = new int[l_numContinents];
+		for (int l_cID = 1; l_cID <= l_numContinents; l_cID++) {
+			Continent l_continent = p_map.getContinent(l_cID);
+			d_continentNames[l_cID - 1] = l_continent.getName();
+			d_continentBonuses[l_cID - 1] = l_continent.getBonusArmies();
+			d_numContinentTerritories[l_cID - 1] = p_map.getNumContinentTerritories(l_continent);
+		}
+		int l_numTerritories = p_map.getNumTerritories();
+		d_territoryNames = new String[l_numTerritories];
+		d_territoryDisplayNames = new String[l_numTerritories];
+		d_territoryIDs = new HashMap<>();
+		d_territoryContinentIDs = new int[l_numTerritories];
+		for (int l_tID = 1; l_tID <= l_numTerritories; l_tID++) {
+			Territory l_territory = p_map.getTerritory(l_tID);
+			d_territoryNames[l_tID - 1] = l_territory.getName();
+			d_territoryDisplayNames[l_tID - 1] = l_territory.getDisplayName();
+			d_territoryIDs.putIfAbsent(l_territory.getName(), l_tID);
+			d_territoryIDs.putIfAbsent(l_territory.getDisplayName(), l_tID);
+			d_territoryContinentIDs[l_tID - 1] = p_map.getContinentID(l_territory.getContinent());
+		}
+		// Copied, so that nothing done to the map later can reach the topology.
+		d_borderOffsets = p_map.d_borderOffsets.clone();
+		d_borderTargets = p_map.d_borderTargets.clone();
+	}
+
+	/**
+	 * Builds the shareable topology of a map. Later changes to the map do not affect the topology.
+	 * The map keeps the topology until it is next edited, so asking again for the same map is O(1).
+	 * @param p_map The map, which must be valid.
+	 * @return The topology.
+	 * @throws IllegalArgumentException if the map is not valid.
+	 */
+	public static MapTopology of(Map p_map) {
+		if (p_map.getTopology() != null) {
+			return p_map.getTopology();
+		}
+		if (!p_map.validateMap()) {
+			throw new IllegalArgumentException("Only a valid map can be shared.");
+		}
+		MapTopology l_topology = new MapTopology(p_map);
+		p_map.setTopology(l_topology);
+		return l_topology;
+	}
+
+	/**
+	 * Loads a map file of any supported format and builds its topology.
+	 * @param p_fileName The name of the map file.
+	 * @return The topology, or null if the file could not be loaded or is not a valid map.
+	 */
+	public static MapTopology loadFromFile(String p_fileName) {
+		File l_file = new File(p_fileName);
+		if (!l_file.exists()) {
+			return null;
+		}
+		Map l_map = StartupPhase.getMapReader(l_file).loadFromFile(l_file);
+		return l_map != null && l_map.validateMap() ? new MapTopology(l_map) : null;
+	}
+
+	/**
+	 * Creates a new map with this topology, e.g. for one game. Its borders, names and name index are shared with the topology.
+	 * Editing the map is allowed, and only ever changes that map.
+	 * @return The new map, which is frozen and valid.
+	 */
+	public Map createMap() {
+		return new Map(this, d_borderOffsets, d_borderTargets);
+	}
+
+	/**
+	 * Gets the number of continents.
+	 * @return The number of continents.
+	 */
+	public int getNumContinents() {
+		return d_continentNames.length;
+	}
+
+	/**
+	 * Gets the name of a continent.
+	 * @param p_continentID The continent's ID.
+	 * @return The name.
+	 */
+	public String getContinentName(int p_continentID) {
+		return d_continentNames[p_continentID - 1];
+	}
+
+	/**
+	 * Gets the bonus armies for controlling a continent.
+	 * @param p_continentID The continent's ID.
+	 * @return The number of bonus armies.
+	 */
+	public int getContinentBonus(int p_continentID) {
+		return d_continentBonuses[p_continentID - 1];
+	}
+
+	/**
+	 * Gets the number of territories on a continent.
+	 * @param p_continentID The continent's ID.
+	 * @return The number of territories.
+	 */
+	public int getNumContinentTerritories(int p_continentID) {
+		return d_numContinentTerritories[p_continentID - 1];
+	}
+
+	/**
+	 * Gets the number of territories.
+	 * @return The number of territories.
+	 */
+	public int getNumTerritories() {
+		return d_territoryNames.length;
+	}
+
+	/**
+	 * Gets the name of a territory.
+	 * @param p_territoryID The territory's ID.
+	 * @return The name.
+	 */
+	public String getTerritoryName(int p_territoryID) {
+		return d_territoryNames[p_territoryID - 1];
+	}
+
+	/**
+	 * Gets the name of a territory with spaces instead of underscores.
+	 * @param p_territoryID The territory's ID.
+	 * @return The display name.
+	 */
+	public String getTerritoryDisplayName(int p_territoryID) {
+		return d_territoryDisplayNames[p_territoryID - 1];
+	}
+
+	/**
+	 * Finds a territory by its name or display name.
+	 * @param p_name The name.
+	 * @return The lowest ID of a territory with that name, or 0 if there is none.
+	 */
+	public int getTerritoryID(String p_name) {
+		Integer l_tID = d_territoryIDs.get(p_name);
+		return l_tID != null ? l_tID : 0;
+	}
+
+	/**
+	 * Gets the ID of the continent a territory is on.
+	 * @param p_territoryID The territory's ID.
+	 * @return The continent's ID.
+	 */
+	public int getTerritoryContinentID(int p_territoryID) {
+		return d_territoryContinentIDs[p_territoryID - 1];
+	}
+
+	/**
+	 * Gets the number of territories bordering a territory.
+	 * @param p_territoryID The territory's ID.
+	 * @return The number of neighbours.
+	 */
+	public int getNumNeighbours(int p_territoryID) {
+		return d_borderOffsets[p_territoryID] - d_borderOffsets[p_territoryID - 1];
+	}
+
+	/**
+	 * Gets the ID of one of a territory's neighbours. Neighbours are sorted by ID.
+	 * @param p_territoryID The territory's ID.
+	 * @param p_neighbourIdx The index of the neighbour, from 0 to the number of neighbours - 1.
+	 * @return The neighbour's ID.
+	 */
+	public int getNeighbourID(int p_territoryID, int p_neighbourIdx) {
+		return d_borderTargets[d_borderOffsets[p_territoryID - 1] + p_neighbourIdx] + 1;
+	}
+
+	/**
+	 * Checks whether two territories border each other.
+	 * @param p_firstID The first territory's ID.
+	 * @param p_secondID The second territory's ID.
+	 * @return True if they share a border.
+	 */
+	public boolean doesBorderExist(int p_firstID, int p_secondID) {
+		return Arrays.binarySearch(d_borderTargets, d_borderOffsets[p_firstID - 1], d_borderOffsets[p_firstID], p_secondID - 1) >= 0;
+	}
+
+	/**
+	 * Writes the topology compactly, e.g. into a saved game: the continents' names and bonuses,
+	 * the territories' names and continents, then each territory's neighbours. Numbers are varints.
+	 * @param p_out The stream to write to.
+	 * @throws IOException if the topology could not be written.
+	 */
+	void writeTo(DataOutputStream p_out) throws IOException {
+		GameJournal.writeVarLong(p_out, d_continentNames.length);
+		for (int l_cIdx = 0; l_cIdx < d_continentNames.length; l_cIdx++) {
+			GameJournal.writeString(p_out, d_continentNames[l_cIdx]);
+			GameJournal.writeVarLong(p_out, d_continentBonuses[l_cIdx]);
+		}
+		GameJournal.writeVarLong(p_out, d_territoryNames.length);
+		for (int l_tIdx = 0; l_tIdx < d_territoryNames.length; l_tIdx++) {
+			GameJournal.writeString(p_out, d_territoryNames[l_tIdx]);
+			GameJournal.writeVarLong(p_out, d_territoryContinentIDs[l_tIdx]);
+		}
+		for (int l_tIdx = 0; l_tIdx < d_territoryNames.length; l_tIdx++) {
+			GameJournal.writeVarLong(p_out, d_borderOffsets[l_tIdx + 1] - d_borderOffsets[l_tIdx]);
+			for (int l_bIdx = d_borderOffsets[l_tIdx]; l_bIdx < d_borderOffsets[l_tIdx + 1]; l_bIdx++) {
+				GameJournal.writeVarLong(p_out, d_borderTargets[l_bIdx]);
+			}
+		}
+	}
+
+	/**
+	 * Reads a topology written by {@link #writeTo(DataOutputStream)}.
+	 * @param p_in The stream to read from.
+	 * @return The topology.
+	 * @throws IOException if the topology could not be read or is not a valid map.
+	 */
+	static MapTopology readFrom(DataInputStream p_in) throws IOException {
+		Map l_map = new Map();
+		int l_numContinents = GameJournal.readVarInt(p_in);
+		for (int l_cID = 1; l_cID <= l_numContinents; l_cID++) {
+			if (!l_map.createContinent(GameJournal.readString(p_in), GameJournal.readVarInt(p_in), l_cID)) {
+				throw new IOException("Invalid continent " + l_cID + ".");
+			}
+		}
+		int l_numTerritories = GameJournal.readVarInt(p_in);
+		for (int l_tID = 1; l_tID <= l_numTerritories; l_tID++) {
+			if (!l_map.createTerritory(l_tID, GameJournal.readString(p_in), GameJournal.readVarInt(p_in))) {
+				throw new IOException("Invalid territory " + l_tID + ".");
+			}
+		}
+		int[] l_offsets = new int[l_numTerritories + 1];
+		int[] l_targets = new int[16];
+		for (int l_tIdx = 0; l_tIdx < l_numTerritories; l_tIdx++) {
+			int l_numNeighbours = GameJournal.readVarInt(p_in);
+			l_offsets[l_tIdx + 1] = l_offsets[l_tIdx] + l_numNeighbours;
+			if (l_offsets[l_tIdx + 1] < 0) {
+				throw new IOException("Too many borders.");
+			}
+			if (l_offsets[l_tIdx + 1] > l_targets.length) {
+				l_targets = Arrays.copyOf(l_targets, Math.max(l_offsets[l_tIdx + 1], 2 * l_targets.length));
+			}
+			for (int l_bIdx = l_offsets[l_tIdx]; l_bIdx < l_offsets[l_tIdx + 1]; l_bIdx++) {
+				l_targets[l_bIdx] = GameJournal.readVarInt(p_in);
+			}
+		}
+		l_targets = Arrays.copyOf(l_targets, l_offsets[l_numTerritories]);
+		if (!l_map.setBorders(l_offsets, l_targets) || !l_map.validateMap()) {
+			throw new IOException("Not a valid map.");
+		}
+		return new MapTopology(l_map);
+	}
+}
@@ -35,4 +35,12 @@ public class NegotiateOrder extends Order {
 		getIssuer().addCard("diplomacy");
 		return false;
 	}
+	
+	/**
+	 * Gets the player to negotiate a cease-fire with.
+	 * @return The player.
+	 */
+	public Player getAlly() {
+		return d_tempAlly;
+	}
 }
@@ -50,9 +50,9 @@ public abstract class Phase {
 	/**
 	 * Saves a map to a file name (if valid in this game phase).
 	 * @param p_mapName The name for the new map.
-	 * @param p_saveAsConquest Should the map be saved using the conquest map adapter?
+	 * @param p_format The format to save in: conquest if it starts with a c, binary if it starts with a b, otherwise domination.
 	 */
-	public void saveMap(String p_mapName, boolean p_saveAsConquest) {
+	public void saveMap(String p_mapName, String p_format) {
 		printInvalidCommandMessage("saveMap");
 	}
 
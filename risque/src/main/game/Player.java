@@ -2,6 +2,8 @@ package main.game;
 
 import main.controller.PlayerStrategy;
 
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 
 /**
@@ -30,14 +32,21 @@ public class Player extends GameEntity {
 	private String d_name;
 	
 	/**
-	 * The territories this player owns.
+	 * The territories this player owns, in the order they were gained.
+	 * A hash set, since ownership is checked for nearly every order.
 	 */
-	private LinkedList<Territory> d_ownedTerritories;
+	private LinkedHashSet<Territory> d_ownedTerritories;
+	
+	/**
+	 * The number of territories this player owns on each continent, indexed by continent ID - 1.
+	 * Compared against the size of the continent to tell when it is controlled, without scanning it.
+	 */
+	private int[] d_numContinentTerritoriesOwned;
 	
 	/**
 	 * The continents this player owns/controls.
 	 */
-	private LinkedList<Continent> d_ownedContinents;
+	private LinkedHashSet<Continent> d_ownedContinents;
 	
 	/**
 	 * All the player's issued but unexecuted orders.
@@ -69,8 +78,9 @@ public class Player extends GameEntity {
 	public Player(String p_name) {
 		setName(p_name);
 		setNumUndeployedArmies(0);
-		d_ownedTerritories = new LinkedList<>();
-		d_ownedContinents = new LinkedList<>();
+		d_ownedTerritories = new LinkedHashSet<>();
+		d_numContinentTerritoriesOwned = new int[0];
+		d_ownedContinents = new LinkedHashSet<>();
 		d_orders = new LinkedList<>();
 		d_cards = new LinkedList<>();
 		d_allies = new LinkedList<>();
@@ -122,8 +132,9 @@ public class Player extends GameEntity {
 	 * @return True if the player did not own this territory before, otherwise false.
 	 */
 	public boolean addOwnedTerritory(Territory p_territory) {
-		if (p_territory != null && !d_ownedTerritories.contains(p_territory)) {
-			return d_ownedTerritories.add(p_territory);
+		if (p_territory != null && d_ownedTerritories.add(p_territory)) {
+			changeNumContinentTerritoriesOwned(p_territory.getContinent(), 1);
+			return true;
 		}
 		return false;
 	}
@@ -134,19 +145,56 @@ public class Player extends GameEntity {
 	 * @return True if the player owned this territory and it was removed, otherwise false.
 	 */
 	public boolean removeOwnedTerritory(Territory p_territory) {
-		if (p_territory != null) {
-			return d_ownedTerritories.remove(p_territory);
+		if (p_territory != null && d_ownedTerritories.remove(p_territory)) {
+			changeNumContinentTerritoriesOwned(p_territory.getContinent(), -1);
+			return true;
 		}
 		return false;
 	}
 	
+	/**
+	 * Gets the number of territories this player owns on a continent.
+	 * @param p_continent The continent.
+	 * @return The number of territories owned there, or 0 if the continent is not on a map.
+	 */
+	public int getNumTerritoriesOwned(Continent p_continent) {
+		int l_cIdx = getContinentIndex(p_continent);
+		return l_cIdx >= 0 && l_cIdx < d_numContinentTerritoriesOwned.length ? d_numContinentTerritoriesOwned[l_cIdx] : 0;
+	}
+	
+	/**
+	 * Updates the count of territories owned on a continent.
+	 * @param p_continent The continent of the territory that was gained or lost.
+	 * @param p_change The change in the count.
+	 */
+	private void changeNumContinentTerritoriesOwned(Continent p_continent, int p_change) {
+		int l_cIdx = getContinentIndex(p_continent);
+		if (l_cIdx >= 0) {
+			if (l_cIdx >= d_numContinentTerritoriesOwned.length) {
+				d_numContinentTerritoriesOwned = Arrays.copyOf(d_numContinentTerritoriesOwned, Math.max(l_cIdx + 1, p_continent.getMap().getNumContinents()));
+			}
+			d_numContinentTerritoriesOwned[l_cIdx] += p_change;
+		}
+	}
+	
+	/**
+	 * Gets the index of a continent on its map.
+	 * @param p_continent The continent.
+	 * @return The continent's ID - 1, or -1 if it is not on a map.
+	 */
+	private static int getContinentIndex(Continent p_continent) {
+		if (p_continent == null || p_continent.getMap() == null) {
+			return -1;
+		}
+		return p_continent.getMap().getContinentID(p_continent) - 1;
+	}
+	
 	/**
 	 * Returns a shallow copy of the territories this player owns.
 	 * @return The list of owned territories.
 	 */
-	@SuppressWarnings("unchecked")
 	public LinkedList<Territory> getOwnedTerritories() {
-		return (LinkedList<Territory>)d_ownedTerritories.clone();
+		return new LinkedList<Territory>(d_ownedTerritories);
 	}
 	
 	/**
@@ -164,7 +212,7 @@ public class Player extends GameEntity {
 	 * @return True if the player did not own this continent before, otherwise false.
 	 */
 	public boolean addOwnedContinent(Continent p_continent) {
-		if (p_continent != null && !d_ownedContinents.contains(p_continent)) {
+		if (p_continent != null) {
 			return d_ownedContinents.add(p_continent);
 		}
 		return false;
@@ -186,9 +234,20 @@ public class Player extends GameEntity {
 	 * Returns a shallow copy of the continents this player owns.
 	 * @return The list of owned continents.
 	 */
-	@SuppressWarnings("unchecked")
 	public LinkedList<Continent> getOwnedContinents() {
-		return (LinkedList<Continent>)d_ownedContinents.clone();
+		return new LinkedList<Continent>(d_ownedContinents);
+	}
+	
+	/**
+	 * Gets the total bonus armies from every continent this player controls, without copying the list of continents.
+	 * @return The bonus armies.
+	 */
+	public int getContinentBonusArmies() {
+		int l_bonusArmies = 0;
+		for (Continent l_continent : d_ownedContinents) {
+			l_bonusArmies += l_continent.getBonusArmies();
+		}
+		return l_bonusArmies;
 	}
 	
 	/**
@@ -238,7 +297,23 @@ public class Player extends GameEntity {
 		if (p_order != null) {
 			p_order.setIssuer(this);
 		}
-		return d_orders.add(p_order);
+		if (!d_orders.add(p_order)) {
+			return false;
+		}
+		if (p_order != null && getEngine() != null && getEngine().isReporting(GameEvent.Type.ORDER_ISSUED)) {
+			getEngine().publishEvent(new GameEvent.OrderIssued(p_order));
+		}
+		return true;
+	}
+	
+	/**
+	 * Puts back an order the player issued before the game was saved. Unlike {@link #issueOrder(Order)}, nothing is published,
+	 * since the order is not being issued again.
+	 * @param p_order The order.
+	 */
+	void restoreOrder(Order p_order) {
+		p_order.setIssuer(this);
+		d_orders.add(p_order);
 	}
 	
 	/**
@@ -261,6 +336,14 @@ public class Player extends GameEntity {
 		return !d_orders.isEmpty();
 	}
 	
+	/**
+	 * Gets a shallow copy of the orders left to execute.
+	 * @return The orders, in the order they will be executed.
+	 */
+	public LinkedList<Order> getOrders() {
+		return new LinkedList<Order>(d_orders);
+	}
+	
 	/**
 	 * Does the player have a specific card?
 	 * @param p_card The card (string) to check.
@@ -288,6 +371,14 @@ public class Player extends GameEntity {
 		return d_cards.remove(p_card.toLowerCase());
 	}
 	
+	/**
+	 * Gets a shallow copy of the player's cards.
+	 * @return The cards, in the order they were received.
+	 */
+	public LinkedList<String> getCards() {
+		return new LinkedList<String>(d_cards);
+	}
+	
 	/**
 	 * Is this player allied with this player?
 	 * @param p_player The player to check.
@@ -324,6 +415,14 @@ public class Player extends GameEntity {
 		return false;
 	}
 	
+	/**
+	 * Gets a shallow copy of the player's allies.
+	 * @return The allies.
+	 */
+	public LinkedList<Player> getAllies() {
+		return new LinkedList<Player>(d_allies);
+	}
+	
 	/**
 	 * Gets rid of all this player's allies.
 	 */
@@ -362,7 +461,13 @@ public class Player extends GameEntity {
 	 */
 	public void notifyTurnStart() {
 		if (isAIPlayer()) {
-			d_strategy.onNotifyTurn();
+			// Let the engine run the turn, so a long run of AI turns does not nest on the stack.
+			if (d_engine != null) {
+				d_engine.runAction(d_strategy::onNotifyTurn);
+			}
+			else {
+				d_strategy.onNotifyTurn();
+			}
 		}
 		else {
 			d_engine.broadcastMessage("It is now " + getName() + "\'s turn.");
@@ -0,0 +1,174 @@
+package main.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Plays whole games between AI players without a console, a log file or any observers, e.g. for regression runs of the strategies.
+ * With nobody observing the engine, game messages are never even built, so the time goes into playing the game.
+ *
+ * Since AI turns and phase changes all run through the engine's action queue, assigning territories plays the entire game
+ * before returning, at constant stack depth.
+ *
+ * The map file is only loaded once. Every game plays on its own map created from the shared {@link MapTopology},
+ * so a simulation can run many games at once from different threads.
+ * @author Kyle
+ */
+public class Simulation {
+	/**
+	 * The name of the map file to play on.
+	 */
+	private String d_mapName;
+
+	/**
+	 * The topology of the map, or null if the map could not be loaded.
+	 */
+	private MapTopology d_topology;
+
+	/**
+	 * The names of the players. Each must start with the name of a strategy, e.g. "Aggressive1".
+	 */
+	private List<String> d_playerNames;
+
+	/**
+	 * The number of turns after which a game is a draw.
+	 */
+	private int d_maxTurns;
+
+	/**
+	 * Sets up a simulation.
+	 * @param p_mapName The name of the map file to play on.
+	 * @param p_playerNames The names of the players. Each must start with the name of a strategy, e.g. "Aggressive1".
+	 * @param p_maxTurns The number of turns after which a game is a draw.
+	 */
+	public Simulation(String p_mapName, List<String> p_playerNames, int p_maxTurns) {
+		this(p_mapName, MapTopology.loadFromFile(p_mapName), p_playerNames, p_maxTurns);
+	}
+
+	/**
+	 * Sets up a simulation on a map that has already been loaded.
+	 * @param p_topology The topology of the map to play on.
+	 * @param p_playerNames The names of the players. Each must start with the name of a strategy, e.g. "Aggressive1".
+	 * @param p_maxTurns The number of turns after which a game is a draw.
+	 */
+	public Simulation(MapTopology p_topology, List<String> p_playerNames, int p_maxTurns) {
+		this(null, p_topology, p_playerNames, p_maxTurns);
+	}
+
+	/**
+	 * Sets up a simulation.
+	 * @param p_mapName The name of the map file, if the map was loaded from one.
+	 * @param p_topology The topology of the map, or null if it could not be loaded.
+	 * @param p_playerNames The names of the players.
+	 * @param p_maxTurns The number of turns after which a game is a draw.
+	 */
+	private Simulation(String p_mapName, MapTopology p_topology, List<String> p_playerNames, int p_maxTurns) {
+		d_mapName = p_mapName;
+		d_topology = p_topology;
+		d_playerNames = new LinkedList<>(p_playerNames);
+		d_maxTurns = p_maxTurns;
+	}
+
+	/**
+	 * Plays one game on a fresh engine and map. This is safe to call from several threads at once.
+	 * @param p_seed The seed for the game's randomness; the same seed always plays out the same game.
+	 * @return The result of the game.
+	 * @throws IllegalArgumentException if the map could not be loaded or a player is not an AI player.
+	 */
+	public SimulationResult run(long p_seed) {
+		GameEngine l_engine = new GameEngine();
+		l_engine.setRandomSeed(p_seed);
+		l_engine.setMaxTurns(d_maxTurns);
+		if (d_topology == null) {
+			throw new IllegalArgumentException("The file \"" + d_mapName + "\" is not a valid map file.");
+		}
+		l_engine.setMap(d_topology.createMap());
+		for (String l_name : d_playerNames) {
+			l_engine.addPlayer(l_name);
+			Player l_player = l_engine.getPlayerByName(l_name);
+			if (l_player == null || !l_player.isAIPlayer()) {
+				throw new IllegalArgumentException("\"" + l_name + "\" does not name a strategy.");
+			}
+		}
+
+		// Record how many territories everyone holds at the start of each turn.
+		LinkedList<Player> l_players = l_engine.getPlayers();
+		ArrayList<int[]> l_territoryCounts = new ArrayList<>();
+		l_engine.addTurnListener(() -> {
+			int[] l_counts = new int[l_players.size()];
+			int l_idx = 0;
+			for (Player l_player : l_players) {
+				l_counts[l_idx++] = l_player.getNumTerritoriesOwned();
+			}
+			l_territoryCounts.add(l_counts);
+		});
+
+		l_engine.assignTerritories();
+
+		// The game is back in the startup phase once it has ended; if not, someone stopped issuing orders.
+		boolean l_isFinished = !l_engine.isGameInProgress();
+		String l_winnerName = null;
+		for (Player l_player : l_players) {
+			if (l_player.getNumTerritoriesOwned() > 0) {
+				if (l_winnerName != null) {
+					l_winnerName = null;
+					break;
+				}
+				l_winnerName = l_player.getName();
+			}
+		}
+		int[][] l_territoryCurves = new int[l_players.size()][l_territoryCounts.size()];
+		for (int l_turn = 0; l_turn < l_territoryCounts.size(); l_turn++) {
+			for (int l_idx = 0; l_idx < l_players.size(); l_idx++) {
+				l_territoryCurves[l_idx][l_turn] = l_territoryCounts.get(l_turn)[l_idx];
+			}
+		}
+		return new SimulationResult(l_isFinished ? l_winnerName : null, l_engine.getTurnNumber(), l_isFinished, l_territoryCurves);
+	}
+
+	/**
+	 * Plays a number of games in a row and prints how many each player won.
+	 * Usage: Simulation map numGames maxTurns seed player1 player2 [player3 ...]
+	 * Game i is played with seed + i, so any single game can be replayed.
+	 * @param args The program arguments, as above.
+	 */
+	public static void main(String[] args) {
+		if (args.length < 6) {
+			System.out.println("Usage: Simulation map numGames maxTurns seed player1 player2 [player3 ...]");
+			return;
+		}
+		List<String> l_playerNames = Arrays.asList(Arrays.copyOfRange(args, 4, args.length));
+		Simulation l_simulation = new Simulation(args[0], l_playerNames, Integer.parseInt(args[2]));
+		int l_numGames = Integer.parseInt(args[1]);
+		long l_seed = Long.parseLong(args[3]);
+
+		int[] l_numWins = new int[l_playerNames.size()];
+		int l_numDraws = 0;
+		int l_numStalled = 0;
+		long l_totalTurns = 0;
+		long l_startTime = System.nanoTime();
+		for (int l_game = 0; l_game < l_numGames; l_game++) {
+			SimulationResult l_result = l_simulation.run(l_seed + l_game);
+			l_totalTurns += l_result.getNumTurns();
+			if (!l_result.isFinished()) {
+				l_numStalled++;
+			}
+			else if (l_result.getWinnerName() == null) {
+				l_numDraws++;
+			}
+			else {
+				l_numWins[l_playerNames.indexOf(l_result.getWinnerName())]++;
+			}
+		}
+		double l_seconds = (System.nanoTime() - l_startTime) / 1e9;
+
+		for (int l_idx = 0; l_idx < l_playerNames.size(); l_idx++) {
+			System.out.println(l_playerNames.get(l_idx) + ": " + l_numWins[l_idx] + " wins");
+		}
+		System.out.println("Draws: " + l_numDraws + ", stalled: " + l_numStalled);
+		System.out.println("Average turns: " + (l_numGames > 0 ? (double)l_totalTurns / l_numGames : 0.0));
+		System.out.println("Games per second: " + (l_seconds > 0 ? l_numGames / l_seconds : 0.0));
+	}
+}
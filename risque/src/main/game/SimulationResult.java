@@ -0,0 +1,75 @@
+package main.game;
+
+/**
+ * The outcome of one simulated game.
+ * @author Kyle
+ */
+public class SimulationResult {
+	/**
+	 * The name of the winning player, or null if nobody won.
+	 */
+	private String d_winnerName;
+
+	/**
+	 * The number of turns the game lasted.
+	 */
+	private int d_numTurns;
+
+	/**
+	 * Whether the game finished, with a winner or by reaching the turn limit.
+	 */
+	private boolean d_isFinished;
+
+	/**
+	 * The number of territories each player owned at the start of each turn, by player index and then by turn (from turn 1).
+	 */
+	private int[][] d_territoryCurves;
+
+	/**
+	 * Creates the result of a game.
+	 * @param p_winnerName The name of the winning player, or null if nobody won.
+	 * @param p_numTurns The number of turns the game lasted.
+	 * @param p_isFinished Whether the game finished, rather than stalling on a player that did not act.
+	 * @param p_territoryCurves The number of territories each player owned at the start of each turn, by player index and then by turn.
+	 */
+	public SimulationResult(String p_winnerName, int p_numTurns, boolean p_isFinished, int[][] p_territoryCurves) {
+		d_winnerName = p_winnerName;
+		d_numTurns = p_numTurns;
+		d_isFinished = p_isFinished;
+		d_territoryCurves = p_territoryCurves;
+	}
+
+	/**
+	 * Gets the name of the winner.
+	 * @return The winner's name, or null if the game was a draw or did not finish.
+	 */
+	public String getWinnerName() {
+		return d_winnerName;
+	}
+
+	/**
+	 * Gets the number of turns the game lasted.
+	 * @return The number of turns.
+	 */
+	public int getNumTurns() {
+		return d_numTurns;
+	}
+
+	/**
+	 * Did the game finish? A game stalls if a player never issues their orders, e.g. a human player or an unfinished strategy.
+	 * @return True if the game ended with a winner or by reaching the turn limit.
+	 */
+	public boolean isFinished() {
+		return d_isFinished;
+	}
+
+	/**
+	 * Gets how many territories a player owned at the start of a turn.
+	 * @param p_playerIdx The index of the player, in the order they were added.
+	 * @param p_turn The turn, from 1 to the number of turns.
+	 * @return The number of territories owned.
+	 */
+	public int getNumTerritoriesOwned(int p_playerIdx, int p_turn) {
+		return d_territoryCurves[p_playerIdx][p_turn - 1];
+	}
+}
@@ -5,6 +5,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.LinkedList;
 
 /**
  * Represents the start of the game, before gameplay has begun.
@@ -28,25 +29,12 @@ public class StartupPhase extends Phase {
 	public void loadMap(String p_mapName) {
 		File l_file = new File(p_mapName);
 		if (l_file.exists()) {
-			boolean l_shouldUseConquestAdapter = false;
-			// If the map begins with [map], assume it's a conquest map file and load the proper reader instead.
-			try {
-				BufferedReader l_bufferedReader = new BufferedReader(new FileReader(l_file));
-				String firstLine = l_bufferedReader.readLine();
-				if (firstLine.startsWith("[")) {
-					l_shouldUseConquestAdapter = true;
-				}
-				l_bufferedReader.close();
-			}
-			catch (IOException e) {
-				// Do nothing.
-			}
-			MapReaderWriter l_mapReader = l_shouldUseConquestAdapter ?  new Adapter(new Adaptee()) : new MapReaderWriter();
+			MapReaderWriter l_mapReader = getMapReader(l_file);
 			Map l_map = d_engine.onCreateEntity(l_mapReader.loadFromFile(l_file));
 			// If we have a map, tell the game engine.
 			if (l_map != null) {
 				d_engine.setMap(l_map);
-				d_engine.broadcastMessage((l_shouldUseConquestAdapter ? "Conquest" : "Domination") + " map \"" + p_mapName + "\" successfully loaded!");
+				d_engine.broadcastMessage(l_mapReader.getFormatName() + " map \"" + p_mapName + "\" successfully loaded!");
 			} 
 			else {
 				d_engine.broadcastMessage("The file \"" + p_mapName + "\" is not a valid map file.");
@@ -57,22 +45,62 @@ public class StartupPhase extends Phase {
 		}
 	}
 	
+	/**
+	 * Picks the reader for an existing map file based on how the file starts.
+	 * Binary maps start with their magic bytes, and conquest maps start with a section such as [map].
+	 * Anything else is read as a domination map.
+	 * @param p_file The map file.
+	 * @return The reader to load it with.
+	 */
+	static MapReaderWriter getMapReader(File p_file) {
+		if (BinaryMapReaderWriter.isBinaryMapFile(p_file)) {
+			return new BinaryMapReaderWriter();
+		}
+		boolean l_shouldUseConquestAdapter = false;
+		// If the map begins with [map], assume it's a conquest map file and load the proper reader instead.
+		try {
+			BufferedReader l_bufferedReader = new BufferedReader(new FileReader(p_file));
+			String l_firstLine = l_bufferedReader.readLine();
+			if (l_firstLine != null && l_firstLine.startsWith("[")) {
+				l_shouldUseConquestAdapter = true;
+			}
+			l_bufferedReader.close();
+		}
+		catch (IOException e) {
+			// Do nothing.
+		}
+		return l_shouldUseConquestAdapter ?  new Adapter(new Adaptee()) : new MapReaderWriter();
+	}
+	
 	/**
 	 * Saves a map to a file name.
 	 * @param p_mapName The name for the new map.
-	 * @param p_saveAsConquest Should the map be saved using the conquest map adapter?
+	 * @param p_format The format to save in: conquest if it starts with a c, binary if it starts with a b, otherwise domination.
 	 */
 	@Override
-	public void saveMap(String p_mapName, boolean p_saveAsConquest) {
+	public void saveMap(String p_mapName, String p_format) {
 		Map l_map = d_engine.getMap();
 		if (l_map != null) {
-			if (l_map.validateMap()) {
-				MapReaderWriter l_mapReader = p_saveAsConquest ?  new Adapter(new Adaptee()) : new MapReaderWriter();
+			LinkedList<String> l_errors = l_map.getValidationErrors();
+			if (l_errors.isEmpty()) {
+				MapReaderWriter l_mapReader;
+				if (p_format.startsWith("c")) {
+					l_mapReader = new Adapter(new Adaptee());
+				}
+				else if (p_format.startsWith("b")) {
+					l_mapReader = new BinaryMapReaderWriter();
+				}
+				else {
+					l_mapReader = new MapReaderWriter();
+				}
 				l_mapReader.saveToFile(d_engine.getMap(), p_mapName);
 				d_engine.broadcastMessage("Map saved to: " + p_mapName);
 			}
 			else {
 				d_engine.broadcastMessage("The map must be valid to save it.");
+				for (String l_error : l_errors) {
+					d_engine.broadcastMessage("  " + l_error);
+				}
 			}
 		}
 		else {
@@ -82,11 +110,20 @@ public class StartupPhase extends Phase {
 	
 	/**
 	 * Prints the map file to the screen.
+	 * Large maps are sent as several messages of whole lines.
 	 */
 	@Override
 	public void showMap() {
 		if (d_engine.getMap() != null) {
-			d_engine.broadcastMessage(d_engine.getMap().toText());
+			// Stream the map out in chunks of lines rather than building it as one string first.
+			BroadcastWriter l_writer = new BroadcastWriter(d_engine);
+			try {
+				d_engine.getMap().writeText(l_writer);
+			}
+			catch (IOException l_exception) {
+				// Broadcasting never fails, so there is nothing to do here.
+			}
+			l_writer.close();
 		}
 		else {
 			d_engine.broadcastMessage("There is no map to show.");
@@ -117,25 +154,12 @@ public class StartupPhase extends Phase {
 		boolean l_shouldCreateNewMap = true;
 		File l_file = new File(p_mapName);
 		if (l_file.exists()) {
-			boolean l_shouldUseConquestAdapter = false;
-			// If the map begins with [map], assume it's a conquest map file and load the proper reader instead.
-			try {
-				BufferedReader l_bufferedReader = new BufferedReader(new FileReader(l_file));
-				String firstLine = l_bufferedReader.readLine();
-				if (firstLine.startsWith("[")) {
-					l_shouldUseConquestAdapter = true;
-				}
-				l_bufferedReader.close();
-			}
-			catch (IOException e) {
-				// Do nothing.
-			}
-			MapReaderWriter l_mapReader = l_shouldUseConquestAdapter ?  new Adapter(new Adaptee()) : new MapReaderWriter();
+			MapReaderWriter l_mapReader = getMapReader(l_file);
 			Map l_map = d_engine.onCreateEntity(l_mapReader.loadFromFile(l_file));
 			// If we have a map, tell the game engine.
 			if (l_map != null) {
 				d_engine.setMap(l_map);
-				d_engine.broadcastMessage((l_shouldUseConquestAdapter ? "Conquest" : "Domination") + " map \"" + p_mapName + "\" already exists and was successfully loaded!");
+				d_engine.broadcastMessage(l_mapReader.getFormatName() + " map \"" + p_mapName + "\" already exists and was successfully loaded!");
 				l_shouldCreateNewMap = false;
 			} 
 		}
@@ -229,6 +253,7 @@ public class StartupPhase extends Phase {
 			d_engine.changeTerritoryOwner(d_engine.getMap().getTerritory(l_idx), d_engine.getPlayerByID(l_idx % d_engine.getNumPlayers()));
 		}
 		d_engine.broadcastMessage("Territories have been assigned and the game has started. Good luck!");
+		d_engine.setTurnNumber(0);
 		d_engine.setPhase(new IssueOrderPhase(this.d_engine));
 	}
 }
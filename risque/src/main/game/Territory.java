@@ -10,11 +10,19 @@ public class Territory extends MapEntity {
 	 */
 	private String d_name;
 	
+	/**
+	 * The name with underscores replaced by spaces, computed once whenever the name changes.
+	 */
+	private String d_displayName;
+	
 	/**
 	 * The continent this territory belongs to.
 	 */
 	private Continent d_continent;
 	
+	/**
+	 * The number of armies on this territory while its map is not being played on; otherwise they are in the engine's {@link GameState}.
+	 */
 	private int d_armies;
 	
 	/**
@@ -28,6 +36,19 @@ public class Territory extends MapEntity {
 		d_armies = 0;
 	}
 	
+	/**
+	 * Constructs a new territory whose display name is already known, e.g. from a shared {@link MapTopology}.
+	 * @param p_name The human-readable name of the territory.
+	 * @param p_displayName The name with spaces instead of underscores.
+	 * @param p_continent The continent this territory is part of.
+	 */
+	Territory(String p_name, String p_displayName, Continent p_continent) {
+		d_name = p_name;
+		d_displayName = p_displayName;
+		d_continent = p_continent;
+		d_armies = 0;
+	}
+	
 	/**
 	 * Constructs a new territory with a human name and no continent.
 	 * @param p_name The human-readable name of the territory.
@@ -49,7 +70,7 @@ public class Territory extends MapEntity {
 	 * @return The human-readable name of this territory.
 	 */
 	public String getDisplayName() {
-		return d_name.replace('_', ' ');
+		return d_displayName;
 	}
 	
 	/**
@@ -58,6 +79,10 @@ public class Territory extends MapEntity {
 	 */
 	public void setName(String p_name) {
 		d_name = p_name;
+		d_displayName = p_name.replace('_', ' ');
+		if (getMap() != null) {
+			getMap().onTerritoryRenamed();
+		}
 	}
 	
 	/**
@@ -71,9 +96,10 @@ public class Territory extends MapEntity {
 	/**
 	 * Sets our continent to a different one.
 	 * Note: this can be assigned null, but a map will not be considered valid if it is null.
+	 * This is only for territories that are not on a map yet, since a map indexes its territories by continent.
 	 * @param p_continent The new continent to belong to.
 	 */
-	public void setContinent(Continent p_continent) {
+	void setContinent(Continent p_continent) {
 		d_continent = p_continent;
 	}
 	
@@ -82,7 +108,8 @@ public class Territory extends MapEntity {
 	 * @return The number of armies on this territory.
 	 */
 	public int getNumArmies() {
-		return d_armies;
+		GameState l_state = getGameState();
+		return l_state != null ? l_state.getNumArmies(getIndex() + 1) : d_armies;
 	}
 	
 	/**
@@ -90,6 +117,27 @@ public class Territory extends MapEntity {
 	 * @param p_armies The new number of armies.
 	 */
 	public void setNumArmies(int p_armies) {
-		d_armies = Math.max(0, p_armies);
+		GameState l_state = getGameState();
+		if (l_state != null) {
+			l_state.setNumArmies(getIndex() + 1, p_armies);
+		}
+		else {
+			d_armies = Math.max(0, p_armies);
+		}
+	}
+	
+	/**
+	 * Gets the game state that holds this territory's armies, which is the engine's if our map is the one being played on.
+	 * @return The game state, or null if the armies are stored on the territory itself.
+	 */
+	private GameState getGameState() {
+		Map l_map = getMap();
+		if (l_map != null && getIndex() >= 0) {
+			GameEngine l_engine = l_map.getEngine();
+			if (l_engine != null && l_engine.getMap() == l_map) {
+				return l_engine.getState();
+			}
+		}
+		return null;
 	}
 }
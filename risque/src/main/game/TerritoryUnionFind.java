@@ -0,0 +1,134 @@
+package main.game;
+
+import java.util.Arrays;
+
+/**
+ * A union-find (disjoint set) structure over territory indices, used to track which territories are connected.
+ * Uses union by size and path halving, so every operation is practically O(1).
+ * @author Kyle
+ */
+class TerritoryUnionFind {
+	/**
+	 * The parent of each element. An element is a root if it is its own parent.
+	 */
+	private int[] d_parents;
+
+	/**
+	 * The size of the set rooted at each element. Only meaningful for roots.
+	 */
+	private int[] d_sizes;
+
+	/**
+	 * The number of elements.
+	 */
+	private int d_numElements;
+
+	/**
+	 * The number of disjoint sets.
+	 */
+	private int d_numSets;
+
+	/**
+	 * Creates the structure with every element in its own set.
+	 * @param p_numElements The number of elements.
+	 */
+	TerritoryUnionFind(int p_numElements) {
+		d_parents = new int[Math.max(1, p_numElements)];
+		d_sizes = new int[d_parents.length];
+		reset(p_numElements);
+	}
+
+	/**
+	 * Puts every element back in its own set, growing if needed.
+	 * @param p_numElements The new number of elements.
+	 */
+	void reset(int p_numElements) {
+		if (p_numElements > d_parents.length) {
+			d_parents = new int[p_numElements];
+			d_sizes = new int[p_numElements];
+		}
+		for (int l_idx = 0; l_idx < p_numElements; l_idx++) {
+			d_parents[l_idx] = l_idx;
+		}
+		Arrays.fill(d_sizes, 0, p_numElements, 1);
+		d_numElements = p_numElements;
+		d_numSets = p_numElements;
+	}
+
+	/**
+	 * Adds a new element in its own set at the end.
+	 * @return The index of the new element.
+	 */
+	int add() {
+		if (d_numElements == d_parents.length) {
+			d_parents = Arrays.copyOf(d_parents, d_numElements * 2);
+			d_sizes = Arrays.copyOf(d_sizes, d_numElements * 2);
+		}
+		d_parents[d_numElements] = d_numElements;
+		d_sizes[d_numElements] = 1;
+		d_numSets++;
+		return d_numElements++;
+	}
+
+	/**
+	 * Gets the number of elements.
+	 * @return The number of elements.
+	 */
+	int getNumElements() {
+		return d_numElements;
+	}
+
+	/**
+	 * Gets the number of disjoint sets.
+	 * @return The number of sets.
+	 */
+	int getNumSets() {
+		return d_numSets;
+	}
+
+	/**
+	 * Finds the representative (root) of an element's set.
+	 * @param p_element The element.
+	 * @return The root of its set.
+	 */
+	int find(int p_element) {
+		int l_element = p_element;
+		while (d_parents[l_element] != l_element) {
+			d_parents[l_element] = d_parents[d_parents[l_element]];
+			l_element = d_parents[l_element];
+		}
+		return l_element;
+	}
+
+	/**
+	 * Merges the sets of two elements.
+	 * @param p_first The first element.
+	 * @param p_second The second element.
+	 * @return True if the elements were in different sets before.
+	 */
+	boolean union(int p_first, int p_second) {
+		int l_firstRoot = find(p_first);
+		int l_secondRoot = find(p_second);
+		if (l_firstRoot == l_secondRoot) {
+			return false;
+		}
+		if (d_sizes[l_firstRoot] < d_sizes[l_secondRoot]) {
+			int l_temp = l_firstRoot;
+			l_firstRoot = l_secondRoot;
+			l_secondRoot = l_temp;
+		}
+		d_parents[l_secondRoot] = l_firstRoot;
+		d_sizes[l_firstRoot] += d_sizes[l_secondRoot];
+		d_numSets--;
+		return true;
+	}
+
+	/**
+	 * Gets the size of the set an element belongs to.
+	 * @param p_element The element.
+	 * @return The number of elements in its set.
+	 */
+	int getSetSize(int p_element) {
+		return d_sizes[find(p_element)];
+	}
+}
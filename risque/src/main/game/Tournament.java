@@ -0,0 +1,268 @@
+package main.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Plays a tournament between AI strategies: a number of games on each of a list of maps, every game between all of the players.
+ *
+ * Games run in parallel on a work-stealing pool, one task per game. Every game has its own engine, its own game state
+ * and its own randomness seeded from the tournament's seed, so games share nothing mutable, and the same seed gives the same results
+ * however many threads are used. Each map file is loaded once, and all of its games share its immutable {@link MapTopology};
+ * the only other thing games share is the table of combat odds. Both are safe to use from any thread.
+ * @author Kyle
+ */
+public class Tournament {
+	/**
+	 * How many columns the average territory curves are summarised in.
+	 */
+	private static final int NUM_CURVE_COLUMNS = 10;
+
+	/**
+	 * The names of the map files to play on.
+	 */
+	private List<String> d_mapNames;
+
+	/**
+	 * The names of the players, each starting with the name of a strategy.
+	 */
+	private List<String> d_playerNames;
+
+	/**
+	 * The number of games to play on each map.
+	 */
+	private int d_numGames;
+
+	/**
+	 * The number of turns after which a game is a draw.
+	 */
+	private int d_maxTurns;
+
+	/**
+	 * The seed the seed of each game is derived from.
+	 */
+	private long d_seed;
+
+	/**
+	 * The results of the games, by map and then by game, once the tournament has been played.
+	 */
+	private SimulationResult[][] d_results;
+
+	/**
+	 * Sets up a tournament.
+	 * @param p_mapNames The names of the map files to play on.
+	 * @param p_playerNames The names of the players. Each must start with the name of a strategy, e.g. "Aggressive1".
+	 * @param p_numGames The number of games to play on each map.
+	 * @param p_maxTurns The number of turns after which a game is a draw.
+	 * @param p_seed The seed for the whole tournament.
+	 */
+	public Tournament(List<String> p_mapNames, List<String> p_playerNames, int p_numGames, int p_maxTurns, long p_seed) {
+		d_mapNames = new ArrayList<>(p_mapNames);
+		d_playerNames = new ArrayList<>(p_playerNames);
+		d_numGames = p_numGames;
+		d_maxTurns = p_maxTurns;
+		d_seed = p_seed;
+		d_results = null;
+	}
+
+	/**
+	 * Plays every game of the tournament.
+	 * @param p_numThreads The number of games to play at once.
+	 * @return The results of the games, by map and then by game.
+	 * @throws IllegalArgumentException if a map could not be loaded or a player is not an AI player.
+	 */
+	public SimulationResult[][] run(int p_numThreads) {
+		SimulationResult[][] l_results = new SimulationResult[d_mapNames.size()][d_numGames];
+		ForkJoinPool l_pool = new ForkJoinPool(Math.max(1, p_numThreads));
+		try {
+			LinkedList<ForkJoinTask<?>> l_tasks = new LinkedList<>();
+			for (int l_mapIdx = 0; l_mapIdx < d_mapNames.size(); l_mapIdx++) {
+				Simulation l_simulation = new Simulation(d_mapNames.get(l_mapIdx), d_playerNames, d_maxTurns);
+				for (int l_game = 0; l_game < d_numGames; l_game++) {
+					int l_row = l_mapIdx;
+					int l_column = l_game;
+					// Each task only writes its own slot, and joining it makes the write visible here.
+					l_tasks.add(l_pool.submit(() -> {
+						l_results[l_row][l_column] = l_simulation.run(getGameSeed(l_row, l_column));
+					}));
+				}
+			}
+			for (ForkJoinTask<?> l_task : l_tasks) {
+				l_task.join();
+			}
+		}
+		finally {
+			l_pool.shutdown();
+		}
+		d_results = l_results;
+		return l_results;
+	}
+
+	/**
+	 * Gets the seed for one game, so that any game of the tournament can be replayed on its own with a {@link Simulation}.
+	 * @param p_mapIdx The index of the map.
+	 * @param p_game The index of the game on that map.
+	 * @return The game's seed.
+	 */
+	public long getGameSeed(int p_mapIdx, int p_game) {
+		return d_seed + (long)p_mapIdx * d_numGames + p_game;
+	}
+
+	/**
+	 * Summarises the results: the winner of every game by map, then each player's wins, the average game length,
+	 * and each player's average number of territories over the course of a game.
+	 * @return The summary table, or an empty string if the tournament has not been played.
+	 */
+	public String getSummary() {
+		if (d_results == null) {
+			return "";
+		}
+		StringBuilder l_summary = new StringBuilder();
+		int l_nameWidth = 8;
+		for (String l_name : d_playerNames) {
+			l_nameWidth = Math.max(l_nameWidth, l_name.length() + 2);
+		}
+		for (String l_name : d_mapNames) {
+			l_nameWidth = Math.max(l_nameWidth, l_name.length() + 2);
+		}
+
+		// The winner of every game.
+		appendCell(l_summary, "", l_nameWidth);
+		for (int l_game = 0; l_game < d_numGames; l_game++) {
+			appendCell(l_summary, "Game " + (l_game + 1), l_nameWidth);
+		}
+		l_summary.append('\n');
+		int[] l_numWins = new int[d_playerNames.size()];
+		int l_numDraws = 0;
+		int l_numStalled = 0;
+		long l_totalTurns = 0;
+		int l_maxTurns = 0;
+		for (int l_mapIdx = 0; l_mapIdx < d_mapNames.size(); l_mapIdx++) {
+			appendCell(l_summary, d_mapNames.get(l_mapIdx), l_nameWidth);
+			for (SimulationResult l_result : d_results[l_mapIdx]) {
+				String l_winner = l_result.getWinnerName();
+				appendCell(l_summary, l_winner != null ? l_winner : (l_result.isFinished() ? "Draw" : "Stalled"), l_nameWidth);
+				if (l_winner != null) {
+					l_numWins[d_playerNames.indexOf(l_winner)]++;
+				}
+				else if (l_result.isFinished()) {
+					l_numDraws++;
+				}
+				else {
+					l_numStalled++;
+				}
+				l_totalTurns += l_result.getNumTurns();
+				l_maxTurns = Math.max(l_maxTurns, l_result.getNumTurns());
+			}
+			l_summary.append('\n');
+		}
+
+		// The totals, and the average territory curves.
+		int l_numResults = d_mapNames.size() * d_numGames;
+		l_summary.append('\n');
+		appendCell(l_summary, "Player", l_nameWidth);
+		appendCell(l_summary, "Wins", 8);
+		int l_numColumns = Math.min(NUM_CURVE_COLUMNS, l_maxTurns);
+		for (int l_column = 1; l_column <= l_numColumns; l_column++) {
+			appendCell(l_summary, "T" + getCurveTurn(l_column, l_numColumns, l_maxTurns), 8);
+		}
+		l_summary.append('\n');
+		for (int l_playerIdx = 0; l_playerIdx < d_playerNames.size(); l_playerIdx++) {
+			appendCell(l_summary, d_playerNames.get(l_playerIdx), l_nameWidth);
+			appendCell(l_summary, Integer.toString(l_numWins[l_playerIdx]), 8);
+			for (int l_column = 1; l_column <= l_numColumns; l_column++) {
+				int l_turn = getCurveTurn(l_column, l_numColumns, l_maxTurns);
+				long l_total = 0;
+				for (SimulationResult[] l_mapResults : d_results) {
+					for (SimulationResult l_result : l_mapResults) {
+						// A game that ended early counts with the territories it ended on.
+						int l_numTurns = l_result.getNumTurns();
+						l_total += l_numTurns > 0 ? l_result.getNumTerritoriesOwned(l_playerIdx, Math.min(l_turn, l_numTurns)) : 0;
+					}
+				}
+				appendCell(l_summary, String.format("%.1f", l_numResults > 0 ? (double)l_total / l_numResults : 0.0), 8);
+			}
+			l_summary.append('\n');
+		}
+		l_summary.append("Draws: ").append(l_numDraws).append(", stalled: ").append(l_numStalled).append('\n');
+		l_summary.append(String.format("Average turns: %.1f", l_numResults > 0 ? (double)l_totalTurns / l_numResults : 0.0));
+		return l_summary.toString();
+	}
+
+	/**
+	 * Gets the turn shown in a column of the territory curves, spreading the columns evenly up to the longest game.
+	 * @param p_column The column, from 1.
+	 * @param p_numColumns The number of columns.
+	 * @param p_maxTurns The length of the longest game.
+	 * @return The turn.
+	 */
+	private static int getCurveTurn(int p_column, int p_numColumns, int p_maxTurns) {
+		return Math.max(1, (int)((long)p_maxTurns * p_column / p_numColumns));
+	}
+
+	/**
+	 * Appends a left-aligned cell of the summary table.
+	 * @param p_summary The summary being built.
+	 * @param p_text The cell's text.
+	 * @param p_width The width of the cell.
+	 */
+	private static void appendCell(StringBuilder p_summary, String p_text, int p_width) {
+		p_summary.append(p_text);
+		for (int l_idx = p_text.length(); l_idx < p_width; l_idx++) {
+			p_summary.append(' ');
+		}
+	}
+
+	/**
+	 * Plays a tournament and prints the summary.
+	 * Usage: Tournament -M map1,map2 -P player1,player2 -G numGames -D maxTurns [-S seed] [-T numThreads]
+	 * @param args The program arguments, as above.
+	 */
+	public static void main(String[] args) {
+		List<String> l_mapNames = new ArrayList<>();
+		List<String> l_playerNames = new ArrayList<>();
+		int l_numGames = 1;
+		int l_maxTurns = 100;
+		long l_seed = System.nanoTime();
+		int l_numThreads = Runtime.getRuntime().availableProcessors();
+		for (int l_idx = 0; l_idx + 1 < args.length; l_idx += 2) {
+			String l_value = args[l_idx + 1];
+			switch (args[l_idx].toUpperCase()) {
+				case "-M":
+					l_mapNames.addAll(Arrays.asList(l_value.split(",")));
+					break;
+				case "-P":
+					l_playerNames.addAll(Arrays.asList(l_value.split(",")));
+					break;
+				case "-G":
+					l_numGames = Integer.parseInt(l_value);
+					break;
+				case "-D":
+					l_maxTurns = Integer.parseInt(l_value);
+					break;
+				case "-S":
+					l_seed = Long.parseLong(l_value);
+					break;
+				case "-T":
+					l_numThreads = Integer.parseInt(l_value);
+					break;
+				default:
+					break;
+			}
+		}
+		if (l_mapNames.isEmpty() || l_playerNames.size() < 2) {
+			System.out.println("Usage: Tournament -M map1,map2 -P player1,player2 -G numGames -D maxTurns [-S seed] [-T numThreads]");
+			return;
+		}
+		Tournament l_tournament = new Tournament(l_mapNames, l_playerNames, l_numGames, l_maxTurns, l_seed);
+		long l_startTime = System.nanoTime();
+		l_tournament.run(l_numThreads);
+		double l_seconds = (System.nanoTime() - l_startTime) / 1e9;
+		System.out.println(l_tournament.getSummary());
+		System.out.println(String.format("Played %d games in %.2f s (seed %d).", l_mapNames.size() * l_numGames, l_seconds, l_seed));
+	}
+}
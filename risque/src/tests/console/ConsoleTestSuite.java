@@ -8,6 +8,6 @@ import org.junit.runners.Suite.SuiteClasses;
  * Suite to run all JUnit tests for the {@link main.console} package.
  */
 @RunWith(Suite.class)
-@SuiteClasses({ConsoleTest.class, InputHandlerTest.class, LogEntryBufferTest.class})
+@SuiteClasses({ConsoleTest.class, InputHandlerTest.class, LogEntryBufferTest.class, RollingLogWriterTest.class})
 public class ConsoleTestSuite {
 }
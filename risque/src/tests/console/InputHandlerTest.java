@@ -2,9 +2,15 @@ package tests.console;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
 import org.junit.Test;
 
+import main.console.Console;
 import main.console.InputHandler;
+import main.controller.Controller;
+import main.game.GameEngine;
 
 /**
  * Tests the {@link main.console.InputHandler} class.
@@ -20,4 +26,55 @@ public class InputHandlerTest {
 		assertNotNull(l_iHandler);
 	}
 
+	/**
+	 * Tests that typed commands call the controller methods they name, whatever their case,
+	 * and that commands with the wrong number or types of arguments do nothing.
+	 */
+	@Test
+	public void commandTableTest() {
+		GameEngine l_engine = new GameEngine();
+		Controller l_controller = new Controller(l_engine);
+		InputHandler l_iHandler = new InputHandler(new Console(l_engine, l_controller, false));
+		l_iHandler.runCommand("LoadMap Asia.map");
+		assertNotNull(l_engine.getMap());
+		l_iHandler.runCommand("gameplayer -add Kyle -add Fred");
+		assertEquals(2, l_engine.getNumPlayers());
+		l_iHandler.runCommand("assigncountries extra");
+		l_iHandler.runCommand("unknowncommand");
+		assertFalse(l_engine.isGameInProgress());
+		l_iHandler.runCommand("assigncountries");
+		assertTrue(l_engine.isGameInProgress());
+
+		int l_tID = l_engine.getMap().getTerritoryID(l_engine.getPlayerByName("Kyle").getOwnedTerritories().getFirst());
+		int l_numArmies = l_engine.getPlayerByName("Kyle").getNumUndeployedArmies();
+		l_iHandler.runCommand("deploy " + l_tID + " many");
+		assertEquals(l_numArmies, l_engine.getPlayerByName("Kyle").getNumUndeployedArmies());
+		l_iHandler.runCommand("deploy " + l_tID + " 1");
+		assertEquals(l_numArmies - 1, l_engine.getPlayerByName("Kyle").getNumUndeployedArmies());
+	}
+
+	/**
+	 * Tests that startup commands run on the input thread before anything is read from the console.
+	 */
+	@Test
+	public void startupCommandsTest() {
+		GameEngine l_engine = new GameEngine();
+		Controller l_controller = new Controller(l_engine);
+		InputHandler l_iHandler = new InputHandler(new Console(l_engine, l_controller, false), "loadmap Asia.map", "gameplayer -add Kyle -add Fred");
+		InputStream l_stdin = System.in;
+		System.setIn(new ByteArrayInputStream("gameplayer -remove Fred\n".getBytes()));
+		try {
+			l_iHandler.start();
+			l_iHandler.join();
+		}
+		catch (InterruptedException l_exception) {
+			fail(l_exception.getMessage());
+		}
+		finally {
+			System.setIn(l_stdin);
+		}
+		assertNotNull(l_engine.getMap());
+		assertEquals(1, l_engine.getNumPlayers());
+		assertNotNull(l_engine.getPlayerByName("Kyle"));
+	}
 }
@@ -2,9 +2,15 @@ package tests.console;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
 import org.junit.Test;
 
 import main.console.LogEntryBuffer;
+import main.console.LogEntryBuffer.OverflowPolicy;
 
 /**
  * Tests the {@link main.console.LogEntryBuffer} class.
@@ -20,4 +26,60 @@ public class LogEntryBufferTest {
 		assertNotNull(l_logEntry);
 	}
 	
+	/**
+	 * Tests that the asynchronous buffer loses nothing when it blocks, even when it is much smaller than the number of messages.
+	 * @throws IOException if the log file could not be created or read.
+	 */
+	@Test
+	public void blockingTest() throws IOException {
+		List<String> l_lines = writeMessages(OverflowPolicy.BLOCK, 10000);
+		assertEquals(10000, l_lines.size());
+		for (int l_idx = 0; l_idx < l_lines.size(); l_idx++) {
+			assertEquals("Message " + l_idx, l_lines.get(l_idx));
+		}
+	}
+	
+	/**
+	 * Tests that messages dropped or sampled away when the buffer is full are counted in the log, and the rest keep their order.
+	 * @throws IOException if the log file could not be created or read.
+	 */
+	@Test
+	public void overflowTest() throws IOException {
+		for (OverflowPolicy l_policy : new OverflowPolicy[] { OverflowPolicy.DROP, OverflowPolicy.SAMPLE }) {
+			List<String> l_lines = writeMessages(l_policy, 10000);
+			long l_numAccounted = 0;
+			int l_lastMessage = -1;
+			for (String l_line : l_lines) {
+				if (l_line.startsWith("[")) {
+					l_numAccounted += Long.parseLong(l_line.substring(1, l_line.indexOf(' ')));
+				}
+				else {
+					int l_message = Integer.parseInt(l_line.substring("Message ".length()));
+					assertTrue(l_message > l_lastMessage);
+					l_lastMessage = l_message;
+					l_numAccounted++;
+				}
+			}
+			assertEquals(10000, l_numAccounted);
+		}
+	}
+	
+	/**
+	 * Writes numbered messages through a small asynchronous buffer, then reads back the log.
+	 * @param p_policy The overflow policy.
+	 * @param p_numMessages The number of messages.
+	 * @return The lines of the log.
+	 * @throws IOException if the log file could not be created or read.
+	 */
+	private static List<String> writeMessages(OverflowPolicy p_policy, int p_numMessages) throws IOException {
+		File l_logFile = File.createTempFile("LogEntryBufferTest", ".log");
+		l_logFile.deleteOnExit();
+		LogEntryBuffer l_log = new LogEntryBuffer(null, l_logFile.getPath(), 16, p_policy);
+		assertTrue(l_log.wantsMessages());
+		for (int l_idx = 0; l_idx < p_numMessages; l_idx++) {
+			l_log.onAddMessage("Message " + l_idx);
+		}
+		l_log.onQuit();
+		return Files.readAllLines(l_logFile.toPath());
+	}
 }
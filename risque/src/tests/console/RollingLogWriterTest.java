@@ -0,0 +1,178 @@
+package tests.console;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import main.console.LogEntryBuffer;
+import main.console.RollingLogWriter;
+import main.game.GameEngine;
+import main.game.MapTopology;
+
+/**
+ * Tests the {@link main.console.RollingLogWriter} class.
+ */
+public class RollingLogWriterTest {
+
+	/**
+	 * Tests that a log split by size is compressed segment by segment, loses nothing, and can be opened at any turn.
+	 * @throws IOException if the log could not be written or read.
+	 */
+	@Test
+	public void sizeRotationTest() throws IOException {
+		String l_baseName = createBaseName();
+		RollingLogWriter l_writer = new RollingLogWriter(l_baseName, 200, 0);
+		for (int l_turn = 1; l_turn <= 10; l_turn++) {
+			l_writer.startTurn(l_turn);
+			for (int l_idx = 0; l_idx < 5; l_idx++) {
+				l_writer.write("Turn " + l_turn + " message " + l_idx + "\n");
+			}
+		}
+		assertTrue(l_writer.getSegment() > 1);
+		int l_numSegments = l_writer.getSegment();
+		l_writer.close();
+
+		// Every segment is compressed, and together they hold every message in order.
+		List<String> l_lines = new ArrayList<>();
+		for (int l_segment = 1; l_segment <= l_numSegments; l_segment++) {
+			String l_fileName = RollingLogWriter.getSegmentFileName(l_baseName, l_segment);
+			assertFalse(new File(l_fileName).exists());
+			l_lines.addAll(readCompressed(l_fileName + ".gz"));
+		}
+		assertEquals(50, l_lines.size());
+		assertEquals("Turn 1 message 0", l_lines.get(0));
+		assertEquals("Turn 10 message 4", l_lines.get(49));
+
+		for (int l_turn = 1; l_turn <= 10; l_turn++) {
+			try (BufferedReader l_reader = RollingLogWriter.openTurn(l_baseName, 1, l_turn)) {
+				assertEquals("Turn " + l_turn + " message 0", l_reader.readLine());
+			}
+		}
+		assertNull(RollingLogWriter.openTurn(l_baseName, 1, 11));
+	}
+
+	/**
+	 * Tests that a log split by turns starts a new segment every few turns.
+	 * @throws IOException if the log could not be written or read.
+	 */
+	@Test
+	public void turnRotationTest() throws IOException {
+		String l_baseName = createBaseName();
+		RollingLogWriter l_writer = new RollingLogWriter(l_baseName, 0, 3);
+		for (int l_turn = 1; l_turn <= 7; l_turn++) {
+			l_writer.startTurn(l_turn);
+			l_writer.write("Turn " + l_turn + "\n");
+		}
+		assertEquals(3, l_writer.getSegment());
+		l_writer.close();
+		List<String> l_index = Files.readAllLines(new File(RollingLogWriter.getIndexFileName(l_baseName)).toPath());
+		assertEquals("1 1 1 0", l_index.get(0));
+		assertEquals("1 4 2 0", l_index.get(3));
+		assertEquals("1 5 2 7", l_index.get(4));
+		assertEquals("1 7 3 0", l_index.get(6));
+	}
+
+	/**
+	 * Tests that only the latest segments are kept, and that the turns of each game are indexed apart.
+	 * @throws IOException if the log could not be written or read.
+	 */
+	@Test
+	public void retentionTest() throws IOException {
+		String l_baseName = createBaseName();
+		RollingLogWriter l_writer = new RollingLogWriter(l_baseName, 0, 2, 2);
+		for (int l_game = 1; l_game <= 2; l_game++) {
+			for (int l_turn = 1; l_turn <= 4; l_turn++) {
+				l_writer.startTurn(l_turn);
+				assertEquals(l_game, l_writer.getGame());
+				l_writer.write("Game " + l_game + " turn " + l_turn + "\n");
+			}
+		}
+		assertEquals(4, l_writer.getSegment());
+		l_writer.close();
+
+		for (int l_segment = 1; l_segment <= 2; l_segment++) {
+			String l_fileName = RollingLogWriter.getSegmentFileName(l_baseName, l_segment);
+			assertFalse(new File(l_fileName).exists());
+			assertFalse(new File(l_fileName + ".gz").exists());
+		}
+		for (int l_segment = 3; l_segment <= 4; l_segment++) {
+			assertTrue(new File(RollingLogWriter.getSegmentFileName(l_baseName, l_segment) + ".gz").exists());
+			assertFalse(new File(RollingLogWriter.getSegmentFileName(l_baseName, l_segment) + ".gz.tmp").exists());
+		}
+
+		// The first game's turns were in the deleted segments, and the second game's are not mixed up with them.
+		assertNull(RollingLogWriter.openTurn(l_baseName, 1, 3));
+		try (BufferedReader l_reader = RollingLogWriter.openTurn(l_baseName, 2, 3)) {
+			assertEquals("Game 2 turn 3", l_reader.readLine());
+		}
+	}
+
+	/**
+	 * Tests that a game logged asynchronously to a rolling log can be read back from the start of a turn.
+	 * @throws IOException if the log could not be written or read.
+	 */
+	@Test
+	public void gameLogTest() throws IOException {
+		String l_baseName = createBaseName();
+		GameEngine l_engine = new GameEngine();
+		l_engine.setRandomSeed(3);
+		l_engine.setMaxTurns(20);
+		l_engine.setMap(MapTopology.loadFromFile("Asia.map").createMap());
+		LogEntryBuffer l_log = new LogEntryBuffer(l_engine, new RollingLogWriter(l_baseName, 1024, 5), 32, LogEntryBuffer.OverflowPolicy.BLOCK);
+		l_engine.addPlayer("Aggressive1");
+		l_engine.addPlayer("Random2");
+		l_engine.assignTerritories();
+		l_log.onQuit();
+
+		try (BufferedReader l_reader = RollingLogWriter.openTurn(l_baseName, 1, 2)) {
+			assertNotNull(l_reader);
+			assertTrue(l_reader.readLine().contains("Armies to Deploy"));
+		}
+	}
+
+	/**
+	 * Creates a base name for a log in a new temporary folder, which is deleted on exit along with the log.
+	 * @return The base name.
+	 * @throws IOException if the folder could not be created.
+	 */
+	private static String createBaseName() throws IOException {
+		File l_folder = Files.createTempDirectory("RollingLogWriterTest").toFile();
+		l_folder.deleteOnExit();
+		String l_baseName = new File(l_folder, "test").getPath();
+		// Files are deleted in the reverse order they were registered, so register the log's files before the folder is deleted.
+		new File(RollingLogWriter.getIndexFileName(l_baseName)).deleteOnExit();
+		for (int l_segment = 1; l_segment <= 100; l_segment++) {
+			new File(RollingLogWriter.getSegmentFileName(l_baseName, l_segment) + ".gz").deleteOnExit();
+			new File(RollingLogWriter.getSegmentFileName(l_baseName, l_segment)).deleteOnExit();
+		}
+		return l_baseName;
+	}
+
+	/**
+	 * Reads the lines of a compressed file.
+	 * @param p_fileName The name of the file.
+	 * @return The lines.
+	 * @throws IOException if the file could not be read.
+	 */
+	private static List<String> readCompressed(String p_fileName) throws IOException {
+		List<String> l_lines = new ArrayList<>();
+		try (BufferedReader l_reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(p_fileName)), StandardCharsets.UTF_8))) {
+			String l_line;
+			while ((l_line = l_reader.readLine()) != null) {
+				l_lines.add(l_line);
+			}
+		}
+		return l_lines;
+	}
+}
@@ -2,9 +2,14 @@ package tests.game;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.io.IOException;
+
 import org.junit.Test;
 
 import main.game.Adaptee;
+import main.game.Map;
+import main.game.Territory;
 
 /**
  * Tests the {@link main.game.Adapter} class.
@@ -20,4 +25,45 @@ public class AdapteeTest {
 		assertNotNull(l_adaptee);
 	}
 	
+	/**
+	 * Tests that a conquest map loads with its neighbours resolved by name, including neighbours listed before they are defined.
+	 */
+	@Test
+	public void testLoadFromFile() {
+		Map l_map = new Adaptee().loadFromFile(new File("Asia.map"));
+		assertNotNull(l_map);
+		assertEquals(7, l_map.getNumContinents());
+		assertEquals(48, l_map.getNumTerritories());
+		Territory l_saudiArabia = l_map.getTerritory("Saudi Arabia");
+		assertNotNull(l_saudiArabia);
+		assertEquals("Saudi_Arabia", l_saudiArabia.getName());
+		// Jordan is defined after Saudi Arabia lists it as a neighbour.
+		assertTrue(l_map.doesBorderExist(l_saudiArabia, l_map.getTerritory("Jordan")));
+		assertTrue(l_map.doesBorderExist(l_map.getTerritory("Kuwait"), l_saudiArabia));
+		assertFalse(l_map.doesBorderExist(l_map.getTerritory("Yemen"), l_map.getTerritory("Kuwait")));
+	}
+	
+	/**
+	 * Tests that saving a conquest map and loading it again gives the same territories and borders.
+	 * @throws IOException if the temporary file could not be created.
+	 */
+	@Test
+	public void testSaveToFile() throws IOException {
+		Adaptee l_adaptee = new Adaptee();
+		Map l_map = l_adaptee.loadFromFile(new File("Asia.map"));
+		File l_savedFile = File.createTempFile("AdapteeTest", ".map");
+		l_savedFile.deleteOnExit();
+		assertTrue(l_adaptee.saveToFile(l_map, l_savedFile.getPath()));
+		
+		Map l_loadedMap = l_adaptee.loadFromFile(l_savedFile);
+		assertNotNull(l_loadedMap);
+		assertEquals(l_map.getNumContinents(), l_loadedMap.getNumContinents());
+		assertEquals(l_map.getNumTerritories(), l_loadedMap.getNumTerritories());
+		for (int l_first = 1; l_first <= l_map.getNumTerritories(); l_first++) {
+			assertEquals(l_map.getTerritory(l_first).getName(), l_loadedMap.getTerritory(l_first).getName());
+			for (int l_second = 1; l_second <= l_map.getNumTerritories(); l_second++) {
+				assertEquals(l_map.doesBorderExist(l_first, l_second), l_loadedMap.doesBorderExist(l_first, l_second));
+			}
+		}
+	}
 }
@@ -0,0 +1,77 @@
+package tests.game;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Test;
+
+import main.game.Adaptee;
+import main.game.BinaryMapReaderWriter;
+import main.game.Map;
+
+/**
+ * Tests the {@link main.game.BinaryMapReaderWriter} class.
+ */
+public class BinaryMapReaderWriterTest {
+	
+	/**
+	 * Tests that saving a map in the binary format and loading it again gives an identical map.
+	 * @throws IOException if the temporary file could not be created.
+	 */
+	@Test
+	public void saveLoadTest() throws IOException {
+		Map l_map = new Adaptee().loadFromFile(new File("Asia.map"));
+		File l_savedFile = File.createTempFile("BinaryMapReaderWriterTest", ".bmap");
+		l_savedFile.deleteOnExit();
+		BinaryMapReaderWriter l_binaryReader = new BinaryMapReaderWriter();
+		assertTrue(l_binaryReader.saveToFile(l_map, l_savedFile.getPath()));
+		assertTrue(BinaryMapReaderWriter.isBinaryMapFile(l_savedFile));
+		
+		Map l_loadedMap = l_binaryReader.loadFromFile(l_savedFile);
+		assertNotNull(l_loadedMap);
+		assertTrue(l_loadedMap.isFrozen());
+		assertEquals(l_map.getNumContinents(), l_loadedMap.getNumContinents());
+		for (int l_cID = 1; l_cID <= l_map.getNumContinents(); l_cID++) {
+			assertEquals(l_map.getContinent(l_cID).getName(), l_loadedMap.getContinent(l_cID).getName());
+			assertEquals(l_map.getContinent(l_cID).getBonusArmies(), l_loadedMap.getContinent(l_cID).getBonusArmies());
+		}
+		assertEquals(l_map.getNumTerritories(), l_loadedMap.getNumTerritories());
+		for (int l_first = 1; l_first <= l_map.getNumTerritories(); l_first++) {
+			assertEquals(l_map.getTerritory(l_first).getName(), l_loadedMap.getTerritory(l_first).getName());
+			assertEquals(l_map.getContinentID(l_map.getTerritory(l_first).getContinent()), l_loadedMap.getContinentID(l_loadedMap.getTerritory(l_first).getContinent()));
+			for (int l_second = 1; l_second <= l_map.getNumTerritories(); l_second++) {
+				assertEquals(l_map.doesBorderExist(l_first, l_second), l_loadedMap.doesBorderExist(l_first, l_second));
+			}
+		}
+		assertEquals(l_map.toText(), l_loadedMap.toText());
+	}
+	
+	/**
+	 * Tests that text maps are not mistaken for binary ones, and that damaged binary maps are rejected.
+	 * @throws IOException if the temporary file could not be created or changed.
+	 */
+	@Test
+	public void invalidFileTest() throws IOException {
+		BinaryMapReaderWriter l_binaryReader = new BinaryMapReaderWriter();
+		assertFalse(BinaryMapReaderWriter.isBinaryMapFile(new File("Asia.map")));
+		assertNull(l_binaryReader.loadFromFile(new File("Asia.map")));
+		
+		File l_savedFile = File.createTempFile("BinaryMapReaderWriterTest", ".bmap");
+		l_savedFile.deleteOnExit();
+		assertTrue(l_binaryReader.saveToFile(new Adaptee().loadFromFile(new File("Asia.map")), l_savedFile.getPath()));
+		try (RandomAccessFile l_file = new RandomAccessFile(l_savedFile, "rw")) {
+			// Point the last border at a territory that does not exist.
+			l_file.seek(l_file.length() - Integer.BYTES);
+			l_file.writeInt(1000);
+		}
+		assertNull(l_binaryReader.loadFromFile(l_savedFile));
+		
+		try (RandomAccessFile l_file = new RandomAccessFile(l_savedFile, "rw")) {
+			l_file.setLength(l_file.length() - 1);
+		}
+		assertNull(l_binaryReader.loadFromFile(l_savedFile));
+	}
+}
@@ -0,0 +1,109 @@
+package tests.game;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import main.game.BinomialSampler;
+
+/**
+ * Tests the {@link main.game.BinomialSampler} class.
+ */
+public class BinomialSamplerTest {
+	
+	/**
+	 * The number of draws for each goodness-of-fit test.
+	 */
+	private static final int NUM_SAMPLES = 200000;
+	
+	/**
+	 * Tests the edge cases, which do not need any randomness.
+	 */
+	@Test
+	public void edgeCaseTest() {
+		Random l_random = new Random(1);
+		assertEquals(0, BinomialSampler.sample(l_random::nextDouble, 0, 0.5));
+		assertEquals(0, BinomialSampler.sample(l_random::nextDouble, -5, 0.5));
+		assertEquals(0, BinomialSampler.sample(l_random::nextDouble, 100, 0.0));
+		assertEquals(100, BinomialSampler.sample(l_random::nextDouble, 100, 1.0));
+		for (int l_idx = 0; l_idx < 1000; l_idx++) {
+			int l_result = BinomialSampler.sample(l_random::nextDouble, 100000, 0.6);
+			assertTrue(l_result >= 0 && l_result <= 100000);
+		}
+	}
+	
+	/**
+	 * Tests the distribution for small armies, which use inversion.
+	 */
+	@Test
+	public void smallDistributionTest() {
+		assertDistribution(20, 0.7, 11);
+		assertDistribution(40, 0.6, 12);
+	}
+	
+	/**
+	 * Tests the distribution for large armies, which use BTPE, including draws far enough from the mode to use its squeeze.
+	 */
+	@Test
+	public void largeDistributionTest() {
+		assertDistribution(100, 0.6, 13);
+		assertDistribution(10000, 0.7, 14);
+	}
+	
+	/**
+	 * Draws many samples and checks them against the exact binomial probabilities with a chi-squared test.
+	 * Values are grouped into bins with enough expected draws for the test to hold.
+	 * The seed is fixed so the test is repeatable; the threshold is about five standard deviations above the expected statistic.
+	 * @param p_numTrials The number of trials.
+	 * @param p_chance The chance of success of each trial.
+	 * @param p_seed The random seed.
+	 */
+	private void assertDistribution(int p_numTrials, double p_chance, long p_seed) {
+		// Build the exact probabilities from the mode outwards with the ratio P(x + 1) / P(x), then normalize.
+		double[] l_probs = new double[p_numTrials + 1];
+		int l_mode = (int)Math.floor((p_numTrials + 1) * p_chance);
+		double l_ratio = p_chance / (1.0 - p_chance);
+		l_probs[l_mode] = 1.0;
+		for (int l_x = l_mode; l_x < p_numTrials; l_x++) {
+			l_probs[l_x + 1] = l_probs[l_x] * (p_numTrials - l_x) / (l_x + 1) * l_ratio;
+		}
+		for (int l_x = l_mode; l_x > 0; l_x--) {
+			l_probs[l_x - 1] = l_probs[l_x] * l_x / (p_numTrials - l_x + 1) / l_ratio;
+		}
+		double l_total = 0;
+		for (double l_prob : l_probs) {
+			l_total += l_prob;
+		}
+		
+		Random l_random = new Random(p_seed);
+		int[] l_counts = new int[p_numTrials + 1];
+		double l_sum = 0;
+		for (int l_idx = 0; l_idx < NUM_SAMPLES; l_idx++) {
+			int l_result = BinomialSampler.sample(l_random::nextDouble, p_numTrials, p_chance);
+			l_counts[l_result]++;
+			l_sum += l_result;
+		}
+		double l_mean = p_numTrials * p_chance;
+		double l_stdDev = Math.sqrt(l_mean * (1.0 - p_chance));
+		assertEquals(l_mean, l_sum / NUM_SAMPLES, 5 * l_stdDev / Math.sqrt(NUM_SAMPLES));
+		
+		double l_chiSquared = 0;
+		int l_numBins = 0;
+		double l_binExpected = 0;
+		int l_binCount = 0;
+		for (int l_x = 0; l_x <= p_numTrials; l_x++) {
+			l_binExpected += l_probs[l_x] / l_total * NUM_SAMPLES;
+			l_binCount += l_counts[l_x];
+			if (l_binExpected >= 20 || l_x == p_numTrials) {
+				l_chiSquared += (l_binCount - l_binExpected) * (l_binCount - l_binExpected) / Math.max(l_binExpected, 1e-9);
+				l_numBins++;
+				l_binExpected = 0;
+				l_binCount = 0;
+			}
+		}
+		int l_degrees = l_numBins - 1;
+		assertTrue("chi-squared " + l_chiSquared + " with " + l_degrees + " degrees of freedom", l_chiSquared < l_degrees + 5 * Math.sqrt(2.0 * l_degrees));
+	}
+}
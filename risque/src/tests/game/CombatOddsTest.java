@@ -0,0 +1,100 @@
+package tests.game;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import main.game.AdvanceOrder;
+import main.game.CombatOdds;
+
+/**
+ * Tests the {@link main.game.CombatOdds} class.
+ */
+public class CombatOddsTest {
+
+	/**
+	 * Checks the odds against every outcome of small attacks, worked out by brute force.
+	 */
+	@Test
+	public void smallAttacksTest() {
+		CombatOdds l_odds = new CombatOdds(8);
+		for (int l_numAttackers = 0; l_numAttackers <= 6; l_numAttackers++) {
+			for (int l_numDefenders = 0; l_numDefenders <= 6; l_numDefenders++) {
+				double l_winChance = 0.0;
+				double l_attackersLeft = 0.0;
+				double l_defendersLeft = 0.0;
+				for (int l_attackerKills = 0; l_attackerKills <= l_numAttackers; l_attackerKills++) {
+					for (int l_defenderKills = 0; l_defenderKills <= l_numDefenders; l_defenderKills++) {
+						double l_prob = binomial(l_numAttackers, l_attackerKills, AdvanceOrder.ATTACKER_KILL_CHANCE)
+								* binomial(l_numDefenders, l_defenderKills, AdvanceOrder.DEFENDER_KILL_CHANCE);
+						int l_defenders = l_numDefenders - Math.min(l_attackerKills, l_numDefenders);
+						int l_attackers = l_numAttackers - Math.min(l_defenderKills, l_numAttackers);
+						l_winChance += l_defenders <= 0 ? l_prob : 0.0;
+						l_attackersLeft += l_prob * l_attackers;
+						l_defendersLeft += l_prob * l_defenders;
+					}
+				}
+				assertEquals(l_winChance, l_odds.getWinChance(l_numAttackers, l_numDefenders), 1e-9);
+				assertEquals(l_attackersLeft, l_odds.getExpectedSurvivingAttackers(l_numAttackers, l_numDefenders), 1e-9);
+				assertEquals(l_defendersLeft, l_odds.getExpectedSurvivingDefenders(l_numAttackers, l_numDefenders), 1e-9);
+			}
+		}
+	}
+
+	/**
+	 * Tests that armies beyond the memoised range get the same odds as memoised ones, and that large odds behave sensibly.
+	 */
+	@Test
+	public void largeAttacksTest() {
+		CombatOdds l_small = new CombatOdds(10);
+		CombatOdds l_large = new CombatOdds(200);
+		assertEquals(l_large.getWinChance(150, 80), l_small.getWinChance(150, 80), 1e-12);
+		assertEquals(l_large.getExpectedSurvivingAttackers(150, 80), l_small.getExpectedSurvivingAttackers(150, 80), 1e-12);
+		// 1000 attackers kill 600 defenders on average, so 500 defenders almost surely fall and 700 almost surely hold.
+		assertEquals(1.0, l_small.getWinChance(1000, 500), 1e-9);
+		assertEquals(0.0, l_small.getWinChance(1000, 700), 1e-9);
+		assertEquals(1000 - AdvanceOrder.DEFENDER_KILL_CHANCE * 500.0, l_small.getExpectedSurvivingAttackers(1000, 500), 1e-6);
+	}
+
+	/**
+	 * Tests that a saved table loads with the same odds.
+	 * @throws IOException if the temporary file could not be created.
+	 */
+	@Test
+	public void saveAndLoadTest() throws IOException {
+		CombatOdds l_odds = new CombatOdds(40);
+		File l_savedFile = File.createTempFile("CombatOddsTest", ".odds");
+		l_savedFile.deleteOnExit();
+		assertTrue(l_odds.saveToFile(l_savedFile.getPath()));
+
+		CombatOdds l_loaded = CombatOdds.loadFromFile(l_savedFile);
+		assertNotNull(l_loaded);
+		assertEquals(40, l_loaded.getMaxArmies());
+		for (int l_numAttackers = 0; l_numAttackers <= 40; l_numAttackers += 7) {
+			for (int l_numDefenders = 0; l_numDefenders <= 40; l_numDefenders += 5) {
+				assertEquals(l_odds.getWinChance(l_numAttackers, l_numDefenders), l_loaded.getWinChance(l_numAttackers, l_numDefenders), 0.0);
+				assertEquals(l_odds.getExpectedSurvivingAttackers(l_numAttackers, l_numDefenders), l_loaded.getExpectedSurvivingAttackers(l_numAttackers, l_numDefenders), 0.0);
+				assertEquals(l_odds.getExpectedSurvivingDefenders(l_numAttackers, l_numDefenders), l_loaded.getExpectedSurvivingDefenders(l_numAttackers, l_numDefenders), 0.0);
+			}
+		}
+		assertNull(CombatOdds.loadFromFile(new File("Asia.map")));
+	}
+
+	/**
+	 * The chance of exactly k successes in n trials.
+	 * @param p_numTrials The number of trials, n.
+	 * @param p_numSuccesses The number of successes, k.
+	 * @param p_chance The chance of each success.
+	 * @return The probability.
+	 */
+	private static double binomial(int p_numTrials, int p_numSuccesses, double p_chance) {
+		double l_choose = 1.0;
+		for (int l_idx = 1; l_idx <= p_numSuccesses; l_idx++) {
+			l_choose = l_choose * (p_numTrials - p_numSuccesses + l_idx) / l_idx;
+		}
+		return l_choose * Math.pow(p_chance, p_numSuccesses) * Math.pow(1.0 - p_chance, p_numTrials - p_numSuccesses);
+	}
+}
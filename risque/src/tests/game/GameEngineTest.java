@@ -9,7 +9,10 @@ import org.junit.Before;
 import org.junit.Test;
 
 import main.game.GameEngine;
+import main.game.GameObserver;
 import main.game.Map;
+import main.game.Player;
+import main.game.Territory;
 
 /**
  * Tests the {@link main.game.GameEngine} class.
@@ -113,4 +116,102 @@ public class GameEngineTest {
 		assertNotNull(d_engine.getPlayerByID(0));
 	}
 	
+	/**
+	 * Tests that territory ownership follows changeTerritoryOwner(), including making a territory neutral.
+	 */
+	@Test
+	public void changeTerritoryOwnerTest() {
+		Map l_testMap = new Map();
+		assertTrue(l_testMap.createContinent(1, 5));
+		assertTrue(l_testMap.createTerritory(1, "Alpha", 1));
+		assertTrue(l_testMap.createTerritory(2, "Beta", 1));
+		d_engine.setMap(l_testMap);
+		d_engine.addPlayer("Mansajan");
+		d_engine.addPlayer("Kyle");
+		Player l_first = d_engine.getPlayerByID(0);
+		Player l_second = d_engine.getPlayerByID(1);
+		Territory l_alpha = l_testMap.getTerritory(1);
+		Territory l_beta = l_testMap.getTerritory(2);
+		assertNull(d_engine.getTerritoryOwner(l_alpha));
+		
+		d_engine.changeTerritoryOwner(l_alpha, l_first);
+		d_engine.changeTerritoryOwner(l_beta, l_first);
+		assertSame(l_first, d_engine.getTerritoryOwner(l_alpha));
+		assertTrue(l_first.ownsContinent(l_testMap.getContinent(1)));
+		
+		d_engine.changeTerritoryOwner(l_beta, l_second);
+		assertSame(l_second, d_engine.getTerritoryOwner(l_beta));
+		assertFalse(l_first.ownsTerritory(l_beta));
+		assertFalse(l_first.ownsContinent(l_testMap.getContinent(1)));
+		
+		d_engine.changeTerritoryOwner(l_beta, null);
+		assertNull(d_engine.getTerritoryOwner(l_beta));
+		assertEquals(0, l_second.getNumTerritoriesOwned());
+		
+		// Territories that are not on the map have no owner.
+		assertNull(d_engine.getTerritoryOwner(new Territory("Nowhere")));
+	}
+	
+	/**
+	 * Tests that actions requested from inside other actions are queued rather than nested,
+	 * so even a million chained actions run in order without overflowing the stack.
+	 */
+	@Test
+	public void runActionTest() {
+		StringBuilder l_order = new StringBuilder();
+		d_engine.runAction(() -> {
+			d_engine.runAction(() -> l_order.append("b"));
+			l_order.append("a");
+		});
+		assertEquals("ab", l_order.toString());
+		
+		int[] l_numRun = { 0 };
+		Runnable[] l_chain = new Runnable[1];
+		l_chain[0] = () -> {
+			if (++l_numRun[0] < 1000000) {
+				d_engine.runAction(l_chain[0]);
+			}
+		};
+		d_engine.runAction(l_chain[0]);
+		assertEquals(1000000, l_numRun[0]);
+	}
+	
+	/**
+	 * Tests that lazily built messages are only built when an observer wants them, and then only once.
+	 */
+	@Test
+	public void lazyBroadcastTest() {
+		int[] l_numBuilt = { 0 };
+		d_engine.broadcastMessage(() -> "Unheard " + ++l_numBuilt[0]);
+		assertEquals(0, l_numBuilt[0]);
+		
+		StringBuilder l_received = new StringBuilder();
+		boolean[] l_wantsMessages = { false };
+		GameObserver l_observer = new GameObserver() {
+			@Override
+			public void onAddMessage(String p_message) {
+				l_received.append(p_message).append(';');
+			}
+			
+			@Override
+			public boolean wantsMessages() {
+				return l_wantsMessages[0];
+			}
+			
+			@Override
+			public void onQuit() {
+				// Nothing to do.
+			}
+		};
+		d_engine.addObserver(l_observer);
+		d_engine.broadcastMessage(() -> "Ignored " + ++l_numBuilt[0]);
+		assertEquals(0, l_numBuilt[0]);
+		
+		// Two interested observers share a single build.
+		l_wantsMessages[0] = true;
+		d_engine.addObserver(l_observer);
+		d_engine.broadcastMessage(() -> "Heard " + ++l_numBuilt[0]);
+		assertEquals(1, l_numBuilt[0]);
+		assertEquals("Heard 1;Heard 1;", l_received.toString());
+	}
 }
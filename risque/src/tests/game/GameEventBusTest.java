@@ -0,0 +1,100 @@
+package tests.game;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import main.game.GameEngine;
+import main.game.GameEvent;
+import main.game.GameEventBus;
+import main.game.MapTopology;
+import main.game.Player;
+import main.game.Territory;
+
+/**
+ * Tests the {@link main.game.GameEventBus} class, and the events a game publishes.
+ */
+public class GameEventBusTest {
+
+	/**
+	 * Tests that events only reach the subscribers of their type, in order, and that subscribers can come and go.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void subscribeTest() {
+		GameEventBus l_bus = new GameEventBus();
+		assertFalse(l_bus.hasSubscribers(GameEvent.Type.CARD_AWARDED));
+		StringBuilder l_received = new StringBuilder();
+		Consumer<GameEvent.CardAwarded> l_first = p_event -> l_received.append("1:").append(p_event.getCard()).append(';');
+		Consumer<GameEvent> l_second = p_event -> l_received.append("2:").append(p_event.getType()).append(';');
+		l_bus.subscribe(GameEvent.CardAwarded.class, l_first);
+		l_bus.subscribe(GameEvent.CardAwarded.class, l_second);
+		assertTrue(l_bus.hasSubscribers(GameEvent.Type.CARD_AWARDED));
+		assertFalse(l_bus.hasSubscribers(GameEvent.Type.OWNER_CHANGED));
+
+		Player l_player = new Player("Kyle");
+		l_bus.publish(new GameEvent.CardAwarded(l_player, "bomb"));
+		l_bus.publish(new GameEvent.OwnerChanged(new Territory("Nowhere"), null, l_player));
+		assertEquals("1:bomb;2:CARD_AWARDED;", l_received.toString());
+
+		assertTrue(l_bus.unsubscribe(GameEvent.CardAwarded.class, l_first));
+		assertFalse(l_bus.unsubscribe(GameEvent.CardAwarded.class, l_first));
+		l_received.setLength(0);
+		l_bus.publish(new GameEvent.CardAwarded(l_player, "airlift"));
+		assertEquals("2:CARD_AWARDED;", l_received.toString());
+
+		// Unsubscribing while an event is delivered takes effect from the next event.
+		AtomicReference<Consumer<GameEvent.CardAwarded>> l_self = new AtomicReference<>();
+		l_self.set(p_event -> {
+			l_received.append("once;");
+			l_bus.unsubscribe(GameEvent.CardAwarded.class, l_self.get());
+		});
+		l_bus.subscribe(GameEvent.CardAwarded.class, l_self.get());
+		l_received.setLength(0);
+		l_bus.publish(new GameEvent.CardAwarded(l_player, "bomb"));
+		l_bus.publish(new GameEvent.CardAwarded(l_player, "bomb"));
+		assertEquals("2:CARD_AWARDED;once;2:CARD_AWARDED;", l_received.toString());
+	}
+
+	/**
+	 * Tests that only classes of events can be subscribed to.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void subscribeToUnknownEventTest() {
+		new GameEventBus().subscribe(GameEvent.class, p_event -> { });
+	}
+
+	/**
+	 * Tests the events of a whole game: every change of owner, and a single end of the game with the winner.
+	 */
+	@Test
+	public void gameEventsTest() {
+		GameEngine l_engine = new GameEngine();
+		l_engine.setRandomSeed(1);
+		l_engine.setMaxTurns(100);
+		l_engine.setMap(MapTopology.loadFromFile("Asia.map").createMap());
+		l_engine.addPlayer("Cheater1");
+		l_engine.addPlayer("Benevolent2");
+		assertFalse(l_engine.isReporting(GameEvent.Type.OWNER_CHANGED));
+
+		int[] l_numOwnerChanges = { 0 };
+		ArrayList<GameEvent.GameEnded> l_endings = new ArrayList<>();
+		l_engine.getEvents().subscribe(GameEvent.OwnerChanged.class, p_event -> {
+			l_numOwnerChanges[0]++;
+			assertSame(p_event.getNewOwner(), l_engine.getTerritoryOwner(p_event.getTerritory()));
+		});
+		l_engine.getEvents().subscribe(GameEvent.GameEnded.class, l_endings::add);
+		assertTrue(l_engine.isReporting(GameEvent.Type.OWNER_CHANGED));
+		assertFalse(l_engine.isReporting(GameEvent.Type.CARD_AWARDED));
+
+		l_engine.assignTerritories();
+		assertTrue(l_numOwnerChanges[0] > l_engine.getMap().getNumTerritories());
+		assertEquals(1, l_endings.size());
+		assertEquals("Cheater1", l_endings.get(0).getWinner().getName());
+		assertEquals("CHEATER1 HAS CONQUERED THE WORLD!\nReturning to startup phase.", l_endings.get(0).getMessage());
+	}
+}
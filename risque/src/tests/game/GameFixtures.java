@@ -0,0 +1,66 @@
+package tests.game;
+
+import main.game.GameEngine;
+import main.game.Map;
+import main.game.MapTopology;
+import main.game.Player;
+
+/**
+ * Helpers shared by the tests that play, save and replay whole games.
+ */
+public final class GameFixtures {
+
+	/**
+	 * Not instantiable.
+	 */
+	private GameFixtures() {
+	}
+
+	/**
+	 * Creates an engine with a map and players, ready to start a game.
+	 * @param p_topology The map's topology.
+	 * @param p_seed The master seed.
+	 * @param p_maxTurns The turn limit, or 0 for no limit.
+	 * @param p_playerNames The names of the players.
+	 * @return The engine.
+	 */
+	static GameEngine createEngine(MapTopology p_topology, long p_seed, int p_maxTurns, String... p_playerNames) {
+		GameEngine l_engine = new GameEngine();
+		l_engine.setRandomSeed(p_seed);
+		l_engine.setMaxTurns(p_maxTurns);
+		l_engine.setMap(p_topology.createMap());
+		for (String l_name : p_playerNames) {
+			l_engine.addPlayer(l_name);
+		}
+		return l_engine;
+	}
+
+	/**
+	 * Describes the owner and armies of every territory.
+	 * @param p_engine The engine.
+	 * @return The description.
+	 */
+	static String describeBoard(GameEngine p_engine) {
+		StringBuilder l_board = new StringBuilder();
+		Map l_map = p_engine.getMap();
+		for (int l_tID = 1; l_tID <= l_map.getNumTerritories(); l_tID++) {
+			Player l_owner = p_engine.getTerritoryOwner(l_map.getTerritory(l_tID));
+			l_board.append(l_tID).append(':').append(l_owner == null ? "-" : l_owner.getName()).append(':')
+					.append(l_map.getTerritory(l_tID).getNumArmies()).append(' ');
+		}
+		return l_board.toString();
+	}
+
+	/**
+	 * Plays a turn of a game between Kyle and Fred in which they only deploy their armies.
+	 * @param p_engine The engine, with the turn about to start or just started.
+	 */
+	static void playDeployTurn(GameEngine p_engine) {
+		for (String l_name : new String[] { "Kyle", "Fred" }) {
+			Player l_player = p_engine.getPlayerByName(l_name);
+			p_engine.deployArmies(p_engine.getMap().getTerritoryID(l_player.getOwnedTerritories().getFirst()), l_player.getNumUndeployedArmies());
+		}
+		p_engine.finishOrders();
+		p_engine.finishOrders();
+	}
+}
@@ -0,0 +1,244 @@
+package tests.game;
+
+import static org.junit.Assert.*;
+import static tests.game.GameFixtures.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import main.game.GameEngine;
+import main.game.GameEvent;
+import main.game.GameJournal;
+import main.game.GameObserver;
+import main.game.GameReplay;
+import main.game.GameSnapshot;
+import main.game.Map;
+import main.game.MapTopology;
+import main.game.Player;
+
+/**
+ * Tests the {@link main.game.GameJournal} and {@link main.game.GameReplay} classes.
+ */
+public class GameJournalTest {
+
+	/**
+	 * Tests that a game between AI players is rebuilt exactly, both part of the way and to the end.
+	 * @throws IOException if the journal could not be written or read.
+	 */
+	@Test
+	public void replayTest() throws IOException {
+		MapTopology l_topology = MapTopology.loadFromFile("Asia.map");
+		GameEngine l_engine = createEngine(l_topology, 5, 30, "Aggressive1", "Random2");
+		ByteArrayOutputStream l_bytes = new ByteArrayOutputStream();
+		GameJournal l_journal = new GameJournal(l_engine, l_bytes);
+		String[] l_boardAfterTurn4 = new String[1];
+		l_engine.addTurnListener(() -> {
+			if (l_engine.getTurnNumber() == 5) {
+				l_boardAfterTurn4[0] = describeBoard(l_engine);
+			}
+		});
+		ArrayList<GameEvent.GameEnded> l_endings = new ArrayList<>();
+		l_engine.getEvents().subscribe(GameEvent.GameEnded.class, l_endings::add);
+		l_engine.assignTerritories();
+		l_journal.close();
+		assertNull(l_journal.getFailure());
+		assertEquals(1, l_endings.size());
+		assertNotNull(l_boardAfterTurn4[0]);
+
+		GameEngine l_replayEngine = createEngine(l_topology, 0, 0);
+		ArrayList<GameEvent.GameEnded> l_replayEndings = new ArrayList<>();
+		l_replayEngine.getEvents().subscribe(GameEvent.GameEnded.class, l_replayEndings::add);
+		try (GameReplay l_replay = new GameReplay(l_replayEngine, new ByteArrayInputStream(l_bytes.toByteArray()))) {
+			l_replay.replayToTurn(4);
+			assertEquals(4, l_replayEngine.getTurnNumber());
+			assertEquals(l_boardAfterTurn4[0], describeBoard(l_replayEngine));
+			l_replay.replayGame();
+			assertFalse(l_replay.hasNext());
+		}
+		assertEquals(describeBoard(l_engine), describeBoard(l_replayEngine));
+		assertEquals(1, l_replayEndings.size());
+		assertEquals(l_endings.get(0).getMessage(), l_replayEndings.get(0).getMessage());
+		assertFalse(l_replayEngine.isGameInProgress());
+	}
+
+	/**
+	 * Tests that changes to the board made outside of orders, here by a cheating strategy, are rebuilt too.
+	 * @throws IOException if the journal could not be written or read.
+	 */
+	@Test
+	public void boardChangeTest() throws IOException {
+		MapTopology l_topology = MapTopology.loadFromFile("Asia.map");
+		GameEngine l_engine = createEngine(l_topology, 1, 100, "Cheater1", "Benevolent2");
+		ByteArrayOutputStream l_bytes = new ByteArrayOutputStream();
+		GameJournal l_journal = new GameJournal(l_engine, l_bytes);
+		l_engine.assignTerritories();
+		l_journal.close();
+
+		GameEngine l_replayEngine = createEngine(l_topology, 0, 0);
+		try (GameReplay l_replay = new GameReplay(l_replayEngine, new ByteArrayInputStream(l_bytes.toByteArray()))) {
+			l_replay.replayGame();
+		}
+		assertEquals(describeBoard(l_engine), describeBoard(l_replayEngine));
+		assertEquals(l_topology.getNumTerritories(), l_replayEngine.getPlayerByName("Cheater1").getNumTerritoriesOwned());
+	}
+
+	/**
+	 * Tests that quitting closes the journal, and that the observers after it are still told about quitting.
+	 * @throws IOException if the journal could not be written.
+	 */
+	@Test
+	public void quitTest() throws IOException {
+		GameEngine l_engine = createEngine(MapTopology.loadFromFile("Asia.map"), 0, 0, "Kyle");
+		new GameJournal(l_engine, new ByteArrayOutputStream());
+		boolean[] l_hasQuit = new boolean[1];
+		l_engine.addObserver(new GameObserver() {
+			@Override
+			public void onAddMessage(String p_message) {
+			}
+
+			@Override
+			public void onQuit() {
+				l_hasQuit[0] = true;
+			}
+		});
+		l_engine.startQuit();
+		assertTrue(l_hasQuit[0]);
+	}
+
+	/**
+	 * Tests that every kind of order, cards and cease-fires included, is recorded and rebuilt.
+	 * @throws IOException if the journal could not be written or read.
+	 */
+	@Test
+	public void cardOrdersTest() throws IOException {
+		MapTopology l_topology = MapTopology.loadFromFile("Asia.map");
+		GameEngine l_engine = createEngine(l_topology, 7, 0, "Kyle", "Fred");
+		Player l_kyle = l_engine.getPlayerByName("Kyle");
+		Player l_fred = l_engine.getPlayerByName("Fred");
+		for (String l_card : l_engine.getCardOptions()) {
+			l_kyle.addCard(l_card);
+			l_fred.addCard(l_card);
+		}
+		ByteArrayOutputStream l_bytes = new ByteArrayOutputStream();
+		GameJournal l_journal = new GameJournal(l_engine, l_bytes);
+		l_engine.assignTerritories();
+
+		// Find one of Kyle's territories next to one of Fred's, and another territory of each.
+		Map l_map = l_engine.getMap();
+		int l_kyleID = 0;
+		int l_fredID = 0;
+		for (int l_tID = 1; l_tID <= l_map.getNumTerritories() && l_fredID == 0; l_tID++) {
+			if (l_kyle.ownsTerritory(l_map.getTerritory(l_tID))) {
+				for (int l_nIdx = 0; l_nIdx < l_map.getNumNeighbours(l_tID); l_nIdx++) {
+					int l_neighbourID = l_map.getNeighbourID(l_tID, l_nIdx);
+					if (l_fred.ownsTerritory(l_map.getTerritory(l_neighbourID))) {
+						l_kyleID = l_tID;
+						l_fredID = l_neighbourID;
+						break;
+					}
+				}
+			}
+		}
+		int l_otherKyleID = l_map.getTerritoryID(l_kyle.getOwnedTerritories().getLast());
+		int l_otherFredID = l_map.getTerritoryID(l_fred.getOwnedTerritories().getLast());
+		assertTrue(l_fredID > 0 && l_otherKyleID != l_kyleID && l_otherFredID != l_fredID);
+
+		// Players take turns issuing one order each.
+		l_engine.deployArmies(l_kyleID, l_kyle.getNumUndeployedArmies());
+		l_engine.deployArmies(l_fredID, l_fred.getNumUndeployedArmies());
+		l_engine.bomb(l_fredID);
+		l_engine.negotiate(l_kyle);
+		// Called off by the cease-fire.
+		l_engine.advanceArmies(l_kyleID, l_fredID, 5);
+		l_engine.blockade(l_otherFredID);
+		l_engine.airlift(l_kyleID, l_otherKyleID, 2);
+		l_engine.finishOrders();
+		l_engine.finishOrders();
+		assertEquals(2, l_engine.getTurnNumber());
+		l_journal.close();
+
+		GameEngine l_replayEngine = createEngine(l_topology, 0, 0);
+		try (GameReplay l_replay = new GameReplay(l_replayEngine, new ByteArrayInputStream(l_bytes.toByteArray()))) {
+			while (l_replay.step()) {
+			}
+		}
+		assertEquals(describeBoard(l_engine), describeBoard(l_replayEngine));
+		assertNull(l_replayEngine.getTerritoryOwner(l_replayEngine.getMap().getTerritory(l_otherFredID)));
+		for (String l_card : l_engine.getCardOptions()) {
+			assertEquals(l_kyle.hasCard(l_card), l_replayEngine.getPlayerByName("Kyle").hasCard(l_card));
+			assertEquals(l_fred.hasCard(l_card), l_replayEngine.getPlayerByName("Fred").hasCard(l_card));
+		}
+	}
+
+	/**
+	 * Tests that a game loaded from a save part of the way through a turn is recorded, orders already issued included,
+	 * and that the game it was loaded over is ended first.
+	 * @throws IOException if the save or the journal could not be written or read.
+	 */
+	@Test
+	public void loadedGameTest() throws IOException {
+		MapTopology l_topology = MapTopology.loadFromFile("Asia.map");
+		GameEngine l_engine = createEngine(l_topology, 7, 0, "Kyle", "Fred");
+		Player l_kyle = l_engine.getPlayerByName("Kyle");
+		Player l_fred = l_engine.getPlayerByName("Fred");
+		for (String l_card : l_engine.getCardOptions()) {
+			l_kyle.addCard(l_card);
+			l_fred.addCard(l_card);
+		}
+		l_engine.assignTerritories();
+		Map l_map = l_engine.getMap();
+		int l_kyleID = l_map.getTerritoryID(l_kyle.getOwnedTerritories().getFirst());
+		int l_fredID = l_map.getTerritoryID(l_fred.getOwnedTerritories().getFirst());
+		l_engine.deployArmies(l_kyleID, 1);
+		l_engine.negotiate(l_kyle);
+		l_engine.bomb(l_fredID);
+		ByteArrayOutputStream l_save = new ByteArrayOutputStream();
+		GameSnapshot.take(l_engine).writeTo(l_save);
+
+		// The journal is already recording a game of its own when the save is loaded over it.
+		GameEngine l_loadedEngine = createEngine(l_topology, 3, 0, "Ann", "Bob");
+		ByteArrayOutputStream l_bytes = new ByteArrayOutputStream();
+		GameJournal l_journal = new GameJournal(l_loadedEngine, l_bytes);
+		l_loadedEngine.assignTerritories();
+		l_loadedEngine.loadGame(GameSnapshot.readFrom(new ByteArrayInputStream(l_save.toByteArray())));
+		for (GameEngine l_eachEngine : new GameEngine[] { l_engine, l_loadedEngine }) {
+			l_eachEngine.deployArmies(l_fredID, l_eachEngine.getPlayerByName("Fred").getNumUndeployedArmies());
+			l_eachEngine.deployArmies(l_kyleID, l_eachEngine.getPlayerByName("Kyle").getNumUndeployedArmies());
+			l_eachEngine.finishOrders();
+			l_eachEngine.finishOrders();
+			for (int l_turn = 0; l_turn < 3; l_turn++) {
+				playDeployTurn(l_eachEngine);
+			}
+		}
+		l_journal.close();
+		assertNull(l_journal.getFailure());
+		assertEquals(describeBoard(l_engine), describeBoard(l_loadedEngine));
+
+		GameEngine l_replayEngine = createEngine(l_topology, 0, 0);
+		try (GameReplay l_replay = new GameReplay(l_replayEngine, new ByteArrayInputStream(l_bytes.toByteArray()))) {
+			l_replay.replayGame();
+			assertFalse(l_replayEngine.isGameInProgress());
+			assertNotNull(l_replayEngine.getPlayerByName("Ann"));
+			l_replay.replayGame();
+			assertFalse(l_replay.hasNext());
+		}
+		assertEquals(l_engine.getTurnNumber(), l_replayEngine.getTurnNumber());
+		assertEquals(describeBoard(l_engine), describeBoard(l_replayEngine));
+		for (Player l_player : l_engine.getPlayers()) {
+			assertEquals(l_player.getCards(), l_replayEngine.getPlayerByName(l_player.getName()).getCards());
+		}
+	}
+
+	/**
+	 * Tests that a stream that is not a journal is rejected.
+	 * @throws IOException if the stream is not a journal.
+	 */
+	@Test(expected = IOException.class)
+	public void notAJournalTest() throws IOException {
+		new GameReplay(new GameEngine(), new ByteArrayInputStream(new byte[] { 'R', 'Q', 'M', 'B', 0, 0, 0, 1 }));
+	}
+}
@@ -0,0 +1,53 @@
+package tests.game;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import main.game.GameRandom;
+import main.game.Player;
+
+/**
+ * Tests the {@link main.game.GameRandom} class.
+ */
+public class GameRandomTest {
+	
+	/**
+	 * Tests that the same seed gives the same numbers, no matter which order the streams are used in.
+	 */
+	@Test
+	public void reproducibleTest() {
+		GameRandom l_first = new GameRandom(42);
+		GameRandom l_second = new GameRandom(42);
+		long l_combat = l_first.getStream(GameRandom.COMBAT).nextLong();
+		long l_cards = l_first.getStream(GameRandom.CARDS).nextLong();
+		assertEquals(l_cards, l_second.getStream(GameRandom.CARDS).nextLong());
+		assertEquals(l_combat, l_second.getStream(GameRandom.COMBAT).nextLong());
+		assertNotEquals(l_combat, l_cards);
+		assertNotEquals(l_combat, new GameRandom(43).getStream(GameRandom.COMBAT).nextLong());
+		
+		Player l_player = new Player("Kyle");
+		assertEquals(l_first.getPlayerStream(l_player).nextLong(), l_second.getPlayerStream(l_player).nextLong());
+		assertNotEquals(l_first.getPlayerStream(new Player("Sajan")).nextLong(), l_second.getPlayerStream(l_player).nextLong());
+	}
+	
+	/**
+	 * Tests that each epoch starts fresh streams, and that moving back to an epoch repeats its numbers.
+	 */
+	@Test
+	public void epochTest() {
+		GameRandom l_random = new GameRandom(7);
+		long l_epochZero = l_random.getStream(GameRandom.COMBAT).nextLong();
+		l_random.getStream(GameRandom.COMBAT).nextLong();
+		l_random.advanceEpoch();
+		assertEquals(1, l_random.getEpoch());
+		long l_epochOne = l_random.getStream(GameRandom.COMBAT).nextLong();
+		assertNotEquals(l_epochZero, l_epochOne);
+		
+		GameRandom l_resumed = new GameRandom(l_random.getMasterSeed());
+		l_resumed.setEpoch(1);
+		assertEquals(l_epochOne, l_resumed.getStream(GameRandom.COMBAT).nextLong());
+		l_resumed.setEpoch(0);
+		assertEquals(l_epochZero, l_resumed.getStream(GameRandom.COMBAT).nextLong());
+	}
+}
@@ -0,0 +1,305 @@
+package tests.game;
+
+import static org.junit.Assert.*;
+import static tests.game.GameFixtures.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletionException;
+
+import org.junit.Test;
+
+import main.game.GameEngine;
+import main.game.GameEvent;
+import main.game.GameObserver;
+import main.game.GameSnapshot;
+import main.game.IssueOrderPhase;
+import main.game.Map;
+import main.game.MapTopology;
+import main.game.Player;
+
+/**
+ * Tests the {@link main.game.GameSnapshot} class and the savegame and loadgame commands.
+ */
+public class GameSnapshotTest {
+
+	/**
+	 * Tests that a game between AI players saved between turns carries on exactly as it would have.
+	 * @throws IOException if the snapshot could not be written or read.
+	 */
+	@Test
+	public void resumeTest() throws IOException {
+		MapTopology l_topology = MapTopology.loadFromFile("Asia.map");
+		GameEngine l_engine = createEngine(l_topology, 5, 30, "Aggressive1", "Random2");
+		ByteArrayOutputStream l_bytes = new ByteArrayOutputStream();
+		l_engine.getEvents().subscribe(GameEvent.PhaseChanged.class, p_event -> {
+			if (p_event.getNewPhase() instanceof IssueOrderPhase && l_engine.getTurnNumber() == 4 && l_bytes.size() == 0) {
+				try {
+					GameSnapshot.take(l_engine).writeTo(l_bytes);
+				}
+				catch (IOException l_exception) {
+					fail(l_exception.getMessage());
+				}
+			}
+		});
+		ArrayList<GameEvent.GameEnded> l_endings = new ArrayList<>();
+		l_engine.getEvents().subscribe(GameEvent.GameEnded.class, l_endings::add);
+		l_engine.assignTerritories();
+		assertEquals(1, l_endings.size());
+		assertTrue(l_bytes.size() > 0);
+
+		GameEngine l_loadedEngine = new GameEngine();
+		ArrayList<GameEvent.GameEnded> l_loadedEndings = new ArrayList<>();
+		l_loadedEngine.getEvents().subscribe(GameEvent.GameEnded.class, l_loadedEndings::add);
+		GameSnapshot l_snapshot = GameSnapshot.readFrom(new ByteArrayInputStream(l_bytes.toByteArray()));
+		assertEquals(4, l_snapshot.getTurnNumber());
+		l_loadedEngine.loadGame(l_snapshot);
+		assertEquals(1, l_loadedEndings.size());
+		assertEquals(l_endings.get(0).getMessage(), l_loadedEndings.get(0).getMessage());
+		assertEquals(describeBoard(l_engine), describeBoard(l_loadedEngine));
+		assertFalse(l_loadedEngine.isGameInProgress());
+	}
+
+	/**
+	 * Tests that a game saved to a file part of the way through a turn is loaded with its orders, cards, cease-fires,
+	 * undeployed armies and current player, and plays out the rest of the turn the same way.
+	 * @throws IOException if the file could not be written or read.
+	 */
+	@Test
+	public void fileTest() throws IOException {
+		MapTopology l_topology = MapTopology.loadFromFile("Asia.map");
+		GameEngine l_engine = createEngine(l_topology, 7, 0, "Kyle", "Fred");
+		Player l_kyle = l_engine.getPlayerByName("Kyle");
+		Player l_fred = l_engine.getPlayerByName("Fred");
+		for (String l_card : l_engine.getCardOptions()) {
+			l_kyle.addCard(l_card);
+			l_fred.addCard(l_card);
+		}
+		l_engine.assignTerritories();
+		Map l_map = l_engine.getMap();
+		int l_kyleID = l_map.getTerritoryID(l_kyle.getOwnedTerritories().getFirst());
+		int l_fredID = l_map.getTerritoryID(l_fred.getOwnedTerritories().getFirst());
+		l_engine.deployArmies(l_kyleID, 1);
+		l_engine.negotiate(l_kyle);
+		l_engine.bomb(l_fredID);
+
+		File l_file = File.createTempFile("GameSnapshotTest", GameSnapshot.FILE_EXTENSION);
+		l_file.deleteOnExit();
+		l_engine.saveGame(l_file.getPath()).join();
+		assertFalse(new File(l_file.getPath() + ".tmp").exists());
+
+		GameEngine l_loadedEngine = new GameEngine();
+		assertTrue(l_loadedEngine.loadGame(l_file.getPath()));
+		assertTrue(l_loadedEngine.isGameInProgress());
+		assertEquals(l_engine.getTurnNumber(), l_loadedEngine.getTurnNumber());
+		assertEquals(describeBoard(l_engine), describeBoard(l_loadedEngine));
+		for (Player l_player : l_engine.getPlayers()) {
+			Player l_loadedPlayer = l_loadedEngine.getPlayerByName(l_player.getName());
+			assertEquals(l_player.getNumUndeployedArmies(), l_loadedPlayer.getNumUndeployedArmies());
+			assertEquals(l_player.getCards(), l_loadedPlayer.getCards());
+			assertEquals(l_player.getOrders().size(), l_loadedPlayer.getOrders().size());
+			assertEquals(l_player.getAllies().size(), l_loadedPlayer.getAllies().size());
+			assertEquals(l_player.getOwnedTerritories().size(), l_loadedPlayer.getOwnedTerritories().size());
+		}
+
+		// Kyle issued the last order, so it is Fred's turn to issue one in both games.
+		for (GameEngine l_eachEngine : new GameEngine[] { l_engine, l_loadedEngine }) {
+			Player l_eachFred = l_eachEngine.getPlayerByName("Fred");
+			Player l_eachKyle = l_eachEngine.getPlayerByName("Kyle");
+			l_eachEngine.deployArmies(l_fredID, l_eachFred.getNumUndeployedArmies());
+			assertEquals(0, l_eachFred.getNumUndeployedArmies());
+			l_eachEngine.deployArmies(l_kyleID, l_eachKyle.getNumUndeployedArmies());
+			assertEquals(0, l_eachKyle.getNumUndeployedArmies());
+			l_eachEngine.finishOrders();
+			l_eachEngine.finishOrders();
+			assertEquals(2, l_eachEngine.getTurnNumber());
+		}
+		assertEquals(describeBoard(l_engine), describeBoard(l_loadedEngine));
+	}
+
+	/**
+	 * Tests that a game is checkpointed every few turns, that only the latest checkpoints are kept,
+	 * that the game carries on from the latest one exactly as it did, and that its checkpoints are deleted once it finishes.
+	 * @throws IOException if the folder could not be created or a checkpoint could not be read.
+	 */
+	@Test
+	public void checkpointTest() throws IOException {
+		File l_folder = Files.createTempDirectory("GameSnapshotTest").toFile();
+		l_folder.deleteOnExit();
+		String l_baseName = new File(l_folder, "game").getPath();
+		assertNull(GameEngine.findLatestCheckpoint(l_baseName));
+
+		MapTopology l_topology = MapTopology.loadFromFile("Asia.map");
+		GameEngine l_engine = createEngine(l_topology, 5, 30, "Aggressive1", "Random2");
+		l_engine.setCheckpoints(l_baseName, 2, 2);
+		// Look at the checkpoints just before the finished game deletes them.
+		ArrayList<String> l_fileNames = new ArrayList<>();
+		ByteArrayOutputStream l_latest = new ByteArrayOutputStream();
+		l_engine.getEvents().subscribe(GameEvent.GameEnded.class, p_event -> {
+			l_engine.getLastCheckpoint().join();
+			l_fileNames.addAll(Arrays.asList(l_folder.list()));
+			try {
+				Files.copy(new File(GameEngine.findLatestCheckpoint(l_baseName)).toPath(), l_latest);
+			}
+			catch (IOException l_exception) {
+				fail(l_exception.getMessage());
+			}
+		});
+		l_engine.assignTerritories();
+		l_engine.getLastCheckpoint().join();
+
+		// Checkpoints are taken between turns, so the last turn of the game never has one.
+		int l_lastCheckpointTurn = (l_engine.getTurnNumber() - 1) / 2 * 2;
+		assertTrue(l_lastCheckpointTurn >= 4);
+		assertEquals(2, l_fileNames.size());
+		for (String l_fileName : l_fileNames) {
+			assertTrue(l_fileName.endsWith(".turn" + l_lastCheckpointTurn + GameSnapshot.FILE_EXTENSION)
+					|| l_fileName.endsWith(".turn" + (l_lastCheckpointTurn - 2) + GameSnapshot.FILE_EXTENSION));
+		}
+		assertEquals(0, l_folder.list().length);
+		assertNull(GameEngine.findLatestCheckpoint(l_baseName));
+
+		GameEngine l_loadedEngine = new GameEngine();
+		GameSnapshot l_snapshot = GameSnapshot.readFrom(new ByteArrayInputStream(l_latest.toByteArray()));
+		assertEquals(l_lastCheckpointTurn, l_snapshot.getTurnNumber());
+		l_loadedEngine.loadGame(l_snapshot);
+		assertEquals(l_engine.getTurnNumber(), l_loadedEngine.getTurnNumber());
+		assertEquals(describeBoard(l_engine), describeBoard(l_loadedEngine));
+	}
+
+	/**
+	 * Tests that an unfinished game keeps its checkpoints while other games under the same base name come and go,
+	 * and that once resumed from its latest checkpoint it carries on the same series of checkpoints.
+	 * @throws IOException if the folder could not be created.
+	 */
+	@Test
+	public void separateGamesTest() throws IOException {
+		File l_folder = Files.createTempDirectory("GameSnapshotTest").toFile();
+		l_folder.deleteOnExit();
+		String l_baseName = new File(l_folder, "game").getPath();
+		MapTopology l_topology = MapTopology.loadFromFile("Asia.map");
+
+		// A game between people that is left unfinished, e.g. by quitting.
+		GameEngine l_engine = createEngine(l_topology, 7, 0, "Kyle", "Fred");
+		l_engine.setCheckpoints(l_baseName, 1, 2);
+		l_engine.assignTerritories();
+		playDeployTurn(l_engine);
+		playDeployTurn(l_engine);
+		l_engine.startQuit();
+		String l_unfinished = GameEngine.findLatestCheckpoint(l_baseName);
+		assertNotNull(l_unfinished);
+		assertTrue(l_unfinished.endsWith(".turn2" + GameSnapshot.FILE_EXTENSION));
+		for (String l_fileName : l_folder.list()) {
+			new File(l_folder, l_fileName).deleteOnExit();
+		}
+
+		// Another game under the same base name, which starts again from turn 1, finishes without touching them.
+		GameEngine l_otherEngine = createEngine(l_topology, 5, 30, "Aggressive1", "Random2");
+		l_otherEngine.setCheckpoints(l_baseName, 1, 2);
+		l_otherEngine.assignTerritories();
+		l_otherEngine.getLastCheckpoint().join();
+		assertEquals(2, l_folder.list().length);
+		assertEquals(l_unfinished, GameEngine.findLatestCheckpoint(l_baseName));
+
+		// Resuming the unfinished game carries on its checkpoints, and only its latest two are kept.
+		GameEngine l_resumedEngine = new GameEngine();
+		l_resumedEngine.setCheckpoints(l_baseName, 1, 2);
+		assertTrue(l_resumedEngine.loadGame(l_unfinished));
+		playDeployTurn(l_resumedEngine);
+		l_resumedEngine.getLastCheckpoint().join();
+		String l_resumed = GameEngine.findLatestCheckpoint(l_baseName);
+		new File(l_resumed).deleteOnExit();
+		assertEquals(l_unfinished.replace(".turn2", ".turn3"), l_resumed);
+		assertEquals(2, l_folder.list().length);
+		assertFalse(new File(l_unfinished.replace(".turn2", ".turn1")).exists());
+	}
+
+	/**
+	 * Tests that games checkpointed side by side under the same base name get their own series of checkpoints,
+	 * however close together they start.
+	 * @throws IOException if the folder could not be created.
+	 */
+	@Test
+	public void sideBySideGamesTest() throws IOException {
+		File l_folder = Files.createTempDirectory("GameSnapshotTest").toFile();
+		l_folder.deleteOnExit();
+		String l_baseName = new File(l_folder, "game").getPath();
+		MapTopology l_topology = MapTopology.loadFromFile("Asia.map");
+		GameEngine[] l_engines = new GameEngine[3];
+		for (int l_idx = 0; l_idx < l_engines.length; l_idx++) {
+			l_engines[l_idx] = createEngine(l_topology, l_idx, 0, "Kyle", "Fred");
+			l_engines[l_idx].setCheckpoints(l_baseName, 1, 1);
+			l_engines[l_idx].assignTerritories();
+		}
+		for (GameEngine l_engine : l_engines) {
+			playDeployTurn(l_engine);
+		}
+		for (GameEngine l_engine : l_engines) {
+			l_engine.getLastCheckpoint().join();
+		}
+		String[] l_fileNames = l_folder.list();
+		for (String l_fileName : l_fileNames) {
+			new File(l_folder, l_fileName).deleteOnExit();
+		}
+		assertEquals(l_engines.length, l_fileNames.length);
+	}
+
+	/**
+	 * Tests that a save that fails on the background thread leaves no temporary file behind, and is reported on the game's thread.
+	 * @throws IOException if the test's files could not be set up.
+	 */
+	@Test
+	public void saveErrorTest() throws IOException {
+		// A folder that is not empty cannot be replaced by the save, so the write fails once the temporary file is written.
+		File l_folder = Files.createTempDirectory("GameSnapshotTest").toFile();
+		l_folder.deleteOnExit();
+		File l_blocker = new File(l_folder, "blocker");
+		assertTrue(l_blocker.createNewFile());
+		l_blocker.deleteOnExit();
+		GameEngine l_engine = createEngine(MapTopology.loadFromFile("Asia.map"), 7, 0, "Kyle", "Fred");
+		ArrayList<String> l_messages = new ArrayList<>();
+		l_engine.addObserver(new GameObserver() {
+			@Override
+			public void onAddMessage(String p_message) {
+				l_messages.add(p_message);
+			}
+
+			@Override
+			public void onQuit() {
+			}
+		});
+		try {
+			l_engine.saveGame(l_folder.getPath()).join();
+			fail("The save should have failed.");
+		}
+		catch (CompletionException l_exception) {
+			// Expected.
+		}
+		assertFalse(new File(l_folder.getPath() + ".tmp").exists());
+		String l_error = "Error: the game could not be saved to \"" + l_folder.getPath() + "\".";
+		assertFalse(l_messages.stream().anyMatch(p_message -> p_message.startsWith(l_error)));
+		l_engine.assignTerritories();
+		assertEquals(1, l_messages.stream().filter(p_message -> p_message.startsWith(l_error)).count());
+	}
+
+	/**
+	 * Tests that a file that is not a saved game is rejected, and leaves the engine as it was.
+	 * @throws IOException if the file could not be written.
+	 */
+	@Test
+	public void notASaveTest() throws IOException {
+		File l_file = File.createTempFile("GameSnapshotTest", GameSnapshot.FILE_EXTENSION);
+		l_file.deleteOnExit();
+		Files.write(l_file.toPath(), new byte[] { 'R', 'Q', 'G', 'J', 0, 0, 0, 1 });
+		GameEngine l_engine = createEngine(MapTopology.loadFromFile("Asia.map"), 0, 0, "Kyle");
+		assertFalse(l_engine.loadGame(l_file.getPath()));
+		assertFalse(l_engine.loadGame(l_file.getPath() + ".missing"));
+		assertEquals(1, l_engine.getNumPlayers());
+		assertFalse(l_engine.isGameInProgress());
+	}
+}
@@ -63,7 +63,12 @@ public class MapReaderWriterTest {
 			assertEquals(l_mapToSave.getContinentID(l_mapToSave.getTerritory(l_idx).getContinent()), l_loadedMap.getContinentID(l_loadedMap.getTerritory(l_idx).getContinent()));
 		}
 		
-		// TODO: Check that borders are the same.
+		assertTrue(l_loadedMap.isFrozen());
+		for (int l_first = 1; l_first <= l_mapToSave.getNumTerritories(); l_first++) {
+			for (int l_second = 1; l_second <= l_mapToSave.getNumTerritories(); l_second++) {
+				assertEquals(l_mapToSave.doesBorderExist(l_first, l_second), l_loadedMap.doesBorderExist(l_first, l_second));
+			}
+		}
 	}
 	
 	/**
@@ -3,6 +3,9 @@ package tests.game;
 import static org.junit.Assert.*;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.LinkedList;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -10,6 +13,7 @@ import org.junit.Test;
 import main.game.GameEngine;
 import main.game.Map;
 import main.game.MapReaderWriter;
+import main.game.Territory;
 
 /**
  * Tests the {@link main.game.Map} class.
@@ -182,4 +186,189 @@ public class MapTest {
 		l_testMap.addBorder(3, 4);
 		assertFalse(l_testMap.validateMap());
 	}
+	
+	/**
+	 * Tests that IDs stay consistent with the territory objects when inserting into the middle of the map.
+	 */
+	@Test
+	public void territoryIDTest() {
+		Map l_testMap = new Map();
+		assertTrue(l_testMap.createContinent(1, 5));
+		assertTrue(l_testMap.createTerritory(1, "First", 1));
+		assertTrue(l_testMap.createTerritory(2, "Third", 1));
+		l_testMap.addBorder(1, 2);
+		// Inserting at ID 2 shifts "Third" to ID 3, and its border along with it.
+		assertTrue(l_testMap.createTerritory(2, "Second", 1));
+		assertEquals("Third", l_testMap.getTerritory(3).getName());
+		for (int l_tID = 1; l_tID <= l_testMap.getNumTerritories(); l_tID++) {
+			assertEquals(l_tID, l_testMap.getTerritoryID(l_testMap.getTerritory(l_tID)));
+		}
+		assertTrue(l_testMap.doesBorderExist(1, 3));
+		assertFalse(l_testMap.doesBorderExist(1, 2));
+		
+		// Territories that are not on the map have no ID.
+		assertEquals(0, l_testMap.getTerritoryID(new Territory("Nowhere")));
+		assertEquals(0, l_testMap.getTerritoryID(null));
+	}
+	
+	/**
+	 * Tests that the map is written out in the .map text format, and that streaming it gives the same text.
+	 * @throws IOException if the writer fails, which a StringWriter does not.
+	 */
+	@Test
+	public void writeTextTest() throws IOException {
+		Map l_testMap = new Map();
+		assertTrue(l_testMap.createContinent("Oceania", 2, 1));
+		assertTrue(l_testMap.createTerritory(1, "New_Zealand", 1));
+		assertTrue(l_testMap.createTerritory(2, "Australia", 1));
+		assertTrue(l_testMap.createTerritory(3, "Tasmania", 1));
+		l_testMap.addBorder(1, 2);
+		l_testMap.addBorder(2, 3);
+		l_testMap.freeze();
+		
+		String l_expected = "[continents]\nOceania 2 purple\n"
+				+ "\n[countries]\n1 New_Zealand 1 0 0\n2 Australia 1 0 0\n3 Tasmania 1 0 0\n"
+				+ "\n[borders]\n1 2\n2 1 3\n3 2\n";
+		assertEquals(l_expected, l_testMap.toText());
+		StringWriter l_writer = new StringWriter();
+		l_testMap.writeText(l_writer);
+		assertEquals(l_expected, l_writer.toString());
+		assertEquals("[continents]\nOceania 2 purple\n", l_testMap.continentsToString());
+	}
+	
+	/**
+	 * Tests that territories can be found by name or display name, and that the lookup follows edits to the map.
+	 */
+	@Test
+	public void territoryNameTest() {
+		Map l_testMap = new Map();
+		assertTrue(l_testMap.createContinent(1, 5));
+		assertTrue(l_testMap.createTerritory(1, "New_Zealand", 1));
+		assertTrue(l_testMap.createTerritory(2, "Australia", 1));
+		assertSame(l_testMap.getTerritory(1), l_testMap.getTerritory("New_Zealand"));
+		assertSame(l_testMap.getTerritory(1), l_testMap.getTerritory("New Zealand"));
+		assertNull(l_testMap.getTerritory("Tasmania"));
+		
+		// The territory with the lowest ID wins a shared name, even when inserted later.
+		assertTrue(l_testMap.createTerritory(1, "Australia", 1));
+		assertSame(l_testMap.getTerritory(1), l_testMap.getTerritory("Australia"));
+		
+		l_testMap.getTerritory(1).setName("Tasmania");
+		assertSame(l_testMap.getTerritory(1), l_testMap.getTerritory("Tasmania"));
+		assertSame(l_testMap.getTerritory(3), l_testMap.getTerritory("Australia"));
+		
+		assertTrue(l_testMap.deleteTerritory(2));
+		assertNull(l_testMap.getTerritory("New Zealand"));
+	}
+	
+	/**
+	 * Tests that freezing the map packs the borders without changing them, and that it can still be edited afterwards.
+	 */
+	@Test
+	public void freezeTest() {
+		Map l_testMap = new Map();
+		assertTrue(l_testMap.createContinent(1, 5));
+		for (int l_tID = 1; l_tID <= 4; l_tID++) {
+			assertTrue(l_testMap.createTerritory(l_tID, 1));
+		}
+		l_testMap.addBorder(1, 4);
+		l_testMap.addBorder(1, 2);
+		l_testMap.addBorder(2, 3);
+		l_testMap.freeze();
+		assertTrue(l_testMap.isFrozen());
+		
+		// Frozen neighbours are sorted by ID.
+		assertEquals(2, l_testMap.getNumNeighbours(1));
+		assertEquals(2, l_testMap.getNeighbourID(1, 0));
+		assertEquals(4, l_testMap.getNeighbourID(1, 1));
+		assertTrue(l_testMap.doesBorderExist(4, 1));
+		assertFalse(l_testMap.doesBorderExist(1, 3));
+		assertEquals(2, l_testMap.getNeighbours(l_testMap.getTerritory(2)).size());
+		assertTrue(l_testMap.validateMap());
+		
+		// Editing unfreezes the map.
+		assertTrue(l_testMap.deleteBorder(1, 4));
+		assertFalse(l_testMap.isFrozen());
+		assertFalse(l_testMap.doesBorderExist(1, 4));
+		assertTrue(l_testMap.doesBorderExist(2, 3));
+		assertFalse(l_testMap.validateMap());
+	}
+	
+	/**
+	 * Tests that validation reports which parts of the map are disconnected.
+	 */
+	@Test
+	public void validationErrorsTest() {
+		Map l_testMap = new Map();
+		assertTrue(l_testMap.createContinent("North", 5, 1));
+		assertTrue(l_testMap.createContinent("South", 5, 2));
+		assertTrue(l_testMap.createContinent("Empty", 5, 3));
+		assertTrue(l_testMap.createTerritory(1, "Alpha", 1));
+		assertTrue(l_testMap.createTerritory(2, "Beta", 1));
+		assertTrue(l_testMap.createTerritory(3, "Gamma", 2));
+		assertTrue(l_testMap.createTerritory(4, "Delta", 2));
+		l_testMap.addBorder(1, 3);
+		l_testMap.addBorder(2, 4);
+		
+		// Both continents are split in two, the third continent is empty, and the map itself has two halves.
+		LinkedList<String> l_errors = l_testMap.getValidationErrors();
+		assertEquals(4, l_errors.size());
+		assertEquals("Continent #1 North is split into 2 disconnected parts: #1 Alpha (1 territories), #2 Beta (1 territories)", l_errors.get(0));
+		assertEquals("Continent #3 Empty has no territories.", l_errors.get(2));
+		assertEquals("The map is split into 2 disconnected parts: #1 Alpha (2 territories), #2 Beta (2 territories)", l_errors.get(3));
+		
+		// Fixing everything makes the map valid.
+		l_testMap.deleteContinent(3);
+		l_testMap.addBorder(1, 2);
+		l_testMap.addBorder(3, 4);
+		assertTrue(l_testMap.getValidationErrors().isEmpty());
+		assertTrue(l_testMap.validateMap());
+	}
+	
+	/**
+	 * Tests that validation stays correct through a sequence of edits, including deletions that split the map.
+	 */
+	@Test
+	public void incrementalValidationTest() {
+		Map l_testMap = new Map();
+		assertTrue(l_testMap.createContinent(1, 5));
+		assertTrue(l_testMap.createContinent(2, 5));
+		for (int l_tID = 1; l_tID <= 6; l_tID++) {
+			assertTrue(l_testMap.createTerritory(l_tID, l_tID <= 3 ? 1 : 2));
+			assertFalse(l_testMap.validateMap());
+		}
+		// A ring of six territories, three per continent.
+		for (int l_tID = 1; l_tID <= 6; l_tID++) {
+			l_testMap.addBorder(l_tID, l_tID % 6 + 1);
+		}
+		assertTrue(l_testMap.validateMap());
+		
+		// Cutting the ring once keeps it connected, cutting it twice splits it.
+		assertTrue(l_testMap.deleteBorder(3, 4));
+		assertTrue(l_testMap.validateMap());
+		assertTrue(l_testMap.deleteBorder(6, 1));
+		assertFalse(l_testMap.validateMap());
+		assertTrue(l_testMap.addBorder(1, 4));
+		assertTrue(l_testMap.validateMap());
+		
+		// Deleting the middle of a continent splits it, and adding a border back rejoins it.
+		assertTrue(l_testMap.deleteTerritory(2));
+		assertFalse(l_testMap.validateMap());
+		assertTrue(l_testMap.addBorder(1, 2));
+		assertTrue(l_testMap.validateMap());
+		
+		// Inserting in the middle shifts IDs but must still be tracked.
+		assertTrue(l_testMap.createTerritory(1, 2));
+		assertFalse(l_testMap.validateMap());
+		assertTrue(l_testMap.addBorder(1, 5));
+		assertTrue(l_testMap.validateMap());
+		
+		// A new empty continent makes the map invalid until it gets a connected territory.
+		assertTrue(l_testMap.createContinent(3, 5));
+		assertFalse(l_testMap.validateMap());
+		assertTrue(l_testMap.createTerritory(7, 3));
+		assertFalse(l_testMap.validateMap());
+		assertTrue(l_testMap.addBorder(7, 1));
+		assertTrue(l_testMap.validateMap());
+	}
 }
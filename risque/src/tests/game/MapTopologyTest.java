@@ -0,0 +1,140 @@
+package tests.game;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import main.game.GameEngine;
+import main.game.GameState;
+import main.game.Map;
+import main.game.MapTopology;
+import main.game.Player;
+import main.game.Territory;
+
+/**
+ * Tests the {@link main.game.MapTopology} class, and the {@link main.game.GameState} of the maps created from it.
+ */
+public class MapTopologyTest {
+
+	/**
+	 * The topology of the Asia map.
+	 */
+	MapTopology d_topology;
+
+	/**
+	 * Loads the topology before executing a test.
+	 */
+	@Before
+	public void before() {
+		d_topology = MapTopology.loadFromFile("Asia.map");
+		assertNotNull(d_topology);
+	}
+
+	/**
+	 * Tests that a created map matches the topology it came from and is valid without being checked again.
+	 */
+	@Test
+	public void createMapTest() {
+		Map l_map = d_topology.createMap();
+		assertSame(d_topology, l_map.getTopology());
+		assertTrue(l_map.validateMap());
+		assertTrue(l_map.isFrozen());
+		assertEquals(d_topology.getNumTerritories(), l_map.getNumTerritories());
+		assertEquals(d_topology.getNumContinents(), l_map.getNumContinents());
+		for (int l_tID = 1; l_tID <= d_topology.getNumTerritories(); l_tID++) {
+			assertEquals(d_topology.getTerritoryName(l_tID), l_map.getTerritory(l_tID).getName());
+			assertEquals(d_topology.getTerritoryContinentID(l_tID), l_map.getContinentID(l_map.getTerritory(l_tID).getContinent()));
+			assertEquals(d_topology.getNumNeighbours(l_tID), l_map.getNumNeighbours(l_tID));
+			for (int l_nIdx = 0; l_nIdx < d_topology.getNumNeighbours(l_tID); l_nIdx++) {
+				int l_neighbourID = d_topology.getNeighbourID(l_tID, l_nIdx);
+				assertEquals(l_neighbourID, l_map.getNeighbourID(l_tID, l_nIdx));
+				assertTrue(d_topology.doesBorderExist(l_neighbourID, l_tID));
+			}
+		}
+		for (int l_cID = 1; l_cID <= d_topology.getNumContinents(); l_cID++) {
+			assertEquals(d_topology.getContinentBonus(l_cID), l_map.getContinent(l_cID).getBonusArmies());
+			assertEquals(d_topology.getNumContinentTerritories(l_cID), l_map.getNumContinentTerritories(l_map.getContinent(l_cID)));
+		}
+	}
+
+	/**
+	 * Tests that editing a created map leaves the topology and other maps alone.
+	 */
+	@Test
+	public void editMapTest() {
+		Map l_edited = d_topology.createMap();
+		Map l_other = d_topology.createMap();
+		int l_neighbourID = l_edited.getNeighbourID(1, 0);
+		assertTrue(l_edited.deleteBorder(1, l_neighbourID));
+		assertNull(l_edited.getTopology());
+		assertFalse(l_edited.doesBorderExist(1, l_neighbourID));
+		assertTrue(l_other.doesBorderExist(1, l_neighbourID));
+		assertTrue(d_topology.doesBorderExist(1, l_neighbourID));
+		assertSame(d_topology, l_other.getTopology());
+
+		// A topology can only be built from a valid map.
+		l_edited.createContinent("Empty", 1, l_edited.getNumContinents() + 1);
+		try {
+			MapTopology.of(l_edited);
+			fail("An invalid map should not be shared.");
+		}
+		catch (IllegalArgumentException l_exception) {
+			// Expected.
+		}
+		assertNull(MapTopology.loadFromFile("NoSuchMap.map"));
+	}
+
+	/**
+	 * Tests that a topology built from an edited map is kept by the map until its next edit, so it is only built once.
+	 */
+	@Test
+	public void ofTest() {
+		Map l_map = d_topology.createMap();
+		l_map.getTerritory(1).setName("Renamed_Territory");
+		assertNull(l_map.getTopology());
+		MapTopology l_topology = MapTopology.of(l_map);
+		assertSame(l_topology, l_map.getTopology());
+		assertSame(l_topology, MapTopology.of(l_map));
+		assertSame(l_map.getTerritory(1), l_map.getTerritory("Renamed Territory"));
+
+		l_map.getContinent(1).setName("Renamed");
+		assertNull(l_map.getTopology());
+		assertEquals("Renamed", MapTopology.of(l_map).getContinentName(1));
+	}
+
+	/**
+	 * Tests that games on the same topology keep their own armies and owners.
+	 */
+	@Test
+	public void separateGameStatesTest() {
+		GameEngine l_firstEngine = new GameEngine();
+		GameEngine l_secondEngine = new GameEngine();
+		l_firstEngine.setMap(d_topology.createMap());
+		l_secondEngine.setMap(d_topology.createMap());
+		l_firstEngine.addPlayer("Kyle");
+		Player l_player = l_firstEngine.getPlayerByName("Kyle");
+
+		Territory l_first = l_firstEngine.getMap().getTerritory(1);
+		Territory l_second = l_secondEngine.getMap().getTerritory(1);
+		l_first.setNumArmies(7);
+		l_firstEngine.changeTerritoryOwner(l_first, l_player);
+		assertEquals(7, l_first.getNumArmies());
+		assertEquals(7, l_firstEngine.getState().getNumArmies(1));
+		assertSame(l_player, l_firstEngine.getState().getOwner(1));
+		assertEquals(0, l_second.getNumArmies());
+		assertNull(l_secondEngine.getTerritoryOwner(l_second));
+
+		// A copy of the state does not change with the game.
+		l_second.setNumArmies(3);
+		GameState l_snapshot = l_secondEngine.getState().copy();
+		l_second.setNumArmies(4);
+		assertEquals(3, l_snapshot.getNumArmies(1));
+		assertEquals(4, l_second.getNumArmies());
+
+		// Once a map is no longer played on, its territories keep their armies themselves.
+		l_firstEngine.setMap(d_topology.createMap());
+		assertEquals(7, l_first.getNumArmies());
+		assertEquals(0, l_firstEngine.getMap().getTerritory(1).getNumArmies());
+	}
+}
@@ -5,6 +5,7 @@ import static org.junit.Assert.*;
 import org.junit.Test;
 
 import main.game.Continent;
+import main.game.Map;
 import main.game.Order;
 import main.game.Player;
 import main.game.Territory;
@@ -235,8 +236,32 @@ public class PlayerTest {
 		assertEquals(l_player.isAllyWith(l_player), false);
 		l_player.addAlly(l_player);
 		assertEquals(l_player.isAllyWith(l_player), true);
-	} 
+	}
 	
+	/**
+	 * Tests that the territories a player owns are counted per continent, and that the continent bonus follows owned continents.
+	 */
+	@Test
+	public void continentTerritoriesOwnedTest() {
+		Map l_map = new Map();
+		l_map.createContinent("Asia", 3, 1);
+		l_map.createContinent("Oceania", 2, 2);
+		l_map.createTerritory(1, "China", 1);
+		l_map.createTerritory(2, "India", 1);
+		l_map.createTerritory(3, "Australia", 2);
+		Player l_player = new Player("Sajan");
+		l_player.addOwnedTerritory(l_map.getTerritory(1));
+		l_player.addOwnedTerritory(l_map.getTerritory(1));
+		l_player.addOwnedTerritory(l_map.getTerritory(3));
+		assertEquals(1, l_player.getNumTerritoriesOwned(l_map.getContinent(1)));
+		assertEquals(1, l_player.getNumTerritoriesOwned(l_map.getContinent(2)));
+		l_player.removeOwnedTerritory(l_map.getTerritory(1));
+		l_player.removeOwnedTerritory(l_map.getTerritory(2));
+		assertEquals(0, l_player.getNumTerritoriesOwned(l_map.getContinent(1)));
+		
+		assertEquals(0, l_player.getContinentBonusArmies());
+		l_player.addOwnedContinent(l_map.getContinent(1));
+		l_player.addOwnedContinent(l_map.getContinent(2));
+		assertEquals(5, l_player.getContinentBonusArmies());
+	}
 }
-
-	
\ No newline at end of file
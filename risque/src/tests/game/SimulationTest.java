@@ -0,0 +1,51 @@
+package tests.game;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import main.game.Simulation;
+import main.game.SimulationResult;
+
+/**
+ * Tests the {@link main.game.Simulation} class.
+ */
+public class SimulationTest {
+	
+	/**
+	 * Tests that a game between AI players runs to the end, and that the same seed plays out the same game.
+	 */
+	@Test
+	public void runTest() {
+		Simulation l_simulation = new Simulation("Asia.map", Arrays.asList("Aggressive1", "Benevolent2"), 1000);
+		SimulationResult l_result = l_simulation.run(42);
+		assertTrue(l_result.isFinished());
+		assertEquals("Aggressive1", l_result.getWinnerName());
+		assertTrue(l_result.getNumTurns() > 0 && l_result.getNumTurns() <= 1000);
+		
+		SimulationResult l_replay = l_simulation.run(42);
+		assertEquals(l_result.getWinnerName(), l_replay.getWinnerName());
+		assertEquals(l_result.getNumTurns(), l_replay.getNumTurns());
+	}
+	
+	/**
+	 * Tests that a game nobody can win ends at the turn limit as a draw.
+	 */
+	@Test
+	public void maxTurnsTest() {
+		SimulationResult l_result = new Simulation("Asia.map", Arrays.asList("Benevolent1", "Benevolent2"), 50).run(1);
+		assertTrue(l_result.isFinished());
+		assertNull(l_result.getWinnerName());
+		assertEquals(50, l_result.getNumTurns());
+	}
+	
+	/**
+	 * Tests that players who are not AI players are rejected, since the game would wait for them forever.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void humanPlayerTest() {
+		new Simulation("Asia.map", Arrays.asList("Aggressive1", "Kyle"), 10).run(1);
+	}
+}
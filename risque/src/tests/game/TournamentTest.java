@@ -0,0 +1,45 @@
+package tests.game;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import main.game.Simulation;
+import main.game.SimulationResult;
+import main.game.Tournament;
+
+/**
+ * Tests the {@link main.game.Tournament} class.
+ */
+public class TournamentTest {
+	
+	/**
+	 * Tests that a tournament gives the same results however many threads play it, and that each game can be replayed on its own.
+	 */
+	@Test
+	public void runTest() {
+		Tournament l_tournament = new Tournament(Arrays.asList("Asia.map", "Asia.map"), Arrays.asList("Aggressive1", "Random2", "Benevolent3"), 3, 200, 11);
+		SimulationResult[][] l_serial = l_tournament.run(1);
+		SimulationResult[][] l_parallel = l_tournament.run(4);
+		assertEquals(2, l_parallel.length);
+		for (int l_mapIdx = 0; l_mapIdx < 2; l_mapIdx++) {
+			assertEquals(3, l_parallel[l_mapIdx].length);
+			for (int l_game = 0; l_game < 3; l_game++) {
+				assertEquals(l_serial[l_mapIdx][l_game].getWinnerName(), l_parallel[l_mapIdx][l_game].getWinnerName());
+				assertEquals(l_serial[l_mapIdx][l_game].getNumTurns(), l_parallel[l_mapIdx][l_game].getNumTurns());
+			}
+		}
+		
+		SimulationResult l_replay = new Simulation("Asia.map", Arrays.asList("Aggressive1", "Random2", "Benevolent3"), 200).run(l_tournament.getGameSeed(1, 2));
+		assertEquals(l_parallel[1][2].getWinnerName(), l_replay.getWinnerName());
+		assertEquals(l_parallel[1][2].getNumTurns(), l_replay.getNumTurns());
+		// Everyone starts the game with a share of the territories.
+		assertTrue(l_replay.getNumTerritoriesOwned(0, 1) > 0);
+		
+		String l_summary = l_tournament.getSummary();
+		assertTrue(l_summary.contains("Game 3"));
+		assertTrue(l_summary.contains("Benevolent3"));
+	}
+}